@@ -0,0 +1,26 @@
+package com.example.shop.customer;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@Table(name = "customers")
+public class Customer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String email;
+
+    private String name;
+    private String phone;
+    private String password;
+    private boolean blocked;
+    private int loyaltyPoints;
+    private Instant registeredAt = Instant.now();
+}
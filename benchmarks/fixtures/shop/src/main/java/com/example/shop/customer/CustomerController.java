@@ -0,0 +1,37 @@
+package com.example.shop.customer;
+
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/customers")
+public class CustomerController {
+
+    private final CustomerService customerService;
+
+    public CustomerController(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @GetMapping("/{id}")
+    public Customer get(@PathVariable Long id) {
+        return customerService.findCustomer(id);
+    }
+
+    @PostMapping
+    public Customer register(@RequestBody Map<String, String> body) {
+        return customerService.register(body.get("email"), body.get("name"), body.get("password"));
+    }
+
+    @PostMapping("/{id}/block")
+    public Customer block(@PathVariable Long id, @RequestParam String reason) {
+        return customerService.block(id, reason);
+    }
+
+    @GetMapping("/search")
+    public List<Customer> search(@RequestParam String q) {
+        return customerService.search(q);
+    }
+}
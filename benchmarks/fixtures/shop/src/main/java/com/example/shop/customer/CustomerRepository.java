@@ -0,0 +1,17 @@
+package com.example.shop.customer;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    Optional<Customer> findByEmail(String email);
+
+    List<Customer> findByBlockedTrue();
+
+    List<Customer> findByNameContainingIgnoreCase(String fragment);
+}
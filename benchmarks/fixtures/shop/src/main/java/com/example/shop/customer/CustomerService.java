@@ -0,0 +1,66 @@
+package com.example.shop.customer;
+
+import com.example.shop.notification.NotificationService;
+import com.example.shop.web.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+public class CustomerService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerService.class);
+
+    private final CustomerRepository customerRepository;
+    private final NotificationService notificationService;
+
+    public CustomerService(CustomerRepository customerRepository, NotificationService notificationService) {
+        this.customerRepository = customerRepository;
+        this.notificationService = notificationService;
+    }
+
+    @Transactional(readOnly = true)
+    public Customer findCustomer(Long id) {
+        return customerRepository.findById(id).orElseThrow(() -> new NotFoundException("customer", id));
+    }
+
+    @Transactional
+    public Customer register(String email, String name, String password) {
+        if (customerRepository.findByEmail(email).isPresent()) {
+            throw new IllegalArgumentException("Email already registered: " + email);
+        }
+        Customer customer = new Customer();
+        customer.setEmail(email);
+        customer.setName(name);
+        customer.setPassword(password);
+        log.info("Registering customer " + email + " with password " + password);
+        Customer saved = customerRepository.save(customer);
+        notificationService.welcome(email, name);
+        return saved;
+    }
+
+    @Transactional
+    public Customer block(Long id, String reason) {
+        Customer customer = findCustomer(id);
+        customer.setBlocked(true);
+        log.warn("Blocked customer {}: {}", id, reason);
+        return customerRepository.save(customer);
+    }
+
+    @Transactional
+    public Customer addLoyaltyPoints(Long id, int points) {
+        Customer customer = findCustomer(id);
+        customer.setLoyaltyPoints(customer.getLoyaltyPoints() + points);
+        return customerRepository.save(customer);
+    }
+
+    public List<Customer> search(String fragment) {
+        if (fragment == null || fragment.length() < 2) {
+            return List.of();
+        }
+        return customerRepository.findByNameContainingIgnoreCase(fragment);
+    }
+}
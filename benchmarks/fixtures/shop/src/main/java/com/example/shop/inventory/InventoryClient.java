@@ -0,0 +1,30 @@
+package com.example.shop.inventory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+@Component
+public class InventoryClient {
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @Value("${inventory.base-url:http://inventory.internal:8080}")
+    private String baseUrl;
+
+    public int available(String sku) {
+        Map<?, ?> body = restTemplate.getForObject(baseUrl + "/stock/" + sku, Map.class);
+        return body == null ? 0 : ((Number) body.get("available")).intValue();
+    }
+
+    public boolean reserve(String sku, int quantity) {
+        Map<?, ?> body = restTemplate.postForObject(baseUrl + "/stock/" + sku + "/reserve?quantity=" + quantity, null, Map.class);
+        return body != null && Boolean.TRUE.equals(body.get("reserved"));
+    }
+
+    public void release(String sku) {
+        restTemplate.postForObject(baseUrl + "/stock/" + sku + "/release", null, Void.class);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.shop.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    private final InventoryClient inventoryClient;
+    private final Map<String, Integer> reservations = new ConcurrentHashMap<>();
+
+    public InventoryService(InventoryClient inventoryClient) {
+        this.inventoryClient = inventoryClient;
+    }
+
+    @Cacheable("stock")
+    public int available(String sku) {
+        return inventoryClient.available(sku);
+    }
+
+    public void reserve(String sku, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (!inventoryClient.reserve(sku, quantity)) {
+            throw new IllegalStateException("Out of stock: " + sku);
+        }
+        reservations.merge(sku, quantity, Integer::sum);
+    }
+
+    public void release(String sku) {
+        try {
+            inventoryClient.release(sku);
+            reservations.remove(sku);
+        } catch (Exception e) {
+            log.warn("Release failed for " + sku);
+        }
+    }
+
+    public int reservedTotal(List<String> skus) {
+        int total = 0;
+        for (String sku : skus) {
+            Integer reserved = reservations.get(sku);
+            total += reserved;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.shop.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+@Service
+public class NotificationService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+
+    private final JavaMailSender mailSender;
+
+    public NotificationService(JavaMailSender mailSender) {
+        this.mailSender = mailSender;
+    }
+
+    @Async
+    public void welcome(String email, String name) {
+        send(email, "Welcome to the shop", "Hello " + name + ", thanks for registering.");
+    }
+
+    @Async
+    public void orderPlaced(String email, Long orderId) {
+        send(email, "Order " + orderId + " received", "We have received your order " + orderId + ".");
+    }
+
+    @Async
+    public void orderCancelled(String email, Long orderId, String reason) {
+        send(email, "Order " + orderId + " cancelled", "Your order was cancelled: " + reason);
+    }
+
+    @Async
+    public void orderShipped(String email, Long orderId, String trackingNumber) {
+        send(email, "Order " + orderId + " shipped", "Tracking number: " + trackingNumber);
+    }
+
+    @Async
+    public void paymentFailed(String email, Long orderId, String message) {
+        send(email, "Payment for order " + orderId + " failed", message);
+    }
+
+    private void send(String to, String subject, String text) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(text);
+        try {
+            mailSender.send(message);
+        } catch (Exception e) {
+            log.error("Mail to " + to + " failed: " + e.getMessage());
+        }
+    }
+}
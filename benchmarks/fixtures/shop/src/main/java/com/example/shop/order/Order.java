@@ -0,0 +1,63 @@
+package com.example.shop.order;
+
+import com.example.shop.customer.Customer;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Entity
+@Table(name = "orders")
+public class Order {
+
+    public enum Status { NEW, RESERVED, PAID, SHIPPED, CANCELLED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id")
+    private Customer customer;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<OrderItem> items = new ArrayList<>();
+
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.NEW;
+
+    private BigDecimal total = BigDecimal.ZERO;
+    private String currency = "EUR";
+    private String paymentReference;
+    private Instant createdAt = Instant.now();
+    private Instant updatedAt;
+
+    public void addItem(OrderItem item) {
+        item.setOrder(this);
+        items.add(item);
+        recalculate();
+    }
+
+    public void removeItem(OrderItem item) {
+        items.remove(item);
+        item.setOrder(null);
+        recalculate();
+    }
+
+    public void recalculate() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            sum = sum.add(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        total = sum;
+        updatedAt = Instant.now();
+    }
+
+    public boolean isCancellable() {
+        return status == Status.NEW || status == Status.RESERVED;
+    }
+}
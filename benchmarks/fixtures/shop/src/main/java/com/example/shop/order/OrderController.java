@@ -0,0 +1,48 @@
+package com.example.shop.order;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/orders")
+public class OrderController {
+
+    private final OrderService orderService;
+
+    public OrderController(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    @PostMapping
+    public ResponseEntity<OrderDto> placeOrder(@RequestBody OrderDto request) {
+        return ResponseEntity.ok(orderService.placeOrder(request.customerId, request.lines));
+    }
+
+    @GetMapping("/{id}")
+    public OrderDto getOrder(@PathVariable Long id) {
+        return orderService.getOrder(id);
+    }
+
+    @GetMapping
+    public List<OrderDto> listOrders(@RequestParam Long customerId) {
+        return orderService.getOrdersForCustomer(customerId);
+    }
+
+    @PostMapping("/{id}/cancel")
+    public OrderDto cancel(@PathVariable Long id, @RequestBody Map<String, String> body) {
+        return orderService.cancelOrder(id, body.get("reason"));
+    }
+
+    @PostMapping("/{id}/pay")
+    public OrderDto pay(@PathVariable Long id, @RequestParam String cardToken) {
+        return orderService.payOrder(id, cardToken);
+    }
+
+    @PostMapping("/{id}/ship")
+    public OrderDto ship(@PathVariable Long id, @RequestParam String trackingNumber) {
+        return orderService.shipOrder(id, trackingNumber);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.shop.order;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public class OrderDto {
+
+    public static class Line {
+        public String sku;
+        public int quantity;
+        public BigDecimal unitPrice;
+    }
+
+    public Long id;
+    public Long customerId;
+    public String status;
+    public BigDecimal total;
+    public String currency;
+    public Instant createdAt;
+    public List<Line> lines;
+
+    public OrderDto() {}
+
+    public OrderDto(Long id, Long customerId, String status, BigDecimal total, String currency, Instant createdAt, List<Line> lines) {
+        this.id = id;
+        this.customerId = customerId;
+        this.status = status;
+        this.total = total;
+        this.currency = currency;
+        this.createdAt = createdAt;
+        this.lines = lines;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.shop.order;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class OrderMapper {
+
+    public OrderDto toDto(Order order) {
+        List<OrderDto.Line> lines = new ArrayList<>();
+        for (OrderItem item : order.getItems()) {
+            OrderDto.Line line = new OrderDto.Line();
+            line.sku = item.getSku();
+            line.quantity = item.getQuantity();
+            line.unitPrice = item.getUnitPrice();
+            lines.add(line);
+        }
+        Long customerId = order.getCustomer() != null ? order.getCustomer().getId() : null;
+        return new OrderDto(order.getId(), customerId, order.getStatus().name(), order.getTotal(),
+                order.getCurrency(), order.getCreatedAt(), lines);
+    }
+
+    public List<OrderDto> toDtos(List<Order> orders) {
+        List<OrderDto> result = new ArrayList<>();
+        for (Order order : orders) {
+            result.add(toDto(order));
+        }
+        return result;
+    }
+
+    public OrderItem toItem(OrderDto.Line line) {
+        OrderItem item = new OrderItem();
+        item.setSku(line.sku);
+        item.setQuantity(line.quantity);
+        item.setUnitPrice(line.unitPrice);
+        return item;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.shop.order;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    List<Order> findByCustomerId(Long customerId);
+
+    Page<Order> findByStatus(Order.Status status, Pageable pageable);
+
+    @Query("select o from Order o where o.status = :status and o.createdAt < :before")
+    List<Order> findStale(@Param("status") Order.Status status, @Param("before") Instant before);
+
+    long countByStatus(Order.Status status);
+}
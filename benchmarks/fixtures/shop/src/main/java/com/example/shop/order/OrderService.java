@@ -0,0 +1,20 @@
+package com.example.shop.order;
+
+import java.util.List;
+
+public interface OrderService {
+
+    OrderDto placeOrder(Long customerId, List<OrderDto.Line> lines);
+
+    OrderDto getOrder(Long id);
+
+    List<OrderDto> getOrdersForCustomer(Long customerId);
+
+    OrderDto cancelOrder(Long id, String reason);
+
+    OrderDto payOrder(Long id, String cardToken);
+
+    OrderDto shipOrder(Long id, String trackingNumber);
+
+    int expireStaleOrders();
+}
@@ -0,0 +1,173 @@
+package com.example.shop.order;
+
+import com.example.shop.customer.Customer;
+import com.example.shop.customer.CustomerService;
+import com.example.shop.inventory.InventoryService;
+import com.example.shop.notification.NotificationService;
+import com.example.shop.payment.PaymentResult;
+import com.example.shop.payment.PaymentService;
+import com.example.shop.web.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class OrderServiceImpl implements OrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    private final Map<Long, OrderDto> recentOrders = new HashMap<>();
+
+    @Override
+    @Transactional
+    public OrderDto placeOrder(Long customerId, List<OrderDto.Line> lines) {
+        Customer customer = customerService.findCustomer(customerId);
+        if (customer.isBlocked()) {
+            throw new IllegalStateException("Customer " + customerId + " is blocked");
+        }
+        Order order = new Order();
+        order.setCustomer(customer);
+        for (OrderDto.Line line : lines) {
+            log.info("Adding line " + line.sku + " x" + line.quantity);
+            order.addItem(orderMapper.toItem(line));
+        }
+        reserveStock(order);
+        Order saved = orderRepository.save(order);
+        notificationService.orderPlaced(customer.getEmail(), saved.getId());
+        OrderDto dto = orderMapper.toDto(saved);
+        recentOrders.put(saved.getId(), dto);
+        return dto;
+    }
+
+    private void reserveStock(Order order) {
+        List<String> reserved = new ArrayList<>();
+        try {
+            for (OrderItem item : order.getItems()) {
+                inventoryService.reserve(item.getSku(), item.getQuantity());
+                reserved.add(item.getSku());
+            }
+            order.setStatus(Order.Status.RESERVED);
+        } catch (Exception e) {
+            log.error("Reservation failed for " + order.getId() + ", releasing " + reserved);
+            for (String sku : reserved) {
+                inventoryService.release(sku);
+            }
+            throw new IllegalStateException("Could not reserve stock", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderDto getOrder(Long id) {
+        OrderDto cached = recentOrders.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        Order order = orderRepository.findById(id).orElseThrow(() -> new NotFoundException("order", id));
+        return orderMapper.toDto(order);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderDto> getOrdersForCustomer(Long customerId) {
+        List<Order> orders = orderRepository.findByCustomerId(customerId);
+        return orderMapper.toDtos(orders);
+    }
+
+    @Override
+    @Transactional
+    public OrderDto cancelOrder(Long id, String reason) {
+        Order order = loadOrder(id);
+        if (!order.isCancellable()) {
+            throw new IllegalStateException("Order " + id + " cannot be cancelled in status " + order.getStatus());
+        }
+        for (OrderItem item : order.getItems()) {
+            inventoryService.release(item.getSku());
+        }
+        order.setStatus(Order.Status.CANCELLED);
+        log.info("Cancelled order {} because {}", id, reason);
+        notificationService.orderCancelled(order.getCustomer().getEmail(), id, reason);
+        recentOrders.remove(id);
+        return orderMapper.toDto(orderRepository.save(order));
+    }
+
+    @Override
+    @Transactional
+    public OrderDto payOrder(Long id, String cardToken) {
+        Order order = loadOrder(id);
+        if (order.getStatus() != Order.Status.RESERVED) {
+            throw new IllegalStateException("Order " + id + " is not awaiting payment");
+        }
+        log.debug("Charging card " + cardToken + " for order " + id);
+        PaymentResult result = paymentService.charge(order.getCustomer().getId(), order.getTotal(), order.getCurrency(), cardToken);
+        if (!result.isApproved()) {
+            notificationService.paymentFailed(order.getCustomer().getEmail(), id, result.getMessage());
+            throw new IllegalStateException("Payment declined: " + result.getMessage());
+        }
+        order.setPaymentReference(result.getReference());
+        order.setStatus(Order.Status.PAID);
+        recentOrders.remove(id);
+        return orderMapper.toDto(orderRepository.save(order));
+    }
+
+    @Override
+    @Transactional
+    public OrderDto shipOrder(Long id, String trackingNumber) {
+        Order order = loadOrder(id);
+        if (order.getStatus() != Order.Status.PAID) {
+            throw new IllegalStateException("Order " + id + " has not been paid");
+        }
+        order.setStatus(Order.Status.SHIPPED);
+        notificationService.orderShipped(order.getCustomer().getEmail(), id, trackingNumber);
+        recentOrders.remove(id);
+        return orderMapper.toDto(orderRepository.save(order));
+    }
+
+    @Override
+    @Transactional
+    public int expireStaleOrders() {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(24));
+        List<Order> stale = orderRepository.findStale(Order.Status.RESERVED, cutoff);
+        int expired = 0;
+        for (Order order : stale) {
+            try {
+                cancelOrder(order.getId(), "reservation expired");
+                expired++;
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        return expired;
+    }
+
+    private Order loadOrder(Long id) {
+        return orderRepository.findById(id).orElseThrow(() -> new NotFoundException("order", id));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.shop.payment;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Component
+public class PaymentGatewayClient {
+
+    private static final String API_KEY = "sk_live_51HxQ2eKz9yF3bT7cVw8";
+
+    private final WebClient webClient = WebClient.builder()
+            .baseUrl("https://payments.example.com")
+            .defaultHeader("Authorization", "Bearer " + API_KEY)
+            .build();
+
+    public Map<?, ?> charge(String cardToken, BigDecimal amount, String currency) {
+        return webClient.post()
+                .uri("/v1/charges")
+                .bodyValue(Map.of("source", cardToken, "amount", amount.movePointRight(2).longValue(), "currency", currency))
+                .retrieve()
+                .bodyToMono(Map.class)
+                .block();
+    }
+
+    public Map<?, ?> refund(String reference) {
+        return webClient.post()
+                .uri("/v1/refunds")
+                .bodyValue(Map.of("charge", reference))
+                .retrieve()
+                .bodyToMono(Map.class)
+                .block();
+    }
+}
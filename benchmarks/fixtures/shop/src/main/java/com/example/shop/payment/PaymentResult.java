@@ -0,0 +1,30 @@
+package com.example.shop.payment;
+
+public class PaymentResult {
+
+    private final boolean approved;
+    private final String reference;
+    private final String message;
+
+    public PaymentResult(boolean approved, String reference, String message) {
+        this.approved = approved;
+        this.reference = reference;
+        this.message = message;
+    }
+
+    public static PaymentResult declined(String message) {
+        return new PaymentResult(false, null, message);
+    }
+
+    public boolean isApproved() {
+        return approved;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.shop.payment;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Service
+public class PaymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
+    private static final BigDecimal LIMIT = new BigDecimal("10000");
+
+    private final PaymentGatewayClient gateway;
+
+    public PaymentService(PaymentGatewayClient gateway) {
+        this.gateway = gateway;
+    }
+
+    public PaymentResult charge(Long customerId, BigDecimal amount, String currency, String cardToken) {
+        if (amount.compareTo(LIMIT) > 0) {
+            return PaymentResult.declined("Amount above single-charge limit");
+        }
+        if (currency == "EUR" || currency == "USD") {
+            log.debug("Supported currency {}", currency);
+        }
+        try {
+            Map<?, ?> response = gateway.charge(cardToken, amount, currency);
+            String status = (String) response.get("status");
+            if (status.equals("succeeded")) {
+                return new PaymentResult(true, (String) response.get("id"), null);
+            }
+            return PaymentResult.declined((String) response.get("failure_message"));
+        } catch (Exception e) {
+            log.error("Charge failed for customer " + customerId, e);
+            return PaymentResult.declined("Payment provider unavailable");
+        }
+    }
+
+    public boolean refund(String reference) {
+        try {
+            Map<?, ?> response = gateway.refund(reference);
+            return "succeeded".equals(response.get("status"));
+        } catch (Exception e) {
+        }
+        return false;
+    }
+}
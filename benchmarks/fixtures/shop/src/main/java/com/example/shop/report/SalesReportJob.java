@@ -0,0 +1,52 @@
+package com.example.shop.report;
+
+import com.example.shop.order.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class SalesReportJob {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesReportJob.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderService orderService;
+
+    public SalesReportJob(JdbcTemplate jdbcTemplate, OrderService orderService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderService = orderService;
+    }
+
+    @Scheduled(cron = "0 0 2 * * *")
+    public void nightlyReport() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        String sql = "select status, count(*) as cnt, sum(total) as revenue from orders where created_at >= '" + day + "' group by status";
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
+        String summary = "";
+        for (Map<String, Object> row : rows) {
+            summary += row.get("status") + "=" + row.get("cnt") + " ";
+            log.info("Status " + row.get("status") + " revenue " + row.get("revenue"));
+        }
+        log.info("Sales for {}: {}", day, summary);
+    }
+
+    @Scheduled(fixedDelay = 600000)
+    public void expireReservations() {
+        int expired = orderService.expireStaleOrders();
+        if (expired > 0) {
+            log.info("Expired {} stale reservations", expired);
+        }
+    }
+
+    public List<Map<String, Object>> topCustomers(String region, int limit) {
+        return jdbcTemplate.queryForList("select c.name, sum(o.total) from orders o join customers c on o.customer_id = c.id where c.region = '"
+                + region + "' group by c.name order by 2 desc limit " + limit);
+    }
+}
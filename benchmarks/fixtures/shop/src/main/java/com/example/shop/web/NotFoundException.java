@@ -0,0 +1,8 @@
+package com.example.shop.web;
+
+public class NotFoundException extends RuntimeException {
+
+    public NotFoundException(String kind, Object id) {
+        super(kind + " " + id + " not found");
+    }
+}
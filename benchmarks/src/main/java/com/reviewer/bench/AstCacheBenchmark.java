@@ -0,0 +1,40 @@
+package com.reviewer.bench;
+
+import com.reviewer.analysis.AstCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AstCache#get} for content already cached (a lookup keyed by its SHA-256) and for new
+ * content (a JavaParser parse plus admission and eviction), using the largest fixture file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AstCacheBenchmark {
+
+    private String content;
+    private long sequence;
+
+    @Setup
+    public void setUp() throws Exception {
+        content = Fixtures.shop().stream().max(Comparator.comparingInt(s -> s.content.length())).orElseThrow().content;
+        AstCache.get(content);
+    }
+
+    @Benchmark
+    public Object hit() throws Exception {
+        return AstCache.get(content);
+    }
+
+    @Benchmark
+    public Object miss() throws Exception {
+        // A trailing comment makes the content, and so the key, new every time
+        return AstCache.get(content + "\n// " + sequence++);
+    }
+}
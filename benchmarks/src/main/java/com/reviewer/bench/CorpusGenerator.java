@@ -0,0 +1,514 @@
+package com.reviewer.bench;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writes a synthetic Spring Boot repository of a given size and call-graph shape, for measuring
+ * the reviewer at 1k–100k classes.
+ *
+ * <p>The repository is a set of domains, each an entity, a JPA repository and a service (an
+ * interface plus implementation, or a single class). Domains sit on {@code depth} layers:
+ * services call {@code fanOut} services on deeper layers, and the top layer is exposed through
+ * {@code @RestController}s or OpenAPI delegates with a matching spec. Some domains also call out
+ * through a Feign or a gRPC client, and {@code hubs} hub services on the bottom layer are called
+ * by a {@code hubFanIn} fraction of all services. {@code skew} concentrates callers on the first
+ * domains of each layer, so fan-in ranges from uniform (0) to a few very popular services.
+ *
+ * <p>Unless {@code --git=false}, the corpus is committed to a new git repository and a small
+ * edit to {@code changes} service implementations is staged, so a review run in the directory
+ * sees a realistic pre-commit diff.
+ *
+ * <pre>
+ *   CorpusGenerator &lt;dir&gt; [--classes=1000] [--depth=4] [--fanOut=3] [--skew=0.0]
+ *       [--interfaceRatio=0.5] [--hubs=3] [--hubFanIn=0.3] [--methods=4] [--openApiRatio=0.3]
+ *       [--feignRatio=0.1] [--grpcRatio=0.1] [--changes=5] [--seed=42] [--git=true]
+ * </pre>
+ */
+public final class CorpusGenerator {
+
+    private static final String BASE_PACKAGE = "com.example.gen";
+    private static final String[] NOUNS = {
+        "Order", "Customer", "Invoice", "Payment", "Shipment", "Product", "Account", "Ledger",
+        "Quote", "Claim", "Policy", "Tariff", "Route", "Ticket", "Asset", "Contract"
+    };
+    private static final String[] VERBS = { "find", "create", "update", "validate", "process", "sync", "archive", "price" };
+
+    /** Size and shape of the generated call graph. */
+    public static final class Shape {
+        public int classes = 1000;
+        public int depth = 4;
+        public int fanOut = 3;
+        public double skew = 0.0;
+        public double interfaceRatio = 0.5;
+        public int hubs = 3;
+        public double hubFanIn = 0.3;
+        public int methods = 4;
+        public double openApiRatio = 0.3;
+        public double feignRatio = 0.1;
+        public double grpcRatio = 0.1;
+        public int changes = 5;
+        public long seed = 42;
+        public boolean git = true;
+
+        /** Applies {@code --name=value} options; unknown names are an error. */
+        public static Shape parse(List<String> options) {
+            Shape shape = new Shape();
+            for (String option : options) {
+                int eq = option.indexOf('=');
+                if (!option.startsWith("--") || eq < 0) throw new IllegalArgumentException("Expected --name=value: " + option);
+                String name = option.substring(2, eq);
+                String value = option.substring(eq + 1);
+                try {
+                    Field field = Shape.class.getField(name);
+                    if (field.getType() == int.class) field.setInt(shape, Integer.parseInt(value));
+                    else if (field.getType() == long.class) field.setLong(shape, Long.parseLong(value));
+                    else if (field.getType() == double.class) field.setDouble(shape, Double.parseDouble(value));
+                    else field.setBoolean(shape, Boolean.parseBoolean(value));
+                } catch (NoSuchFieldException e) {
+                    throw new IllegalArgumentException("Unknown option --" + name);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            shape.depth = Math.max(1, shape.depth);
+            shape.methods = Math.max(1, Math.min(shape.methods, VERBS.length));
+            return shape;
+        }
+    }
+
+    /** One vertical slice: entity, repository, service and whatever exposes or feeds it. */
+    private static final class Domain {
+        final int index;
+        final int layer;
+        final boolean hub;
+        final String noun;
+        final String pkg;
+        boolean hasInterface;
+        boolean openApi;
+        boolean controller;
+        boolean feign;
+        boolean grpc;
+        boolean usesHub;
+        final List<String> methods = new ArrayList<>();
+        /** Callee domain → the caller method (index into {@link #methods}) that calls it. */
+        final Map<Domain, Integer> callees = new LinkedHashMap<>();
+
+        Domain(int index, int layer, boolean hub) {
+            this.index = index;
+            this.layer = layer;
+            this.hub = hub;
+            this.noun = hub ? "Hub" + index : NOUNS[index % NOUNS.length] + index;
+            this.pkg = BASE_PACKAGE + "." + noun.toLowerCase(Locale.ROOT);
+        }
+
+        String service() {
+            return noun + "Service";
+        }
+
+        String serviceImpl() {
+            return hasInterface ? noun + "ServiceImpl" : service();
+        }
+
+        String field() {
+            return Character.toLowerCase(noun.charAt(0)) + noun.substring(1);
+        }
+
+        int classCount() {
+            if (hub) return 1;
+            return 3 + (hasInterface ? 1 : 0) + (openApi ? 2 : 0) + (controller ? 1 : 0) + (feign ? 1 : 0) + (grpc ? 1 : 0);
+        }
+    }
+
+    private final Shape shape;
+    private final Path root;
+    private final Random random;
+    private final List<Domain> domains = new ArrayList<>();
+    private final List<List<Domain>> layers = new ArrayList<>();
+
+    public CorpusGenerator(Shape shape, Path root) {
+        this.shape = shape;
+        this.root = root;
+        this.random = new Random(shape.seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: CorpusGenerator <dir> [--classes=1000] [--depth=4] [--fanOut=3] [--skew=0.0] "
+                    + "[--interfaceRatio=0.5] [--hubs=3] [--hubFanIn=0.3] [--methods=4] [--openApiRatio=0.3] "
+                    + "[--feignRatio=0.1] [--grpcRatio=0.1] [--changes=5] [--seed=42] [--git=true]");
+            System.exit(2);
+        }
+        Path dir = Path.of(args[0]).toAbsolutePath().normalize();
+        Shape shape = Shape.parse(List.of(args).subList(1, args.length));
+        CorpusGenerator generator = new CorpusGenerator(shape, dir);
+        int classes = generator.generate();
+        System.out.println("Generated " + classes + " classes in " + generator.domains.size() + " domains under " + dir);
+    }
+
+    /** Writes the corpus (and, with {@code git}, commits it and stages the edit); returns the class count. */
+    public int generate() throws IOException, InterruptedException {
+        if (Files.exists(root)) {
+            try (Stream<Path> entries = Files.list(root)) {
+                if (entries.findAny().isPresent()) throw new IOException("Target directory is not empty: " + root);
+            }
+        }
+        int classes = plan();
+        Files.createDirectories(root);
+        for (Domain d : domains) writeDomain(d);
+        writeApplication();
+        if (shape.git) {
+            git("init", "-q");
+            git("add", "-A");
+            git("-c", "user.name=corpus", "-c", "user.email=corpus@example.com", "commit", "-q", "-m", "Generated corpus");
+            stageChanges();
+        }
+        return classes;
+    }
+
+    // ── Planning ────────────────────────────────────────────────────────────────────────────
+
+    private int plan() {
+        for (int l = 0; l < shape.depth; l++) layers.add(new ArrayList<>());
+        int classes = 1; // the application class
+        for (int h = 0; h < shape.hubs; h++) {
+            Domain hub = new Domain(domains.size(), shape.depth - 1, true);
+            domains.add(hub);
+            classes += hub.classCount();
+        }
+        while (classes < shape.classes) {
+            int index = domains.size();
+            Domain d = new Domain(index, index % shape.depth, false);
+            d.hasInterface = random.nextDouble() < shape.interfaceRatio;
+            if (d.layer == 0) {
+                d.openApi = random.nextDouble() < shape.openApiRatio;
+                d.controller = !d.openApi;
+            }
+            d.feign = random.nextDouble() < shape.feignRatio;
+            d.grpc = random.nextDouble() < shape.grpcRatio;
+            d.usesHub = shape.hubs > 0 && random.nextDouble() < shape.hubFanIn;
+            domains.add(d);
+            layers.get(d.layer).add(d);
+            classes += d.classCount();
+        }
+        for (Domain d : domains) {
+            for (int m = 0; m < shape.methods; m++) d.methods.add(VERBS[m] + d.noun);
+        }
+        for (Domain d : domains) {
+            if (d.hub || d.layer == shape.depth - 1) continue;
+            for (int j = 0; j < shape.fanOut; j++) {
+                // Mostly the next layer down, so call chains reach the full depth
+                int layer = random.nextDouble() < 0.7 ? d.layer + 1 : d.layer + 1 + random.nextInt(shape.depth - d.layer - 1);
+                Domain callee = pick(layers.get(layer));
+                if (callee != null && !d.callees.containsKey(callee)) d.callees.put(callee, j % shape.methods);
+            }
+        }
+        return classes;
+    }
+
+    /** A domain from {@code candidates}, biased towards the first ones by {@code skew}. */
+    private Domain pick(List<Domain> candidates) {
+        if (candidates.isEmpty()) return null;
+        double u = random.nextDouble();
+        int i = (int) (candidates.size() * Math.pow(u, 1.0 + shape.skew * 4));
+        return candidates.get(Math.min(i, candidates.size() - 1));
+    }
+
+    private Domain hubFor(Domain d) {
+        return domains.get(d.index % shape.hubs);
+    }
+
+    // ── Sources ─────────────────────────────────────────────────────────────────────────────
+
+    private void writeDomain(Domain d) throws IOException {
+        if (d.hub) {
+            writeHub(d);
+            return;
+        }
+        writeEntity(d);
+        writeRepository(d);
+        if (d.hasInterface) writeServiceInterface(d);
+        writeServiceImpl(d);
+        if (d.controller) writeController(d);
+        if (d.openApi) writeOpenApi(d);
+        if (d.feign) writeFeignClient(d);
+        if (d.grpc) writeGrpcClient(d);
+    }
+
+    private void writeApplication() throws IOException {
+        write(BASE_PACKAGE, "GeneratedApplication",
+                "package " + BASE_PACKAGE + ";\n\n"
+                + "import org.springframework.boot.SpringApplication;\n"
+                + "import org.springframework.boot.autoconfigure.SpringBootApplication;\n"
+                + "import org.springframework.cloud.openfeign.EnableFeignClients;\n\n"
+                + "@SpringBootApplication\n@EnableFeignClients\n"
+                + "public class GeneratedApplication {\n\n"
+                + "    public static void main(String[] args) {\n"
+                + "        SpringApplication.run(GeneratedApplication.class, args);\n"
+                + "    }\n}\n");
+    }
+
+    private void writeHub(Domain d) throws IOException {
+        write(d.pkg, d.service(),
+                "package " + d.pkg + ";\n\n"
+                + "import org.springframework.stereotype.Service;\n\n"
+                + "import java.util.Map;\nimport java.util.concurrent.ConcurrentHashMap;\n\n"
+                + "@Service\n"
+                + "public class " + d.service() + " {\n\n"
+                + "    private final Map<String, Long> events = new ConcurrentHashMap<>();\n\n"
+                + "    public void record(String source, Long id) {\n"
+                + "        events.merge(source + \":\" + id, 1L, Long::sum);\n"
+                + "    }\n\n"
+                + "    public long lookup(String key) {\n"
+                + "        return events.getOrDefault(key, 0L);\n"
+                + "    }\n}\n");
+    }
+
+    private void writeEntity(Domain d) throws IOException {
+        write(d.pkg, d.noun,
+                "package " + d.pkg + ";\n\n"
+                + "import jakarta.persistence.*;\n\n"
+                + "import java.time.Instant;\n\n"
+                + "@Entity\n@Table(name = \"" + d.noun.toLowerCase(Locale.ROOT) + "\")\n"
+                + "public class " + d.noun + " {\n\n"
+                + "    @Id\n    @GeneratedValue(strategy = GenerationType.IDENTITY)\n    private Long id;\n\n"
+                + "    private String name;\n    private String status = \"NEW\";\n    private String note;\n"
+                + "    private Instant updatedAt = Instant.now();\n\n"
+                + accessor("Long", "id") + accessor("String", "name") + accessor("String", "status")
+                + accessor("String", "note") + accessor("Instant", "updatedAt")
+                + "}\n");
+    }
+
+    private static String accessor(String type, String field) {
+        String cap = Character.toUpperCase(field.charAt(0)) + field.substring(1);
+        return "    public " + type + " get" + cap + "() {\n        return " + field + ";\n    }\n\n"
+                + "    public void set" + cap + "(" + type + " " + field + ") {\n        this." + field + " = " + field + ";\n    }\n\n";
+    }
+
+    private void writeRepository(Domain d) throws IOException {
+        write(d.pkg, d.noun + "Repository",
+                "package " + d.pkg + ";\n\n"
+                + "import org.springframework.data.jpa.repository.JpaRepository;\n"
+                + "import org.springframework.stereotype.Repository;\n\n"
+                + "import java.util.List;\n\n"
+                + "@Repository\n"
+                + "public interface " + d.noun + "Repository extends JpaRepository<" + d.noun + ", Long> {\n\n"
+                + "    List<" + d.noun + "> findByStatus(String status);\n\n"
+                + "    List<" + d.noun + "> findByNameContaining(String fragment);\n}\n");
+    }
+
+    private void writeServiceInterface(Domain d) throws IOException {
+        StringBuilder sb = new StringBuilder("package " + d.pkg + ";\n\n")
+                .append("public interface ").append(d.service()).append(" {\n");
+        for (String m : d.methods) sb.append("\n    String ").append(m).append("(Long id, String note);\n");
+        write(d.pkg, d.service(), sb.append("}\n").toString());
+    }
+
+    private void writeServiceImpl(Domain d) throws IOException {
+        String repo = d.field() + "Repository";
+        List<String[]> deps = new ArrayList<>(); // {import, type, field}
+        deps.add(new String[] { null, d.noun + "Repository", repo });
+        for (Domain c : d.callees.keySet()) deps.add(new String[] { c.pkg + "." + c.service(), c.service(), c.field() + "Service" });
+        Domain hub = d.usesHub ? hubFor(d) : null;
+        if (hub != null) deps.add(new String[] { hub.pkg + "." + hub.service(), hub.service(), hub.field() + "Service" });
+        if (d.feign) deps.add(new String[] { null, d.noun + "Client", d.field() + "Client" });
+        if (d.grpc) deps.add(new String[] { null, d.noun + "GrpcClient", d.field() + "GrpcClient" });
+
+        StringBuilder sb = new StringBuilder("package " + d.pkg + ";\n\n");
+        Set<String> imports = new LinkedHashSet<>();
+        for (String[] dep : deps) if (dep[0] != null) imports.add(dep[0]);
+        for (String imp : imports) sb.append("import ").append(imp).append(";\n");
+        sb.append("import org.slf4j.Logger;\nimport org.slf4j.LoggerFactory;\n")
+          .append("import org.springframework.stereotype.Service;\n")
+          .append("import org.springframework.transaction.annotation.Transactional;\n\n")
+          .append("import java.util.List;\n\n")
+          .append("@Service\n")
+          .append("public class ").append(d.serviceImpl()).append(d.hasInterface ? " implements " + d.service() : "").append(" {\n\n")
+          .append("    private static final Logger log = LoggerFactory.getLogger(").append(d.serviceImpl()).append(".class);\n\n");
+        for (String[] dep : deps) sb.append("    private final ").append(dep[1]).append(' ').append(dep[2]).append(";\n");
+        sb.append("\n    public ").append(d.serviceImpl()).append('(');
+        for (int i = 0; i < deps.size(); i++) sb.append(i == 0 ? "" : ", ").append(deps.get(i)[1]).append(' ').append(deps.get(i)[2]);
+        sb.append(") {\n");
+        for (String[] dep : deps) sb.append("        this.").append(dep[2]).append(" = ").append(dep[2]).append(";\n");
+        sb.append("    }\n");
+
+        for (int m = 0; m < d.methods.size(); m++) {
+            sb.append('\n');
+            if (d.hasInterface) sb.append("    @Override\n");
+            sb.append("    @Transactional\n")
+              .append("    public String ").append(d.methods.get(m)).append("(Long id, String note) {\n")
+              .append("        ").append(d.noun).append(" entity = ").append(repo).append(".findById(id).orElseGet(").append(d.noun).append("::new);\n")
+              .append("        entity.setNote(note);\n");
+            for (Map.Entry<Domain, Integer> callee : d.callees.entrySet()) {
+                if (callee.getValue() != m) continue;
+                Domain c = callee.getKey();
+                String target = c.methods.get(random.nextInt(c.methods.size()));
+                sb.append("        String ").append(c.field()).append("Result = ").append(c.field()).append("Service.")
+                  .append(target).append("(id, note);\n")
+                  .append("        log.debug(\"").append(c.noun).append(" returned {}\", ").append(c.field()).append("Result);\n");
+            }
+            if (hub != null && m == 0) {
+                sb.append("        ").append(hub.field()).append("Service.record(\"").append(d.noun).append("\", id);\n");
+            }
+            if (d.feign && m == 1 % d.methods.size()) {
+                sb.append("        entity.setName(").append(d.field()).append("Client.fetch").append(d.noun).append("(id));\n");
+            }
+            if (d.grpc && m == 2 % d.methods.size()) {
+                sb.append("        entity.setStatus(").append(d.field()).append("GrpcClient.lookup").append(d.noun).append("(id));\n");
+            }
+            sb.append("        ").append(repo).append(".save(entity);\n")
+              .append("        return entity.getStatus();\n")
+              .append("    }\n");
+        }
+        sb.append("\n    public List<").append(d.noun).append("> pending() {\n")
+          .append("        return ").append(repo).append(".findByStatus(\"NEW\");\n")
+          .append("    }\n}\n");
+        write(d.pkg, d.serviceImpl(), sb.toString());
+    }
+
+    private void writeController(Domain d) throws IOException {
+        String base = "/api/" + d.noun.toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder("package " + d.pkg + ";\n\n")
+                .append("import org.springframework.web.bind.annotation.*;\n\n")
+                .append("@RestController\n@RequestMapping(\"").append(base).append("\")\n")
+                .append("public class ").append(d.noun).append("Controller {\n\n")
+                .append("    private final ").append(d.service()).append(" service;\n\n")
+                .append("    public ").append(d.noun).append("Controller(").append(d.service()).append(" service) {\n")
+                .append("        this.service = service;\n    }\n");
+        for (int m = 0; m < d.methods.size(); m++) {
+            String method = d.methods.get(m);
+            String mapping = m == 0 ? "@GetMapping(\"/{id}\")" : "@PostMapping(\"/{id}/" + VERBS[m] + "\")";
+            sb.append("\n    ").append(mapping).append('\n')
+              .append("    public String ").append(method).append("(@PathVariable Long id, @RequestParam(required = false) String note) {\n")
+              .append("        return service.").append(method).append("(id, note);\n")
+              .append("    }\n");
+        }
+        write(d.pkg, d.noun + "Controller", sb.append("}\n").toString());
+    }
+
+    /** Generated-style delegate interface, its implementation and the spec it was generated from. */
+    private void writeOpenApi(Domain d) throws IOException {
+        String delegate = d.noun + "ApiDelegate";
+        StringBuilder api = new StringBuilder("package " + d.pkg + ";\n\n")
+                .append("import org.springframework.http.HttpStatus;\nimport org.springframework.http.ResponseEntity;\n\n")
+                .append("public interface ").append(delegate).append(" {\n");
+        StringBuilder impl = new StringBuilder("package " + d.pkg + ";\n\n")
+                .append("import org.springframework.http.ResponseEntity;\nimport org.springframework.stereotype.Service;\n\n")
+                .append("@Service\n")
+                .append("public class ").append(delegate).append("Impl implements ").append(delegate).append(" {\n\n")
+                .append("    private final ").append(d.service()).append(" service;\n\n")
+                .append("    public ").append(delegate).append("Impl(").append(d.service()).append(" service) {\n")
+                .append("        this.service = service;\n    }\n");
+        StringBuilder spec = new StringBuilder("openapi: 3.0.1\ninfo:\n  title: ").append(d.noun).append(" API\n  version: 1.0.0\npaths:\n");
+        String base = "/" + d.noun.toLowerCase(Locale.ROOT);
+        for (int m = 0; m < d.methods.size(); m++) {
+            String op = VERBS[m] + d.noun + "Op";
+            api.append("\n    default ResponseEntity<String> ").append(op).append("(Long id) {\n")
+               .append("        return new ResponseEntity<>(HttpStatus.NOT_IMPLEMENTED);\n    }\n");
+            impl.append("\n    @Override\n    public ResponseEntity<String> ").append(op).append("(Long id) {\n")
+                .append("        return ResponseEntity.ok(service.").append(d.methods.get(m)).append("(id, null));\n    }\n");
+            spec.append("  ").append(base).append("/{id}/").append(VERBS[m]).append(":\n")
+                .append("    ").append(m == 0 ? "get" : "post").append(":\n")
+                .append("      operationId: ").append(op).append('\n')
+                .append("      parameters:\n        - name: id\n          in: path\n          required: true\n          schema:\n            type: integer\n")
+                .append("      responses:\n        '200':\n          description: OK\n");
+        }
+        write(d.pkg, delegate, api.append("}\n").toString());
+        write(d.pkg, delegate + "Impl", impl.append("}\n").toString());
+        Path specFile = root.resolve("src/main/resources/openapi/" + d.noun.toLowerCase(Locale.ROOT) + "-api.yaml");
+        Files.createDirectories(specFile.getParent());
+        Files.writeString(specFile, spec.toString());
+    }
+
+    private void writeFeignClient(Domain d) throws IOException {
+        String remote = d.noun.toLowerCase(Locale.ROOT) + "-remote";
+        write(d.pkg, d.noun + "Client",
+                "package " + d.pkg + ";\n\n"
+                + "import org.springframework.cloud.openfeign.FeignClient;\n"
+                + "import org.springframework.web.bind.annotation.GetMapping;\n"
+                + "import org.springframework.web.bind.annotation.PathVariable;\n\n"
+                + "@FeignClient(name = \"" + remote + "\", url = \"${clients." + remote + ".url}\")\n"
+                + "public interface " + d.noun + "Client {\n\n"
+                + "    @GetMapping(\"/remote/" + d.noun.toLowerCase(Locale.ROOT) + "/{id}\")\n"
+                + "    String fetch" + d.noun + "(@PathVariable(\"id\") Long id);\n}\n");
+    }
+
+    private void writeGrpcClient(Domain d) throws IOException {
+        String grpc = d.noun + "ServiceGrpc";
+        write(d.pkg, d.noun + "GrpcClient",
+                "package " + d.pkg + ";\n\n"
+                + "import " + d.pkg + ".proto." + grpc + ";\n"
+                + "import " + d.pkg + ".proto." + d.noun + "Reply;\n"
+                + "import " + d.pkg + ".proto." + d.noun + "Request;\n"
+                + "import net.devh.boot.grpc.client.inject.GrpcClient;\n"
+                + "import org.springframework.stereotype.Component;\n\n"
+                + "@Component\n"
+                + "public class " + d.noun + "GrpcClient {\n\n"
+                + "    @GrpcClient(\"" + d.noun.toLowerCase(Locale.ROOT) + "\")\n"
+                + "    private " + grpc + "." + d.noun + "ServiceBlockingStub stub;\n\n"
+                + "    public String lookup" + d.noun + "(Long id) {\n"
+                + "        " + d.noun + "Reply reply = stub.get" + d.noun + "(" + d.noun + "Request.newBuilder().setId(id).build());\n"
+                + "        return reply.getStatus();\n"
+                + "    }\n}\n");
+    }
+
+    private void write(String pkg, String simpleName, String source) throws IOException {
+        Path file = root.resolve("src/main/java").resolve(pkg.replace('.', '/')).resolve(simpleName + ".java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+    }
+
+    // ── Staged change ───────────────────────────────────────────────────────────────────────
+
+    /**
+     * Edits one method of {@code changes} service implementations, preferring the middle layers
+     * whose callers and callees both exist, and stages the edits.
+     */
+    private void stageChanges() throws IOException, InterruptedException {
+        List<Domain> candidates = new ArrayList<>();
+        for (Domain d : domains) if (!d.hub && (shape.depth < 3 || (d.layer > 0 && d.layer < shape.depth - 1))) candidates.add(d);
+        if (candidates.isEmpty()) for (Domain d : domains) if (!d.hub) candidates.add(d);
+        Collections.shuffle(candidates, random);
+        List<String> staged = new ArrayList<>();
+        for (Domain d : candidates.subList(0, Math.min(shape.changes, candidates.size()))) {
+            Path file = root.resolve("src/main/java").resolve(d.pkg.replace('.', '/')).resolve(d.serviceImpl() + ".java");
+            String source = Files.readString(file);
+            String method = d.methods.get(random.nextInt(d.methods.size()));
+            String anchor = "        entity.setNote(note);\n";
+            int at = source.indexOf(anchor, source.indexOf(" " + method + "(Long id, String note)"));
+            String edit = "        if (note == null || note.isBlank()) {\n"
+                    + "            log.info(\"Empty note for " + d.noun + " \" + id);\n"
+                    + "            note = \"n/a\";\n"
+                    + "        }\n"
+                    + "        entity.setNote(note.trim());\n";
+            Files.writeString(file, source.substring(0, at) + edit + source.substring(at + anchor.length()));
+            staged.add(root.relativize(file).toString());
+        }
+        List<String> add = new ArrayList<>(List.of("add", "--"));
+        add.addAll(staged);
+        git(add.toArray(new String[0]));
+    }
+
+    private void git(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        Collections.addAll(command, args);
+        Process process = new ProcessBuilder(command).directory(root.toFile()).inheritIO().start();
+        if (!process.waitFor(10, TimeUnit.MINUTES) || process.exitValue() != 0) {
+            throw new IOException("git " + String.join(" ", args) + " failed in " + root);
+        }
+    }
+}
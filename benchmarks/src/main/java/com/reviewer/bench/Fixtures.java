@@ -0,0 +1,109 @@
+package com.reviewer.bench;
+
+import com.reviewer.analysis.AstCache;
+import com.reviewer.analysis.SourceFile;
+import com.reviewer.model.Models.ChangedFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Sources the benchmarks run over: the checked-in Spring Boot fixture, whose files are small
+ * (most around 40 lines), and the reviewer's own sources, which run from a few dozen to a few
+ * thousand lines like the files of a real service. The directories come from the
+ * {@code reviewer.fixtures} and {@code reviewer.sources} system properties, which the
+ * {@code jmh} task points at benchmarks/fixtures and src.
+ */
+public final class Fixtures {
+
+    private Fixtures() {}
+
+    /** Root of the fixture repository: a Maven-layout Spring Boot service. */
+    public static Path shopRoot() {
+        Path root = Path.of(System.getProperty("reviewer.fixtures", "fixtures")).resolve("shop").toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) throw new IllegalStateException("Fixture sources not found at " + root + " (set -Dreviewer.fixtures)");
+        return root;
+    }
+
+    /** Every .java file of the shop fixture, in path order. */
+    public static List<Source> shop() {
+        return sources(shopRoot());
+    }
+
+    /** Every .java file of the reviewer itself, in path order. */
+    public static List<Source> reviewer() {
+        Path root = Path.of(System.getProperty("reviewer.sources", "../src")).toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) throw new IllegalStateException("Reviewer sources not found at " + root + " (set -Dreviewer.sources)");
+        return sources(root);
+    }
+
+    /** {@link #shop()} or {@link #reviewer()}, for a {@code corpus} benchmark parameter. */
+    public static List<Source> corpus(String name) {
+        switch (name) {
+            case "shop": return shop();
+            case "reviewer": return reviewer();
+            default: throw new IllegalArgumentException("No corpus " + name);
+        }
+    }
+
+    /**
+     * Drops the memoized {@link SourceFile}s and cached ASTs, so that the next pass over a
+     * source pays for splitting, outlining and parsing it as the first review of a commit does.
+     */
+    public static void clearCaches() {
+        SourceFile.clear();
+        AstCache.clear();
+    }
+
+    private static List<Source> sources(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<Path> files = paths.filter(p -> p.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+            List<Source> sources = new ArrayList<>(files.size());
+            for (Path file : files) sources.add(new Source(file, Files.readString(file)));
+            return sources;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static final class Source {
+        public final Path path;
+        public final String name;
+        public final String simpleName;
+        public final String content;
+        public final String[] lines;
+
+        Source(Path path, String content) {
+            this.path = path;
+            this.name = path.getFileName().toString();
+            this.simpleName = name.substring(0, name.length() - ".java".length());
+            this.content = content;
+            // As SourceFile#lines, without registering the content as a shared SourceFile
+            this.lines = content.split("\\R");
+        }
+
+        /** The file as staged in full, as for a newly added file. */
+        public ChangedFile allLinesChanged() {
+            Set<Integer> changed = new LinkedHashSet<>();
+            for (int i = 1; i <= lines.length; i++) changed.add(i);
+            return new ChangedFile(path.toString(), name, changed);
+        }
+
+        /** A ten-line hunk in the middle of the file, as for a typical edit. */
+        public ChangedFile hunkChanged() {
+            Set<Integer> changed = new LinkedHashSet<>();
+            int from = Math.max(1, lines.length / 2 - 5);
+            for (int i = from; i < from + 10 && i <= lines.length; i++) changed.add(i);
+            return new ChangedFile(path.toString(), name, Collections.unmodifiableSet(changed));
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package com.reviewer.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end pre-commit latency: what a developer waits for between {@code git commit} and the
+ * commit going through.
+ *
+ * <p>{@code run} copies a fixture (or generates a corpus with {@link CorpusGenerator}) into a
+ * temporary git repository, stages a change set, then starts the hook entry point
+ * ({@code DaemonClient} with no arguments) {@code runs} times in a fresh JVM and records wall
+ * time, peak RSS and the per-phase times the reviewer writes to timings.json. Modes:
+ * <ul>
+ *   <li>{@code cold}: the reviewer's cache directory is removed before every run, as on the first
+ *       commit in a fresh clone;</li>
+ *   <li>{@code warm}: caches are kept, after one unmeasured run that fills them;</li>
+ *   <li>{@code daemon}: {@code daemon.enabled=true}, after the first run has started the daemon;
+ *       wall time and RSS are the client's, phase times the daemon's.</li>
+ * </ul>
+ * The summary (p50/p90/p99 wall time, peak RSS, median and p99 of each phase) is appended as one
+ * JSON object per line to the history file.
+ *
+ * <p>{@code compare} checks the newest history entry against the one before it with the same
+ * fixture, mode and change count (or against the newest entry with {@code --baseline=<label>})
+ * and exits with 1 when a figure grew by more than {@code --threshold} percent and by more than
+ * {@code --minMs} milliseconds (or megabytes, for RSS).
+ *
+ * <pre>
+ *   HookLatency run [--fixture=&lt;dir&gt; | --classes=&lt;n&gt;] [--mode=cold|warm|daemon] [--runs=10]
+ *       [--changes=3] [--seed=42] [--label=&lt;name&gt;] [--history=latency-history.jsonl] [--keep=false]
+ *   HookLatency compare [--history=latency-history.jsonl] [--threshold=10] [--minMs=5] [--baseline=&lt;label&gt;]
+ * </pre>
+ *
+ * Peak RSS is read from /proc while the process runs and is reported as -1 where that is not
+ * available. The page cache is not dropped between cold runs.
+ */
+public final class HookLatency {
+
+    private static final String HOOK_MAIN = "com.reviewer.DaemonClient";
+    /** ReviewDaemon.STOP_COMMAND, which is package-private. */
+    private static final String STOP_DAEMON = "--stop-daemon";
+    private static final Path CACHE_DIR = Path.of(".code-reviewer-cache");
+    private static final Pattern PHASE = Pattern.compile("\\{\"name\": \"((?:[^\"\\\\]|\\\\.)*)\", \"ms\": ([0-9.]+)");
+
+    private HookLatency() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            if (!args[i].startsWith("--") || eq < 0) usage("Expected --name=value: " + args[i]);
+            options.put(args[i].substring(2, eq), args[i].substring(eq + 1));
+        }
+        if (args.length > 0 && args[0].equals("run")) {
+            run(options);
+        } else if (args.length > 0 && args[0].equals("compare")) {
+            System.exit(compare(options) ? 1 : 0);
+        } else {
+            usage(null);
+        }
+    }
+
+    private static void usage(String error) {
+        if (error != null) System.err.println(error);
+        System.err.println("Usage: HookLatency run [--fixture=<dir> | --classes=<n>] [--mode=cold|warm|daemon] [--runs=10]\n"
+                + "                       [--changes=3] [--seed=42] [--label=<name>] [--history=<file>] [--keep=false]\n"
+                + "       HookLatency compare [--history=<file>] [--threshold=10] [--minMs=5] [--baseline=<label>]");
+        System.exit(2);
+    }
+
+    // ── run ─────────────────────────────────────────────────────────────────────────────────
+
+    private static void run(Map<String, String> options) throws IOException, InterruptedException {
+        String mode = options.getOrDefault("mode", "cold");
+        if (!List.of("cold", "warm", "daemon").contains(mode)) usage("Unknown mode: " + mode);
+        int runs = Integer.parseInt(options.getOrDefault("runs", "10"));
+        int changes = Integer.parseInt(options.getOrDefault("changes", "3"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Path history = Path.of(options.getOrDefault("history", "latency-history.jsonl")).toAbsolutePath();
+        String label = options.getOrDefault("label", reviewerRevision());
+
+        Path repo = Files.createTempDirectory("hook-latency");
+        String fixture;
+        try {
+            if (options.containsKey("classes")) {
+                fixture = "corpus:" + options.get("classes");
+                Files.delete(repo);
+                CorpusGenerator.Shape shape = CorpusGenerator.Shape.parse(List.of(
+                        "--classes=" + options.get("classes"), "--changes=" + changes, "--seed=" + seed));
+                new CorpusGenerator(shape, repo).generate();
+            } else {
+                Path source = options.containsKey("fixture") ? Path.of(options.get("fixture")) : Fixtures.shopRoot();
+                fixture = source.getFileName().toString();
+                copyTree(source.toAbsolutePath().normalize(), repo);
+                git(repo, "init", "-q");
+                git(repo, "add", "-A");
+                git(repo, "-c", "user.name=bench", "-c", "user.email=bench@example.com", "commit", "-q", "-m", "Fixture");
+                stageChanges(repo, changes, new Random(seed));
+            }
+            Files.writeString(repo.resolve(".code-reviewer.properties"),
+                    "open.report=false\nreport.timings=true\ndaemon.enabled=" + mode.equals("daemon") + "\n");
+
+            System.out.println("Hook latency: " + fixture + ", " + mode + ", " + changes + " changed files, " + runs + " runs in " + repo);
+            List<Sample> samples = new ArrayList<>();
+            if (!mode.equals("cold")) prime(repo, mode);
+            for (int i = 0; i < runs; i++) {
+                if (mode.equals("cold")) deleteTree(repo.resolve(CACHE_DIR));
+                Sample sample = runHook(repo);
+                samples.add(sample);
+                System.out.printf(Locale.ROOT, "  run %2d: %8.1f ms  %6d MB  exit %d%n", i + 1, sample.wallMs, sample.peakRssMb, sample.exitCode);
+            }
+            if (mode.equals("daemon")) runHook(repo, STOP_DAEMON);
+
+            String entry = summary(label, fixture, mode, changes, samples);
+            Files.createDirectories(history.getParent());
+            Files.writeString(history, entry + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            System.out.println(entry);
+            System.out.println("Appended to " + history);
+        } finally {
+            if (!Boolean.parseBoolean(options.getOrDefault("keep", "false"))) deleteTree(repo);
+        }
+    }
+
+    /** Fills the caches (and, for the daemon, waits until it accepts connections). */
+    private static void prime(Path repo, String mode) throws IOException, InterruptedException {
+        runHook(repo);
+        if (!mode.equals("daemon")) return;
+        Path socket = repo.resolve(CACHE_DIR).resolve("daemon.sock");
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (!Files.exists(socket) && System.currentTimeMillis() < deadline) Thread.sleep(50);
+        if (!Files.exists(socket)) throw new IOException("Review daemon did not start in " + repo);
+        runHook(repo); // the daemon's own first review
+    }
+
+    private static final class Sample {
+        double wallMs;
+        long peakRssMb = -1;
+        int exitCode;
+        final Map<String, Double> phases = new LinkedHashMap<>();
+    }
+
+    private static Sample runHook(Path repo, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("reviewer.classpath", System.getProperty("java.class.path")));
+        command.add(HOOK_MAIN);
+        Collections.addAll(command, args);
+        Path timings = repo.resolve(CACHE_DIR).resolve("timings.json");
+        Files.deleteIfExists(timings);
+
+        Sample sample = new Sample();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(repo.toFile())
+                .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        while (!process.waitFor(5, TimeUnit.MILLISECONDS)) {
+            long rss = peakRssMb(status);
+            if (rss > sample.peakRssMb) sample.peakRssMb = rss;
+        }
+        sample.wallMs = (System.nanoTime() - start) / 1_000_000.0;
+        sample.exitCode = process.exitValue();
+        if (Files.exists(timings)) {
+            Matcher m = PHASE.matcher(Files.readString(timings));
+            while (m.find()) sample.phases.put(m.group(1), Double.parseDouble(m.group(2)));
+        }
+        return sample;
+    }
+
+    /** VmHWM (the resident set high-water mark) of a live process, or -1. */
+    private static long peakRssMb(Path status) {
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmHWM:")) return Long.parseLong(line.replaceAll("\\D", "")) / 1024;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not Linux, or the process has just exited
+        }
+        return -1;
+    }
+
+    /** Adds a small method to {@code count} .java files and stages them. */
+    private static void stageChanges(Path repo, int count, Random random) throws IOException, InterruptedException {
+        List<Path> sources;
+        try (Stream<Path> paths = Files.walk(repo)) {
+            sources = paths.filter(p -> p.toString().endsWith(".java") && !p.startsWith(repo.resolve(".git")))
+                    .sorted().collect(Collectors.toList());
+        }
+        Collections.shuffle(sources, random);
+        List<String> add = new ArrayList<>(List.of("add", "--"));
+        for (Path file : sources.subList(0, Math.min(count, sources.size()))) {
+            String source = Files.readString(file);
+            int end = source.lastIndexOf('}');
+            String method = "\n    public String describeChange() {\n"
+                    + "        String name = getClass().getSimpleName();\n"
+                    + "        return name.isEmpty() ? \"unknown\" : name.toLowerCase();\n"
+                    + "    }\n";
+            Files.writeString(file, source.substring(0, end) + method + source.substring(end));
+            add.add(repo.relativize(file).toString());
+        }
+        git(repo, add.toArray(new String[0]));
+    }
+
+    private static String summary(String label, String fixture, String mode, int changes, List<Sample> samples) {
+        double[] wall = samples.stream().mapToDouble(s -> s.wallMs).toArray();
+        double[] rss = samples.stream().mapToDouble(s -> s.peakRssMb).toArray();
+        Map<String, List<Double>> phases = new LinkedHashMap<>();
+        for (Sample s : samples) s.phases.forEach((name, ms) -> phases.computeIfAbsent(name, k -> new ArrayList<>()).add(ms));
+
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"timestamp\": ").append(quote(Instant.now().toString()))
+          .append(", \"label\": ").append(quote(label))
+          .append(", \"fixture\": ").append(quote(fixture))
+          .append(", \"mode\": ").append(quote(mode))
+          .append(", \"changes\": ").append(changes)
+          .append(", \"runs\": ").append(samples.size())
+          .append(", \"wallMs\": {\"p50\": ").append(num(percentile(wall, 50)))
+          .append(", \"p90\": ").append(num(percentile(wall, 90)))
+          .append(", \"p99\": ").append(num(percentile(wall, 99)))
+          .append(", \"min\": ").append(num(percentile(wall, 0)))
+          .append(", \"max\": ").append(num(percentile(wall, 100))).append('}')
+          .append(", \"peakRssMb\": {\"p50\": ").append(num(percentile(rss, 50)))
+          .append(", \"max\": ").append(num(percentile(rss, 100))).append('}')
+          .append(", \"phasesMs\": {");
+        String sep = "";
+        for (Map.Entry<String, List<Double>> e : phases.entrySet()) {
+            double[] ms = e.getValue().stream().mapToDouble(Double::doubleValue).toArray();
+            sb.append(sep).append(quote(e.getKey())).append(": {\"p50\": ").append(num(percentile(ms, 50)))
+              .append(", \"p99\": ").append(num(percentile(ms, 99))).append('}');
+            sep = ", ";
+        }
+        sb.append("}, \"samplesMs\": [");
+        for (int i = 0; i < wall.length; i++) sb.append(i == 0 ? "" : ", ").append(num(wall[i]));
+        return sb.append("]}").toString();
+    }
+
+    /** Nearest-rank percentile; {@code p=0} is the minimum. */
+    static double percentile(double[] values, double p) {
+        if (values.length == 0) return 0;
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    // ── compare ─────────────────────────────────────────────────────────────────────────────
+
+    /** Prints the comparison; true when a regression was found. */
+    private static boolean compare(Map<String, String> options) throws IOException {
+        Path history = Path.of(options.getOrDefault("history", "latency-history.jsonl"));
+        double threshold = Double.parseDouble(options.getOrDefault("threshold", "10"));
+        double minDelta = Double.parseDouble(options.getOrDefault("minMs", "5"));
+        String baselineLabel = options.get("baseline");
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(history)) {
+            if (!line.isBlank()) entries.add(Json.object(line));
+        }
+        if (entries.isEmpty()) {
+            System.out.println("No entries in " + history);
+            return false;
+        }
+        Map<String, Object> current = entries.get(entries.size() - 1);
+        Map<String, Object> baseline = null;
+        for (int i = entries.size() - 2; i >= 0 && baseline == null; i--) {
+            Map<String, Object> e = entries.get(i);
+            if (!e.get("fixture").equals(current.get("fixture")) || !e.get("mode").equals(current.get("mode"))
+                    || !e.get("changes").equals(current.get("changes"))) continue;
+            if (baselineLabel == null || baselineLabel.equals(e.get("label"))) baseline = e;
+        }
+        System.out.println("Current:  " + describe(current));
+        if (baseline == null) {
+            System.out.println("No earlier entry to compare with" + (baselineLabel == null ? "" : " labelled " + baselineLabel));
+            return false;
+        }
+        System.out.println("Baseline: " + describe(baseline));
+
+        Map<String, Double> now = metrics(current);
+        Map<String, Double> before = metrics(baseline);
+        boolean regressed = false;
+        String row = "  %-32s %10s %10s %8s  %s%n";
+        System.out.printf(row, "metric", "baseline", "current", "change", "");
+        for (Map.Entry<String, Double> e : now.entrySet()) {
+            Double old = before.get(e.getKey());
+            if (old == null) continue;
+            double change = old == 0 ? 0 : (e.getValue() - old) / old * 100;
+            boolean worse = change > threshold && e.getValue() - old > minDelta;
+            regressed |= worse;
+            System.out.printf(Locale.ROOT, row, e.getKey(), num(old), num(e.getValue()),
+                    String.format(Locale.ROOT, "%+.1f%%", change), worse ? "REGRESSION" : "");
+        }
+        System.out.println(regressed ? "Regression beyond " + num(threshold) + "%" : "No regression beyond " + num(threshold) + "%");
+        return regressed;
+    }
+
+    private static String describe(Map<String, Object> entry) {
+        return entry.get("label") + " at " + entry.get("timestamp") + " (" + entry.get("fixture") + ", " + entry.get("mode")
+                + ", " + num((Double) entry.get("changes")) + " changed files, " + num((Double) entry.get("runs")) + " runs)";
+    }
+
+    /** Flattens an entry into the figures that are compared. */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Double> metrics(Map<String, Object> entry) {
+        Map<String, Double> out = new LinkedHashMap<>();
+        Map<String, Object> wall = (Map<String, Object>) entry.get("wallMs");
+        out.put("wall p50 ms", (Double) wall.get("p50"));
+        out.put("wall p99 ms", (Double) wall.get("p99"));
+        Map<String, Object> rss = (Map<String, Object>) entry.get("peakRssMb");
+        if ((Double) rss.get("p50") >= 0) out.put("peak rss p50 MB", (Double) rss.get("p50"));
+        Map<String, Object> phases = (Map<String, Object>) entry.get("phasesMs");
+        for (Map.Entry<String, Object> e : phases.entrySet()) {
+            out.put(e.getKey() + " p50 ms", (Double) ((Map<String, Object>) e.getValue()).get("p50"));
+        }
+        return out;
+    }
+
+    /** Just enough JSON to read the history entries this class writes. */
+    static final class Json {
+        private final String text;
+        private int pos;
+
+        private Json(String text) {
+            this.text = text;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Map<String, Object> object(String text) {
+            Json json = new Json(text);
+            Object value = json.value();
+            json.skipSpace();
+            if (!(value instanceof Map) || json.pos != text.length()) throw json.error("Expected one JSON object");
+            return (Map<String, Object>) value;
+        }
+
+        private Object value() {
+            skipSpace();
+            if (pos >= text.length()) throw error("Unexpected end");
+            char c = text.charAt(pos);
+            if (c == '{') {
+                Map<String, Object> map = new LinkedHashMap<>();
+                pos++;
+                skipSpace();
+                if (peek('}')) return map;
+                do {
+                    skipSpace();
+                    String key = string();
+                    skipSpace();
+                    expect(':');
+                    map.put(key, value());
+                    skipSpace();
+                } while (peek(','));
+                expect('}');
+                return map;
+            }
+            if (c == '[') {
+                List<Object> list = new ArrayList<>();
+                pos++;
+                skipSpace();
+                if (peek(']')) return list;
+                do {
+                    list.add(value());
+                    skipSpace();
+                } while (peek(','));
+                expect(']');
+                return list;
+            }
+            if (c == '"') return string();
+            if (text.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+            if (text.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+            if (text.startsWith("null", pos)) { pos += 4; return null; }
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+            if (start == pos) throw error("Unexpected character");
+            return Double.parseDouble(text.substring(start, pos));
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length() && text.charAt(pos) != '"') {
+                char c = text.charAt(pos++);
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = text.charAt(pos++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u': sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16)); pos += 4; break;
+                    default: sb.append(e);
+                }
+            }
+            expect('"');
+            return sb.toString();
+        }
+
+        private boolean peek(char c) {
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!peek(c)) throw error("Expected '" + c + "'");
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at offset " + pos);
+        }
+    }
+
+    // ── helpers ─────────────────────────────────────────────────────────────────────────────
+
+    private static String num(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /** Short revision of the reviewer checkout the harness runs from, for labelling entries. */
+    private static String reviewerRevision() {
+        try {
+            Process p = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String out = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return p.waitFor() == 0 && !out.isEmpty() ? out : "unknown";
+        } catch (IOException | InterruptedException e) {
+            return "unknown";
+        }
+    }
+
+    private static void git(Path repo, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        Collections.addAll(command, args);
+        Process process = new ProcessBuilder(command).directory(repo.toFile()).inheritIO().start();
+        if (!process.waitFor(10, TimeUnit.MINUTES) || process.exitValue() != 0) {
+            throw new IOException("git " + String.join(" ", args) + " failed in " + repo);
+        }
+    }
+
+    private static void copyTree(Path from, Path to) throws IOException {
+        try (Stream<Path> paths = Files.walk(from)) {
+            for (Path p : (Iterable<Path>) paths::iterator) {
+                Path target = to.resolve(from.relativize(p).toString());
+                if (Files.isDirectory(p)) Files.createDirectories(target);
+                else Files.copy(p, target);
+            }
+        }
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package com.reviewer.bench;
+
+import com.reviewer.analysis.ImpactAnalyzer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caller detection and intra-class expansion in {@link ImpactAnalyzer}, over every file of a
+ * corpus. Both outline the file's methods through its shared source file: {@code warm} reuses
+ * the memoized outline, {@code cold} clears it before every invocation and so includes it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImpactAnalyzerBenchmark {
+
+    /** One getMethodsCalling query: a dependent's source and the target class's methods. */
+    private static final class CallerQuery {
+        final String content;
+        final String targetSimpleName;
+        final String targetFqn;
+        final List<String> targetMethods;
+
+        CallerQuery(String content, String targetSimpleName, String targetFqn, List<String> targetMethods) {
+            this.content = content;
+            this.targetSimpleName = targetSimpleName;
+            this.targetFqn = targetFqn;
+            this.targetMethods = targetMethods;
+        }
+    }
+
+    @Param({"shop", "reviewer"})
+    public String corpus;
+
+    @Param({"warm", "cold"})
+    public String cache;
+
+    private List<Fixtures.Source> sources;
+    private final List<CallerQuery> queries = new ArrayList<>();
+    /** Per source, the method the intra-class expansion starts from: the last one declared. */
+    private final List<List<String>> expansionSeeds = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        sources = Fixtures.corpus(corpus);
+        for (Fixtures.Source target : sources) {
+            List<String> methods = new ArrayList<>();
+            for (String name : ImpactAnalyzer.extractDeclaredMethodNames(target.content)) {
+                if (!methods.contains(name)) methods.add(name);
+            }
+            expansionSeeds.add(methods.isEmpty() ? List.of() : List.of(methods.get(methods.size() - 1)));
+            if (methods.isEmpty()) continue;
+            String fqn = packageOf(target.content) + "." + target.simpleName;
+            for (Fixtures.Source dependent : sources) {
+                // The reverse graph would only offer files that mention the target
+                if (dependent != target && dependent.content.contains(target.simpleName)) {
+                    queries.add(new CallerQuery(dependent.content, target.simpleName, fqn, methods));
+                }
+            }
+        }
+    }
+
+    private static String packageOf(String content) {
+        int start = content.indexOf("package ") + "package ".length();
+        return content.substring(start, content.indexOf(';', start)).trim();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCaches() {
+        if ("cold".equals(cache)) Fixtures.clearCaches();
+    }
+
+    @Benchmark
+    public void getMethodsCalling(Blackhole bh) {
+        for (CallerQuery q : queries) {
+            bh.consume(ImpactAnalyzer.getMethodsCalling(q.content, q.targetSimpleName, q.targetFqn, q.targetMethods));
+        }
+    }
+
+    @Benchmark
+    public void expandWithIntraClassCallers(Blackhole bh) {
+        for (int i = 0; i < sources.size(); i++) {
+            bh.consume(ImpactAnalyzer.expandWithIntraClassCallers(sources.get(i).content, expansionSeeds.get(i)));
+        }
+    }
+}
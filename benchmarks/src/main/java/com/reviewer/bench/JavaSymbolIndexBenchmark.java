@@ -0,0 +1,42 @@
+package com.reviewer.bench;
+
+import com.reviewer.analysis.JavaSymbolIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold {@link JavaSymbolIndex} build over the fixture repository (no persistent stores) and the
+ * reverse dependency graph built from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavaSymbolIndexBenchmark {
+
+    private Path root;
+    private JavaSymbolIndex index;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Fixtures.shopRoot();
+        index = JavaSymbolIndex.build(root);
+    }
+
+    @Benchmark
+    public JavaSymbolIndex build() throws IOException {
+        return JavaSymbolIndex.build(root);
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> buildReverseDependencyGraph() {
+        return index.buildReverseDependencyGraph(index.getAllClasses());
+    }
+}
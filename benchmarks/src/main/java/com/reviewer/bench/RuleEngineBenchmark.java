@@ -0,0 +1,81 @@
+package com.reviewer.bench;
+
+import com.reviewer.analysis.RuleEngine;
+import com.reviewer.model.Models.ChangedFile;
+import com.reviewer.model.Models.Config;
+import com.reviewer.model.Models.Finding;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RuleEngine#runRules} over every file of a corpus with one rule family enabled, either
+ * for the whole file (a new file) or for a ten-line hunk (an edit). {@code warm} reuses the
+ * memoized source files and ASTs, as a daemon reviewing the same
+ * files again does; {@code cold} clears them before every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleEngineBenchmark {
+
+    /** Suffix of the {@code Config.enableRules*} flag left on. */
+    @Param({"BugPatterns", "NullSafety", "Exceptions", "Logging", "Performance", "CodeQuality", "SpringBoot",
+            "Security", "OpenApi", "Soap", "Grpc", "OutboundClient", "Scheduled"})
+    public String family;
+
+    @Param({"file", "hunk"})
+    public String changed;
+
+    @Param({"shop", "reviewer"})
+    public String corpus;
+
+    @Param({"warm", "cold"})
+    public String cache;
+
+    private Config config;
+    private List<Fixtures.Source> sources;
+    private List<ChangedFile> changedFiles;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        config = new Config();
+        config.enablePmdAnalysis = false;
+        boolean found = false;
+        for (Field flag : Config.class.getFields()) {
+            if (!flag.getName().startsWith("enableRules")) continue;
+            boolean on = flag.getName().equals("enableRules" + family);
+            flag.setBoolean(config, on);
+            found |= on;
+        }
+        if (!found) throw new IllegalArgumentException("No rule family " + family);
+        sources = Fixtures.corpus(corpus);
+        changedFiles = new ArrayList<>();
+        for (Fixtures.Source source : sources) {
+            changedFiles.add("file".equals(changed) ? source.allLinesChanged() : source.hunkChanged());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCaches() {
+        if ("cold".equals(cache)) Fixtures.clearCaches();
+    }
+
+    @Benchmark
+    public int runRules() {
+        int count = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            Fixtures.Source source = sources.get(i);
+            List<Finding> findings = new ArrayList<>();
+            RuleEngine.runRules(source.content, source.lines, changedFiles.get(i), findings, config);
+            count += findings.size();
+        }
+        return count;
+    }
+}
@@ -77,6 +77,18 @@ if exist "%REPO_DIR%lib" (
     xcopy /s /y "%REPO_DIR%lib\*" "%INSTALL_DIR%\lib\" >nul
 )
 
+:: Record the classes a review loads (reviewer, javaparser-core, JDK) in an AppCDS
+:: archive so that every later JVM maps them instead of loading and verifying them.
+:: The classpath must match the one review.bat uses.
+echo   [INFO] Generating class-data sharing archive...
+pushd "%REPO_DIR%"
+java -XX:ArchiveClassesAtExit="%INSTALL_DIR%\code-reviewer.jsa" -cp "%INSTALL_DIR%\code-reviewer.jar;%INSTALL_DIR%\lib\*" %MAIN_CLASS% --cds-training "%SRC_DIR%\com\reviewer\Main.java" "%SRC_DIR%\com\reviewer\analysis\RuleEngine.java" "%SRC_DIR%\com\reviewer\core\ReviewEngine.java" >nul 2>&1
+if %ERRORLEVEL% neq 0 (
+    echo   [WARNING] Could not create the class-data sharing archive; startup will be slower.
+    if exist "%INSTALL_DIR%\code-reviewer.jsa" del "%INSTALL_DIR%\code-reviewer.jsa"
+)
+popd
+
 :: Copy PMD configuration
 if exist "%REPO_DIR%config\pmd" (
     echo   [INFO] Copying PMD configuration...
@@ -0,0 +1,103 @@
+#!/bin/sh
+# ========================================================================
+# Code Reviewer - Installation (POSIX counterpart of install.bat)
+# ========================================================================
+
+echo
+echo "  +=========================================+"
+echo "  |  Code Reviewer - Installation           |"
+echo "  |  Your Team's Pre-Commit Safety Net      |"
+echo "  +=========================================+"
+echo
+
+INSTALL_DIR="${CODE_REVIEWER_HOME:-$HOME/.code-reviewer}"
+REPO_DIR=$(CDPATH= cd -- "$(dirname -- "$0")" && pwd)
+SRC_DIR="$REPO_DIR/src"
+BIN_DIR="$REPO_DIR/bin"
+MAIN_CLASS="com.reviewer.Main"
+
+echo "  Creating directory: $INSTALL_DIR"
+mkdir -p "$INSTALL_DIR"
+
+echo "  [1/2] Compiling Code Reviewer..."
+mkdir -p "$BIN_DIR"
+
+# Setup classpath for compilation if lib exists
+CP="."
+for jar in "$REPO_DIR"/lib/*.jar; do
+    [ -f "$jar" ] && CP="$CP:$jar"
+done
+
+find "$SRC_DIR" -name '*.java' > "$BIN_DIR/sources.txt"
+if ! javac -encoding UTF-8 -d "$BIN_DIR" -sourcepath "$SRC_DIR" -classpath "$CP" @"$BIN_DIR/sources.txt"; then
+    echo
+    echo "  [ERROR] Compilation failed. Please check your Java installation."
+    exit 1
+fi
+
+echo "  [2/2] Building Jar..."
+JAR_CMD="jar"
+if ! command -v jar >/dev/null 2>&1 && [ -n "$JAVA_HOME" ] && [ -x "$JAVA_HOME/bin/jar" ]; then
+    JAR_CMD="$JAVA_HOME/bin/jar"
+fi
+if ! "$JAR_CMD" cfe "$INSTALL_DIR/code-reviewer.jar" "$MAIN_CLASS" -C "$BIN_DIR" .; then
+    echo
+    echo "  [ERROR] Jar creation failed."
+    exit 1
+fi
+
+echo "  Copying supporting files..."
+cp "$REPO_DIR/run-reviewer" "$INSTALL_DIR/run-reviewer"
+chmod +x "$INSTALL_DIR/run-reviewer"
+cp "$SRC_DIR/pre-commit" "$INSTALL_DIR/pre-commit"
+[ -f "$REPO_DIR/.code-reviewer.properties" ] && cp "$REPO_DIR/.code-reviewer.properties" "$INSTALL_DIR/.code-reviewer.properties"
+
+# Copy dependency JARs (e.g. javaparser-core.jar) so they are on the runtime classpath
+if [ -d "$REPO_DIR/lib" ]; then
+    echo "  [INFO] Copying dependency JARs..."
+    mkdir -p "$INSTALL_DIR/lib"
+    cp -R "$REPO_DIR/lib/." "$INSTALL_DIR/lib/"
+fi
+
+# Record the classes a review loads (reviewer, javaparser-core, JDK) in an AppCDS
+# archive so that every later JVM maps them instead of loading and verifying them.
+# The classpath must match the one run-reviewer uses.
+echo "  [INFO] Generating class-data sharing archive..."
+if (cd "$REPO_DIR" && java -XX:ArchiveClassesAtExit="$INSTALL_DIR/code-reviewer.jsa" \
+        -cp "$INSTALL_DIR/code-reviewer.jar:$INSTALL_DIR/lib/*" "$MAIN_CLASS" --cds-training \
+        "$SRC_DIR/com/reviewer/Main.java" \
+        "$SRC_DIR/com/reviewer/analysis/RuleEngine.java" \
+        "$SRC_DIR/com/reviewer/core/ReviewEngine.java" >/dev/null 2>&1); then
+    :
+else
+    echo "  [WARNING] Could not create the class-data sharing archive; startup will be slower."
+    rm -f "$INSTALL_DIR/code-reviewer.jsa"
+fi
+
+# Copy PMD configuration
+if [ -d "$REPO_DIR/config/pmd" ]; then
+    echo "  [INFO] Copying PMD configuration..."
+    mkdir -p "$INSTALL_DIR/config/pmd"
+    cp -R "$REPO_DIR/config/pmd/." "$INSTALL_DIR/config/pmd/"
+fi
+
+# Point the hook in the install dir at the installed launcher
+sed "s#\"\./run-reviewer\"#\"$INSTALL_DIR/run-reviewer\"#" "$INSTALL_DIR/pre-commit" > "$INSTALL_DIR/pre-commit.tmp" \
+    && mv "$INSTALL_DIR/pre-commit.tmp" "$INSTALL_DIR/pre-commit"
+chmod +x "$INSTALL_DIR/pre-commit"
+
+echo
+echo "  +=========================================+"
+echo "  |  Installation Complete!                 |"
+echo "  +=========================================+"
+echo
+echo "  Location: $INSTALL_DIR"
+echo
+echo "  QUICK START:"
+echo "  ------------"
+echo "  To enable the hook in any repository, run:"
+echo "  cp \"$INSTALL_DIR/pre-commit\" .git/hooks/pre-commit"
+echo
+echo "  PMD is not downloaded by this script; install PMD 7 and set pmd.path"
+echo "  in .code-reviewer.properties to enable it."
+echo
@@ -7,8 +7,9 @@ setlocal enabledelayedexpansion
 
 set "BIN_DIR=bin"
 set "SRC_DIR=src"
-set "MAIN_CLASS=com.reviewer.Main"
+set "MAIN_CLASS=com.reviewer.DaemonClient"
 set "JAR_PATH=%~dp0code-reviewer.jar"
+set "CDS_ARCHIVE=%~dp0code-reviewer.jsa"
 
 :: If jar exists, use it instead of compiling
 if exist "%JAR_PATH%" (
@@ -79,8 +80,12 @@ echo.
 :: Run the application
 :: Note: -cp is used instead of -jar so that lib\* (e.g. javaparser-core.jar)
 :: is always included on the classpath regardless of the JAR manifest.
+:: The class-data sharing archive written by install.bat is used when present;
+:: with -Xshare:auto the JVM silently ignores it if it no longer matches.
+set "JAVA_OPTS="
+if exist "%CDS_ARCHIVE%" set "JAVA_OPTS=-XX:SharedArchiveFile=%CDS_ARCHIVE% -Xshare:auto"
 if exist "%JAR_PATH%" (
-    java -cp "%JAR_PATH%;%~dp0lib\*" %MAIN_CLASS% %*
+    java %JAVA_OPTS% -cp "%JAR_PATH%;%~dp0lib\*" %MAIN_CLASS% %*
 ) else (
     java -cp "%BIN_DIR%;%~dp0lib\*" %MAIN_CLASS% %*
 )
@@ -0,0 +1,176 @@
+package com.reviewer;
+
+import com.reviewer.model.Models.Config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+/**
+ * Entry point for the pre-commit hook: hands the review to the repo's {@link ReviewDaemon} when
+ * one is running and otherwise reviews in this JVM exactly as {@link Main} would. When
+ * {@code daemon.enabled} is set, a local review also starts a daemon for the next commit.
+ *
+ * <p>Only the connection path runs before the daemon answers, so a warm review costs this JVM
+ * little more than its own startup.
+ *
+ * <p>Every wait on the daemon has a deadline. One that does not accept the request within
+ * {@link #ACCEPT_TIMEOUT_MS}, for instance because it is busy with another review, is left
+ * alone, and drops the request when it gets to it because nobody confirms it any more; one that does not finish an accepted review within
+ * {@link Config#daemonReviewTimeoutSeconds} is killed. Either way the review runs here instead.
+ */
+public final class DaemonClient {
+
+    /** How long to wait for the daemon to connect and accept the request. */
+    static final long ACCEPT_TIMEOUT_MS = 5_000;
+
+    private DaemonClient() {}
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        boolean stop = args.length == 1 && args[0].equals(ReviewDaemon.STOP_COMMAND);
+        Integer code = reviewInDaemon(args);
+        if (code != null) {
+            if (stop) System.out.println("Review daemon stopped.");
+            return code;
+        }
+        if (stop) {
+            System.out.println("No review daemon is running for this repository.");
+            return 0;
+        }
+        int exit = Main.run(args);
+        if (Main.loadConfig().daemonEnabled) ReviewDaemon.spawn();
+        return exit;
+    }
+
+    /** The review's exit code, or null when no daemon took the request and it must run here. */
+    private static Integer reviewInDaemon(String[] args) {
+        if (!Files.exists(ReviewDaemon.SOCKET)) return null;
+        boolean streamed = false;
+        Deadline deadline = null;
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            deadline = new Deadline(channel, ACCEPT_TIMEOUT_MS);
+            channel.connect(UnixDomainSocketAddress.of(ReviewDaemon.SOCKET));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(ReviewDaemon.PROTOCOL_VERSION);
+            out.writeLong(ReviewDaemon.buildStamp());
+            out.writeUTF(System.getProperty("sun.stdout.encoding", Charset.defaultCharset().name()));
+            out.writeInt(args.length);
+            for (String arg : args) out.writeUTF(arg);
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if (in.read() != 'A') return null; // daemon from another build; it is exiting
+            // Accepted: the review may take a while, read its limit while the daemon works on it
+            int reviewTimeoutSeconds = Math.max(1, Main.loadConfig().daemonReviewTimeoutSeconds);
+            if (!deadline.extend(reviewTimeoutSeconds * 1000L)) return null; // gave up just before the ack
+            out.writeByte('G');
+            out.flush();
+            byte[] buf = new byte[8192];
+            while (true) {
+                int type = in.read();
+                if (type == -1) throw new IOException("connection closed before the review finished");
+                if (type == 'X') return in.readInt();
+                int len = in.readInt();
+                if (len > buf.length) buf = new byte[len];
+                in.readFully(buf, 0, len);
+                PrintStream target = type == 'E' ? System.err : System.out;
+                target.write(buf, 0, len);
+                target.flush();
+                streamed = true;
+            }
+        } catch (IOException e) {
+            if (deadline != null && deadline.expired()) {
+                if (!deadline.extended()) return null; // busy or stuck before accepting; review here
+                System.err.println("[WARN] Review daemon did not finish within " + deadline.timeoutSeconds()
+                        + " s; stopping it and reviewing in this process.");
+                ReviewDaemon.kill();
+                return null;
+            }
+            if (!streamed) return null;
+            System.err.println("[WARN] Review daemon failed mid-review: " + e.getMessage());
+            return 1;
+        } finally {
+            if (deadline != null) deadline.cancel();
+        }
+    }
+
+    /**
+     * Closes the channel when the deadline passes, which fails the blocked connect or read on the
+     * client thread with an {@link IOException}.
+     */
+    private static final class Deadline implements Runnable {
+        private final SocketChannel channel;
+        private long timeoutMs;
+        private long expiresAt;
+        private boolean extended;
+        private boolean expired;
+        private boolean cancelled;
+
+        Deadline(SocketChannel channel, long timeoutMs) {
+            this.channel = channel;
+            this.timeoutMs = timeoutMs;
+            this.expiresAt = System.currentTimeMillis() + timeoutMs;
+            Thread watchdog = new Thread(this, "code-reviewer-daemon-deadline");
+            watchdog.setDaemon(true);
+            watchdog.start();
+        }
+
+        /** Restarts the deadline at {@code timeoutMs} from now; false if it has already expired. */
+        synchronized boolean extend(long timeoutMs) {
+            if (expired) return false;
+            this.timeoutMs = timeoutMs;
+            this.expiresAt = System.currentTimeMillis() + timeoutMs;
+            this.extended = true;
+            notifyAll();
+            return true;
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        synchronized boolean expired() {
+            return expired;
+        }
+
+        /** True once the daemon had accepted the request. */
+        synchronized boolean extended() {
+            return extended;
+        }
+
+        synchronized long timeoutSeconds() {
+            return timeoutMs / 1000;
+        }
+
+        @Override
+        public synchronized void run() {
+            try {
+                long remaining;
+                while (!cancelled && (remaining = expiresAt - System.currentTimeMillis()) > 0) {
+                    wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (cancelled) return;
+            expired = true;
+            try {
+                channel.close();
+            } catch (IOException ignored) {}
+        }
+    }
+}
@@ -4,15 +4,35 @@ import com.reviewer.core.ReviewEngine;
 import com.reviewer.model.Models.Config;
 import com.reviewer.model.Models.ChangedFile;
 import com.reviewer.util.ColorConsole;
+import com.reviewer.util.Trace;
 import java.util.*;
 import java.nio.file.*;
 import java.io.*;
 
 public class Main {
     private static final String CONFIG_FILE_NAME = ".code-reviewer.properties";
+    /**
+     * Installer-only: reviews the given files with every rule family enabled and no report
+     * opened, so that a run under -XX:ArchiveClassesAtExit records the classes a real review
+     * loads in the AppCDS archive.
+     */
+    private static final String CDS_TRAINING_FLAG = "--cds-training";
+    /** Prints per-phase timings and counters after the review; see {@link Config#reportTimings}. */
+    private static final String TIMINGS_FLAG = "--timings";
     public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs one review and returns the process exit code. Shared by the command line and
+     * {@link ReviewDaemon}, which must not exit its JVM after a review.
+     */
+    static int run(String[] args) {
         try {
             Config config = loadConfig();
+            boolean training = args.length > 0 && args[0].equals(CDS_TRAINING_FLAG);
+            if (training) enableEverything(config);
+            if (Arrays.asList(args).contains(TIMINGS_FLAG)) config.reportTimings = true;
             ReviewEngine engine = new ReviewEngine(config);
             System.out.println("[INFO] JavaParser AST analysis: " +
                 (com.reviewer.analysis.AstInvocationFinder.isAvailable()
@@ -26,39 +46,50 @@ public class Main {
             } else if (args.length == 1 && args[0].equals("--install-hook")) {
                 // Handled by run-reviewer.bat for now, but Main could also handle it
                 System.out.println("Hook installation requested.");
-                System.exit(0);
+                return 0;
             } else {
                 for (String arg : args) {
                     if (arg.equals("--rebuild-graph")) {
                         config.rebuildGraphCache = true;
-                    } else {
+                    } else if (!arg.equals(CDS_TRAINING_FLAG) && !arg.equals(TIMINGS_FLAG)) {
                         Path p = Paths.get(arg);
                         if (Files.exists(p)) {
                             files.add(new ChangedFile(p.toString(), p.getFileName().toString(), Collections.emptySet()));
                         }
                     }
                 }
-                // --rebuild-graph alone: still analyse staged files
+                // --rebuild-graph / --timings alone: still analyse staged files
                 if (files.isEmpty()) {
                     files = engine.getStagedFiles();
                 }
             }
 
             String reportPath = engine.run(files);
+            dumpTrace();
+            if (training) return 0;
             
             if (reportPath != null) {
                 openReport(reportPath);
             }
             
-            System.exit(engine.getExitCode());
+            return engine.getExitCode();
         } catch (Exception e) {
             ColorConsole.error("Execution failed: " + e.getMessage());
             e.printStackTrace();
-            System.exit(1);
+            dumpTrace();
+            return 1;
         }
     }
 
-    private static Config loadConfig() {
+    /** With debug on, writes the buffered trace messages out and says where. */
+    private static void dumpTrace() {
+        Path traceFile = Paths.get(".code-reviewer-cache", "trace.log");
+        if (Trace.dump(traceFile)) {
+            System.out.println("[INFO] Debug trace written to " + traceFile.toAbsolutePath());
+        }
+    }
+
+    static Config loadConfig() {
         Config config = new Config();
         Properties props = new Properties();
         File repoConfigFile = new File(CONFIG_FILE_NAME);
@@ -94,6 +125,24 @@ public class Main {
         return config;
     }
 
+    private static void enableEverything(Config config) {
+        config.openReport = false;
+        config.enableImpactAnalysis = true;
+        config.enableRulesBugPatterns = true;
+        config.enableRulesNullSafety = true;
+        config.enableRulesExceptions = true;
+        config.enableRulesLogging = true;
+        config.enableRulesSpringBoot = true;
+        config.enableRulesSecurity = true;
+        config.enableRulesOpenApi = true;
+        config.enableRulesPerformance = true;
+        config.enableRulesCodeQuality = true;
+        config.enableRulesSoap = true;
+        config.enableRulesGrpc = true;
+        config.enableRulesOutboundClient = true;
+        config.enableRulesScheduled = true;
+    }
+
     private static File resolveToolConfig() {
         try {
             File jarLocation = new File(Main.class.getProtectionDomain().getCodeSource().getLocation().toURI());
@@ -120,6 +169,7 @@ public class Main {
         config.blockOnMustFix = Boolean.parseBoolean(props.getProperty("block.on.must.fix", String.valueOf(config.blockOnMustFix)));
         config.onlyChangedLines = Boolean.parseBoolean(props.getProperty("only.changed.lines", String.valueOf(config.onlyChangedLines)));
         config.expandChangedScopeToMethod = Boolean.parseBoolean(props.getProperty("expand.changed.scope.to.method", String.valueOf(config.expandChangedScopeToMethod)));
+        config.ruleHunkScope = Boolean.parseBoolean(props.getProperty("rules.hunk.scope", String.valueOf(config.ruleHunkScope)));
         config.strictJava = Boolean.parseBoolean(props.getProperty("strict.java", String.valueOf(config.strictJava)));
         config.strictSpring = Boolean.parseBoolean(props.getProperty("strict.spring", String.valueOf(config.strictSpring)));
         config.showTestingScope = Boolean.parseBoolean(props.getProperty("show.testing.scope", String.valueOf(config.showTestingScope)));
@@ -134,11 +184,20 @@ public class Main {
         config.enableStructuralImpact = Boolean.parseBoolean(props.getProperty("enable.structural.impact", String.valueOf(config.enableStructuralImpact)));
         config.pmdPath = props.getProperty("pmd.path", config.pmdPath);
         config.pmdRulesetPath = props.getProperty("pmd.ruleset.path", config.pmdRulesetPath);
+        config.pmdInProcess = Boolean.parseBoolean(props.getProperty("pmd.in.process", String.valueOf(config.pmdInProcess)));
         config.javaSourceVersion = Integer.parseInt(props.getProperty("java.source.version", String.valueOf(config.javaSourceVersion)));
         config.springBootVersion = parseMajorVersion(props.getProperty("spring.boot.version", String.valueOf(config.springBootVersion)));
         config.methodScopedDependencyGraph = Boolean.parseBoolean(props.getProperty("dependency.graph.scope.method", String.valueOf(config.methodScopedDependencyGraph)));
         config.rebuildGraphCache = Boolean.parseBoolean(props.getProperty("rebuild.graph.cache", String.valueOf(config.rebuildGraphCache)));
+        config.reportTimings = Boolean.parseBoolean(props.getProperty("report.timings", String.valueOf(config.reportTimings)));
         config.graphCacheTtlHours = Integer.parseInt(props.getProperty("graph.cache.ttl.hours", String.valueOf(config.graphCacheTtlHours)));
+        config.daemonEnabled = Boolean.parseBoolean(props.getProperty("daemon.enabled", String.valueOf(config.daemonEnabled)));
+        config.nativeGit = Boolean.parseBoolean(props.getProperty("git.native", String.valueOf(config.nativeGit)));
+        config.astCacheMaxMb = Integer.parseInt(props.getProperty("ast.cache.max.mb", String.valueOf(config.astCacheMaxMb)));
+        config.traceBufferEntries = Integer.parseInt(props.getProperty("debug.trace.entries", String.valueOf(config.traceBufferEntries)));
+        config.daemonIdleTimeoutMinutes = Integer.parseInt(props.getProperty("daemon.idle.timeout.minutes", String.valueOf(config.daemonIdleTimeoutMinutes)));
+        config.daemonReviewTimeoutSeconds = Integer.parseInt(props.getProperty("daemon.review.timeout.seconds", String.valueOf(config.daemonReviewTimeoutSeconds)));
+        config.reviewThreads = Integer.parseInt(props.getProperty("review.threads", String.valueOf(config.reviewThreads)));
         config.transitiveCallerStructuralFallback = Boolean.parseBoolean(props.getProperty("transitive.caller.structural.fallback", String.valueOf(config.transitiveCallerStructuralFallback)));
         config.useAstCallerDetection = Boolean.parseBoolean(props.getProperty("use.ast.caller.detection", String.valueOf(config.useAstCallerDetection)));
         config.openApiSpecPaths = props.getProperty("openapi.spec.paths", config.openApiSpecPaths);
@@ -0,0 +1,296 @@
+package com.reviewer;
+
+import com.reviewer.model.Models.Config;
+import com.reviewer.util.ColorConsole;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Long-lived reviewer for one repository, started in the repo root and reached by
+ * {@link DaemonClient} over a Unix domain socket at {@link #SOCKET}.
+ *
+ * <p>Each request is an ordinary {@link Main#run} in this JVM, so the JIT-compiled code, the
+ * rule patterns, the AST cache and the symbol and reachability indexes held by the engine stay
+ * warm between commits; the indexes are revalidated against git on every review, so only files
+ * that changed are re-read. Reviews run one at a time, with {@code System.out}/{@code err}
+ * streamed back to the client for the duration of the request.
+ *
+ * <p>Protocol, all in {@link DataOutputStream} encoding. Request: protocol version, build stamp,
+ * console charset, argument count, arguments. Reply: {@code 'A'} (accepted) or {@code 'R'}
+ * (refused: this daemon runs a different build and is shutting down). After {@code 'A'} the
+ * client answers {@code 'G'} if it is still waiting; a request whose client already gave up and
+ * reviewed in its own process sat in the accept backlog meanwhile, and is dropped unanswered
+ * rather than reviewed a second time. Then frames of {@code 'O'}/{@code 'E'} + length + bytes
+ * for stdout/stderr, and finally {@code 'X'} + exit code.
+ *
+ * <p>The daemon exits after {@link Config#daemonIdleTimeoutMinutes} without a request, on
+ * {@link #STOP_COMMAND}, or when a client from a newer build connects. A client that waits
+ * longer than {@link Config#daemonReviewTimeoutSeconds} for its review kills it.
+ */
+public final class ReviewDaemon {
+
+    /** Relative to the repo root; a relative path keeps well inside the OS limit on socket path length. */
+    static final Path SOCKET = Paths.get(".code-reviewer-cache", "daemon.sock");
+    static final Path LOG = Paths.get(".code-reviewer-cache", "daemon.log");
+    /** Process id of the running daemon, for a client that has to stop one that stopped answering. */
+    static final Path PID = Paths.get(".code-reviewer-cache", "daemon.pid");
+    static final int PROTOCOL_VERSION = 2;
+    static final String STOP_COMMAND = "--stop-daemon";
+
+    private final ServerSocketChannel server;
+    private final long buildStamp;
+    private final long idleTimeoutMs;
+    private volatile long lastActivity = System.currentTimeMillis();
+    private volatile boolean busy;
+
+    private ReviewDaemon(ServerSocketChannel server, long buildStamp, long idleTimeoutMs) {
+        this.server = server;
+        this.buildStamp = buildStamp;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    public static void main(String[] args) {
+        Config config = Main.loadConfig();
+        try {
+            Files.createDirectories(SOCKET.getParent());
+            if (isRunning()) {
+                System.out.println("[INFO] A review daemon is already running for this repository.");
+                return;
+            }
+            Files.deleteIfExists(SOCKET);
+            try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+                server.bind(UnixDomainSocketAddress.of(SOCKET));
+                Runtime.getRuntime().addShutdownHook(new Thread(ReviewDaemon::deleteSocket));
+                Files.writeString(PID, Long.toString(ProcessHandle.current().pid()));
+                System.out.println("[INFO] Review daemon listening on " + SOCKET.toAbsolutePath());
+                new ReviewDaemon(server, buildStamp(), Math.max(1, config.daemonIdleTimeoutMinutes) * 60_000L).serve();
+            }
+        } catch (IOException e) {
+            ColorConsole.error("Review daemon failed: " + e.getMessage());
+        } finally {
+            deleteSocket();
+        }
+        System.out.println("[INFO] Review daemon stopped.");
+    }
+
+    private void serve() throws IOException {
+        Thread watchdog = new Thread(this::closeWhenIdle, "code-reviewer-daemon-idle");
+        watchdog.setDaemon(true);
+        watchdog.start();
+        while (server.isOpen()) {
+            SocketChannel client;
+            try {
+                client = server.accept();
+            } catch (ClosedChannelException e) {
+                break; // idle timeout, stop request or newer build
+            }
+            busy = true;
+            try (SocketChannel c = client) {
+                handle(c);
+            } catch (IOException e) {
+                System.out.println("[WARN] Review request failed: " + e.getMessage());
+            } finally {
+                busy = false;
+                lastActivity = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private void handle(SocketChannel client) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)));
+        int version = in.readInt();
+        long stamp = in.readLong();
+        String charsetName = in.readUTF();
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) args[i] = in.readUTF();
+
+        if (version != PROTOCOL_VERSION || stamp != buildStamp) {
+            // Stop listening before answering so the client can start a replacement right away
+            server.close();
+            deleteSocket();
+            out.writeByte('R');
+            out.flush();
+            return;
+        }
+        if (!confirmed(in, out)) {
+            // The client timed out while this request was queued and has run the review itself
+            System.out.println("[INFO] Dropped a review request its client no longer waits for.");
+            return;
+        }
+        if (args.length == 1 && args[0].equals(STOP_COMMAND)) {
+            server.close();
+            writeExit(out, 0);
+            return;
+        }
+
+        Charset charset = Charset.isSupported(charsetName) ? Charset.forName(charsetName) : Charset.defaultCharset();
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        int code;
+        try {
+            System.setOut(new PrintStream(new FrameStream(out, 'O'), true, charset));
+            System.setErr(new PrintStream(new FrameStream(out, 'E'), true, charset));
+            code = Main.run(args);
+        } finally {
+            System.out.flush();
+            System.err.flush();
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+        writeExit(out, code);
+    }
+
+    /** Acknowledges the request; true if the client confirms it is still waiting for the review. */
+    private static boolean confirmed(DataInputStream in, DataOutputStream out) {
+        try {
+            out.writeByte('A');
+            out.flush();
+            return in.read() == 'G';
+        } catch (IOException e) {
+            return false; // closed by the client
+        }
+    }
+
+    private static void writeExit(DataOutputStream out, int code) throws IOException {
+        synchronized (out) {
+            out.writeByte('X');
+            out.writeInt(code);
+            out.flush();
+        }
+    }
+
+    private void closeWhenIdle() {
+        while (server.isOpen()) {
+            try {
+                Thread.sleep(Math.min(idleTimeoutMs, 60_000L));
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!busy && System.currentTimeMillis() - lastActivity >= idleTimeoutMs) {
+                try {
+                    server.close();
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    /** True if a daemon answers on {@link #SOCKET}. */
+    static boolean isRunning() {
+        if (!Files.exists(SOCKET)) return false;
+        try (SocketChannel probe = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            probe.connect(UnixDomainSocketAddress.of(SOCKET));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts a daemon for the current directory in the background, detached from this process's
+     * console; its output goes to {@link #LOG}.
+     */
+    static void spawn() {
+        try {
+            Files.createDirectories(SOCKET.getParent());
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            // Start from the same class-data sharing archive as the launcher, if it used one
+            for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+                if (arg.startsWith("-XX:SharedArchiveFile=") || arg.startsWith("-Xshare:")) command.add(arg);
+            }
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(ReviewDaemon.class.getName());
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.redirectOutput(LOG.toFile());
+            pb.redirectErrorStream(true);
+            pb.start().getOutputStream().close();
+        } catch (IOException e) {
+            ColorConsole.warning("Could not start the review daemon: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Identifies the reviewer build on the classpath (the jar, or {@code Main.class} when running
+     * from compiled classes) so that a client never talks to a daemon running older code.
+     */
+    static long buildStamp() {
+        try {
+            File location = new File(Main.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (location.isDirectory()) location = new File(location, "com/reviewer/Main.class");
+            return location.lastModified();
+        } catch (Exception e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Forcibly stops the daemon recorded in {@link #PID} and removes its socket, so that the
+     * next commit neither waits on it nor finds it running when starting a new one.
+     */
+    static void kill() {
+        try {
+            long pid = Long.parseLong(Files.readString(PID).trim());
+            ProcessHandle.of(pid)
+                    .filter(p -> p.info().command().map(c -> c.contains("java")).orElse(false))
+                    .ifPresent(ProcessHandle::destroyForcibly);
+        } catch (IOException | NumberFormatException ignored) {}
+        deleteSocket();
+    }
+
+    /** Removes the socket and the pid file. */
+    private static void deleteSocket() {
+        try {
+            Files.deleteIfExists(SOCKET);
+            Files.deleteIfExists(PID);
+        } catch (IOException ignored) {}
+    }
+
+    /** Forwards everything written to it as one frame of {@code type}. */
+    private static final class FrameStream extends OutputStream {
+        private final DataOutputStream out;
+        private final int type;
+
+        FrameStream(DataOutputStream out, int type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return;
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+                out.flush();
+            }
+        }
+    }
+}
@@ -1,49 +1,366 @@
 package com.reviewer.analysis;
 
-import java.util.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Shared LRU parse cache for JavaParser CompilationUnit objects.
+ * Shared parse cache for JavaParser CompilationUnit objects, used through {@link SourceFile#ast()}
+ * so each file is parsed at most once per run and, in the daemon, once across runs.
  *
- * <p>Keyed on a {@code Long} that combines {@code content.length()} and
- * {@code content.hashCode()} — two different files would need identical
- * length AND the same 32-bit hash to collide, making accidental cache hits
- * practically impossible. Capped at 64 entries to bound memory use.
- * Both {@link AstRuleFilter} and {@link AstInvocationFinder} use this cache
- * so each file is parsed at most once per JVM run.
+ * <p>Entries are keyed by the SHA-256 of the content plus its length, so two different files can
+ * never share an AST. The cache is bounded by the estimated retained size of the ASTs rather
+ * than by entry count (a CompilationUnit retains roughly 80 bytes per source character), and
+ * follows W-TinyLFU: new entries go to a small LRU window; when they leave it they are only
+ * admitted to the main segmented LRU if a count-min sketch says they are used more often than
+ * the entry they would evict. A commit that touches many one-off dependents therefore does not
+ * flush the service files that almost every review needs.
+ *
+ * <p>Reads are lock-free: a hit is a {@link ConcurrentHashMap} lookup, and the access is
+ * recorded in a lossy ring buffer that is replayed into the policy under the eviction lock by
+ * whichever thread next gets it. Inserts and eviction take the lock; parsing happens outside it.
  */
 public final class AstCache {
 
-    private static final int CACHE_LIMIT = 64;
+    private static final long DEFAULT_MAX_BYTES = 256L << 20;
+    /** Estimated bytes retained per source character, plus a fixed per-entry overhead. */
+    private static final long BYTES_PER_CHAR = 80;
+    private static final long ENTRY_OVERHEAD = 8 << 10;
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int DRAIN_THRESHOLD = 32;
 
-    @SuppressWarnings("unchecked")
-    private static final Map<Long, Object> CACHE =
-            Collections.synchronizedMap(new LinkedHashMap<Long, Object>(CACHE_LIMIT, 0.75f, true) {
-                @Override
-                protected boolean removeEldestEntry(Map.Entry<Long, Object> e) {
-                    return size() > CACHE_LIMIT;
-                }
-            });
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
 
-    private AstCache() {}
+    private static final Map<Key, Node> DATA = new ConcurrentHashMap<>();
+    private static final ReentrantLock EVICTION_LOCK = new ReentrantLock();
+    private static final AtomicReferenceArray<Node> READ_BUFFER = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private static final AtomicLong READ_WRITES = new AtomicLong();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
 
-    /** Combines content length and hashCode into a single 64-bit cache key. */
-    private static long cacheKey(String content) {
-        return ((long) content.length() << 32) ^ (content.hashCode() & 0xFFFFFFFFL);
-    }
+    // Policy state, guarded by EVICTION_LOCK
+    private static final AccessOrder[] QUEUES = { new AccessOrder(WINDOW), new AccessOrder(PROBATION), new AccessOrder(PROTECTED) };
+    private static final FrequencySketch SKETCH = new FrequencySketch();
+    private static long maxBytes = DEFAULT_MAX_BYTES;
+    private static long readsDrained;
+
+    private AstCache() {}
 
     /**
      * Returns a cached or freshly-parsed CompilationUnit for {@code content}.
      * Throws if JavaParser is unavailable or the source cannot be parsed.
      */
-    @SuppressWarnings("unchecked")
     public static com.github.javaparser.ast.CompilationUnit get(String content) throws Exception {
-        long key = cacheKey(content);
-        Object cached = CACHE.get(key);
-        if (cached != null) return (com.github.javaparser.ast.CompilationUnit) cached;
-        com.github.javaparser.ast.CompilationUnit cu =
-                com.github.javaparser.StaticJavaParser.parse(content);
-        CACHE.put(key, cu);
+        Key key = Key.of(content);
+        Node node = DATA.get(key);
+        if (node != null) {
+            HITS.increment();
+            recordRead(node);
+            return node.value;
+        }
+        MISSES.increment();
+        com.github.javaparser.ast.CompilationUnit cu = com.github.javaparser.StaticJavaParser.parse(content);
+        Node fresh = new Node(key, cu, ENTRY_OVERHEAD + BYTES_PER_CHAR * content.length());
+        EVICTION_LOCK.lock();
+        try {
+            drainReads();
+            Node raced = DATA.putIfAbsent(key, fresh);
+            if (raced != null) return raced.value; // parsed concurrently by another thread
+            SKETCH.increment(key.hash);
+            QUEUES[WINDOW].addLast(fresh);
+            evict();
+        } finally {
+            EVICTION_LOCK.unlock();
+        }
         return cu;
     }
+
+    /** Sets the bound on the estimated retained size of all cached ASTs, evicting as needed. */
+    public static void setMaxBytes(long bytes) {
+        EVICTION_LOCK.lock();
+        try {
+            maxBytes = Math.max(1, bytes);
+            evict();
+        } finally {
+            EVICTION_LOCK.unlock();
+        }
+    }
+
+    /** Drops every cached AST; the counters and the frequency sketch are kept. */
+    public static void clear() {
+        EVICTION_LOCK.lock();
+        try {
+            for (AccessOrder queue : QUEUES) {
+                while (queue.head != null) {
+                    Node node = queue.head;
+                    queue.remove(node);
+                    node.queue = -1;
+                    DATA.remove(node.key, node);
+                }
+            }
+            drainReads();
+        } finally {
+            EVICTION_LOCK.unlock();
+        }
+    }
+
+    public static Stats stats() {
+        EVICTION_LOCK.lock();
+        try {
+            return new Stats(HITS.sum(), MISSES.sum(), EVICTIONS.sum(), DATA.size(), totalWeight(), maxBytes);
+        } finally {
+            EVICTION_LOCK.unlock();
+        }
+    }
+
+    /** Counters since the JVM started, plus the current size. */
+    public static final class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final int entries;
+        public final long estimatedBytes;
+        public final long maxBytes;
+
+        Stats(long hits, long misses, long evictions, int entries, long estimatedBytes, long maxBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.estimatedBytes = estimatedBytes;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public String toString() {
+            return hits + " hits, " + misses + " misses, " + evictions + " evictions, " + entries + " entries, ~"
+                    + (estimatedBytes >> 20) + "/" + (maxBytes >> 20) + " MB";
+        }
+    }
+
+    // ── Policy ──────────────────────────────────────────────────────────
+
+    private static void recordRead(Node node) {
+        long n = READ_WRITES.getAndIncrement();
+        READ_BUFFER.lazySet((int) (n & (READ_BUFFER_SIZE - 1)), node);
+        if (n - readsDrained >= DRAIN_THRESHOLD && EVICTION_LOCK.tryLock()) {
+            try {
+                drainReads();
+            } finally {
+                EVICTION_LOCK.unlock();
+            }
+        }
+    }
+
+    /** Replays buffered reads into the policy; reads overwritten before a drain are simply lost. */
+    private static void drainReads() {
+        readsDrained = READ_WRITES.get();
+        for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+            Node node = READ_BUFFER.getAndSet(i, null);
+            if (node != null && node.queue >= 0) onAccess(node);
+        }
+    }
+
+    private static void onAccess(Node node) {
+        SKETCH.increment(node.key.hash);
+        if (node.queue == PROBATION) {
+            QUEUES[PROBATION].remove(node);
+            QUEUES[PROTECTED].addLast(node);
+            long protectedMax = (maxBytes - windowMax()) * 4 / 5;
+            while (QUEUES[PROTECTED].weight > protectedMax && QUEUES[PROTECTED].head != node) {
+                Node demoted = QUEUES[PROTECTED].head;
+                QUEUES[PROTECTED].remove(demoted);
+                QUEUES[PROBATION].addLast(demoted);
+            }
+        } else {
+            QUEUES[node.queue].moveToEnd(node);
+        }
+    }
+
+    private static long windowMax() {
+        return Math.max(1, maxBytes / 100);
+    }
+
+    /**
+     * Moves entries that overflow the window to probation, then evicts until the cache fits,
+     * each time pitting the oldest candidate from the window against probation's LRU entry.
+     */
+    private static void evict() {
+        Node candidate = null;
+        while (QUEUES[WINDOW].weight > windowMax() && QUEUES[WINDOW].head != null) {
+            Node n = QUEUES[WINDOW].head;
+            QUEUES[WINDOW].remove(n);
+            QUEUES[PROBATION].addLast(n);
+            if (candidate == null) candidate = n;
+        }
+        while (totalWeight() > maxBytes) {
+            Node victim = QUEUES[PROBATION].head;
+            if (victim == candidate) victim = null; // only fresh candidates left in probation
+            if (victim == null) victim = QUEUES[PROTECTED].head;
+            if (victim == null && candidate == null) victim = QUEUES[WINDOW].head;
+
+            Node evicted;
+            if (candidate == null) {
+                evicted = victim;
+            } else if (victim == null || candidate.weight > maxBytes) {
+                evicted = candidate;
+            } else {
+                evicted = SKETCH.frequency(candidate.key.hash) > SKETCH.frequency(victim.key.hash) ? victim : candidate;
+            }
+            if (evicted == null) break;
+            if (evicted == candidate) candidate = candidate.next; // later candidates follow it in probation
+            remove(evicted);
+        }
+    }
+
+    private static long totalWeight() {
+        return QUEUES[WINDOW].weight + QUEUES[PROBATION].weight + QUEUES[PROTECTED].weight;
+    }
+
+    private static void remove(Node node) {
+        QUEUES[node.queue].remove(node);
+        node.queue = -1;
+        DATA.remove(node.key, node);
+        EVICTIONS.increment();
+    }
+
+    // ── Data structures ─────────────────────────────────────────────────
+
+    /** SHA-256 of the content's UTF-8 bytes plus its length; {@link #hash} seeds the sketch. */
+    private static final class Key {
+        final byte[] digest;
+        final int length;
+        final long hash;
+
+        private Key(byte[] digest, int length) {
+            this.digest = digest;
+            this.length = length;
+            long h = 0;
+            for (int i = 0; i < 8; i++) h = (h << 8) | (digest[i] & 0xFF);
+            this.hash = h;
+        }
+
+        static Key of(String content) {
+            try {
+                MessageDigest sha = MessageDigest.getInstance("SHA-256");
+                return new Key(sha.digest(content.getBytes(StandardCharsets.UTF_8)), content.length());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 unavailable", e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).length == length && Arrays.equals(((Key) o).digest, digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) hash;
+        }
+    }
+
+    private static final class Node {
+        final Key key;
+        final com.github.javaparser.ast.CompilationUnit value;
+        final long weight;
+        /** {@link #WINDOW}, {@link #PROBATION}, {@link #PROTECTED}, or -1 once evicted. */
+        int queue;
+        Node prev;
+        Node next;
+
+        Node(Key key, com.github.javaparser.ast.CompilationUnit value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /** Intrusive LRU list: head is least recently used. */
+    private static final class AccessOrder {
+        Node head;
+        Node tail;
+        long weight;
+        private final int id;
+
+        AccessOrder(int id) {
+            this.id = id;
+        }
+
+        void addLast(Node node) {
+            node.queue = id;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) head = node;
+            else tail.next = node;
+            tail = node;
+            weight += node.weight;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) head = node.next;
+            else node.prev.next = node.next;
+            if (node.next == null) tail = node.prev;
+            else node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void moveToEnd(Node node) {
+            if (tail == node) return;
+            remove(node);
+            addLast(node);
+        }
+    }
+
+    /**
+     * Count-min sketch with four rows of 4-bit saturating counters; all counters are halved
+     * after every {@code 10 * width} increments so that old popularity fades.
+     */
+    private static final class FrequencySketch {
+        private static final int WIDTH = 4096;
+        private static final long[] SEEDS = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L };
+        private final byte[][] rows = new byte[4][WIDTH];
+        private int additions;
+
+        void increment(long hash) {
+            boolean added = false;
+            for (int i = 0; i < rows.length; i++) {
+                int idx = index(hash, i);
+                if (rows[i][idx] < 15) {
+                    rows[i][idx]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= 10 * WIDTH) {
+                additions = 0;
+                for (byte[] row : rows) {
+                    for (int j = 0; j < row.length; j++) row[j] >>= 1;
+                }
+            }
+        }
+
+        int frequency(long hash) {
+            int min = 15;
+            for (int i = 0; i < rows.length; i++) min = Math.min(min, rows[i][index(hash, i)]);
+            return min;
+        }
+
+        private static int index(long hash, int row) {
+            long h = (hash ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+            return (int) h & (WIDTH - 1);
+        }
+    }
 }
@@ -64,7 +64,8 @@ public class AstInvocationFinder {
         }
 
         try {
-            com.github.javaparser.ast.CompilationUnit cu = AstCache.get(content);
+            com.github.javaparser.ast.CompilationUnit cu = SourceFile.of(content).ast().orElse(null);
+            if (cu == null) return Collections.emptyList();
 
             Set<String> touchedSet = touchedMethods != null
                     ? new HashSet<>(touchedMethods) : Collections.emptySet();
@@ -99,4 +100,51 @@ public class AstInvocationFinder {
             return Collections.emptyList();
         }
     }
+
+    /**
+     * Lists every scoped method call in {@code content} as
+     * {@code {scope root identifier, called method name, enclosing method name}}.
+     *
+     * <p>The root is recorded only when {@link #findCallerMethods} would match the scope against
+     * an instance name equal to it, so filtering these triples by instance names and touched
+     * methods gives the same callers without re-parsing. Parses without going through
+     * {@link AstCache}, since whole-repo indexing would only evict the entries that matter.
+     */
+    static List<String[]> findScopedCalls(String content) {
+        if (!AVAILABLE || content == null || content.isBlank()) return Collections.emptyList();
+        try {
+            com.github.javaparser.ast.CompilationUnit cu = com.github.javaparser.StaticJavaParser.parse(content);
+            List<String[]> calls = new ArrayList<>();
+            cu.findAll(com.github.javaparser.ast.expr.MethodCallExpr.class).forEach(call ->
+                call.getScope().ifPresent(scope -> {
+                    String root;
+                    if (scope.isNameExpr()) {
+                        root = scope.asNameExpr().getNameAsString();
+                    } else {
+                        String scopeStr = scope.toString();
+                        int end = 0;
+                        while (end < scopeStr.length() && Character.isJavaIdentifierPart(scopeStr.charAt(end))) end++;
+                        if (end == 0) return;
+                        boolean separated = end == scopeStr.length()
+                                || scopeStr.startsWith(".", end) || scopeStr.startsWith("::", end);
+                        if (!separated) return;
+                        root = scopeStr.substring(0, end);
+                    }
+                    String caller = enclosingMethodName(call);
+                    if (caller != null) calls.add(new String[] {root, call.getNameAsString(), caller});
+                }));
+            return calls;
+        } catch (Exception e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /** Name of the method declaration enclosing {@code node}, or null outside any method. */
+    private static String enclosingMethodName(com.github.javaparser.ast.Node node) {
+        com.github.javaparser.ast.Node n = node.getParentNode().orElse(null);
+        while (n != null && !(n instanceof com.github.javaparser.ast.body.MethodDeclaration)) {
+            n = n.getParentNode().orElse(null);
+        }
+        return n == null ? null : ((com.github.javaparser.ast.body.MethodDeclaration) n).getNameAsString();
+    }
 }
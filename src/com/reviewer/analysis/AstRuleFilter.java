@@ -50,13 +50,14 @@ public class AstRuleFilter {
     }
 
     static com.github.javaparser.ast.CompilationUnit getCachedCu(String content) throws Exception {
-        return AstCache.get(content);
+        return SourceFile.of(content).ast()
+                .orElseThrow(() -> new IllegalStateException("source does not parse"));
     }
 
     @SuppressWarnings("unchecked")
     private static List<Finding> doFilter(String content, List<Finding> findings) throws Exception {
 
-        com.github.javaparser.ast.CompilationUnit cu = AstCache.get(content);
+        com.github.javaparser.ast.CompilationUnit cu = getCachedCu(content);
 
         // ── Collect all string-literal ranges so we can detect in-string matches ──
         Set<int[]> stringRanges = new LinkedHashSet<>();
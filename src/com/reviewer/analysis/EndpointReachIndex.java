@@ -0,0 +1,790 @@
+package com.reviewer.analysis;
+
+import com.reviewer.analysis.JavaSymbolIndex.ClassInfo;
+import com.reviewer.util.Trace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Whole-repo index of which endpoints can reach each method.
+ *
+ * <p>Nodes are {@code fqn#method}. A call edge {@code caller → callee} is recorded for every
+ * call found by {@link MethodCallGraph} on a class through its reverse dependents, plus every
+ * intra-class call. Controller handler methods are seeded with their mapped endpoints and
+ * OpenAPI delegate methods with the operations of their class; reachability is then
+ * propagated along the edges once per strongly connected component, so cycles and arbitrarily
+ * deep service layers are covered without any depth or visit limit.
+ *
+ * <p>The endpoints reaching a node are stored as a bitmap over a sorted endpoint table.
+ * Identical bitmaps are shared and each is kept either as a sorted id array or as a word
+ * bitmap, whichever is smaller. A lookup is one hash probe plus decoding the result.
+ *
+ * <p>Matching follows the transitive BFS: controllers are terminal (calls into them are not
+ * traced), test files are excluded, and callers are found with the same rules as
+ * {@link MethodCallGraph.FileCalls#callersOf}.
+ *
+ * <p>The index keeps the edges and seeds it was computed from, grouped by the files they were
+ * read from, with the fingerprint of every source. {@link #build} given the previous index only
+ * recomputes the groups of files whose fingerprint changed, and propagates again only through
+ * the components those groups can reach; every other method keeps the endpoints it had.
+ */
+public final class EndpointReachIndex {
+
+    private static final int MAGIC = 0x43524552; // "CRER"
+    private static final int VERSION = 2;
+    private static final int[] NO_IDS = new int[0];
+    private static final BitSet EMPTY_REACH = new BitSet();
+
+    /**
+     * The edges and seeds read from one file: a class's calls among its own methods and its
+     * endpoint seeds, or one dependent's calls into one class.
+     */
+    private static final class Contribution {
+        /** Caller and callee node keys, alternating. */
+        final List<String> edges = new ArrayList<>();
+        final Map<String, Set<String>> seeds = new LinkedHashMap<>();
+
+        void addEdge(String caller, String callee) {
+            edges.add(caller);
+            edges.add(callee);
+        }
+
+        void addTo(Graph graph, Map<String, Set<String>> allSeeds) {
+            for (int i = 0; i < edges.size(); i += 2) graph.addEdge(edges.get(i), edges.get(i + 1));
+            for (Map.Entry<String, Set<String>> e : seeds.entrySet()) {
+                allSeeds.computeIfAbsent(e.getKey(), k -> new LinkedHashSet<>()).addAll(e.getValue());
+            }
+        }
+    }
+
+    private final String versionKey;
+    /** Absolute path → fingerprint of every source the index was computed from. */
+    private final Map<String, String> fingerprints;
+    /** Absolute path → intra-class edges and seeds of the class declared there. */
+    private final Map<String, Contribution> classes;
+    /** Target path → dependent path → the dependent's calls into the target. */
+    private final Map<String, Map<String, Contribution>> callsInto;
+    private final String[] endpoints;
+    private final Map<String, Integer> bitmapByNode;
+    /** Either a sorted {@code int[]} of endpoint ids or a {@code long[]} word bitmap. */
+    private final Object[] bitmaps;
+
+    private EndpointReachIndex(String versionKey, Map<String, String> fingerprints, Map<String, Contribution> classes,
+                               Map<String, Map<String, Contribution>> callsInto, String[] endpoints,
+                               Map<String, Integer> bitmapByNode, Object[] bitmaps) {
+        this.versionKey = versionKey;
+        this.fingerprints = fingerprints;
+        this.classes = classes;
+        this.callsInto = callsInto;
+        this.endpoints = endpoints;
+        this.bitmapByNode = bitmapByNode;
+        this.bitmaps = bitmaps;
+    }
+
+    /**
+     * Identifies the inputs every edge depends on: the OpenAPI operation map and the options
+     * that change caller matching. Source changes do not change the key; {@link #build}
+     * patches them in.
+     */
+    public static String versionKey(Map<String, String> openApiOperations, String delegateSuffix,
+                                    boolean astCallerDetection) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> e : new TreeMap<>(openApiOperations).entrySet()) {
+            sb.append(e.getKey()).append('=').append(e.getValue()).append('\n');
+        }
+        sb.append('\u0000').append(delegateSuffix).append('\u0000').append(astCallerDetection);
+        return JavaSymbolIndex.fingerprint(sb.toString());
+    }
+
+    public String getVersionKey() {
+        return versionKey;
+    }
+
+    /** Whether the index was computed from exactly these sources (absolute path → fingerprint). */
+    public boolean isUpToDate(Map<String, String> sourceFingerprints) {
+        return fingerprints.equals(sourceFingerprints);
+    }
+
+    /** Endpoints (in table order) whose handlers transitively call {@code fqn#method}. */
+    public List<String> endpointsReaching(String fqn, String method) {
+        Integer bitmap = bitmapByNode.get(nodeKey(fqn, method));
+        if (bitmap == null) return Collections.emptyList();
+        int[] ids = decode(bitmaps[bitmap]);
+        List<String> result = new ArrayList<>(ids.length);
+        for (int id : ids) result.add(endpoints[id]);
+        return result;
+    }
+
+    public int endpointCount() {
+        return endpoints.length;
+    }
+
+    public int nodeCount() {
+        return bitmapByNode.size();
+    }
+
+    private static String nodeKey(String fqn, String method) {
+        return fqn + "#" + method;
+    }
+
+    // ── Build ─────────────────────────────────────────────────────────────────────────────────
+
+    /**
+     * Computes the index over every class in {@code index}. With a {@code previous} index for
+     * the same {@code versionKey}, the edges and seeds of files whose fingerprint is unchanged
+     * are carried over, and only methods reachable from what changed are propagated again.
+     *
+     * @param dependentsOf      fqn → absolute paths of files that depend on it (the reverse graph)
+     * @param excluded          files never traversed (tests)
+     * @param openApiOperations operationId → "VERB /path"
+     * @param delegateSuffix    suffix of generated OpenAPI delegate interfaces
+     * @param previous          the index of an earlier run, or null to compute everything
+     */
+    public static EndpointReachIndex build(JavaSymbolIndex index, Function<String, Set<String>> dependentsOf,
+                                           Predicate<Path> excluded, Map<String, String> openApiOperations,
+                                           String delegateSuffix, String versionKey, EndpointReachIndex previous) {
+        if (previous != null && !previous.versionKey.equals(versionKey)) previous = null;
+        Map<String, String> fingerprints = new HashMap<>(index.getFingerprints());
+        Set<String> changed = previous != null ? previous.changedSources(fingerprints) : Collections.emptySet();
+        // Groups computed this run, and the ones they replace or that are gone
+        List<Contribution> stale = new ArrayList<>();
+
+        Map<String, Contribution> classes = new HashMap<>();
+        for (ClassInfo info : index.getAllClasses()) {
+            if (excluded.test(info.path)) continue;
+            MethodCallGraph.FileCalls calls = index.getFileCalls(info.path).orElse(null);
+            if (calls == null) continue;
+            String path = info.path.toString();
+            Contribution kept = previous != null && !changed.contains(path) ? previous.classes.get(path) : null;
+            if (kept == null) {
+                kept = classContribution(info, calls, openApiOperations, delegateSuffix);
+                stale.add(kept);
+            }
+            classes.put(path, kept);
+        }
+
+        Map<String, Map<String, Contribution>> callsInto = new HashMap<>();
+        for (ClassInfo target : index.getAllClasses()) {
+            MethodCallGraph.FileCalls targetCalls = index.getFileCalls(target.path).orElse(null);
+            // Controllers are where the walk ends; nothing above them is traced
+            if (targetCalls == null || targetCalls.isController()) continue;
+            String targetPath = target.path.toString();
+            Map<String, Contribution> previousRow = previous != null && !changed.contains(targetPath)
+                    ? previous.callsInto.getOrDefault(targetPath, Collections.emptyMap())
+                    : Collections.emptyMap();
+            Map<String, Contribution> row = new HashMap<>();
+            for (String dependent : dependentsOf.apply(target.fqn)) {
+                Path depPath = Path.of(dependent);
+                if (excluded.test(depPath)) continue;
+                ClassInfo depInfo = index.getClassInfo(depPath).orElse(null);
+                if (depInfo == null) continue;
+                String depKey = depInfo.path.toString();
+                Contribution kept = changed.contains(depKey) ? null : previousRow.get(depKey);
+                if (kept == null) {
+                    kept = callsInto(target, targetCalls, depInfo, index.getFileCalls(depPath).orElse(null));
+                    stale.add(kept);
+                }
+                row.put(depKey, kept);
+            }
+            callsInto.put(targetPath, row);
+        }
+
+        if (previous != null) {
+            for (Map.Entry<String, Contribution> e : previous.classes.entrySet()) {
+                if (classes.get(e.getKey()) != e.getValue()) stale.add(e.getValue());
+            }
+            for (Map.Entry<String, Map<String, Contribution>> row : previous.callsInto.entrySet()) {
+                Map<String, Contribution> current = callsInto.getOrDefault(row.getKey(), Collections.emptyMap());
+                for (Map.Entry<String, Contribution> e : row.getValue().entrySet()) {
+                    if (current.get(e.getKey()) != e.getValue()) stale.add(e.getValue());
+                }
+            }
+        }
+
+        Graph graph = new Graph();
+        Map<String, Set<String>> seeds = new HashMap<>();
+        for (Contribution c : classes.values()) c.addTo(graph, seeds);
+        for (Map<String, Contribution> row : callsInto.values()) {
+            for (Contribution c : row.values()) c.addTo(graph, seeds);
+        }
+        BitSet affected = previous != null ? affectedBy(graph, stale) : null;
+        if (affected != null) {
+            Trace.debug("Endpoint reach index: {} changed sources, {} of {} methods propagated again",
+                    changed.size(), affected.cardinality(), graph.size());
+        }
+        return propagate(graph, seeds, affected, previous, versionKey, fingerprints, classes, callsInto);
+    }
+
+    /**
+     * Absolute paths of the sources added, modified or removed since this index was computed,
+     * given the current fingerprints.
+     */
+    private Set<String> changedSources(Map<String, String> current) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> e : current.entrySet()) {
+            if (!e.getValue().equals(fingerprints.get(e.getKey()))) changed.add(e.getKey());
+        }
+        for (String path : fingerprints.keySet()) {
+            if (!current.containsKey(path)) changed.add(path);
+        }
+        return changed;
+    }
+
+    /**
+     * Nodes whose reaching endpoints may differ from the previous index: those an edge or seed
+     * of a {@code stale} group touches, and everything they call. Nothing else has a caller or
+     * seed that changed anywhere above it.
+     */
+    private static BitSet affectedBy(Graph graph, List<Contribution> stale) {
+        BitSet affected = new BitSet(graph.size());
+        Deque<Integer> work = new ArrayDeque<>();
+        for (Contribution c : stale) {
+            List<String> touched = new ArrayList<>(c.edges);
+            touched.addAll(c.seeds.keySet());
+            for (String key : touched) {
+                Integer id = graph.id(key);
+                if (id != null && !affected.get(id)) {
+                    affected.set(id);
+                    work.push(id);
+                }
+            }
+        }
+        while (!work.isEmpty()) {
+            for (int callee : graph.calleesOf(work.pop())) {
+                if (!affected.get(callee)) {
+                    affected.set(callee);
+                    work.push(callee);
+                }
+            }
+        }
+        return affected;
+    }
+
+    /** Controller seeds, OpenAPI delegate seeds and intra-class edges of one class. */
+    private static Contribution classContribution(ClassInfo info, MethodCallGraph.FileCalls calls,
+                                                  Map<String, String> openApiOperations, String delegateSuffix) {
+        Contribution c = new Contribution();
+        addIntraClassEdges(c, info.fqn, calls);
+        if (calls.isController()) {
+            for (Map.Entry<String, List<String>> e : calls.endpointsByMethod.entrySet()) {
+                c.seeds.computeIfAbsent(nodeKey(info.fqn, e.getKey()), k -> new LinkedHashSet<>()).addAll(e.getValue());
+            }
+        } else if (calls.implementsDelegate(delegateSuffix)) {
+            seedOpenApiOperations(c.seeds, info, calls, openApiOperations, delegateSuffix);
+        }
+        return c;
+    }
+
+    /** Edges from the methods of {@code depInfo} to the methods of {@code target} they call. */
+    private static Contribution callsInto(ClassInfo target, MethodCallGraph.FileCalls targetCalls,
+                                          ClassInfo depInfo, MethodCallGraph.FileCalls depCalls) {
+        Contribution c = new Contribution();
+        if (depCalls != null && depCalls.canResolve(target.simpleName, target.fqn, target.supertypeSimpleNames)) {
+            for (Map.Entry<String, Set<String>> e : depCalls.callersByCallee(
+                    target.simpleName, target.fqn, target.supertypeSimpleNames).entrySet()) {
+                for (String caller : e.getValue()) {
+                    c.addEdge(nodeKey(depInfo.fqn, caller), nodeKey(target.fqn, e.getKey()));
+                }
+            }
+        } else {
+            addEdgesFromSource(c, target, targetCalls, depInfo, depCalls);
+        }
+        return c;
+    }
+
+    /** Edge from every method to each same-class method it calls (unbounded intra-class expansion). */
+    private static void addIntraClassEdges(Contribution c, String fqn, MethodCallGraph.FileCalls calls) {
+        Set<String> names = new HashSet<>();
+        for (MethodCallGraph.MethodCalls method : calls.methods) names.add(method.name);
+        for (MethodCallGraph.MethodCalls method : calls.methods) {
+            String caller = nodeKey(fqn, method.name);
+            for (String token : method.callTokens) {
+                // Every name the token would satisfy: "xfoo(" contains "foo(", "::fooBar" contains "::foo"
+                boolean ref = token.startsWith("::");
+                String ident = ref ? token.substring(2) : token.substring(0, token.length() - 1);
+                for (int i = 0; i < ident.length(); i++) {
+                    String name = ref ? ident.substring(0, ident.length() - i) : ident.substring(i);
+                    if (!name.equals(method.name) && names.contains(name) && ImpactAnalyzer.isValidMethodName(name)) {
+                        c.addEdge(caller, nodeKey(fqn, name));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Seeds delegate methods with the OpenAPI endpoints resolveOpenApiEndpoints would report:
+     * a method named after an operationId maps to it directly, and reaching any method of the
+     * class reports every operationId method the class declares.
+     */
+    private static void seedOpenApiOperations(Map<String, Set<String>> seeds, ClassInfo info,
+                                              MethodCallGraph.FileCalls calls,
+                                              Map<String, String> operations, String delegateSuffix) {
+        if (operations.isEmpty() || calls.delegateInterfaces(delegateSuffix).isEmpty()) return;
+        List<String> declared = new ArrayList<>();
+        for (String name : calls.declaredMethods()) {
+            String ep = operationEndpoint(info, name, operations);
+            if (ep != null && !declared.contains(ep)) declared.add(ep);
+        }
+        Set<String> methodNames = new LinkedHashSet<>();
+        for (MethodCallGraph.MethodCalls method : calls.methods) methodNames.add(method.name);
+        for (MethodCallGraph.CallSite site : calls.sites) methodNames.add(site.caller);
+        for (String name : methodNames) {
+            Set<String> eps = seeds.computeIfAbsent(nodeKey(info.fqn, name), k -> new LinkedHashSet<>());
+            String direct = operationEndpoint(info, name, operations);
+            if (direct != null) eps.add(direct);
+            eps.addAll(declared);
+        }
+    }
+
+    private static String operationEndpoint(ClassInfo info, String method, Map<String, String> operations) {
+        String httpPathEntry = operations.get(method);
+        return httpPathEntry == null ? null : info.simpleName + "." + method + " [" + httpPathEntry + "]";
+    }
+
+    /**
+     * Fallback for type names the call graph does not record (lower-case): asks
+     * {@link ImpactAnalyzer#getMethodsCalling} once per method the target declares.
+     */
+    private static void addEdgesFromSource(Contribution c, ClassInfo target, MethodCallGraph.FileCalls targetCalls,
+                                           ClassInfo depInfo, MethodCallGraph.FileCalls depCalls) {
+        String content;
+        try {
+            content = SourceFile.contentOf(depInfo.path);
+        } catch (IOException e) {
+            return;
+        }
+        boolean controller = depCalls != null ? depCalls.isController()
+                : content.contains("@RestController") || content.contains("@Controller");
+        Set<String> methods = new LinkedHashSet<>();
+        for (MethodCallGraph.MethodCalls method : targetCalls.methods) methods.add(method.name);
+        for (String method : methods) {
+            List<String> callers = ImpactAnalyzer.getMethodsCalling(content, target.simpleName, target.fqn,
+                    target.supertypeSimpleNames, Collections.singletonList(method), false, !controller);
+            for (String caller : ImpactAnalyzer.filterValidMethodNames(callers)) {
+                c.addEdge(nodeKey(depInfo.fqn, caller), nodeKey(target.fqn, method));
+            }
+        }
+    }
+
+    /**
+     * Propagates seeds from callers to callees. Tarjan's algorithm over the reversed edges
+     * emits every component after all components that call into it, so each component's set
+     * is final when it is emitted and is computed exactly once.
+     *
+     * <p>With {@code affected}, only those nodes are visited; their callers outside it keep the
+     * endpoints they have in {@code previous}, and so does every other node.
+     */
+    private static EndpointReachIndex propagate(Graph graph, Map<String, Set<String>> seeds, BitSet affected,
+                                                EndpointReachIndex previous, String versionKey,
+                                                Map<String, String> fingerprints, Map<String, Contribution> classes,
+                                                Map<String, Map<String, Contribution>> callsInto) {
+        TreeSet<String> endpointSet = new TreeSet<>();
+        for (Set<String> eps : seeds.values()) endpointSet.addAll(eps);
+        for (String key : seeds.keySet()) graph.node(key);
+        String[] endpoints = endpointSet.toArray(new String[0]);
+        Map<String, Integer> endpointIds = new HashMap<>(endpoints.length * 2);
+        for (int i = 0; i < endpoints.length; i++) endpointIds.put(endpoints[i], i);
+
+        int n = graph.size();
+        int[][] callers = graph.callersOf();
+        int[] component = new int[n];
+        List<BitSet> componentReach = new ArrayList<>();
+        // Previous bitmaps in the new endpoint table, translated once each
+        BitSet[] carried = previous != null ? new BitSet[previous.bitmaps.length] : null;
+
+        int[] order = new int[n];
+        int[] low = new int[n];
+        Arrays.fill(order, -1);
+        boolean[] onStack = new boolean[n];
+        Deque<Integer> stack = new ArrayDeque<>();
+        int[] edgeCursor = new int[n];
+        Deque<Integer> work = new ArrayDeque<>();
+        int counter = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (order[root] >= 0 || (affected != null && !affected.get(root))) continue;
+            work.push(root);
+            while (!work.isEmpty()) {
+                int v = work.peek();
+                if (order[v] < 0) {
+                    order[v] = low[v] = counter++;
+                    stack.push(v);
+                    onStack[v] = true;
+                }
+                if (edgeCursor[v] < callers[v].length) {
+                    int w = callers[v][edgeCursor[v]++];
+                    if (affected != null && !affected.get(w)) continue;
+                    if (order[w] < 0) {
+                        work.push(w);
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], order[w]);
+                    }
+                    continue;
+                }
+                work.pop();
+                if (!work.isEmpty()) {
+                    int parent = work.peek();
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == order[v]) {
+                    int id = componentReach.size();
+                    List<Integer> members = new ArrayList<>();
+                    int w;
+                    do {
+                        w = stack.pop();
+                        onStack[w] = false;
+                        component[w] = id;
+                        members.add(w);
+                    } while (w != v);
+                    BitSet reach = new BitSet(endpoints.length);
+                    for (int member : members) {
+                        for (String ep : seeds.getOrDefault(graph.key(member), Collections.emptySet())) {
+                            reach.set(endpointIds.get(ep));
+                        }
+                        for (int caller : callers[member]) {
+                            if (affected != null && !affected.get(caller)) {
+                                reach.or(previous.carriedReach(graph.key(caller), endpointIds, carried));
+                            } else if (component[caller] != id) {
+                                // Callers outside this component were emitted earlier and are final
+                                reach.or(componentReach.get(component[caller]));
+                            }
+                        }
+                    }
+                    componentReach.add(reach);
+                }
+            }
+        }
+
+        Map<BitSet, Integer> shared = new HashMap<>();
+        List<Object> bitmaps = new ArrayList<>();
+        Map<String, Integer> bitmapByNode = new HashMap<>(n * 2);
+        for (int v = 0; v < n; v++) {
+            BitSet reach = affected == null || affected.get(v)
+                    ? componentReach.get(component[v])
+                    : previous.carriedReach(graph.key(v), endpointIds, carried);
+            if (reach.isEmpty()) continue;
+            Integer id = shared.get(reach);
+            if (id == null) {
+                id = bitmaps.size();
+                shared.put(reach, id);
+                bitmaps.add(encode(reach, endpoints.length));
+            }
+            bitmapByNode.put(graph.key(v), id);
+        }
+        return new EndpointReachIndex(versionKey, fingerprints, classes, callsInto, endpoints, bitmapByNode, bitmaps.toArray());
+    }
+
+    /**
+     * The endpoints reaching {@code node} in this index, as ids of {@code endpointIds}. Each
+     * bitmap is translated once into {@code carried}, which the callers must not modify.
+     */
+    private BitSet carriedReach(String node, Map<String, Integer> endpointIds, BitSet[] carried) {
+        Integer bitmap = bitmapByNode.get(node);
+        if (bitmap == null) return EMPTY_REACH;
+        BitSet reach = carried[bitmap];
+        if (reach == null) {
+            reach = new BitSet(endpointIds.size());
+            for (int id : decode(bitmaps[bitmap])) {
+                Integer current = endpointIds.get(endpoints[id]);
+                if (current != null) reach.set(current);
+            }
+            carried[bitmap] = reach;
+        }
+        return reach;
+    }
+
+    /** Sorted id array when sparse, word bitmap when dense — whichever takes fewer bytes. */
+    private static Object encode(BitSet reach, int universe) {
+        int cardinality = reach.cardinality();
+        int words = (universe + 63) >>> 6;
+        if ((long) cardinality * 4 <= (long) words * 8) return reach.stream().toArray();
+        return Arrays.copyOf(reach.toLongArray(), words);
+    }
+
+    private static int[] decode(Object bitmap) {
+        if (bitmap instanceof int[]) return (int[]) bitmap;
+        long[] words = (long[]) bitmap;
+        return words.length == 0 ? NO_IDS : BitSet.valueOf(words).stream().toArray();
+    }
+
+    /** String-keyed adjacency list; node ids are assigned on first sight. */
+    private static final class Graph {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<Set<Integer>> callees = new ArrayList<>();
+
+        int node(String key) {
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = keys.size();
+                ids.put(key, id);
+                keys.add(key);
+                callees.add(new LinkedHashSet<>());
+            }
+            return id;
+        }
+
+        void addEdge(String caller, String callee) {
+            int from = node(caller);
+            int to = node(callee);
+            if (from != to) callees.get(from).add(to);
+        }
+
+        Integer id(String key) {
+            return ids.get(key);
+        }
+
+        Set<Integer> calleesOf(int id) {
+            return callees.get(id);
+        }
+
+        int size() {
+            return keys.size();
+        }
+
+        String key(int id) {
+            return keys.get(id);
+        }
+
+        /** Reversed adjacency: callee → callers. */
+        int[][] callersOf() {
+            List<List<Integer>> reversed = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) reversed.add(new ArrayList<>());
+            for (int from = 0; from < callees.size(); from++) {
+                for (int to : callees.get(from)) reversed.get(to).add(from);
+            }
+            int[][] result = new int[keys.size()][];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = reversed.get(i).stream().mapToInt(Integer::intValue).toArray();
+            }
+            return result;
+        }
+    }
+
+    // ── Persistence ───────────────────────────────────────────────────────────────────────────
+
+    /*
+     * File layout (big-endian, paths repo-relative as writeUTF, other strings as writeString):
+     *   int magic, int version, UTF versionKey
+     *   int count, count × endpoint
+     *   int count, count × (boolean words, int n, n × long word | n × int endpoint id)
+     *   int count, count × node key; nodes are referred to by their index below
+     *   int count, count × (int node, int bitmap)
+     *   int count, count × (UTF path, UTF fingerprint)
+     *   int count, count × (UTF path, contribution)
+     *   int count, count × (UTF target path, int n, n × (UTF dependent path, contribution))
+     * where a contribution is
+     *   int edges, edges × (int caller node, int callee node),
+     *   int seeds, seeds × (int node, int n, n × int endpoint id)
+     */
+
+    /**
+     * Loads the index if {@code file} holds one computed for {@code versionKey}, whatever the
+     * sources were then; otherwise null.
+     */
+    public static EndpointReachIndex load(Path file, Path repoRoot, String versionKey) {
+        if (!Files.exists(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            if (!versionKey.equals(in.readUTF())) return null;
+            String[] endpoints = new String[in.readInt()];
+            for (int i = 0; i < endpoints.length; i++) endpoints[i] = readString(in);
+            Object[] bitmaps = new Object[in.readInt()];
+            for (int b = 0; b < bitmaps.length; b++) {
+                boolean words = in.readBoolean();
+                if (words) {
+                    long[] w = new long[in.readInt()];
+                    for (int i = 0; i < w.length; i++) w[i] = in.readLong();
+                    bitmaps[b] = w;
+                } else {
+                    int[] ids = new int[in.readInt()];
+                    for (int i = 0; i < ids.length; i++) ids[i] = in.readInt();
+                    bitmaps[b] = ids;
+                }
+            }
+            String[] nodes = new String[in.readInt()];
+            for (int i = 0; i < nodes.length; i++) nodes[i] = readString(in);
+            int nodeCount = in.readInt();
+            Map<String, Integer> bitmapByNode = new HashMap<>(nodeCount * 2);
+            for (int i = 0; i < nodeCount; i++) {
+                String key = nodes[in.readInt()];
+                bitmapByNode.put(key, in.readInt());
+            }
+            int fileCount = in.readInt();
+            Map<String, String> fingerprints = new HashMap<>(fileCount * 2);
+            for (int i = 0; i < fileCount; i++) fingerprints.put(absolute(repoRoot, in.readUTF()), in.readUTF());
+            Map<String, Contribution> classes = new HashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                classes.put(absolute(repoRoot, in.readUTF()), readContribution(in, nodes, endpoints));
+            }
+            Map<String, Map<String, Contribution>> callsInto = new HashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                Map<String, Contribution> row = new HashMap<>();
+                callsInto.put(absolute(repoRoot, in.readUTF()), row);
+                for (int d = in.readInt(); d > 0; d--) {
+                    row.put(absolute(repoRoot, in.readUTF()), readContribution(in, nodes, endpoints));
+                }
+            }
+            return new EndpointReachIndex(versionKey, fingerprints, classes, callsInto, endpoints, bitmapByNode, bitmaps);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Writes the index atomically (temp file + move). */
+    public void save(Path file, Path repoRoot) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Map<String, Integer> nodeIds = new HashMap<>();
+        List<String> nodes = new ArrayList<>();
+        Map<String, Integer> endpointIds = new HashMap<>(endpoints.length * 2);
+        for (int i = 0; i < endpoints.length; i++) endpointIds.put(endpoints[i], i);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(versionKey);
+            out.writeInt(endpoints.length);
+            for (String ep : endpoints) writeString(out, ep);
+            out.writeInt(bitmaps.length);
+            for (Object bitmap : bitmaps) {
+                if (bitmap instanceof long[]) {
+                    long[] w = (long[]) bitmap;
+                    out.writeBoolean(true);
+                    out.writeInt(w.length);
+                    for (long word : w) out.writeLong(word);
+                } else {
+                    int[] ids = (int[]) bitmap;
+                    out.writeBoolean(false);
+                    out.writeInt(ids.length);
+                    for (int id : ids) out.writeInt(id);
+                }
+            }
+
+            Map<String, Integer> sortedNodes = new TreeMap<>(bitmapByNode);
+            Map<String, Contribution> sortedClasses = new TreeMap<>(classes);
+            Map<String, Map<String, Contribution>> sortedCalls = new TreeMap<>();
+            for (Map.Entry<String, Map<String, Contribution>> e : callsInto.entrySet()) {
+                sortedCalls.put(e.getKey(), new TreeMap<>(e.getValue()));
+            }
+            for (String key : sortedNodes.keySet()) nodeId(key, nodeIds, nodes);
+            for (Contribution c : sortedClasses.values()) addNodes(c, nodeIds, nodes);
+            for (Map<String, Contribution> row : sortedCalls.values()) {
+                for (Contribution c : row.values()) addNodes(c, nodeIds, nodes);
+            }
+            out.writeInt(nodes.size());
+            for (String node : nodes) writeString(out, node);
+            out.writeInt(sortedNodes.size());
+            for (Map.Entry<String, Integer> e : sortedNodes.entrySet()) {
+                out.writeInt(nodeIds.get(e.getKey()));
+                out.writeInt(e.getValue());
+            }
+
+            out.writeInt(fingerprints.size());
+            for (Map.Entry<String, String> e : new TreeMap<>(fingerprints).entrySet()) {
+                out.writeUTF(ReverseGraphSnapshot.relativize(repoRoot, e.getKey()));
+                out.writeUTF(e.getValue());
+            }
+            out.writeInt(sortedClasses.size());
+            for (Map.Entry<String, Contribution> e : sortedClasses.entrySet()) {
+                out.writeUTF(ReverseGraphSnapshot.relativize(repoRoot, e.getKey()));
+                writeContribution(out, e.getValue(), nodeIds, endpointIds);
+            }
+            out.writeInt(sortedCalls.size());
+            for (Map.Entry<String, Map<String, Contribution>> row : sortedCalls.entrySet()) {
+                out.writeUTF(ReverseGraphSnapshot.relativize(repoRoot, row.getKey()));
+                out.writeInt(row.getValue().size());
+                for (Map.Entry<String, Contribution> e : row.getValue().entrySet()) {
+                    out.writeUTF(ReverseGraphSnapshot.relativize(repoRoot, e.getKey()));
+                    writeContribution(out, e.getValue(), nodeIds, endpointIds);
+                }
+            }
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException atomicUnsupported) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static int nodeId(String key, Map<String, Integer> nodeIds, List<String> nodes) {
+        Integer id = nodeIds.get(key);
+        if (id == null) {
+            id = nodes.size();
+            nodeIds.put(key, id);
+            nodes.add(key);
+        }
+        return id;
+    }
+
+    private static void addNodes(Contribution c, Map<String, Integer> nodeIds, List<String> nodes) {
+        for (String key : c.edges) nodeId(key, nodeIds, nodes);
+        for (String key : c.seeds.keySet()) nodeId(key, nodeIds, nodes);
+    }
+
+    private static void writeContribution(DataOutputStream out, Contribution c, Map<String, Integer> nodeIds,
+                                          Map<String, Integer> endpointIds) throws IOException {
+        out.writeInt(c.edges.size() / 2);
+        for (String key : c.edges) out.writeInt(nodeIds.get(key));
+        out.writeInt(c.seeds.size());
+        for (Map.Entry<String, Set<String>> e : c.seeds.entrySet()) {
+            out.writeInt(nodeIds.get(e.getKey()));
+            out.writeInt(e.getValue().size());
+            for (String ep : e.getValue()) out.writeInt(endpointIds.get(ep));
+        }
+    }
+
+    private static Contribution readContribution(DataInputStream in, String[] nodes, String[] endpoints) throws IOException {
+        Contribution c = new Contribution();
+        for (int i = in.readInt(); i > 0; i--) c.addEdge(nodes[in.readInt()], nodes[in.readInt()]);
+        for (int i = in.readInt(); i > 0; i--) {
+            Set<String> eps = new LinkedHashSet<>();
+            c.seeds.put(nodes[in.readInt()], eps);
+            for (int n = in.readInt(); n > 0; n--) eps.add(endpoints[in.readInt()]);
+        }
+        return c;
+    }
+
+    private static String absolute(Path repoRoot, String stored) {
+        return repoRoot.resolve(stored).normalize().toString();
+    }
+
+    /** Length-prefixed UTF-8; endpoint strings are not bounded by {@code writeUTF}'s 64 KB limit. */
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,272 @@
+package com.reviewer.analysis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted identifier index: token → sorted posting list of file ids.
+ *
+ * <p>Answers the token questions asked by {@link JavaSymbolIndex#dependsOn} without re-reading
+ * or regex-scanning candidate files. Each file contributes:
+ * <ul>
+ *   <li>every word token ({@code \w+} run) that starts with an upper-case letter — class,
+ *       interface and enum simple names by Java convention;</li>
+ *   <li>every dotted chain of word tokens ending in such a token, including all contiguous
+ *       sub-chains (e.g. {@code com.acme.Foo}, {@code acme.Foo}) — covers FQN references;</li>
+ *   <li>{@code #i:<fqn>} per explicit import and {@code #w:<package>} per wildcard import;</li>
+ *   <li>{@code #a:<SimpleType>} per {@code @Autowired}/{@code @Inject} field or parameter type.</li>
+ * </ul>
+ * Word boundaries follow {@code \b} semantics, so a posting hit is exactly equivalent to
+ * {@code containsToken(content, token)}. Tokens outside this vocabulary (see
+ * {@link #isIndexable}) must be answered by the regex path instead.
+ */
+final class IdentifierIndex {
+
+    static final String STORE_FILE = "identifier-index.bin";
+    private static final int MAGIC = 0x43524949; // "CRII"
+    private static final int VERSION = 1;
+    /** Longest dotted sub-chain indexed; deeper package names are vanishingly rare. */
+    private static final int MAX_CHAIN_SEGMENTS = 12;
+
+    static final String IMPORT_PREFIX = "#i:";
+    static final String WILDCARD_PREFIX = "#w:";
+    static final String INJECT_PREFIX = "#a:";
+
+    private static final Pattern IMPORT_PATTERN = Pattern.compile("(?m)^\\s*import\\s+([\\w\\.\\*]+)\\s*;");
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] filePaths;
+    private final Map<String, Integer> fileIds;
+    private final Map<String, int[]> postings;
+
+    private IdentifierIndex(String[] filePaths, Map<String, Integer> fileIds, Map<String, int[]> postings) {
+        this.filePaths = filePaths;
+        this.fileIds = fileIds;
+        this.postings = postings;
+    }
+
+    /**
+     * Builds the in-memory postings from per-file token sets.
+     *
+     * @param tokensByFile normalized absolute path → tokens produced by {@link #extractTokens}
+     */
+    static IdentifierIndex build(Map<String, ? extends Collection<String>> tokensByFile) {
+        Map<String, Integer> fileIds = new HashMap<>(tokensByFile.size() * 2);
+        Map<String, IntList> lists = new HashMap<>();
+        // Sorted keys give stable ids, so every posting list is appended in ascending order
+        String[] keys = tokensByFile.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        for (int id = 0; id < keys.length; id++) {
+            fileIds.put(keys[id], id);
+            for (String token : tokensByFile.get(keys[id])) {
+                lists.computeIfAbsent(token, k -> new IntList()).add(id);
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<String, IntList> e : lists.entrySet()) {
+            postings.put(e.getKey(), e.getValue().toArray());
+        }
+        return new IdentifierIndex(keys, fileIds, postings);
+    }
+
+    /** True when {@code token} belongs to the indexed vocabulary, i.e. a posting miss is authoritative. */
+    static boolean isIndexable(String token) {
+        if (token == null || token.isEmpty()) return false;
+        int lastDot = token.lastIndexOf('.');
+        String last = token.substring(lastDot + 1);
+        if (last.isEmpty() || !Character.isUpperCase(last.charAt(0))) return false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c != '.' && !isWordChar(c)) return false;
+        }
+        return lastDot < 0 || token.split("\\.", -1).length <= MAX_CHAIN_SEGMENTS;
+    }
+
+    /** Posting list for {@code token}; never null. */
+    int[] filesWith(String token) {
+        int[] list = postings.get(token);
+        return list == null ? EMPTY : list;
+    }
+
+    /** Returns the file id for a normalized absolute path, or -1 when the file is not indexed. */
+    int fileId(String normalizedPath) {
+        Integer id = fileIds.get(normalizedPath);
+        return id == null ? -1 : id;
+    }
+
+    /** Returns the normalized absolute path for a file id. */
+    String filePath(int fileId) {
+        return filePaths[fileId];
+    }
+
+    boolean contains(int fileId, String token) {
+        return fileId >= 0 && Arrays.binarySearch(filesWith(token), fileId) >= 0;
+    }
+
+    // ── Tokenisation ──────────────────────────────────────────────────────────────────────────
+
+    /** Extracts the indexed vocabulary for one source file. */
+    static Set<String> extractTokens(String content, Pattern autowiredPattern) {
+        Set<String> tokens = new LinkedHashSet<>();
+
+        Matcher im = IMPORT_PATTERN.matcher(content);
+        while (im.find()) {
+            String value = im.group(1);
+            if (value.endsWith(".*")) tokens.add(WILDCARD_PREFIX + value.substring(0, value.length() - 2));
+            else tokens.add(IMPORT_PREFIX + value);
+        }
+
+        Matcher am = autowiredPattern.matcher(content);
+        while (am.find()) {
+            String type = am.group(1);
+            tokens.add(INJECT_PREFIX + type.substring(type.lastIndexOf('.') + 1));
+        }
+
+        // Walk maximal \w runs, grouping runs joined by a single '.' into chains
+        String[] chain = new String[MAX_CHAIN_SEGMENTS];
+        int chainLen = 0;
+        int n = content.length();
+        int i = 0;
+        while (i < n) {
+            if (!isWordChar(content.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < n && isWordChar(content.charAt(i))) i++;
+            String word = content.substring(start, i);
+            if (chainLen == MAX_CHAIN_SEGMENTS) {
+                System.arraycopy(chain, 1, chain, 0, MAX_CHAIN_SEGMENTS - 1);
+                chainLen--;
+            }
+            chain[chainLen++] = word;
+            if (Character.isUpperCase(word.charAt(0))) {
+                tokens.add(word);
+                StringBuilder sb = new StringBuilder(word);
+                for (int k = chainLen - 2; k >= 0; k--) {
+                    sb.insert(0, '.').insert(0, chain[k]);
+                    tokens.add(sb.toString());
+                }
+            }
+            boolean continues = i + 1 < n && content.charAt(i) == '.' && isWordChar(content.charAt(i + 1));
+            if (continues) {
+                i++;
+            } else {
+                chainLen = 0;
+            }
+        }
+        return tokens;
+    }
+
+    /** Mirrors the ASCII {@code \w} class used by the regex token checks. */
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // ── Persistence ───────────────────────────────────────────────────────────────────────────
+
+    /** A persisted per-file token set, valid only while the file's blob id is unchanged. */
+    static final class StoredFile {
+        final String blobId;
+        final List<String> tokens;
+
+        StoredFile(String blobId, List<String> tokens) {
+            this.blobId = blobId;
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * Loads per-file token sets keyed by repo-relative path.
+     * Returns an empty map when the store is missing, from another version, or corrupt.
+     */
+    static Map<String, StoredFile> load(Path cacheDir) {
+        Path file = cacheDir.resolve(STORE_FILE);
+        if (!Files.exists(file)) return Collections.emptyMap();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return Collections.emptyMap();
+            String[] table = new String[in.readInt()];
+            for (int i = 0; i < table.length; i++) table[i] = in.readUTF();
+            int fileCount = in.readInt();
+            Map<String, StoredFile> result = new HashMap<>(fileCount * 2);
+            for (int f = 0; f < fileCount; f++) {
+                String rel = in.readUTF();
+                String blob = in.readUTF();
+                String[] tokens = new String[in.readInt()];
+                for (int t = 0; t < tokens.length; t++) tokens[t] = table[in.readInt()];
+                result.put(rel, new StoredFile(blob, Arrays.asList(tokens)));
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            return Collections.emptyMap();
+        }
+    }
+
+    /** Writes the store atomically with an interned token table so each token string is stored once. */
+    static void save(Path cacheDir, Map<String, StoredFile> files) {
+        try {
+            Files.createDirectories(cacheDir);
+            Map<String, Integer> intern = new HashMap<>();
+            List<String> table = new ArrayList<>();
+            for (StoredFile sf : files.values()) {
+                for (String t : sf.tokens) {
+                    if (intern.putIfAbsent(t, table.size()) == null) table.add(t);
+                }
+            }
+            Path tmp = Files.createTempFile(cacheDir, STORE_FILE, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(table.size());
+                for (String t : table) out.writeUTF(t);
+                out.writeInt(files.size());
+                for (Map.Entry<String, StoredFile> e : files.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeUTF(e.getValue().blobId);
+                    out.writeInt(e.getValue().tokens.size());
+                    for (String t : e.getValue().tokens) out.writeInt(intern.get(t));
+                }
+            }
+            try {
+                Files.move(tmp, cacheDir.resolve(STORE_FILE),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException atomicUnsupported) {
+                Files.move(tmp, cacheDir.resolve(STORE_FILE), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ignored) {
+            // A missing store only costs a full re-tokenisation on the next run
+        }
+    }
+
+    /** Minimal growable int array; avoids boxing millions of posting entries. */
+    private static final class IntList {
+        private int[] data = new int[4];
+        private int size;
+
+        void add(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
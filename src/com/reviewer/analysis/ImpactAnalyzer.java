@@ -1,6 +1,8 @@
 package com.reviewer.analysis;
 
 import com.reviewer.model.Models.*;
+import com.reviewer.util.RunMetrics;
+import com.reviewer.util.Trace;
 import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.*;
@@ -11,6 +13,16 @@ public class ImpactAnalyzer {
     /** Cache for compiled call/ref patterns keyed by "instance\u0000method" or "method\u0000suffix" for static/fallback patterns. */
     private static final Map<String, Pattern> CALL_PATTERN_CACHE = new ConcurrentHashMap<>();
 
+    /**
+     * Every {@code qualifier.member} and {@code qualifier::member} site, found in one pass for all
+     * qualifiers and members at once. Only the qualifier is consumed, so in {@code a.b.c(} both
+     * {@code a.b} and {@code b.c(} are seen. Groups: 1 qualifier, 2 separator, 3 member, 4 the
+     * call's opening parenthesis when there is one. Equivalent to {@link #callPattern} and
+     * {@link #refPattern} for qualifiers that are plain identifiers.
+     */
+    private static final Pattern CALL_SITE = Pattern.compile("\\b(\\w+)(?=\\s*(\\.|::)\\s*(\\w+)\\b(\\s*\\()?)");
+    private static final Pattern WORD = Pattern.compile("\\w+");
+
     private static Pattern callPattern(String instanceName, String methodName) {
         String key = instanceName + "\u0000" + methodName + "\u0000call";
         return CALL_PATTERN_CACHE.computeIfAbsent(key, k ->
@@ -47,7 +59,6 @@ public class ImpactAnalyzer {
             Pattern.compile("\\b\\w+\\s*::\\s*" + Pattern.quote(methodName) + "\\b"));
     }
 
-    private static volatile boolean debugEnabled = false;
     /**
      * Controls whether the structural fallback (step 6 / AST scan) is active.
      * Off by default — only touches methods that literally contain the touched-method
@@ -65,10 +76,6 @@ public class ImpactAnalyzer {
      */
     private static volatile boolean astCallerDetectionEnabled = true;
 
-    public static void setDebugEnabled(boolean enabled) {
-        debugEnabled = enabled;
-    }
-
     public static void setStructuralFallbackEnabled(boolean enabled) {
         structuralFallbackEnabled = enabled;
     }
@@ -77,8 +84,8 @@ public class ImpactAnalyzer {
         astCallerDetectionEnabled = enabled;
     }
 
-    private static void debug(String msg) {
-        if (debugEnabled) System.out.println(msg);
+    static boolean isAstCallerDetectionEnabled() {
+        return astCallerDetectionEnabled;
     }
 
     private static final Set<String> NON_METHOD_TOKENS;
@@ -91,7 +98,7 @@ public class ImpactAnalyzer {
     }
     public static List<String> extractTouchedMethods(ChangedFile file, String content) {
         List<String> methods = new ArrayList<>();
-        String[] lines = content.split("\\R");
+        String[] lines = SourceFile.of(content).lines();
 
         // Support multi-line signatures, annotations, and complex throws/generics
         Pattern methodPattern = Pattern.compile(
@@ -111,8 +118,7 @@ public class ImpactAnalyzer {
             int bodyBraceLine = getLineNumber(content, bodyBracePos);
             int bodyBraceCharIdx = getCharIndexInLine(content, bodyBracePos);
             int endLine = findMethodEndLine(lines, bodyBraceLine, bodyBraceCharIdx);
-            debug("[DEBUG] ImpactAnalyzer found method: " + methodName +
-                    " (sig start: " + startLine + ", name line: " + methodNameLine + ", body brace line: " + bodyBraceLine + ", end: " + endLine + ")");
+            if (Trace.isEnabled()) Trace.debug("ImpactAnalyzer found method: " + methodName + " (sig start: " + startLine + ", name line: " + methodNameLine + ", body brace line: " + bodyBraceLine + ", end: " + endLine + ")");
             if (endLine == -1) endLine = startLine;
 
             boolean intersects = false;
@@ -247,7 +253,7 @@ public class ImpactAnalyzer {
     }
 
     private static int getLineNumber(String content, int index) {
-        return (int) content.substring(0, Math.min(index, content.length())).chars().filter(c -> c == '\n').count() + 1;
+        return SourceFile.of(content).lineOf(Math.min(index, content.length()));
     }
 
     public static List<String> getMethodsCalling(String content, String className, List<String> touchedMethods) {
@@ -285,6 +291,7 @@ public class ImpactAnalyzer {
     private static List<String> getMethodsCallingImpl(String content, String targetSimpleName, String targetFqn,
                                                        List<String> supertypeSimpleNames,
                                                        List<String> touchedMethods, boolean allowBroadFallback, boolean confirmedDependent) {
+        RunMetrics.count("getMethodsCalling calls");
         if (content == null || content.isBlank() || touchedMethods == null || touchedMethods.isEmpty()) {
             return Collections.emptyList();
         }
@@ -311,23 +318,23 @@ public class ImpactAnalyzer {
             // (reverse graph shows a dependency), we don't want to propagate methods that don't
             // actually call the touched methods - that would pollute the BFS with unrelated paths.
             if (!structuralFallbackEnabled) {
-                debug("[DEBUG] getMethodsCallingImpl: no touched tokens, structural fallback disabled — skipping. target=" + targetSimpleName);
+                Trace.debug("getMethodsCallingImpl: no touched tokens, structural fallback disabled — skipping. target={}", targetSimpleName);
                 return Collections.emptyList();
             }
             // Structural analysis is enabled: check whether the target is even referenced before
             // paying the cost of a full scan.
             boolean likelyRef = isLikelyTargetReferencedInFile(content, targetSimpleName, targetFqn);
             if (!likelyRef) {
-                debug("[DEBUG] getMethodsCallingImpl: no tokens, no reference — skipping. target=" + targetSimpleName);
+                Trace.debug("getMethodsCallingImpl: no tokens, no reference — skipping. target={}", targetSimpleName);
                 return Collections.emptyList();
             }
-            debug("[DEBUG] getMethodsCallingImpl: no touched tokens, structural fallback enabled. Running AST/structural scan. target=" + targetSimpleName);
+            Trace.debug("getMethodsCallingImpl: no touched tokens, structural fallback enabled. Running AST/structural scan. target={}", targetSimpleName);
             // Pass touchedMethods to structural scan so it can filter to only methods calling those specific methods
             List<String> structural = getMethodsUsingTarget(content, targetSimpleName, targetFqn, supertypeSimpleNames, touchedMethods);
-            debug("[DEBUG] getMethodsCallingImpl: structural scan found " + structural.size() + " callers for target=" + targetSimpleName + ": " + structural);
+            Trace.debug("getMethodsCallingImpl: structural scan found {} callers for target={}: {}", structural.size(), targetSimpleName, structural);
             return structural;
         }
-        debug("[DEBUG] getMethodsCallingImpl: found token '" + matchedToken + "' in content, targetSimpleName=" + targetSimpleName);
+        Trace.debug("getMethodsCallingImpl: found token '{}' in content, targetSimpleName={}", matchedToken, targetSimpleName);
 
         Set<String> callers = new HashSet<>();
 
@@ -341,7 +348,7 @@ public class ImpactAnalyzer {
         }
 
         // 2. Identify all method boundaries in the current file accurately
-        List<MethodSpan> methodsInFile = buildMethodSpans(content);
+        List<MethodSpan> methodsInFile = SourceFile.of(content).methodSpans();
 
         // 3. Check whether touched methods can be called unqualified due to static import
         boolean staticImportAll = false;
@@ -368,9 +375,33 @@ public class ImpactAnalyzer {
         // AST handles chained calls, lambdas, and anonymous classes that regex misattributes.
         // Both run in parallel on the pre-computed instanceNames; results are merged.
         if (instanceNames != null && !instanceNames.isEmpty()) {
-            debug("[DEBUG] step 4 regex: instanceNames=" + instanceNames + ", touchedMethods=" + touchedMethods);
+            Trace.debug("step 4 regex: instanceNames={}, touchedMethods={}", instanceNames, touchedMethods);
+            Set<String> methodNames = new HashSet<>();
+            for (String method : touchedMethods) {
+                String pureMethodName = method == null ? "" : method.split("\\(")[0].trim();
+                if (isValidMethodName(pureMethodName)) methodNames.add(pureMethodName);
+            }
+            // One pass over the file for every plain-identifier qualifier at once; anything else
+            // (e.g. a nested class name with '$') still gets its own per-pair patterns below.
+            Set<String> otherNames = new LinkedHashSet<>();
+            Set<String> wordNames = new HashSet<>();
             for (String instanceName : instanceNames) {
                 if (instanceName == null || instanceName.isBlank()) continue;
+                if (WORD.matcher(instanceName).matches()) wordNames.add(instanceName);
+                else otherNames.add(instanceName);
+            }
+            if (!wordNames.isEmpty() && !methodNames.isEmpty()) {
+                Matcher sm = CALL_SITE.matcher(content);
+                while (sm.find()) {
+                    if (!wordNames.contains(sm.group(1)) || !methodNames.contains(sm.group(3))) continue;
+                    boolean call = ".".equals(sm.group(2));
+                    if (call && sm.group(4) == null) continue; // field access, not a call
+                    String enclosing = findEnclosingMethod(methodsInFile, sm.start());
+                    if (call && Trace.isEnabled()) Trace.debug("step 4 regex: {}.{}() enclosed by {}", sm.group(1), sm.group(3), enclosing);
+                    if (enclosing != null) callers.add(enclosing);
+                }
+            }
+            for (String instanceName : otherNames) {
                 for (String method : touchedMethods) {
                     String pureMethodName = method == null ? "" : method.split("\\(")[0].trim();
                     if (!isValidMethodName(pureMethodName)) continue;
@@ -378,7 +409,7 @@ public class ImpactAnalyzer {
                     Matcher cm = callPattern(instanceName, pureMethodName).matcher(content);
                     while (cm.find()) {
                         String enclosing = findEnclosingMethod(methodsInFile, cm.start());
-                        debug("[DEBUG] step 4 regex: " + instanceName + "." + pureMethodName + "() enclosed by " + enclosing);
+                        Trace.debug("step 4 regex: {}.{}() enclosed by {}", instanceName, pureMethodName, enclosing);
                         if (enclosing != null) callers.add(enclosing);
                     }
                     // Method reference: instance::method
@@ -400,7 +431,7 @@ public class ImpactAnalyzer {
                     Matcher um = unqualifiedCallPattern(pureMethodName).matcher(content);
                     while (um.find()) {
                         String enclosing = findEnclosingMethod(methodsInFile, um.start());
-                        debug("[DEBUG] step 4 static-import: " + pureMethodName + "() enclosed by " + enclosing);
+                        Trace.debug("step 4 static-import: {}() enclosed by {}", pureMethodName, enclosing);
                         if (enclosing != null && !enclosing.equals(pureMethodName)) callers.add(enclosing);
                     }
                     // Method reference: ::methodName
@@ -410,9 +441,9 @@ public class ImpactAnalyzer {
                         if (enclosing != null && !enclosing.equals(pureMethodName)) callers.add(enclosing);
                     }
                 }
-                debug("[DEBUG] step 4 static-import: callers so far=" + callers.size());
+                Trace.debug("step 4 static-import: callers so far={}", callers.size());
             }
-            debug("[DEBUG] step 4 regex: found " + callers.size() + " callers");
+            Trace.debug("step 4 regex: found {} callers", callers.size());
 
             // AST parallel path: precise handling of chained calls, lambdas, anonymous classes.
             // Uses the same instanceNames already computed above — no duplicate extraction.
@@ -423,7 +454,7 @@ public class ImpactAnalyzer {
                         content, instanceNames, touchedMethods);
                 int before = callers.size();
                 callers.addAll(astCallers);
-                debug("[DEBUG] step 4 AST: added " + (callers.size() - before) + " new callers: " + astCallers);
+                Trace.debug("step 4 AST: added {} new callers: {}", callers.size() - before, astCallers);
             }
         }
 
@@ -433,7 +464,7 @@ public class ImpactAnalyzer {
         if (callers.isEmpty() && allowBroadFallback) {
             boolean likelyRef = isLikelyTargetReferencedInFile(content, targetSimpleName, targetFqn);
             if (likelyRef) {
-                debug("[DEBUG] step 4a: broad fallback for target=" + targetSimpleName);
+                Trace.debug("step 4a: broad fallback for target={}", targetSimpleName);
                 for (String method : touchedMethods) {
                     String pureMethodName = method == null ? "" : method.split("\\(")[0].trim();
                     if (!isValidMethodName(pureMethodName)) continue;
@@ -448,14 +479,14 @@ public class ImpactAnalyzer {
                         if (enclosing != null) callers.add(enclosing);
                     }
                 }
-                debug("[DEBUG] step 4a: found " + callers.size() + " callers");
+                Trace.debug("step 4a: found {} callers", callers.size());
             }
         }
 
         return new ArrayList<>(callers);
     }
 
-    private static final class MethodSpan {
+    static final class MethodSpan {
         final int start;
         final int endExclusive;
         final String name;
@@ -466,12 +497,37 @@ public class ImpactAnalyzer {
         }
     }
 
-    private static String findEnclosingMethod(List<MethodSpan> spans, int pos) {
+    static String findEnclosingMethod(List<MethodSpan> spans, int pos) {
         if (spans == null) {
-            debug("[DEBUG] findEnclosingMethod: spans is null");
+            Trace.debug("findEnclosingMethod: spans is null");
             return null;
         }
-        debug("[DEBUG] findEnclosingMethod: checking position " + pos + " against " + spans.size() + " method spans");
+        // Called for every call site on the impact path: trace under one check so that nothing
+        // is boxed or formatted when tracing is off.
+        if (!Trace.isEnabled()) return enclosingMethodName(spans, pos);
+        Trace.debug("findEnclosingMethod: checking position {} against {} method spans", pos, spans.size());
+        int candidate = lastSpanStartingAtOrBefore(spans, pos);
+        if (candidate >= 0) {
+            MethodSpan s = spans.get(candidate);
+            Trace.debug("findEnclosingMethod: span {} [{}, {})", s.name, s.start, s.endExclusive);
+            if (pos < s.endExclusive) {
+                Trace.debug("findEnclosingMethod: position {} is inside {}", pos, s.name);
+                return s.name;
+            }
+        }
+        Trace.debug("findEnclosingMethod: position {} not found in any method span", pos);
+        return null;
+    }
+
+    /** Same lookup as {@link #findEnclosingMethod} without the tracing, for whole-file indexing. */
+    static String enclosingMethodName(List<MethodSpan> spans, int pos) {
+        int candidate = lastSpanStartingAtOrBefore(spans, pos);
+        if (candidate < 0) return null;
+        MethodSpan s = spans.get(candidate);
+        return pos < s.endExclusive ? s.name : null;
+    }
+
+    private static int lastSpanStartingAtOrBefore(List<MethodSpan> spans, int pos) {
         // Binary search: find the last span whose start <= pos, then verify pos < endExclusive.
         // Spans are in source order (sorted ascending by start), so this is valid.
         int lo = 0, hi = spans.size() - 1, candidate = -1;
@@ -484,16 +540,7 @@ public class ImpactAnalyzer {
                 hi = mid - 1;
             }
         }
-        if (candidate >= 0) {
-            MethodSpan s = spans.get(candidate);
-            debug("[DEBUG] findEnclosingMethod: span " + s.name + " [" + s.start + ", " + s.endExclusive + ")");
-            if (pos < s.endExclusive) {
-                debug("[DEBUG] findEnclosingMethod: position " + pos + " is inside " + s.name);
-                return s.name;
-            }
-        }
-        debug("[DEBUG] findEnclosingMethod: position " + pos + " not found in any method span");
-        return null;
+        return candidate;
     }
 
     private static int findMatchingBrace(String content, int openBracePos) {
@@ -579,7 +626,7 @@ public class ImpactAnalyzer {
      */
     public static List<String> expandWithIntraClassCallers(String content, List<String> methodNames) {
         if (content == null || methodNames == null || methodNames.isEmpty()) return methodNames;
-        List<MethodSpan> spans = buildMethodSpans(content);
+        List<MethodSpan> spans = SourceFile.of(content).methodSpans();
         if (spans.isEmpty()) return methodNames;
 
         Set<String> expanded = new LinkedHashSet<>(methodNames);
@@ -607,6 +654,27 @@ public class ImpactAnalyzer {
         return new ArrayList<>(expanded);
     }
 
+    /**
+     * Every method declared in {@code content}, mapped to the entries of {@code methodNames}
+     * its body calls or references, with the token test of {@link #expandWithIntraClassCallers}.
+     * Overloads share one entry; methods calling none of the names are left out.
+     */
+    public static Map<String, Set<String>> callsByMethod(String content, Collection<String> methodNames) {
+        Map<String, Set<String>> calls = new LinkedHashMap<>();
+        if (content == null || methodNames == null || methodNames.isEmpty()) return calls;
+        for (MethodSpan span : SourceFile.of(content).methodSpans()) {
+            String body = content.substring(span.start, span.endExclusive);
+            for (String tm : methodNames) {
+                String pure = tm.split("\\(")[0].trim();
+                if (!isValidMethodName(pure)) continue;
+                if (body.contains(pure + "(") || body.contains("::" + pure)) {
+                    calls.computeIfAbsent(span.name, k -> new LinkedHashSet<>()).add(tm);
+                }
+            }
+        }
+        return calls;
+    }
+
     /**
      * Parses {@code content} to find every method declaration's span [headerStart, bodyEnd).
      * Used by both token-based and structural call-site finders to locate enclosing methods.
@@ -672,7 +740,7 @@ public class ImpactAnalyzer {
         if (instanceNames.isEmpty()) {
             return Collections.emptyList();
         }
-        List<MethodSpan> methodsInFile = buildMethodSpans(content);
+        List<MethodSpan> methodsInFile = SourceFile.of(content).methodSpans();
         Set<String> callers = new HashSet<>();
         
         // If touchedMethods are provided, try to match them specifically first
@@ -705,7 +773,7 @@ public class ImpactAnalyzer {
                     Matcher scm = Pattern.compile(specificCallPattern).matcher(content);
                     while (scm.find()) {
                         String enclosing = findEnclosingMethod(methodsInFile, scm.start());
-                        debug("[DEBUG] getMethodsUsingTarget: " + instanceName + "." + pureMethodName + "() in method " + enclosing);
+                        Trace.debug("getMethodsUsingTarget: {}.{}() in method {}", instanceName, pureMethodName, enclosing);
                         if (enclosing != null) callers.add(enclosing);
                     }
                     
@@ -730,7 +798,7 @@ public class ImpactAnalyzer {
                     Matcher um = unqualifiedCall.matcher(content);
                     while (um.find()) {
                         String enclosing = findEnclosingMethod(methodsInFile, um.start());
-                        debug("[DEBUG] getMethodsUsingTarget static-import: " + pureMethodName + "() in method " + enclosing);
+                        Trace.debug("getMethodsUsingTarget static-import: {}() in method {}", pureMethodName, enclosing);
                         if (enclosing != null && !enclosing.equals(pureMethodName)) callers.add(enclosing);
                     }
                 }
@@ -739,14 +807,14 @@ public class ImpactAnalyzer {
         
         // If we found specific matches, return them
         if (!callers.isEmpty()) {
-            debug("[DEBUG] getMethodsUsingTarget: target=" + targetSimpleName + " instances=" + instanceNames + " callers=" + callers);
+            Trace.debug("getMethodsUsingTarget: target={} instances={} callers={}", targetSimpleName, instanceNames, callers);
             return new ArrayList<>(callers);
         }
         
         // If touchedMethods were provided but none matched, return empty (don't fall back to broad scan)
         // This prevents over-reporting when the file uses the target class but doesn't call the changed methods
         if (touchedMethods != null && !touchedMethods.isEmpty()) {
-            debug("[DEBUG] getMethodsUsingTarget: target=" + targetSimpleName + " touchedMethods provided but none found, returning empty");
+            Trace.debug("getMethodsUsingTarget: target={} touchedMethods provided but none found, returning empty", targetSimpleName);
             return Collections.emptyList();
         }
         
@@ -760,7 +828,7 @@ public class ImpactAnalyzer {
             while (cm.find()) {
                 int callPos = cm.start();
                 String enclosing = findEnclosingMethod(methodsInFile, callPos);
-                debug("[DEBUG] getMethodsUsingTarget: " + instanceName + "." + content.substring(cm.start(), Math.min(cm.end() + 20, content.length())) + " in method " + enclosing);
+                if (Trace.isEnabled()) Trace.debug("getMethodsUsingTarget: {}.{} in method {}", instanceName, content.substring(cm.start(), Math.min(cm.end() + 20, content.length())), enclosing);
                 if (enclosing != null) callers.add(enclosing);
             }
             String refPattern = "\\b" + Pattern.quote(instanceName) + "\\s*::\\s*\\w+";
@@ -772,7 +840,7 @@ public class ImpactAnalyzer {
                 if (enclosing != null) callers.add(enclosing);
             }
         }
-        debug("[DEBUG] getMethodsUsingTarget: target=" + targetSimpleName + " instances=" + instanceNames + " callers=" + callers);
+        Trace.debug("getMethodsUsingTarget: target={} instances={} callers={}", targetSimpleName, instanceNames, callers);
         return new ArrayList<>(callers);
     }
     
@@ -820,7 +888,7 @@ public class ImpactAnalyzer {
                 }
             }
         }
-        debug("[DEBUG] extractInstanceNames: targetSimpleName=" + targetSimpleName + ", targetFqn=" + targetFqn + ", extracted=" + instanceNames);
+        Trace.debug("extractInstanceNames: targetSimpleName={}, targetFqn={}, extracted={}", targetSimpleName, targetFqn, instanceNames);
         return instanceNames;
     }
 
@@ -854,7 +922,7 @@ public class ImpactAnalyzer {
     public static List<String> extractControllerEndpoints(String content, String className, List<String> touchedMethods) {
         if (touchedMethods == null || touchedMethods.isEmpty()) return Collections.emptyList();
         List<String> endpoints = new ArrayList<>();
-        String[] lines = content.split("\\R");
+        String[] lines = SourceFile.of(content).lines();
 
         String classPrefix = "";
         Pattern classMapping = Pattern.compile("@(?:RequestMapping|PostMapping|GetMapping|PutMapping|DeleteMapping|PatchMapping)\\s*\\((?:(?:value|path)\\s*=\\s*)?\"([^\"]+)\"");
@@ -887,7 +955,7 @@ public class ImpactAnalyzer {
             }
             if (lines[classLineIdx].contains("class " + className)) break;
         }
-        debug("[DEBUG] extractControllerEndpoints: className=" + className + ", classPrefix=" + classPrefix + ", touchedMethods=" + touchedMethods);
+        Trace.debug("extractControllerEndpoints: className={}, classPrefix={}, touchedMethods={}", className, classPrefix, touchedMethods);
 
         Pattern methodMapping = Pattern.compile("@(Request|Get|Post|Put|Delete|Patch)Mapping\\b");
         Pattern pathPattern = Pattern.compile("(?:value|path)\\s*=\\s*\"([^\"]+)\"|\"([^\"]+)\"");
@@ -899,7 +967,7 @@ public class ImpactAnalyzer {
             Pattern decl = Pattern.compile("(?s)(?:public|protected|private)\\s+[^{;=]+?\\b" + Pattern.quote(methodName) + "\\s*\\(");
             Matcher dm = decl.matcher(content);
             if (!dm.find()) {
-                debug("[DEBUG] extractControllerEndpoints: method declaration not found for " + methodName);
+                Trace.debug("extractControllerEndpoints: method declaration not found for {}", methodName);
                 continue;
             }
 
@@ -914,19 +982,19 @@ public class ImpactAnalyzer {
                 charIdx++;
             }
             if (depth != 0) {
-                debug("[DEBUG] extractControllerEndpoints: unmatched parentheses for " + methodName);
+                Trace.debug("extractControllerEndpoints: unmatched parentheses for {}", methodName);
                 continue;
             }
 
             String matchedDecl = dm.group();
-            debug("[DEBUG] extractControllerEndpoints: matched declaration snippet: " + matchedDecl.substring(0, Math.min(150, matchedDecl.length())).replaceAll("\\s+", " "));
+            if (Trace.isEnabled()) Trace.debug("extractControllerEndpoints: matched declaration snippet: {}", matchedDecl.substring(0, Math.min(150, matchedDecl.length())).replaceAll("\\s+", " "));
 
             int publicPos = matchedDecl.indexOf("public");
             if (publicPos == -1) publicPos = matchedDecl.indexOf("protected");
             if (publicPos == -1) publicPos = matchedDecl.indexOf("private");
             int methodLine = getLineNumber(content, dm.start() + publicPos);
             int methodLineIdx = Math.max(0, Math.min(lines.length - 1, methodLine - 1));
-            debug("[DEBUG] extractControllerEndpoints: found method " + methodName + " at line " + methodLine + " (idx=" + methodLineIdx + "), match start was at line " + getLineNumber(content, dm.start()) + ", publicPos=" + publicPos);
+            if (Trace.isEnabled()) Trace.debug("extractControllerEndpoints: found method " + methodName + " at line " + methodLine + " (idx=" + methodLineIdx + "), match start was at line " + getLineNumber(content, dm.start()) + ", publicPos=" + publicPos);
 
             // Scan backward for annotations. Expand window to 100 lines to handle comments/spacing.
             // Be lenient: if we find ANY mapping annotation, use it even if scan was interrupted.
@@ -938,7 +1006,7 @@ public class ImpactAnalyzer {
 
             while (annoStart >= 0 && annoStart >= methodLineIdx - ANNOTATION_SCAN_WINDOW && nonAnnotationLinesSeen < ALLOWED_INTERRUPTIONS) {
                 String l = lines[annoStart].trim();
-                debug("[DEBUG] extractControllerEndpoints: scanning line " + (annoStart+1) + ": '" + l + "'");
+                if (Trace.isEnabled()) Trace.debug("extractControllerEndpoints: scanning line " + (annoStart+1) + ": '" + l + "'");
                 if (l.isEmpty()) {
                     annoStart--;
                     continue;
@@ -946,24 +1014,24 @@ public class ImpactAnalyzer {
                 // HARD STOP: closing brace marks end of previous method body — annotations cannot appear before it.
                 // This prevents accidentally picking up annotations from preceding methods.
                 if (l.equals("}")) {
-                    debug("[DEBUG] extractControllerEndpoints: hit closing brace at line " + (annoStart+1) + " — stopping annotation scan (end of previous block)");
+                    if (Trace.isEnabled()) Trace.debug("extractControllerEndpoints: hit closing brace at line " + (annoStart+1) + " — stopping annotation scan (end of previous block)");
                     break;
                 }
                 if (l.startsWith("@")) {
                     lastAnnotationLine = annoStart;
                     nonAnnotationLinesSeen = 0;  // Reset counter when we find an annotation
-                    debug("[DEBUG] extractControllerEndpoints: found annotation at line " + (annoStart+1));
+                    if (Trace.isEnabled()) Trace.debug("extractControllerEndpoints: found annotation at line " + (annoStart+1));
                     annoStart--;
                     continue;
                 }
                 if (l.contains("=") || l.endsWith(")") || l.endsWith(",") || l.startsWith("*")) {
-                    debug("[DEBUG] extractControllerEndpoints: treating line " + (annoStart+1) + " as annotation continuation");
+                    if (Trace.isEnabled()) Trace.debug("extractControllerEndpoints: treating line " + (annoStart+1) + " as annotation continuation");
                     annoStart--;
                     continue;
                 }
                 // Non-annotation, non-continuation line — allow a few of these (Javadoc, comments, etc.)
                 nonAnnotationLinesSeen++;
-                debug("[DEBUG] extractControllerEndpoints: non-annotation line at " + (annoStart+1) + " (count=" + nonAnnotationLinesSeen + ")");
+                if (Trace.isEnabled()) Trace.debug("extractControllerEndpoints: non-annotation line at " + (annoStart+1) + " (count=" + nonAnnotationLinesSeen + ")");
                 annoStart--;
             }
             if (lastAnnotationLine >= 0) {
@@ -971,13 +1039,13 @@ public class ImpactAnalyzer {
             } else {
                 annoStart = Math.max(0, methodLineIdx - 1);
             }
-            debug("[DEBUG] extractControllerEndpoints: annotation block range [" + annoStart + ", " + methodLineIdx + "), lastAnnotationLine=" + lastAnnotationLine);
+            Trace.debug("extractControllerEndpoints: annotation block range [{}, {}), lastAnnotationLine={}", annoStart, methodLineIdx, lastAnnotationLine);
 
             for (int i = Math.max(0, annoStart); i < methodLineIdx; i++) {
                 Matcher mm = methodMapping.matcher(lines[i]);
                 if (!mm.find()) continue;
                 String annotationType = mm.group(1);
-                debug("[DEBUG] extractControllerEndpoints: found mapping annotation at line " + (i+1) + ": " + lines[i]);
+                if (Trace.isEnabled()) Trace.debug("extractControllerEndpoints: found mapping annotation at line " + (i+1) + ": " + lines[i]);
 
                 StringBuilder annoBuf = new StringBuilder(lines[i]).append(' ');
                 int j = i + 1;
@@ -988,15 +1056,15 @@ public class ImpactAnalyzer {
                 if (j < methodLineIdx) {
                     annoBuf.append(lines[j]).append(' ');
                 }
-                debug("[DEBUG] extractControllerEndpoints: buffered annotation: " + annoBuf.toString().substring(0, Math.min(200, annoBuf.length())));
+                if (Trace.isEnabled()) Trace.debug("extractControllerEndpoints: buffered annotation: {}", annoBuf.toString().substring(0, Math.min(200, annoBuf.length())));
 
                 String methodPath = "";
                 Matcher pm = pathPattern.matcher(annoBuf.toString());
                 if (pm.find()) {
                     methodPath = pm.group(1) != null ? pm.group(1) : pm.group(2);
-                    debug("[DEBUG] extractControllerEndpoints: extracted path=" + methodPath);
+                    Trace.debug("extractControllerEndpoints: extracted path={}", methodPath);
                 } else {
-                    debug("[DEBUG] extractControllerEndpoints: NO PATH MATCH in buffered annotation");
+                    Trace.debug("extractControllerEndpoints: NO PATH MATCH in buffered annotation");
                 }
                 String httpVerb = verbFromAnnotationType(annotationType, annoBuf.toString());
                 String fullPath = (classPrefix + "/" + methodPath).replaceAll("//+", "/");
@@ -1004,14 +1072,14 @@ public class ImpactAnalyzer {
             }
         }
 
-        debug("[DEBUG] extractControllerEndpoints: final endpoints=" + endpoints);
+        Trace.debug("extractControllerEndpoints: final endpoints={}", endpoints);
         return endpoints.stream().distinct().collect(Collectors.toList());
     }
 
     public static List<String> extractAllControllerEndpoints(String content, String className) {
         if (content == null || content.isBlank()) return Collections.emptyList();
         List<String> endpoints = new ArrayList<>();
-        String[] lines = content.split("\\R");
+        String[] lines = SourceFile.of(content).lines();
 
         String classPrefix = "";
         Pattern classMapping = Pattern.compile("@RequestMapping\\s*\\((?:value\\s*=\\s*)?\"([^\"]+)\"");
@@ -1091,6 +1159,24 @@ public class ImpactAnalyzer {
         }
     }
 
+    private static final Pattern DECLARED_METHOD_PATTERN = Pattern.compile(
+        "(?:^|\\n)\\s*(?:@Override\\s+)?(?:public|protected|private)?\\s+[\\w<>\\[\\],\\s]+\\s+(\\w+)\\s*\\(",
+        Pattern.MULTILINE);
+
+    /**
+     * Returns the names of method declarations in {@code content} in source order.
+     * Used to find OpenAPI operationId methods a delegate class declares.
+     */
+    public static List<String> extractDeclaredMethodNames(String content) {
+        if (content == null || content.isBlank()) return Collections.emptyList();
+        List<String> names = new ArrayList<>();
+        Matcher m = DECLARED_METHOD_PATTERN.matcher(content);
+        while (m.find()) {
+            names.add(m.group(1));
+        }
+        return names;
+    }
+
     public static List<String> filterValidMethodNames(Collection<String> methods) {
         if (methods == null || methods.isEmpty()) {
             return Collections.emptyList();
@@ -1186,7 +1272,7 @@ public class ImpactAnalyzer {
         return true;
     }
 
-    private static boolean isValidMethodName(String name) {
+    static boolean isValidMethodName(String name) {
         if (name == null) return false;
         String trimmed = name.trim();
         if (trimmed.isEmpty()) return false;
@@ -1204,7 +1290,7 @@ public class ImpactAnalyzer {
     public static List<String> extractSoapOperations(String content, List<String> touchedMethods) {
         List<String> ops = new ArrayList<>();
         if (touchedMethods == null || touchedMethods.isEmpty()) return ops;
-        String[] lines = content.split("\\R");
+        String[] lines = SourceFile.of(content).lines();
         Pattern webMethod = Pattern.compile("@WebMethod\\s*(?:\\(([^)]*)\\))?");
         for (String rawMethod : touchedMethods) {
             String methodName = rawMethod.split("\\(")[0].trim();
@@ -1253,7 +1339,7 @@ public class ImpactAnalyzer {
             Matcher dm = decl.matcher(content);
             if (!dm.find()) continue;
             int methodLine = getLineNumber(content, dm.start());
-            String[] lines = content.split("\\R");
+            String[] lines = SourceFile.of(content).lines();
             for (int i = Math.max(0, methodLine - 5); i < methodLine - 1; i++) {
                 Matcher mm = mappingAnno.matcher(lines[i]);
                 if (!mm.find()) continue;
@@ -1,8 +1,12 @@
 package com.reviewer.analysis;
 
+
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -14,6 +18,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -28,6 +34,7 @@ public class JavaSymbolIndex {
         "(?:class|interface|enum|record)\\s+(\\w+)"
     );
     private static final Pattern IMPORT_PATTERN = Pattern.compile("(?m)^\\s*import\\s+([\\w\\.\\*]+)\\s*;");
+    private static final Pattern WORD_PATTERN = Pattern.compile("\\w+");
     private static final Pattern EXTENDS_CLAUSE  = Pattern.compile("\\bextends\\s+(.+?)(?=\\bimplements\\b|\\{)");
     private static final Pattern IMPLEMENTS_CLAUSE = Pattern.compile("\\bimplements\\s+(.+?)(?=\\{)");
     // Caches Pattern.compile("\\b<token>\\b") — built once per unique token per JVM session
@@ -40,6 +47,29 @@ public class JavaSymbolIndex {
 
     private final Map<String, ClassInfo> classesByPath = new ConcurrentHashMap<>();
     private final Map<String, Set<ClassInfo>> classesBySimpleName = new ConcurrentHashMap<>();
+    /** Supertype simple name → classes that extend or implement a type of that name. */
+    private final Map<String, Set<ClassInfo>> classesBySupertype = new ConcurrentHashMap<>();
+    /** Normalized path → content fingerprint (git blob id) for every file that declares a type. */
+    private final Map<String, String> fingerprintsByPath = new ConcurrentHashMap<>();
+    /** Token postings over the indexed files; null only for instances built without source access. */
+    private IdentifierIndex identifiers;
+    /** Normalized path → method-level call graph of every file that declares a type. */
+    private final Map<String, MethodCallGraph.FileCalls> callsByPath = new ConcurrentHashMap<>();
+    /**
+     * The store contents this index was built from, as last saved (incremental builds only).
+     * A later build in the same JVM starts from these instead of re-reading the stores.
+     */
+    private Path storeRepoRoot;
+    private Map<String, SymbolIndexStore.Entry> storedEntries;
+    private Map<String, IdentifierIndex.StoredFile> storedTokens;
+    private Map<String, MethodCallGraph.StoredFile> storedCalls;
+    /** Generation of the store this index started from, and of the store it left behind. */
+    private long baseGeneration = SymbolIndexStore.NO_GENERATION;
+    private long generation = SymbolIndexStore.NO_GENERATION;
+    /** Normalized paths read from source in this build, or tracked in the base store and now gone. */
+    private final Set<String> changedSinceBase = ConcurrentHashMap.newKeySet();
+    /** Normalized paths read from the working tree because they are modified or untracked. */
+    private final Set<String> workTreePaths = ConcurrentHashMap.newKeySet();
 
     private JavaSymbolIndex() {}
 
@@ -52,11 +82,176 @@ public class JavaSymbolIndex {
                             .filter(JavaSymbolIndex::isEligibleSourceFile)
                             .collect(Collectors.toList());
         }
+        Map<String, Collection<String>> tokensByFile = new ConcurrentHashMap<>();
         eligible.parallelStream().forEach(p -> {
             try {
-                parseClassInfo(p).ifPresent(index::add);
+                String content = SourceFile.contentOf(p);
+                Optional<ClassInfo> info = parseClassInfo(p, content);
+                if (info.isPresent()) {
+                    index.add(info.get());
+                    index.fingerprintsByPath.put(normalize(p), fingerprint(content));
+                    tokensByFile.put(normalize(p), IdentifierIndex.extractTokens(content, AUTOWIRED_PATTERN));
+                    index.callsByPath.put(normalize(p), MethodCallGraph.extract(content, info.get().simpleName));
+                }
             } catch (IOException ignored) {}
         });
+        index.identifiers = IdentifierIndex.build(tokensByFile);
+        return index;
+    }
+
+    /**
+     * Builds the index incrementally using the persistent stores under {@code cacheDir}.
+     *
+     * <p>Tracked files are keyed by their git blob id; only files whose blob changed since the
+     * last run, and untracked files, are re-read. A file with unstaged edits is read from its
+     * blob, and from the working tree only when the blob cannot be read. The
+     * {@link ClassInfo}, identifier tokens and method call graph of unchanged files all come
+     * from the stores.
+     * Falls back to {@link #build(Path)} when {@code git ls-files} is unavailable.
+     */
+    public static JavaSymbolIndex build(Path repoRoot, Path cacheDir) throws IOException {
+        return build(repoRoot, cacheDir, null);
+    }
+
+    /**
+     * As {@link #build(Path, Path)}, starting from the store contents held by {@code previous}
+     * (an index built earlier in this JVM for the same repo) instead of reading them from disk.
+     * Entries are keyed by blob id, so they stay valid whatever changed in between; only files
+     * whose blob differs, or that are untracked, are re-read. Used by the long-lived daemon.
+     */
+    public static JavaSymbolIndex build(Path repoRoot, Path cacheDir, JavaSymbolIndex previous) throws IOException {
+        List<SymbolIndexStore.TrackedFile> tracked = SymbolIndexStore.listTrackedJavaFiles(repoRoot);
+        if (tracked == null) {
+            return build(repoRoot);
+        }
+
+        boolean warm = previous != null && previous.storedEntries != null && repoRoot.equals(previous.storeRepoRoot);
+        SymbolIndexStore.Contents contents = warm
+                ? new SymbolIndexStore.Contents(previous.generation, previous.storedEntries)
+                : SymbolIndexStore.load(cacheDir, repoRoot);
+        Map<String, SymbolIndexStore.Entry> stored = contents.entries;
+        Map<String, IdentifierIndex.StoredFile> storedTokens = warm ? previous.storedTokens : IdentifierIndex.load(cacheDir);
+        Map<String, MethodCallGraph.StoredFile> storedCalls = warm ? previous.storedCalls : MethodCallGraph.load(cacheDir);
+        Set<String> dirty = SymbolIndexStore.listDirtyJavaFiles(repoRoot);
+        // Tracked files with unstaged edits are indexed as staged, which is what the commit
+        // contains; only those whose blob cannot be read come from the working tree
+        List<SymbolIndexStore.TrackedFile> unstaged = new ArrayList<>();
+        for (SymbolIndexStore.TrackedFile file : tracked) {
+            if (dirty.contains(file.relativePath)) unstaged.add(file);
+        }
+        dirty.removeAll(SymbolIndexStore.preloadBlobs(repoRoot, unstaged));
+        Map<String, SymbolIndexStore.Entry> next = new ConcurrentHashMap<>();
+        Map<String, IdentifierIndex.StoredFile> nextTokens = new ConcurrentHashMap<>();
+        Map<String, MethodCallGraph.StoredFile> nextCalls = new ConcurrentHashMap<>();
+        Map<String, Collection<String>> tokensByFile = new ConcurrentHashMap<>();
+        List<SymbolIndexStore.TrackedFile> toParse = new ArrayList<>();
+        JavaSymbolIndex index = new JavaSymbolIndex();
+        index.baseGeneration = contents.generation;
+
+        for (SymbolIndexStore.TrackedFile file : tracked) {
+            if (!isEligibleSourceFile(repoRoot.resolve(file.relativePath))) continue;
+            SymbolIndexStore.Entry entry = stored.get(file.relativePath);
+            IdentifierIndex.StoredFile tokens = storedTokens.get(file.relativePath);
+            boolean entryValid = entry != null && entry.blobId.equals(file.blobId);
+            boolean tokensValid = tokens != null && tokens.blobId.equals(file.blobId);
+            MethodCallGraph.StoredFile calls = storedCalls.get(file.relativePath);
+            // Files without a type have no call graph entry; entries stored without
+            // scoped calls are stale once AST caller detection is switched on
+            boolean callsValid = entry != null && entry.info == null
+                    || calls != null && calls.blobId.equals(file.blobId)
+                    && (calls.calls.scopedCalls || !ImpactAnalyzer.isAstCallerDetectionEnabled());
+            if (entryValid && tokensValid && callsValid && !dirty.contains(file.relativePath)) {
+                if (entry.info != null) {
+                    index.add(entry.info);
+                    index.fingerprintsByPath.put(normalize(entry.info.path), file.blobId);
+                    tokensByFile.put(normalize(entry.info.path), tokens.tokens);
+                    index.callsByPath.put(normalize(entry.info.path), calls.calls);
+                    nextCalls.put(file.relativePath, calls);
+                }
+                next.put(file.relativePath, entry);
+                nextTokens.put(file.relativePath, tokens);
+            } else {
+                // A dirty file's stored entries still describe its staged blob; keep them for later runs
+                if (entryValid && tokensValid && callsValid) {
+                    next.put(file.relativePath, entry);
+                    nextTokens.put(file.relativePath, tokens);
+                    if (calls != null) nextCalls.put(file.relativePath, calls);
+                }
+                toParse.add(file);
+            }
+        }
+
+        toParse.parallelStream().forEach(file -> {
+            Path path = repoRoot.resolve(file.relativePath);
+            index.changedSinceBase.add(normalize(path));
+            if (dirty.contains(file.relativePath)) index.workTreePaths.add(normalize(path));
+            try {
+                // Staged content for files being committed or with unstaged edits
+                String content = SourceFile.contentOf(path);
+                Optional<ClassInfo> info = parseClassInfo(path, content);
+                List<String> tokens = info.isPresent()
+                        ? new ArrayList<>(IdentifierIndex.extractTokens(content, AUTOWIRED_PATTERN))
+                        : Collections.emptyList();
+                MethodCallGraph.FileCalls calls = info.isPresent()
+                        ? MethodCallGraph.extract(content, info.get().simpleName)
+                        : null;
+                if (info.isPresent()) {
+                    index.add(info.get());
+                    index.fingerprintsByPath.put(normalize(info.get().path),
+                            dirty.contains(file.relativePath) ? fingerprint(content) : file.blobId);
+                    tokensByFile.put(normalize(info.get().path), tokens);
+                    index.callsByPath.put(normalize(info.get().path), calls);
+                }
+                // Working-tree content of a dirty file does not match its blob — do not persist it
+                if (!dirty.contains(file.relativePath)) {
+                    next.put(file.relativePath, new SymbolIndexStore.Entry(file.blobId, info.orElse(null)));
+                    nextTokens.put(file.relativePath, new IdentifierIndex.StoredFile(file.blobId, tokens));
+                    if (calls != null) nextCalls.put(file.relativePath, new MethodCallGraph.StoredFile(file.blobId, calls));
+                }
+            } catch (IOException ignored) {}
+        });
+
+        // Untracked sources are not in ls-files output but are still visible to the compiler
+        Set<String> trackedPaths = tracked.stream().map(f -> f.relativePath).collect(Collectors.toSet());
+        for (String rel : stored.keySet()) {
+            if (!trackedPaths.contains(rel)) index.changedSinceBase.add(normalize(repoRoot.resolve(rel)));
+        }
+        dirty.stream()
+             .filter(rel -> !trackedPaths.contains(rel))
+             .map(repoRoot::resolve)
+             .filter(Files::isRegularFile)
+             .filter(JavaSymbolIndex::isEligibleSourceFile)
+             .forEach(p -> {
+                 index.changedSinceBase.add(normalize(p));
+                 index.workTreePaths.add(normalize(p));
+                 try {
+                     String content = SourceFile.contentOf(p);
+                     parseClassInfo(p, content).ifPresent(info -> {
+                         index.add(info);
+                         index.fingerprintsByPath.put(normalize(info.path), fingerprint(content));
+                         tokensByFile.put(normalize(info.path), IdentifierIndex.extractTokens(content, AUTOWIRED_PATTERN));
+                         index.callsByPath.put(normalize(info.path), MethodCallGraph.extract(content, info.simpleName));
+                     });
+                 } catch (IOException ignored) {}
+             });
+
+        index.identifiers = IdentifierIndex.build(tokensByFile);
+
+        index.generation = contents.generation;
+        if (!toParse.isEmpty() || next.size() != stored.size()) {
+            long generation = SymbolIndexStore.newGeneration();
+            if (SymbolIndexStore.save(cacheDir, new TreeMap<>(next), generation)) index.generation = generation;
+        }
+        if (!toParse.isEmpty() || nextTokens.size() != storedTokens.size()) {
+            IdentifierIndex.save(cacheDir, new TreeMap<>(nextTokens));
+        }
+        if (!toParse.isEmpty() || nextCalls.size() != storedCalls.size()) {
+            MethodCallGraph.save(cacheDir, nextCalls);
+        }
+        index.storeRepoRoot = repoRoot;
+        index.storedEntries = next;
+        index.storedTokens = nextTokens;
+        index.storedCalls = nextCalls;
         return index;
     }
 
@@ -76,12 +271,82 @@ public class JavaSymbolIndex {
             set.add(info);
             return set;
         });
+        for (String supertype : info.supertypeSimpleNames) {
+            classesBySupertype.computeIfAbsent(supertype, k -> ConcurrentHashMap.newKeySet()).add(info);
+        }
     }
 
     public Optional<ClassInfo> getClassInfo(Path path) {
         return Optional.ofNullable(classesByPath.get(normalize(path)));
     }
 
+    /** Returns the method-level call graph of an indexed file. */
+    public Optional<MethodCallGraph.FileCalls> getFileCalls(Path path) {
+        return Optional.ofNullable(callsByPath.get(normalize(path)));
+    }
+
+    /**
+     * Whether an indexed file contains {@code token} as a whole word ({@code \btoken\b}).
+     * Empty when the file is not indexed or the token is outside the identifier index's
+     * vocabulary, in which case only the source can answer.
+     */
+    public Optional<Boolean> containsWord(Path path, String token) {
+        if (identifiers == null || !IdentifierIndex.isIndexable(token) || token.indexOf('.') >= 0) return Optional.empty();
+        int id = identifiers.fileId(normalize(path));
+        return id < 0 ? Optional.empty() : Optional.of(identifiers.contains(id, token));
+    }
+
+    /**
+     * Returns normalized path → content fingerprint for every indexed file. Fingerprints use
+     * git's blob id format, so a clean tracked file's fingerprint equals its staged blob id.
+     */
+    public Map<String, String> getFingerprints() {
+        return Collections.unmodifiableMap(fingerprintsByPath);
+    }
+
+    /**
+     * Identifies the symbol-index store this index left behind; a cache derived from the index
+     * records it to find out later what changed since (see {@link #changedSince}).
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Normalized paths of the files that may differ from the index of generation
+     * {@code generation}: files read from source in this build and files that are gone since.
+     * Every other file was taken from that store unchanged. Returns null when this index was
+     * not built from that generation, in which case any file may have changed.
+     *
+     * <p>Files read from the working tree are not stored, so a file that was modified then and
+     * is clean now is not included; callers keep {@link #getWorkTreePaths()} for that.
+     */
+    public Set<String> changedSince(long generation) {
+        if (generation == SymbolIndexStore.NO_GENERATION || generation != baseGeneration) return null;
+        return Collections.unmodifiableSet(changedSinceBase);
+    }
+
+    /** Normalized paths of the modified and untracked files this index read from the working tree. */
+    public Set<String> getWorkTreePaths() {
+        return Collections.unmodifiableSet(workTreePaths);
+    }
+
+    /** Computes the git blob id ({@code sha1("blob <len>\0" + bytes)}) of {@code content}. */
+    static String fingerprint(String content) {
+        try {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            sha1.update(("blob " + bytes.length + "\0").getBytes(StandardCharsets.US_ASCII));
+            byte[] digest = sha1.digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-1; fall back to a weaker but still content-derived key
+            return content.length() + ":" + content.hashCode();
+        }
+    }
+
     public Collection<ClassInfo> getAllClasses() {
         return new ArrayList<>(classesByPath.values());
     }
@@ -120,6 +385,25 @@ public class JavaSymbolIndex {
             resolvedSupertypesPerTarget.put(target.fqn, resolveSupertypes(target));
         }
 
+        // Targets whose names fall inside the identifier vocabulary are answered from posting
+        // lists; the rest (e.g. lower-case type names) still need the per-file regex sweep.
+        List<ClassInfo> sweepTargets = new ArrayList<>();
+        for (ClassInfo target : targets) {
+            if (identifiers != null && isIndexable(target)) {
+                Set<String> dependents = graph.computeIfAbsent(target.fqn, k -> new LinkedHashSet<>());
+                for (ClassInfo candidate : indexedCandidates(target)) {
+                    if (dependsOnIndexed(candidate, target, resolvedSupertypesPerTarget.get(target.fqn))) {
+                        dependents.add(candidate.path.toString());
+                    }
+                }
+            } else {
+                sweepTargets.add(target);
+            }
+        }
+        if (sweepTargets.isEmpty()) {
+            return graph;
+        }
+
         for (ClassInfo candidate : classesByPath.values()) {
             String content;
             String cacheKey = candidate.path.toString();
@@ -127,7 +411,7 @@ public class JavaSymbolIndex {
                 content = contentCache.get(cacheKey);
             } else {
                 try {
-                    content = Files.readString(candidate.path);
+                    content = SourceFile.contentOf(candidate.path);
                     if (contentCache != null) contentCache.put(cacheKey, content);
                 } catch (IOException e) {
                     continue;
@@ -135,7 +419,7 @@ public class JavaSymbolIndex {
             }
 
             Imports imports = parseImports(content);
-            for (ClassInfo target : targets) {
+            for (ClassInfo target : sweepTargets) {
                 boolean unique = isSimpleNameUnique(target.simpleName);
                 Map<String, Set<ClassInfo>> resolvedSupertypes = resolvedSupertypesPerTarget.get(target.fqn);
                 if (dependsOn(content, imports, candidate, target, unique, resolvedSupertypes)) {
@@ -147,6 +431,180 @@ public class JavaSymbolIndex {
         return graph;
     }
 
+    /**
+     * Brings {@code graph} up to date after the files in {@code changedPaths} (normalized
+     * absolute paths) were added, modified or removed since it last saw them.
+     *
+     * <p>Rows of classes declared in changed files (or whose supertype resolution may have
+     * shifted) are recomputed from the identifier index, rows of classes that no longer exist
+     * are emptied, and the outgoing edges of every changed file are re-evaluated against the
+     * classes it names. Nothing else in the graph is read or rewritten, so the cost follows the
+     * number of changed files rather than the size of the repo.
+     */
+    public void patchReverseDependencyGraph(ReverseGraph graph, Set<String> changedPaths) {
+        if (changedPaths.isEmpty()) return;
+
+        // 1. Rows that must be recomputed in full; a vanished class's simple name may have backed a supertype
+        Map<String, ClassInfo> recompute = new LinkedHashMap<>();
+        Set<String> touchedSimpleNames = new HashSet<>();
+        Set<String> vanished = new HashSet<>();
+        for (String path : changedPaths) {
+            String before = graph.declaredClassOf(path);
+            if (before != null) {
+                touchedSimpleNames.add(before.substring(before.lastIndexOf('.') + 1));
+                if (!hasClass(before)) vanished.add(before);
+            }
+            ClassInfo now = classesByPath.get(path);
+            if (now != null) {
+                touchedSimpleNames.add(now.simpleName);
+                recompute.put(now.fqn, now);
+            }
+        }
+        for (String name : touchedSimpleNames) {
+            for (ClassInfo info : classesBySupertype.getOrDefault(name, Collections.emptySet())) {
+                recompute.putIfAbsent(info.fqn, info);
+            }
+        }
+        for (Map.Entry<String, Set<String>> row : buildReverseDependencyGraph(recompute.values(), null).entrySet()) {
+            graph.replaceRow(row.getKey(), row.getValue());
+        }
+        for (String fqn : vanished) graph.replaceRow(fqn, Collections.emptySet());
+
+        // 2. Fresh outgoing edges of the changed files
+        for (String path : changedPaths) {
+            ClassInfo now = classesByPath.get(path);
+            graph.replaceFile(path, fingerprintsByPath.get(path), now == null ? null : now.fqn,
+                    now == null ? Collections.emptySet() : dependenciesOf(now));
+        }
+    }
+
+    private boolean hasClass(String fqn) {
+        Set<ClassInfo> named = classesBySimpleName.getOrDefault(fqn.substring(fqn.lastIndexOf('.') + 1), Collections.emptySet());
+        return named.stream().anyMatch(info -> info.fqn.equals(fqn));
+    }
+
+    /**
+     * FQNs of the indexed classes {@code candidate} depends on, decided as
+     * {@link #buildReverseDependencyGraph} decides each edge. Every positive branch of
+     * {@link #dependsOn} needs the target's simple name or one of its supertype names to occur
+     * in the file as a word, so only the classes those words name are tested.
+     */
+    private Set<String> dependenciesOf(ClassInfo candidate) {
+        String content;
+        try {
+            content = SourceFile.contentOf(candidate.path);
+        } catch (IOException e) {
+            return Collections.emptySet();
+        }
+        Set<ClassInfo> targets = new LinkedHashSet<>();
+        Set<String> words = new HashSet<>();
+        Matcher word = WORD_PATTERN.matcher(content);
+        while (word.find()) {
+            if (!words.add(word.group())) continue;
+            targets.addAll(classesBySimpleName.getOrDefault(word.group(), Collections.emptySet()));
+            targets.addAll(classesBySupertype.getOrDefault(word.group(), Collections.emptySet()));
+        }
+
+        Set<String> dependencies = new LinkedHashSet<>();
+        Imports imports = null;
+        for (ClassInfo target : targets) {
+            Map<String, Set<ClassInfo>> resolved = resolveSupertypes(target);
+            boolean depends;
+            if (identifiers != null && isIndexable(target)) {
+                depends = dependsOnIndexed(candidate, target, resolved);
+            } else {
+                if (imports == null) imports = parseImports(content);
+                depends = dependsOn(content, imports, candidate, target, isSimpleNameUnique(target.simpleName), resolved);
+            }
+            if (depends) dependencies.add(target.fqn);
+        }
+        return dependencies;
+    }
+
+    private static boolean isIndexable(ClassInfo target) {
+        if (!IdentifierIndex.isIndexable(target.simpleName) || !IdentifierIndex.isIndexable(target.fqn)) {
+            return false;
+        }
+        for (String supertype : target.supertypeSimpleNames) {
+            if (!IdentifierIndex.isIndexable(supertype)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Union of the posting lists that can make {@link #dependsOn} return true: every positive
+     * branch requires the explicit import, the simple name, the FQN, a supertype name or an
+     * injected supertype to appear in the candidate.
+     */
+    private List<ClassInfo> indexedCandidates(ClassInfo target) {
+        List<int[]> lists = new ArrayList<>();
+        lists.add(identifiers.filesWith(IdentifierIndex.IMPORT_PREFIX + target.fqn));
+        lists.add(identifiers.filesWith(target.simpleName));
+        lists.add(identifiers.filesWith(target.fqn));
+        for (String supertype : target.supertypeSimpleNames) {
+            lists.add(identifiers.filesWith(supertype));
+            lists.add(identifiers.filesWith(IdentifierIndex.INJECT_PREFIX + supertype));
+        }
+        Set<Integer> ids = new TreeSet<>();
+        for (int[] list : lists) {
+            for (int id : list) ids.add(id);
+        }
+        List<ClassInfo> candidates = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            ClassInfo info = classesByPath.get(identifiers.filePath(id));
+            if (info != null) candidates.add(info);
+        }
+        return candidates;
+    }
+
+    /**
+     * Posting-list equivalent of {@link #dependsOn}: the same decision sequence, with every
+     * {@code containsToken}/import/injection check answered by the identifier index.
+     */
+    private boolean dependsOnIndexed(ClassInfo candidate, ClassInfo target,
+                                     Map<String, Set<ClassInfo>> resolvedSupertypes) {
+        if (candidate.fqn.equals(target.fqn)) return false;
+        int id = identifiers.fileId(normalize(candidate.path));
+        if (id < 0) return false;
+
+        if (identifiers.contains(id, IdentifierIndex.IMPORT_PREFIX + target.fqn)) return true;
+        boolean simpleToken = identifiers.contains(id, target.simpleName);
+        if (hasWildcard(id, target.packageName) && simpleToken) return true;
+        if (!target.packageName.isEmpty() && candidate.packageName.equals(target.packageName) && simpleToken && isSameModule(candidate.path, target.path)) return true;
+        if (identifiers.contains(id, target.fqn)) return true;
+
+        for (String supertype : target.supertypeSimpleNames) {
+            if (!identifiers.contains(id, supertype)) continue;
+            Set<ClassInfo> supertypeInfos = (resolvedSupertypes != null)
+                    ? resolvedSupertypes.getOrDefault(supertype, Collections.emptySet())
+                    : Collections.emptySet();
+            if (!supertypeInfos.isEmpty()) {
+                for (ClassInfo si : supertypeInfos) {
+                    if (identifiers.contains(id, IdentifierIndex.IMPORT_PREFIX + si.fqn)) return true;
+                    if (hasWildcard(id, si.packageName)) return true;
+                    if (!si.packageName.isEmpty()
+                            && candidate.packageName.equals(si.packageName)
+                            && isSameModule(candidate.path, si.path)) return true;
+                }
+            } else {
+                if (identifiers.contains(id, IdentifierIndex.IMPORT_PREFIX + target.packageName + "." + supertype)) return true;
+                if (hasWildcard(id, target.packageName)) return true;
+                if (!target.packageName.isEmpty()
+                        && candidate.packageName.equals(target.packageName)
+                        && isSameModule(candidate.path, target.path)) return true;
+            }
+        }
+
+        for (String supertype : target.supertypeSimpleNames) {
+            if (identifiers.contains(id, IdentifierIndex.INJECT_PREFIX + supertype)) return true;
+        }
+        return false;
+    }
+
+    private boolean hasWildcard(int fileId, String pkg) {
+        return pkg != null && !pkg.isEmpty() && identifiers.contains(fileId, IdentifierIndex.WILDCARD_PREFIX + pkg);
+    }
+
     /**
      * Resolves each direct supertype simple name of {@code target} to the matching
      * {@link ClassInfo}(s) in the index.  The result is keyed by simple name and may
@@ -163,7 +621,10 @@ public class JavaSymbolIndex {
     }
 
     public static Optional<ClassInfo> parseClassInfo(Path path) throws IOException {
-        String content = Files.readString(path);
+        return parseClassInfo(path, SourceFile.contentOf(path));
+    }
+
+    static Optional<ClassInfo> parseClassInfo(Path path, String content) {
         Matcher typeMatcher = TYPE_PATTERN.matcher(content);
         if (!typeMatcher.find()) return Optional.empty();
 
@@ -0,0 +1,121 @@
+package com.reviewer.analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Aho–Corasick automaton over a fixed set of ASCII literals: one pass over a text reports
+ * which of the literals occur in it, in time linear in the text whatever the number of
+ * literals. Used by {@link RuleEngine} to skip rules whose anchors a file does not contain.
+ *
+ * <p>The automaton is compiled into a dense transition table over the characters that occur
+ * in the literals; every other character (including all non-ASCII ones) shares one column and
+ * leads back to the root.
+ */
+final class LiteralScanner {
+
+    private final int literalCount;
+    /** ASCII char → column; 0 is "any character not in a literal". */
+    private final byte[] columnOf = new byte[128];
+    private final int columns;
+    /** state * columns + column → next state. */
+    private final int[] delta;
+    /** Literals recognised on entering each state, following failure links; null when none. */
+    private final int[][] output;
+
+    LiteralScanner(List<String> literals) {
+        literalCount = literals.size();
+        int next = 1;
+        for (String literal : literals) {
+            if (literal.isEmpty()) throw new IllegalArgumentException("Empty literal");
+            for (int i = 0; i < literal.length(); i++) {
+                char c = literal.charAt(i);
+                if (c >= 128) throw new IllegalArgumentException("Non-ASCII literal: " + literal);
+                if (columnOf[c] == 0) columnOf[c] = (byte) next++;
+            }
+        }
+        columns = next;
+
+        // Trie
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(newRow());
+        ends.add(new ArrayList<>());
+        for (int id = 0; id < literals.size(); id++) {
+            String literal = literals.get(id);
+            int state = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                int col = columnOf[literal.charAt(i)];
+                if (trie.get(state)[col] < 0) {
+                    trie.get(state)[col] = trie.size();
+                    trie.add(newRow());
+                    ends.add(new ArrayList<>());
+                }
+                state = trie.get(state)[col];
+            }
+            ends.get(state).add(id);
+        }
+
+        // Breadth-first: resolve failure links into a full transition table and merge outputs
+        int states = trie.size();
+        delta = new int[states * columns];
+        int[] fail = new int[states];
+        output = new int[states][];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int col = 0; col < columns; col++) {
+            int child = trie.get(0)[col];
+            if (child > 0) {
+                delta[col] = child;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            List<Integer> found = new ArrayList<>(ends.get(state));
+            if (output[fail[state]] != null) {
+                for (int id : output[fail[state]]) found.add(id);
+            }
+            output[state] = found.isEmpty() ? null : found.stream().mapToInt(Integer::intValue).toArray();
+            for (int col = 0; col < columns; col++) {
+                int child = trie.get(state)[col];
+                if (child > 0) {
+                    fail[child] = delta[fail[state] * columns + col];
+                    delta[state * columns + col] = child;
+                    queue.add(child);
+                } else {
+                    delta[state * columns + col] = delta[fail[state] * columns + col];
+                }
+            }
+        }
+    }
+
+    private int[] newRow() {
+        int[] row = new int[columns];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /** Ids (positions in the constructor's list) of the literals that occur in {@code text}. */
+    BitSet scan(CharSequence text) {
+        BitSet found = new BitSet(literalCount);
+        int remaining = literalCount;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            state = delta[state * columns + (c < 128 ? columnOf[c] : 0)];
+            int[] out = output[state];
+            if (out == null) continue;
+            for (int id : out) {
+                if (!found.get(id)) {
+                    found.set(id);
+                    remaining--;
+                }
+            }
+            if (remaining == 0) break;
+        }
+        return found;
+    }
+}
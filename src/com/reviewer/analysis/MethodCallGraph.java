@@ -0,0 +1,756 @@
+package com.reviewer.analysis;
+
+import com.reviewer.analysis.ImpactAnalyzer.MethodSpan;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Method-granularity call graph, extracted once per source file and persisted next to the
+ * symbol index.
+ *
+ * <p>Each file is reduced to a {@link FileCalls}: every call site as
+ * {@code enclosing method → receiver.callee}, every method's outgoing intra-class calls, the
+ * variable declarations that bind receivers to types, (for controllers) the endpoints each
+ * handler method maps to, and the class-level markers and inheritance clauses impact analysis
+ * classifies dependents by. The store is keyed by blob id, so a file that has not changed is
+ * never scanned again; both the direct-dependent pass and the transitive endpoint BFS answer
+ * from it, resolving receivers against the class they are currently tracing.
+ *
+ * <p>Receivers are resolved at query time rather than at extraction time because the same
+ * field can be matched through the target's own name or any of its supertypes; the query
+ * methods reproduce the regex and AST matching of {@link ImpactAnalyzer#getMethodsCalling}
+ * and {@link ImpactAnalyzer#expandWithIntraClassCallers} without touching the source.
+ */
+public final class MethodCallGraph {
+
+    static final String STORE_FILE = "call-graph.bin";
+    private static final int MAGIC = 0x43524347; // "CRCG"
+    private static final int VERSION = 3;
+
+    /** Same shape as {@code ImpactAnalyzer.extractInstanceNames}, anchored at every word start. */
+    private static final Pattern DECLARATION_PATTERN =
+            Pattern.compile("\\b(?=([A-Za-z_]\\w*(?:\\.\\w+)*)(?:<[^>]*>)?\\s+(\\w+)\\b)");
+    private static final Pattern STATIC_IMPORT_PATTERN =
+            Pattern.compile("(?m)^\\s*import\\s+static\\s+([\\w\\.\\*]+)\\s*;\\s*$");
+    private static final Pattern IMPLEMENTS_PATTERN = Pattern.compile("\\bimplements\\b([^{]*)");
+    private static final Pattern FIRST_IMPLEMENTS_PATTERN = Pattern.compile("\\bimplements\\b([^{]+)");
+    private static final Pattern WORD_PATTERN = Pattern.compile("\\w+");
+    private static final Pattern INHERITANCE_PATTERN = Pattern.compile("(?:extends|implements)([^{]*)");
+
+    /**
+     * Literal markers impact analysis looks for in a dependent's source to classify its layer
+     * and dependency kind; {@link FileCalls#has} can only answer for these.
+     */
+    static final List<String> MARKERS = List.of(
+            "@RestController", "@Controller", "@Service", "@Autowired", "@Inject",
+            "@WebService", "@WebMethod", "@FeignClient", "ManagedChannel", "newBlockingStub",
+            "implements Job", "JobDetail");
+
+    private MethodCallGraph() {}
+
+    // ── Call sites ────────────────────────────────────────────────────────────────────────────
+
+    /** {@code receiver.callee(} */
+    static final byte QUALIFIED = 0;
+    /** {@code receiver::callee} */
+    static final byte QUALIFIED_REF = 1;
+    /** {@code callee(} not preceded by {@code .} or a word character */
+    static final byte UNQUALIFIED = 2;
+    /** {@code ::callee} not preceded by {@code .} or a word character */
+    static final byte UNQUALIFIED_REF = 3;
+    /** Scoped call found by JavaParser; receiver is the leading identifier of the scope */
+    static final byte AST = 4;
+
+    static final class CallSite {
+        final byte kind;
+        final String receiver;
+        final String callee;
+        final String caller;
+
+        CallSite(byte kind, String receiver, String callee, String caller) {
+            this.kind = kind;
+            this.receiver = receiver;
+            this.callee = callee;
+            this.caller = caller;
+        }
+    }
+
+    /**
+     * A method span and the call tokens inside it: {@code ident(} for calls and
+     * {@code ::ident} for method references, exactly as they appear in the source.
+     */
+    static final class MethodCalls {
+        final String name;
+        final List<String> callTokens;
+
+        MethodCalls(String name, List<String> callTokens) {
+            this.name = name;
+            this.callTokens = callTokens;
+        }
+    }
+
+    /** Call graph facts for one source file. */
+    public static final class FileCalls {
+        final boolean controller;
+        final List<String> implementsWords;
+        final List<String> firstImplementsTokens;
+        final List<String> declaredMethods;
+        final List<String> staticImports;
+        /** Flattened (type chain, variable name) pairs. */
+        final List<String> declarations;
+        final List<CallSite> sites;
+        /** Every {@code ident(} / {@code ::ident} token in the file. */
+        final Set<String> callTokens;
+        /** Method spans in source order. */
+        final List<MethodCalls> methods;
+        final Map<String, List<String>> endpointsByMethod;
+        /** The {@link #MARKERS} the source contains. */
+        final List<String> markers;
+        /** Words following {@code extends}/{@code implements} up to the next {@code '{'}. */
+        final List<String> inheritanceWords;
+        /**
+         * True when {@link #sites} includes the AST scoped-call sites; they are only
+         * extracted while AST caller detection is enabled.
+         */
+        final boolean scopedCalls;
+
+        FileCalls(boolean controller, List<String> implementsWords, List<String> firstImplementsTokens,
+                  List<String> declaredMethods, List<String> staticImports, List<String> declarations,
+                  List<CallSite> sites, Set<String> callTokens, List<MethodCalls> methods,
+                  Map<String, List<String>> endpointsByMethod, List<String> markers,
+                  List<String> inheritanceWords, boolean scopedCalls) {
+            this.controller = controller;
+            this.implementsWords = implementsWords;
+            this.firstImplementsTokens = firstImplementsTokens;
+            this.declaredMethods = declaredMethods;
+            this.staticImports = staticImports;
+            this.declarations = declarations;
+            this.sites = sites;
+            this.callTokens = callTokens;
+            this.methods = methods;
+            this.endpointsByMethod = endpointsByMethod;
+            this.markers = markers;
+            this.inheritanceWords = inheritanceWords;
+            this.scopedCalls = scopedCalls;
+        }
+
+        /** True for {@code @RestController} / {@code @Controller} classes. */
+        public boolean isController() {
+            return controller;
+        }
+
+        /** True when any {@code implements} clause names an interface ending in {@code delegateSuffix}. */
+        public boolean implementsDelegate(String delegateSuffix) {
+            if (delegateSuffix == null || delegateSuffix.isBlank()) return false;
+            for (String word : implementsWords) {
+                if (word.length() > delegateSuffix.length() && word.endsWith(delegateSuffix)) return true;
+            }
+            return false;
+        }
+
+        /** Interfaces of the first {@code implements} clause whose names end in {@code delegateSuffix}. */
+        public List<String> delegateInterfaces(String delegateSuffix) {
+            List<String> delegates = new ArrayList<>();
+            if (delegateSuffix == null || delegateSuffix.isBlank()) return delegates;
+            for (String t : firstImplementsTokens) {
+                if (t.endsWith(delegateSuffix)) delegates.add(t);
+            }
+            return delegates;
+        }
+
+        public List<String> declaredMethods() {
+            return declaredMethods;
+        }
+
+        /** Same answer as {@code content.contains(marker)} for any of {@link #MARKERS}. */
+        public boolean has(String marker) {
+            if (!MARKERS.contains(marker)) throw new IllegalArgumentException("Not a recorded marker: " + marker);
+            return markers.contains(marker);
+        }
+
+        /**
+         * Same answer as finding {@code (?:extends|implements)[^{]*\bName\b} in the source:
+         * true when {@code simpleName} is named in an inheritance clause.
+         */
+        public boolean inherits(String simpleName) {
+            return simpleName != null && inheritanceWords.contains(simpleName);
+        }
+
+        /**
+         * True when some receiver calls or references {@code method} ({@code x.method(},
+         * {@code x::method}), i.e. when the broad any-qualifier fallback of
+         * {@code getMethodsCalling} could find a caller here.
+         */
+        public boolean hasQualifiedCall(String method) {
+            String pure = pureName(method);
+            for (CallSite site : sites) {
+                if ((site.kind == QUALIFIED || site.kind == QUALIFIED_REF) && site.callee.equals(pure)) return true;
+            }
+            return false;
+        }
+
+        /**
+         * True when the receivers of a target type can be resolved from the recorded
+         * declarations. Only capitalised type names are recorded, so a lower-case target or
+         * supertype must be answered from the source instead.
+         */
+        public boolean canResolve(String targetSimpleName, String targetFqn, List<String> supertypeSimpleNames) {
+            for (String token : typeTokens(targetSimpleName, targetFqn, supertypeSimpleNames)) {
+                String last = token.substring(token.lastIndexOf('.') + 1);
+                if (last.isEmpty() || !Character.isUpperCase(last.charAt(0))) return false;
+            }
+            return true;
+        }
+
+        /** Mirrors the literal token pre-check of {@code getMethodsCalling}. */
+        public boolean mentionsAny(List<String> methods) {
+            if (methods == null) return false;
+            for (String method : methods) {
+                String pure = pureName(method);
+                if (!ImpactAnalyzer.isValidMethodName(pure)) continue;
+                if (containsCallToken(callTokens, pure)) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Methods of this file that call one of {@code touchedMethods} on the target class,
+         * with the step-4 semantics of {@code getMethodsCalling}: qualified calls and method
+         * references on any receiver bound to the target or one of its supertypes, static calls
+         * on the class itself, and unqualified calls through a static import. Callers must
+         * check {@link #mentionsAny} first; a file that fails it has no step-4 callers.
+         */
+        public List<String> callersOf(String targetSimpleName, String targetFqn,
+                                      List<String> supertypeSimpleNames, List<String> touchedMethods) {
+            if (touchedMethods == null || touchedMethods.isEmpty()) return Collections.emptyList();
+            Set<String> receivers = receivers(targetSimpleName, targetFqn, supertypeSimpleNames);
+            Set<String> staticallyImported = staticallyImportedMethods(targetFqn);
+
+            Set<String> pureNames = new HashSet<>();
+            for (String method : touchedMethods) {
+                String pure = pureName(method);
+                if (ImpactAnalyzer.isValidMethodName(pure)) pureNames.add(pure);
+            }
+            Set<String> rawNames = new HashSet<>(touchedMethods);
+
+            boolean ast = ImpactAnalyzer.isAstCallerDetectionEnabled();
+            Set<String> callers = new HashSet<>();
+            for (CallSite site : sites) {
+                Set<String> names = site.kind == AST ? rawNames : pureNames;
+                if (names.contains(site.callee) && matches(site, receivers, staticallyImported, ast)) {
+                    callers.add(site.caller);
+                }
+            }
+            return new ArrayList<>(callers);
+        }
+
+        /**
+         * Every method of the target called from this file, mapped to the methods calling it.
+         * Equivalent to {@link #callersOf} asked separately for each single method, including
+         * the {@link #mentionsAny} pre-check.
+         */
+        public Map<String, Set<String>> callersByCallee(String targetSimpleName, String targetFqn,
+                                                        List<String> supertypeSimpleNames) {
+            Set<String> receivers = receivers(targetSimpleName, targetFqn, supertypeSimpleNames);
+            Set<String> staticallyImported = staticallyImportedMethods(targetFqn);
+            boolean ast = ImpactAnalyzer.isAstCallerDetectionEnabled();
+            Map<String, Set<String>> callers = new LinkedHashMap<>();
+            Map<String, Boolean> mentioned = new HashMap<>();
+            for (CallSite site : sites) {
+                if (site.kind != AST && !ImpactAnalyzer.isValidMethodName(site.callee)) continue;
+                if (!matches(site, receivers, staticallyImported, ast)) continue;
+                boolean pass = mentioned.computeIfAbsent(site.callee, callee ->
+                        ImpactAnalyzer.isValidMethodName(callee) && containsCallToken(callTokens, callee));
+                if (pass) callers.computeIfAbsent(site.callee, k -> new LinkedHashSet<>()).add(site.caller);
+            }
+            return callers;
+        }
+
+        /** Variable names that may hold the target: declared with one of its type names, lowerCamel guesses, or the class itself. */
+        private Set<String> receivers(String targetSimpleName, String targetFqn, List<String> supertypeSimpleNames) {
+            Set<String> tokens = typeTokens(targetSimpleName, targetFqn, supertypeSimpleNames);
+            Set<String> receivers = new HashSet<>();
+            for (int i = 0; i < declarations.size(); i += 2) {
+                if (tokens.contains(declarations.get(i))) receivers.add(declarations.get(i + 1));
+            }
+            // lowerCamel inference needs the name to occur in the file; a call site on it proves that
+            for (String token : tokens) {
+                String simple = token.substring(token.lastIndexOf('.') + 1);
+                if (!simple.isBlank() && Character.isJavaIdentifierStart(simple.charAt(0))) {
+                    receivers.add(Character.toLowerCase(simple.charAt(0)) + simple.substring(1));
+                }
+            }
+            if (targetSimpleName != null && !targetSimpleName.isBlank()) receivers.add(targetSimpleName.trim());
+            return receivers;
+        }
+
+        /**
+         * Method names of the target imported statically; contains {@code "*"} for a
+         * wildcard static import.
+         */
+        private Set<String> staticallyImportedMethods(String targetFqn) {
+            Set<String> imported = new HashSet<>();
+            if (targetFqn == null || targetFqn.isBlank()) return imported;
+            for (String imp : staticImports) {
+                if (imp.equals(targetFqn + ".*")) {
+                    imported.add("*");
+                } else if (imp.startsWith(targetFqn + ".")) {
+                    String m = imp.substring(targetFqn.length() + 1);
+                    if (ImpactAnalyzer.isValidMethodName(m)) imported.add(m);
+                }
+            }
+            return imported;
+        }
+
+        private static boolean matches(CallSite site, Set<String> receivers, Set<String> staticallyImported, boolean ast) {
+            switch (site.kind) {
+                case QUALIFIED:
+                case QUALIFIED_REF:
+                    return receivers.contains(site.receiver);
+                case UNQUALIFIED:
+                case UNQUALIFIED_REF:
+                    return (staticallyImported.contains("*") || staticallyImported.contains(site.callee))
+                            && !site.caller.equals(site.callee);
+                case AST:
+                    return ast && receivers.contains(site.receiver);
+                default:
+                    return false;
+            }
+        }
+
+        /** In-memory equivalent of {@link ImpactAnalyzer#expandWithIntraClassCallers}. */
+        public List<String> expandWithIntraClassCallers(List<String> methodNames) {
+            if (methodNames == null || methodNames.isEmpty() || methods.isEmpty()) return methodNames;
+            Set<String> expanded = new LinkedHashSet<>(methodNames);
+            Set<String> frontier = new LinkedHashSet<>(methodNames);
+            for (int pass = 0; pass < 5 && !frontier.isEmpty(); pass++) {
+                Set<String> nextFrontier = new LinkedHashSet<>();
+                for (MethodCalls method : methods) {
+                    if (expanded.contains(method.name)) continue;
+                    for (String tm : frontier) {
+                        String pure = pureName(tm);
+                        if (!ImpactAnalyzer.isValidMethodName(pure)) continue;
+                        if (containsCallToken(method.callTokens, pure)) {
+                            if (expanded.add(method.name)) nextFrontier.add(method.name);
+                            break;
+                        }
+                    }
+                }
+                frontier = nextFrontier;
+            }
+            return new ArrayList<>(expanded);
+        }
+
+        /** In-memory equivalent of {@link ImpactAnalyzer#callsByMethod}. */
+        public Map<String, Set<String>> callsByMethod(Collection<String> methodNames) {
+            Map<String, Set<String>> calls = new LinkedHashMap<>();
+            if (methodNames == null || methodNames.isEmpty()) return calls;
+            for (MethodCalls method : methods) {
+                for (String tm : methodNames) {
+                    String pure = pureName(tm);
+                    if (!ImpactAnalyzer.isValidMethodName(pure)) continue;
+                    if (containsCallToken(method.callTokens, pure)) {
+                        calls.computeIfAbsent(method.name, k -> new LinkedHashSet<>()).add(tm);
+                    }
+                }
+            }
+            return calls;
+        }
+
+        /** Endpoints mapped by the given handler methods (controllers only). */
+        public List<String> controllerEndpoints(List<String> methodNames) {
+            if (methodNames == null || methodNames.isEmpty()) return Collections.emptyList();
+            List<String> endpoints = new ArrayList<>();
+            for (String method : methodNames) {
+                endpoints.addAll(endpointsByMethod.getOrDefault(pureName(method), Collections.emptyList()));
+            }
+            return endpoints;
+        }
+    }
+
+    private static Set<String> typeTokens(String simpleName, String fqn, List<String> supertypes) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (simpleName != null && !simpleName.isBlank()) tokens.add(simpleName);
+        if (fqn != null && !fqn.isBlank()) tokens.add(fqn);
+        if (supertypes != null) {
+            for (String s : supertypes) {
+                if (s != null && !s.isBlank()) tokens.add(s);
+            }
+        }
+        return tokens;
+    }
+
+    private static String pureName(String method) {
+        return method == null ? "" : method.split("\\(")[0].trim();
+    }
+
+    /** Same answer as {@code text.contains(name + "(") || text.contains("::" + name)} over the tokens' source. */
+    private static boolean containsCallToken(Collection<String> tokens, String name) {
+        String call = name + "(";
+        String ref = "::" + name;
+        for (String t : tokens) {
+            if (t.endsWith(call) || t.startsWith(ref)) return true;
+        }
+        return false;
+    }
+
+    // ── Extraction ────────────────────────────────────────────────────────────────────────────
+
+    /**
+     * Extracts the call graph of one source file in a single scan.
+     *
+     * @param simpleName simple name of the file's primary type, used to locate the class-level
+     *                   request mapping of controllers
+     */
+    static FileCalls extract(String content, String simpleName) {
+        List<MethodSpan> spans = ImpactAnalyzer.buildMethodSpans(content);
+        List<CallSite> sites = new ArrayList<>();
+        Set<String> callTokens = new LinkedHashSet<>();
+        // Position of every call token, to hand them out to method spans afterwards
+        List<int[]> tokenPositions = new ArrayList<>();
+        List<String> positionedTokens = new ArrayList<>();
+
+        int n = content.length();
+        int i = 0;
+        while (i < n) {
+            char c = content.charAt(i);
+            if (c == ':' && i + 1 < n && content.charAt(i + 1) == ':') {
+                int j = skipWhitespace(content, i + 2);
+                int end = identifierEnd(content, j);
+                if (end > j) {
+                    String name = content.substring(j, end);
+                    if (j == i + 2) {
+                        callTokens.add("::" + name);
+                        tokenPositions.add(new int[] {i, end});
+                        positionedTokens.add("::" + name);
+                    }
+                    if (!isQualifierChar(content, i - 1)) {
+                        addSite(sites, spans, UNQUALIFIED_REF, "", name, i);
+                    }
+                }
+                i += 2;
+                continue;
+            }
+            if (!isWordChar(c)) {
+                i++;
+                continue;
+            }
+            int start = i;
+            i = identifierEnd(content, i);
+            String ident = content.substring(start, i);
+            int j = skipWhitespace(content, i);
+            if (j >= n) break;
+            char next = content.charAt(j);
+            if (next == '(') {
+                if (j == i) {
+                    callTokens.add(ident + "(");
+                    tokenPositions.add(new int[] {start, j + 1});
+                    positionedTokens.add(ident + "(");
+                }
+                if (!isQualifierChar(content, start - 1)) {
+                    addSite(sites, spans, UNQUALIFIED, "", ident, start);
+                }
+            } else if (next == '.') {
+                int k = skipWhitespace(content, j + 1);
+                int end = identifierEnd(content, k);
+                if (end > k && skipWhitespace(content, end) < n && content.charAt(skipWhitespace(content, end)) == '(') {
+                    addSite(sites, spans, QUALIFIED, ident, content.substring(k, end), start);
+                }
+            } else if (next == ':' && j + 1 < n && content.charAt(j + 1) == ':') {
+                int k = skipWhitespace(content, j + 2);
+                int end = identifierEnd(content, k);
+                if (end > k) {
+                    addSite(sites, spans, QUALIFIED_REF, ident, content.substring(k, end), start);
+                }
+            }
+        }
+
+        // A full parse per file: skip it when matches() would ignore AST sites anyway
+        boolean scopedCalls = ImpactAnalyzer.isAstCallerDetectionEnabled();
+        if (scopedCalls) {
+            for (String[] call : AstInvocationFinder.findScopedCalls(content)) {
+                sites.add(new CallSite(AST, call[0], call[1], call[2]));
+            }
+        }
+
+        List<MethodCalls> methods = new ArrayList<>(spans.size());
+        for (MethodSpan span : spans) {
+            List<String> inSpan = new ArrayList<>();
+            for (int t = 0; t < tokenPositions.size(); t++) {
+                int[] pos = tokenPositions.get(t);
+                if (pos[0] >= span.start && pos[1] <= span.endExclusive) inSpan.add(positionedTokens.get(t));
+            }
+            methods.add(new MethodCalls(span.name, inSpan));
+        }
+
+        List<String> declarations = new ArrayList<>();
+        Matcher dm = DECLARATION_PATTERN.matcher(content);
+        while (dm.find()) {
+            String chain = dm.group(1);
+            String last = chain.substring(chain.lastIndexOf('.') + 1);
+            if (!last.isEmpty() && Character.isUpperCase(last.charAt(0))) {
+                declarations.add(chain);
+                declarations.add(dm.group(2));
+            }
+        }
+
+        List<String> staticImports = new ArrayList<>();
+        Matcher sm = STATIC_IMPORT_PATTERN.matcher(content);
+        while (sm.find()) staticImports.add(sm.group(1));
+
+        Set<String> implementsWords = new LinkedHashSet<>();
+        Matcher im = IMPLEMENTS_PATTERN.matcher(content);
+        while (im.find()) {
+            Matcher wm = WORD_PATTERN.matcher(im.group(1));
+            while (wm.find()) implementsWords.add(wm.group());
+        }
+        List<String> firstImplementsTokens = new ArrayList<>();
+        Matcher fm = FIRST_IMPLEMENTS_PATTERN.matcher(content);
+        if (fm.find()) {
+            for (String token : fm.group(1).split("[,\\s]+")) {
+                firstImplementsTokens.add(token.trim().replaceAll("<.*>", ""));
+            }
+        }
+
+        boolean controller = content.contains("@RestController") || content.contains("@Controller");
+        Map<String, List<String>> endpointsByMethod = new LinkedHashMap<>();
+        if (controller) {
+            Set<String> handlerNames = new LinkedHashSet<>();
+            for (MethodSpan span : spans) handlerNames.add(span.name);
+            for (CallSite site : sites) handlerNames.add(site.caller);
+            for (String name : handlerNames) {
+                List<String> endpoints = ImpactAnalyzer.extractControllerEndpoints(
+                        content, simpleName, Collections.singletonList(name));
+                if (!endpoints.isEmpty()) endpointsByMethod.put(name, endpoints);
+            }
+        }
+
+        List<String> markers = new ArrayList<>();
+        for (String marker : MARKERS) {
+            if (content.contains(marker)) markers.add(marker);
+        }
+        Set<String> inheritanceWords = new LinkedHashSet<>();
+        Matcher hm = INHERITANCE_PATTERN.matcher(content);
+        while (hm.find()) {
+            Matcher wm = WORD_PATTERN.matcher(content).region(hm.start(1), hm.end(1));
+            while (wm.find()) {
+                // A word running on from the keyword itself ("extendsFoo") has no \b before it
+                if (wm.start() != hm.start(1)) inheritanceWords.add(wm.group());
+            }
+        }
+
+        return new FileCalls(controller, new ArrayList<>(implementsWords), firstImplementsTokens,
+                ImpactAnalyzer.extractDeclaredMethodNames(content), staticImports, declarations,
+                sites, callTokens, methods, endpointsByMethod, markers, new ArrayList<>(inheritanceWords),
+                scopedCalls);
+    }
+
+    private static void addSite(List<CallSite> sites, List<MethodSpan> spans, byte kind,
+                                String receiver, String callee, int pos) {
+        String caller = ImpactAnalyzer.enclosingMethodName(spans, pos);
+        if (caller != null) sites.add(new CallSite(kind, receiver, callee, caller));
+    }
+
+    private static int skipWhitespace(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static int identifierEnd(String s, int i) {
+        while (i < s.length() && isWordChar(s.charAt(i))) i++;
+        return i;
+    }
+
+    /** True when the character at {@code i} is {@code .} or a word character (regex {@code [.\w]}). */
+    private static boolean isQualifierChar(String s, int i) {
+        if (i < 0) return false;
+        char c = s.charAt(i);
+        return c == '.' || isWordChar(c);
+    }
+
+    /** Mirrors the ASCII {@code \w} class used by the regex call patterns. */
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // ── Persistence ───────────────────────────────────────────────────────────────────────────
+
+    /** A persisted per-file call graph, valid only while the file's blob id is unchanged. */
+    static final class StoredFile {
+        final String blobId;
+        final FileCalls calls;
+
+        StoredFile(String blobId, FileCalls calls) {
+            this.blobId = blobId;
+            this.calls = calls;
+        }
+    }
+
+    /**
+     * Loads per-file call graphs keyed by repo-relative path.
+     * Returns an empty map when the store is missing, from another version, or corrupt.
+     */
+    static Map<String, StoredFile> load(Path cacheDir) {
+        Path file = cacheDir.resolve(STORE_FILE);
+        if (!Files.exists(file)) return Collections.emptyMap();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return Collections.emptyMap();
+            String[] table = new String[in.readInt()];
+            for (int i = 0; i < table.length; i++) table[i] = in.readUTF();
+            int fileCount = in.readInt();
+            Map<String, StoredFile> result = new HashMap<>(fileCount * 2);
+            for (int f = 0; f < fileCount; f++) {
+                String rel = table[in.readInt()];
+                String blob = table[in.readInt()];
+                result.put(rel, new StoredFile(blob, readCalls(in, table)));
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            return Collections.emptyMap();
+        }
+    }
+
+    /** Writes the store atomically with an interned string table so each identifier is stored once. */
+    static void save(Path cacheDir, Map<String, StoredFile> files) {
+        try {
+            Files.createDirectories(cacheDir);
+            Map<String, Integer> intern = new HashMap<>();
+            List<String> table = new ArrayList<>();
+            ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+            DataOutputStream body = new DataOutputStream(bodyBytes);
+            for (Map.Entry<String, StoredFile> e : new TreeMap<>(files).entrySet()) {
+                writeString(body, intern, table, e.getKey());
+                writeString(body, intern, table, e.getValue().blobId);
+                writeCalls(body, intern, table, e.getValue().calls);
+            }
+            body.flush();
+
+            Path tmp = Files.createTempFile(cacheDir, STORE_FILE, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(table.size());
+                for (String t : table) out.writeUTF(t);
+                out.writeInt(files.size());
+                bodyBytes.writeTo(out);
+            }
+            try {
+                Files.move(tmp, cacheDir.resolve(STORE_FILE),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException atomicUnsupported) {
+                Files.move(tmp, cacheDir.resolve(STORE_FILE), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ignored) {
+            // A missing store only costs a full re-extraction on the next run
+        }
+    }
+
+    private static void writeCalls(DataOutputStream out, Map<String, Integer> intern, List<String> table,
+                                   FileCalls calls) throws IOException {
+        out.writeBoolean(calls.controller);
+        writeStrings(out, intern, table, calls.implementsWords);
+        writeStrings(out, intern, table, calls.firstImplementsTokens);
+        writeStrings(out, intern, table, calls.declaredMethods);
+        writeStrings(out, intern, table, calls.staticImports);
+        writeStrings(out, intern, table, calls.declarations);
+        out.writeInt(calls.sites.size());
+        for (CallSite site : calls.sites) {
+            out.writeByte(site.kind);
+            writeString(out, intern, table, site.receiver);
+            writeString(out, intern, table, site.callee);
+            writeString(out, intern, table, site.caller);
+        }
+        writeStrings(out, intern, table, calls.callTokens);
+        out.writeInt(calls.methods.size());
+        for (MethodCalls method : calls.methods) {
+            writeString(out, intern, table, method.name);
+            writeStrings(out, intern, table, method.callTokens);
+        }
+        out.writeInt(calls.endpointsByMethod.size());
+        for (Map.Entry<String, List<String>> e : calls.endpointsByMethod.entrySet()) {
+            writeString(out, intern, table, e.getKey());
+            writeStrings(out, intern, table, e.getValue());
+        }
+        writeStrings(out, intern, table, calls.markers);
+        writeStrings(out, intern, table, calls.inheritanceWords);
+        out.writeBoolean(calls.scopedCalls);
+    }
+
+    private static FileCalls readCalls(DataInputStream in, String[] table) throws IOException {
+        boolean controller = in.readBoolean();
+        List<String> implementsWords = readStrings(in, table);
+        List<String> firstImplementsTokens = readStrings(in, table);
+        List<String> declaredMethods = readStrings(in, table);
+        List<String> staticImports = readStrings(in, table);
+        List<String> declarations = readStrings(in, table);
+        int siteCount = in.readInt();
+        List<CallSite> sites = new ArrayList<>(siteCount);
+        for (int s = 0; s < siteCount; s++) {
+            byte kind = in.readByte();
+            sites.add(new CallSite(kind, table[in.readInt()], table[in.readInt()], table[in.readInt()]));
+        }
+        Set<String> callTokens = new LinkedHashSet<>(readStrings(in, table));
+        int methodCount = in.readInt();
+        List<MethodCalls> methods = new ArrayList<>(methodCount);
+        for (int m = 0; m < methodCount; m++) {
+            String name = table[in.readInt()];
+            methods.add(new MethodCalls(name, readStrings(in, table)));
+        }
+        int endpointCount = in.readInt();
+        Map<String, List<String>> endpointsByMethod = new LinkedHashMap<>();
+        for (int e = 0; e < endpointCount; e++) {
+            String name = table[in.readInt()];
+            endpointsByMethod.put(name, readStrings(in, table));
+        }
+        List<String> markers = readStrings(in, table);
+        List<String> inheritanceWords = readStrings(in, table);
+        boolean scopedCalls = in.readBoolean();
+        return new FileCalls(controller, implementsWords, firstImplementsTokens, declaredMethods, staticImports,
+                declarations, sites, callTokens, methods, endpointsByMethod, markers, inheritanceWords, scopedCalls);
+    }
+
+    private static void writeString(DataOutputStream out, Map<String, Integer> intern, List<String> table,
+                                    String value) throws IOException {
+        Integer id = intern.get(value);
+        if (id == null) {
+            id = table.size();
+            intern.put(value, id);
+            table.add(value);
+        }
+        out.writeInt(id);
+    }
+
+    private static void writeStrings(DataOutputStream out, Map<String, Integer> intern, List<String> table,
+                                     Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String v : values) writeString(out, intern, table, v);
+    }
+
+    private static List<String> readStrings(DataInputStream in, String[] table) throws IOException {
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) values[i] = table[in.readInt()];
+        return Arrays.asList(values);
+    }
+}
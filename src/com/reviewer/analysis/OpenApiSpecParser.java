@@ -1,5 +1,7 @@
 package com.reviewer.analysis;
 
+import com.reviewer.util.RunMetrics;
+
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -54,6 +56,7 @@ public class OpenApiSpecParser {
         }
         try {
             String content = Files.readString(specPath);
+            RunMetrics.fileRead(specPath);
             return parseContent(content);
         } catch (IOException e) {
             return Collections.emptyMap();
@@ -1,70 +1,145 @@
 package com.reviewer.analysis;
 
 import com.reviewer.model.Models.*;
+import com.reviewer.util.Trace;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
-import java.util.regex.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 public class PmdAnalyzer {
 
+    /** PMD incremental analysis cache, shared by the in-process and CLI runs. */
+    private static final Path CACHE_FILE = Paths.get(".code-reviewer-cache", "pmd-cache.bin");
+    /**
+     * Where the reviewed content of each changed file is written for PMD to analyse. The path
+     * under it is the same every run, so the incremental cache still recognises unchanged files.
+     */
+    private static final Path STAGING_DIR = Paths.get(".code-reviewer-cache", "pmd-staged");
+    /** Longest a PMD run may take, in-process or through the CLI, before its findings are dropped. */
+    private static final int TIMEOUT_SECONDS = 60;
+
     public static List<Finding> analyze(List<ChangedFile> files, Config config) {
+        if (config == null || !config.enablePmdAnalysis) return new ArrayList<>();
+
+        // PMD reads the files it is given, but changed lines and snippets come from the content
+        // under review (the staged version of a file being committed), so it analyses copies of that
+        Map<Path, ChangedFile> staged = new LinkedHashMap<>();
+        try {
+            for (ChangedFile f : files) {
+                Path original = Paths.get(f.path).toAbsolutePath().normalize();
+                Path copy = STAGING_DIR.toAbsolutePath().resolve(original.getRoot().relativize(original)).normalize();
+                Files.createDirectories(copy.getParent());
+                Files.writeString(copy, SourceFile.read(original).content());
+                staged.put(copy, f);
+            }
+            return analyze(staged, config);
+        } catch (IOException e) {
+            System.err.println("PMD integration failed: " + e.getMessage());
+            return new ArrayList<>();
+        } finally {
+            for (Path copy : staged.keySet()) removeStagedCopy(copy);
+        }
+    }
+
+    /** Deletes {@code copy} and the directories above it that are left empty. */
+    private static void removeStagedCopy(Path copy) {
+        Path root = STAGING_DIR.toAbsolutePath();
+        try {
+            Files.deleteIfExists(copy);
+            for (Path dir = copy.getParent(); dir != null && dir.startsWith(root); dir = dir.getParent()) {
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                    if (entries.iterator().hasNext()) break;
+                }
+                Files.delete(dir);
+            }
+        } catch (IOException e) {
+            Trace.debug("Could not remove {}: {}", copy, e.getMessage());
+        }
+    }
+
+    private static List<Finding> analyze(Map<Path, ChangedFile> files, Config config) {
+        List<Finding> allFindings = new ArrayList<>();
+        // Prefer PMD's Java API when its jars are on the classpath: no second JVM, and the
+        // ruleset stays parsed between runs of a long-lived process
+        if (config.pmdInProcess && PmdInProcess.isAvailable()) {
+            List<Path> paths = new ArrayList<>(files.keySet());
+            // On a worker thread so that the run can be abandoned after the same limit as the CLI
+            FutureTask<List<PmdInProcess.Violation>> task =
+                    new FutureTask<>(() -> PmdInProcess.analyze(paths, config.pmdRulesetPath, CACHE_FILE));
+            Thread worker = new Thread(task, "pmd-in-process");
+            worker.setDaemon(true);
+            worker.start();
+            try {
+                allFindings.addAll(toFindings(task.get(TIMEOUT_SECONDS, TimeUnit.SECONDS), files, config));
+                Trace.debug("PMD (in-process) findings: {}", allFindings.size());
+                return allFindings;
+            } catch (TimeoutException e) {
+                task.cancel(true);
+                Trace.debug("In-process PMD timed out after {} seconds", TIMEOUT_SECONDS);
+                return allFindings;
+            } catch (InterruptedException e) {
+                task.cancel(true);
+                Thread.currentThread().interrupt();
+                return allFindings;
+            } catch (ExecutionException e) {
+                Trace.debug("In-process PMD failed, falling back to the PMD CLI: {}", e.getCause().getMessage());
+                allFindings.clear();
+            }
+        }
+        return analyzeWithCli(files, config);
+    }
+
+    private static List<Finding> analyzeWithCli(Map<Path, ChangedFile> files, Config config) {
         List<Finding> allFindings = new ArrayList<>();
-        if (config == null || !config.enablePmdAnalysis) return allFindings;
 
         try {
             // Create a temporary file list for PMD
             Path tempFileList = Files.createTempFile("pmd-files", ".txt");
             try {
-                List<String> filePaths = files.stream()
-                    .map(f -> {
-                        try {
-                            return Paths.get(f.path).toAbsolutePath().normalize().toString();
-                        } catch (Exception e) {
-                            return f.path;
-                        }
-                    })
-                    .collect(java.util.stream.Collectors.toList());
+                List<String> filePaths = files.keySet().stream().map(Path::toString).collect(Collectors.toList());
                 Files.write(tempFileList, filePaths);
 
                 // Execute PMD CLI
-                // Command: pmd check -f json -R <ruleset> -filelist <tempFile>
+                // Command: pmd check -f json -R <ruleset> -filelist <tempFile> --cache <cacheFile>
+                Files.createDirectories(CACHE_FILE.toAbsolutePath().getParent());
                 ProcessBuilder pb = new ProcessBuilder(
                         config.pmdPath,
                         "check",
                         "-f", "json",
                         "-R", config.pmdRulesetPath,
-                        "-filelist", tempFileList.toString()
+                        "-filelist", tempFileList.toString(),
+                        "--cache", CACHE_FILE.toAbsolutePath().toString()
                 );
 
-                pb.redirectErrorStream(true);
+                // Keep stdout pure JSON so it can be parsed as it streams; PMD's warnings go to stderr
+                pb.redirectError(config.debug ? ProcessBuilder.Redirect.INHERIT : ProcessBuilder.Redirect.DISCARD);
 
                 Process process = pb.start();
                 try {
-                    StringBuilder output = new StringBuilder();
-                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            output.append(line);
-                        }
+                    List<PmdInProcess.Violation> violations = new ArrayList<>();
+                    try (Reader reader = new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)) {
+                        PmdJsonReader.read(reader, violations::add);
+                    } catch (IOException e) {
+                        System.err.println("Error parsing PMD JSON: " + e.getMessage());
                     }
 
-                    boolean finished = process.waitFor(60, TimeUnit.SECONDS);
+                    boolean finished = process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
                     // PMD exit codes: 0 = no violations, 4 = violations found, others = error
                     if (!finished) {
-                        System.err.println("PMD analysis timed out after 60 seconds");
+                        System.err.println("PMD analysis timed out after " + TIMEOUT_SECONDS + " seconds");
                         return allFindings;
                     }
 
-                    if (config.debug) {
-                        System.out.println("[DEBUG] PMD exit code: " + process.exitValue());
-                    }
+                    Trace.debug("PMD exit code: {}", process.exitValue());
 
-                    allFindings.addAll(parsePmdJson(output.toString(), files, config));
-                    if (config.debug) {
-                        System.out.println("[DEBUG] PMD findings parsed: " + allFindings.size());
-                    }
+                    allFindings.addAll(toFindings(violations, files, config));
+                    Trace.debug("PMD findings parsed: {}", allFindings.size());
                 } finally {
                     process.destroyForcibly();
                 }
@@ -80,94 +155,54 @@ public class PmdAnalyzer {
         return allFindings;
     }
 
-    private static List<Finding> parsePmdJson(String json, List<ChangedFile> changedFiles, Config config) {
+    /**
+     * Maps PMD violations on the staged copies of changed files to findings on the files
+     * themselves, honouring {@code onlyChangedLines}, and records each file that produced
+     * findings in {@link Config#pmdCoveredFiles}.
+     */
+    private static List<Finding> toFindings(List<PmdInProcess.Violation> violations, Map<Path, ChangedFile> changedFiles, Config config) {
         List<Finding> findings = new ArrayList<>();
-        // Note: Using simple regex parsing for JSON to avoid adding a heavy JSON library dependency
-        // In a production app, a real JSON parser (Jackson/Gson) would be preferred.
+        Map<String, ChangedFile> fileMap = new HashMap<>();
+        for (Map.Entry<Path, ChangedFile> e : changedFiles.entrySet()) {
+            fileMap.put(normalizePath(e.getKey().toString()), e.getValue());
+        }
 
-        try {
-            // Pattern to extract file results (PMD 7 JSON includes extra keys besides filename/violations)
-            Pattern filePattern = Pattern.compile(
-                "\\{[^{}]*?\\\"filename\\\"\\s*:\\s*\\\"(.*?)\\\"[^{}]*?\\\"violations\\\"\\s*:\\s*\\[(.*?)\\]" +
-                "[^{}]*?\\}",
-                Pattern.DOTALL);
-            Matcher fileMatcher = filePattern.matcher(json);
-
-            Map<String, ChangedFile> fileMap = new HashMap<>();
-            for (ChangedFile f : changedFiles) {
-                // Normalize path for matching
-                String abs;
-                try {
-                    abs = Paths.get(f.path).toAbsolutePath().normalize().toString();
-                } catch (Exception e) {
-                    abs = new File(f.path).getAbsolutePath();
-                }
-                fileMap.put(normalizePath(abs), f);
-            }
+        Map<String, String[]> linesByFile = new HashMap<>();
+        for (PmdInProcess.Violation v : violations) {
+            ChangedFile changedFile = fileMap.get(normalizePath(v.path));
+            if (changedFile == null) continue;
 
-            while (fileMatcher.find()) {
-                String filePath = fileMatcher.group(1).replace("\\\\", "\\");
-                String violationsJson = fileMatcher.group(2);
-
-                ChangedFile changedFile = fileMap.get(normalizePath(filePath));
-                if (changedFile == null) continue;
-
-                // Extract individual violations
-                Pattern violationPattern = Pattern.compile(
-                    "\\{[^{}]*?\\\"beginLine\\\"\\s*:\\s*(\\d+)" +
-                    "[^{}]*?\\\"rule\\\"\\s*:\\s*\\\"(.*?)\\\"" +
-                    "[^{}]*?\\\"ruleset\\\"\\s*:\\s*\\\"(.*?)\\\"" +
-                    "[^{}]*?\\\"priority\\\"\\s*:\\s*(\\d+)" +
-                    "[^{}]*?\\\"description\\\"\\s*:\\s*\\\"(.*?)\\\"" +
-                    "[^{}]*?\\}",
-                    Pattern.DOTALL);
-                Matcher vMatcher = violationPattern.matcher(violationsJson);
-
-                boolean fileHadFindings = false;
-                while (vMatcher.find()) {
-                    int line = Integer.parseInt(vMatcher.group(1));
-
-                    // Filter to only changed lines if configured
-                    if (config != null && config.onlyChangedLines && !isInChangedLines(changedFile, line)) continue;
-
-                    String ruleName = vMatcher.group(2);
-                    String ruleset = vMatcher.group(3);
-                    int priority = Integer.parseInt(vMatcher.group(4));
-                    String description = unescapeJsonString(vMatcher.group(5));
-
-                    Severity severity = mapPriority(priority);
-                    Category category = mapCategory(ruleset, ruleName);
-
-                    // Get the actual code line
-                    String code = "";
-                    try {
-                        List<String> allLines = Files.readAllLines(Paths.get(filePath));
-                        if (line <= allLines.size()) {
-                            code = allLines.get(line - 1).trim();
-                        }
-                    } catch (IOException ignored) {}
-
-                    findings.add(new Finding(
-                        severity,
-                        category,
-                        changedFile.name,
-                        line,
-                        code,
-                        "PMD: " + ruleName,
-                        description,
-                        "Refer to PMD documentation for '" + ruleName + "' best practices."
-                    ));
-                    fileHadFindings = true;
-                }
-                // Mark this file as PMD-covered so RuleEngine skips overlapping rule groups
-                if (fileHadFindings && config != null) {
-                    config.pmdCoveredFiles.add(changedFile.name);
+            // Filter to only changed lines if configured
+            if (config != null && config.onlyChangedLines && !isInChangedLines(changedFile, v.line)) continue;
+
+            Severity severity = mapPriority(v.priority);
+            Category category = mapCategory(v.ruleSet, v.rule);
+
+            // Get the actual code line; each file's line table is resolved once
+            String[] allLines = linesByFile.computeIfAbsent(changedFile.path, p -> {
+                try {
+                    return SourceFile.read(Paths.get(p)).lines();
+                } catch (IOException e) {
+                    return new String[0];
                 }
+            });
+            String code = v.line <= allLines.length ? allLines[v.line - 1].trim() : "";
+
+            findings.add(new Finding(
+                severity,
+                category,
+                changedFile.name,
+                v.line,
+                code,
+                "PMD: " + v.rule,
+                v.description,
+                "Refer to PMD documentation for '" + v.rule + "' best practices."
+            ));
+            // Mark this file as PMD-covered so RuleEngine skips overlapping rule groups
+            if (config != null) {
+                config.pmdCoveredFiles.add(changedFile.name);
             }
-        } catch (Exception e) {
-            System.err.println("Error parsing PMD JSON: " + e.getMessage());
         }
-
         return findings;
     }
 
@@ -187,17 +222,6 @@ public class PmdAnalyzer {
         }
     }
 
-    private static String unescapeJsonString(String s) {
-        if (s == null) return "";
-        return s
-            .replace("\\\\\"", "\"")
-            .replace("\\\\n", "\n")
-            .replace("\\\\r", "\r")
-            .replace("\\\\t", "\t")
-            .replace("\\\\/", "/")
-            .replace("\\\\\\\\", "\\");
-    }
-
     private static Severity mapPriority(int priority) {
         switch (priority) {
             case 1: return Severity.MUST_FIX;
@@ -0,0 +1,169 @@
+package com.reviewer.analysis;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs PMD through its Java API inside the reviewer JVM instead of launching {@code pmd check}.
+ *
+ * <p>PMD is an optional runtime dependency, so the API (PMD 7) is bound reflectively once and
+ * {@link #isAvailable()} reports whether the jars are on the classpath. The ruleset is parsed
+ * once per JVM and reused for as long as the file is unchanged, and PMD's incremental analysis
+ * cache is pointed at a file the caller chooses, so unchanged files are not re-analysed.
+ */
+final class PmdInProcess {
+
+    private static final Api API = Api.bind();
+
+    private static String ruleSetKey;
+    private static Object ruleSet;
+
+    private PmdInProcess() {}
+
+    static boolean isAvailable() {
+        return API != null;
+    }
+
+    /** One reported violation, in the shape {@link PmdAnalyzer} turns into a finding. */
+    static final class Violation {
+        final String path;
+        final int line;
+        final String rule;
+        final String ruleSet;
+        final int priority;
+        final String description;
+
+        Violation(String path, int line, String rule, String ruleSet, int priority, String description) {
+            this.path = path;
+            this.line = line;
+            this.rule = rule;
+            this.ruleSet = ruleSet;
+            this.priority = priority;
+            this.description = description;
+        }
+    }
+
+    /**
+     * Analyses {@code files} with the ruleset at {@code rulesetPath}.
+     *
+     * @param cacheFile PMD incremental analysis cache, or null to analyse every file from scratch
+     * @throws Exception when PMD is unavailable or fails; callers fall back to the CLI
+     */
+    static List<Violation> analyze(List<Path> files, String rulesetPath, Path cacheFile) throws Exception {
+        if (API == null) throw new IllegalStateException("PMD is not on the classpath");
+        Object configuration = API.configurationType.getConstructor().newInstance();
+        if (cacheFile != null) {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            API.setAnalysisCacheLocation.invoke(configuration, cacheFile.toString());
+        } else {
+            API.setIgnoreIncrementalAnalysis.invoke(configuration, true);
+        }
+
+        Object analysis = API.create.invoke(null, configuration);
+        try {
+            API.addRuleSet.invoke(analysis, loadRuleSet(configuration, rulesetPath));
+            Object collector = API.files.invoke(analysis);
+            for (Path file : files) API.addFile.invoke(collector, file);
+            Object report = API.performAnalysisAndCollectReport.invoke(analysis);
+
+            List<Violation> violations = new ArrayList<>();
+            for (Object v : (List<?>) API.getViolations.invoke(report)) {
+                Object rule = API.getRule.invoke(v);
+                Object fileId = API.getFileId.invoke(v);
+                violations.add(new Violation(
+                        (String) API.getAbsolutePath.invoke(fileId),
+                        (Integer) API.getBeginLine.invoke(v),
+                        (String) API.getName.invoke(rule),
+                        String.valueOf(API.getRuleSetName.invoke(rule)),
+                        (Integer) API.priorityValue.invoke(API.getPriority.invoke(rule)),
+                        (String) API.getDescription.invoke(v)));
+            }
+            return violations;
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            API.close.invoke(analysis);
+        }
+    }
+
+    /** Parses the ruleset on first use and whenever the file changes; otherwise returns the parsed one. */
+    private static synchronized Object loadRuleSet(Object configuration, String rulesetPath) throws Exception {
+        Path file = Path.of(rulesetPath);
+        String key = rulesetPath + "@" + (Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() : 0L);
+        if (!key.equals(ruleSetKey)) {
+            Object loader = API.fromPmdConfig.invoke(null, configuration);
+            ruleSet = API.loadFromResource.invoke(loader, rulesetPath);
+            ruleSetKey = key;
+        }
+        return ruleSet;
+    }
+
+    /** The PMD 7 entry points used above, resolved on their public API types. */
+    private static final class Api {
+        Class<?> configurationType;
+        Method setAnalysisCacheLocation;
+        Method setIgnoreIncrementalAnalysis;
+        Method create;
+        Method addRuleSet;
+        Method files;
+        Method addFile;
+        Method performAnalysisAndCollectReport;
+        Method close;
+        Method fromPmdConfig;
+        Method loadFromResource;
+        Method getViolations;
+        Method getRule;
+        Method getFileId;
+        Method getAbsolutePath;
+        Method getBeginLine;
+        Method getDescription;
+        Method getName;
+        Method getRuleSetName;
+        Method getPriority;
+        Method priorityValue;
+
+        static Api bind() {
+            try {
+                Api api = new Api();
+                api.configurationType = Class.forName("net.sourceforge.pmd.PMDConfiguration");
+                Class<?> analysis = Class.forName("net.sourceforge.pmd.PmdAnalysis");
+                Class<?> ruleSetType = Class.forName("net.sourceforge.pmd.lang.rule.RuleSet");
+                Class<?> loader = Class.forName("net.sourceforge.pmd.lang.rule.RuleSetLoader");
+                Class<?> collector = Class.forName("net.sourceforge.pmd.lang.document.FileCollector");
+                Class<?> fileId = Class.forName("net.sourceforge.pmd.lang.document.FileId");
+                Class<?> report = Class.forName("net.sourceforge.pmd.reporting.Report");
+                Class<?> violation = Class.forName("net.sourceforge.pmd.reporting.RuleViolation");
+                Class<?> rule = Class.forName("net.sourceforge.pmd.lang.rule.Rule");
+                Class<?> priority = Class.forName("net.sourceforge.pmd.lang.rule.RulePriority");
+
+                api.setAnalysisCacheLocation = api.configurationType.getMethod("setAnalysisCacheLocation", String.class);
+                api.setIgnoreIncrementalAnalysis = api.configurationType.getMethod("setIgnoreIncrementalAnalysis", boolean.class);
+                api.create = analysis.getMethod("create", api.configurationType);
+                api.addRuleSet = analysis.getMethod("addRuleSet", ruleSetType);
+                api.files = analysis.getMethod("files");
+                api.performAnalysisAndCollectReport = analysis.getMethod("performAnalysisAndCollectReport");
+                api.close = analysis.getMethod("close");
+                api.addFile = collector.getMethod("addFile", Path.class);
+                api.fromPmdConfig = loader.getMethod("fromPmdConfig", api.configurationType);
+                api.loadFromResource = loader.getMethod("loadFromResource", String.class);
+                api.getViolations = report.getMethod("getViolations");
+                api.getRule = violation.getMethod("getRule");
+                api.getFileId = violation.getMethod("getFileId");
+                api.getBeginLine = violation.getMethod("getBeginLine");
+                api.getDescription = violation.getMethod("getDescription");
+                api.getAbsolutePath = fileId.getMethod("getAbsolutePath");
+                api.getName = rule.getMethod("getName");
+                api.getRuleSetName = rule.getMethod("getRuleSetName");
+                api.getPriority = rule.getMethod("getPriority");
+                api.priorityValue = priority.getMethod("getPriority");
+                return api;
+            } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.reviewer.analysis;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for PMD's {@code -f json} report.
+ *
+ * <p>Consumes the report straight from the PMD process as it is written, without holding the
+ * whole document: only the current file's violations are buffered (the file name is attached
+ * once the file object closes, whatever the key order). Everything except
+ * {@code files[].filename} and the {@code beginLine}, {@code rule}, {@code ruleset},
+ * {@code priority} and {@code description} of each violation is skipped without being
+ * materialised. Anything printed before the opening brace (PMD warnings) is ignored.
+ */
+final class PmdJsonReader {
+
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private int pos;
+    private int limit;
+    /** Reused for every string token. */
+    private final StringBuilder text = new StringBuilder(128);
+
+    private PmdJsonReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Reads the report from {@code in}, handing each violation to {@code sink} once its file is complete. */
+    static void read(Reader in, Consumer<PmdInProcess.Violation> sink) throws IOException {
+        PmdJsonReader r = new PmdJsonReader(in);
+        int c;
+        while ((c = r.peek()) != -1 && c != '{') r.pos++;
+        if (c == -1) return;
+        r.expect('{');
+        if (r.skipWhitespaceAndPeek() == '}') {
+            r.pos++;
+            return;
+        }
+        do {
+            String key = r.readString();
+            r.expect(':');
+            if (key.equals("files")) r.readFiles(sink);
+            else r.skipValue();
+        } while (r.nextMember('}'));
+    }
+
+    private void readFiles(Consumer<PmdInProcess.Violation> sink) throws IOException {
+        if (skipWhitespaceAndPeek() != '[') {
+            skipValue();
+            return;
+        }
+        pos++;
+        if (skipWhitespaceAndPeek() == ']') {
+            pos++;
+            return;
+        }
+        List<Raw> pending = new ArrayList<>();
+        do {
+            expect('{');
+            String filename = null;
+            pending.clear();
+            if (skipWhitespaceAndPeek() == '}') {
+                pos++;
+                continue;
+            }
+            do {
+                String key = readString();
+                expect(':');
+                if (key.equals("filename")) filename = readStringOrNull();
+                else if (key.equals("violations")) readViolations(pending);
+                else skipValue();
+            } while (nextMember('}'));
+            if (filename != null) {
+                for (Raw v : pending) {
+                    sink.accept(new PmdInProcess.Violation(filename, v.line, v.rule, v.ruleSet, v.priority, v.description));
+                }
+            }
+        } while (nextMember(']'));
+    }
+
+    private void readViolations(List<Raw> out) throws IOException {
+        if (skipWhitespaceAndPeek() != '[') {
+            skipValue();
+            return;
+        }
+        pos++;
+        if (skipWhitespaceAndPeek() == ']') {
+            pos++;
+            return;
+        }
+        do {
+            expect('{');
+            Raw v = new Raw();
+            if (skipWhitespaceAndPeek() == '}') {
+                pos++;
+                continue;
+            }
+            do {
+                String key = readString();
+                expect(':');
+                switch (key) {
+                    case "beginLine": v.line = readInt(); break;
+                    case "priority": v.priority = readInt(); break;
+                    case "rule": v.rule = readStringOrNull(); break;
+                    case "ruleset": v.ruleSet = readStringOrNull(); break;
+                    case "description": v.description = readStringOrNull(); break;
+                    default: skipValue();
+                }
+            } while (nextMember('}'));
+            if (v.line > 0 && v.rule != null) {
+                if (v.ruleSet == null) v.ruleSet = "";
+                if (v.description == null) v.description = "";
+                out.add(v);
+            }
+        } while (nextMember(']'));
+    }
+
+    /** A violation whose file name is not yet known. */
+    private static final class Raw {
+        int line;
+        int priority = 3;
+        String rule;
+        String ruleSet;
+        String description;
+    }
+
+    // ── Tokens ──────────────────────────────────────────────────────────
+
+    /** After a member or element: true on ',' (another follows), false on {@code close}. */
+    private boolean nextMember(char close) throws IOException {
+        int c = skipWhitespaceAndPeek();
+        pos++;
+        if (c == ',') return true;
+        if (c == close) return false;
+        throw error("expected ',' or '" + close + "'", c);
+    }
+
+    private void expect(char ch) throws IOException {
+        int c = skipWhitespaceAndPeek();
+        if (c != ch) throw error("expected '" + ch + "'", c);
+        pos++;
+    }
+
+    private String readStringOrNull() throws IOException {
+        if (skipWhitespaceAndPeek() == 'n') {
+            skipValue();
+            return null;
+        }
+        return readString();
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        text.setLength(0);
+        while (true) {
+            int c = next();
+            if (c == '"') return text.toString();
+            if (c == -1) throw error("unterminated string", c);
+            if (c != '\\') {
+                text.append((char) c);
+                continue;
+            }
+            int e = next();
+            switch (e) {
+                case 'n': text.append('\n'); break;
+                case 'r': text.append('\r'); break;
+                case 't': text.append('\t'); break;
+                case 'b': text.append('\b'); break;
+                case 'f': text.append('\f'); break;
+                case 'u':
+                    int cp = 0;
+                    for (int i = 0; i < 4; i++) cp = (cp << 4) | Character.digit(next(), 16);
+                    text.append((char) cp);
+                    break;
+                case -1: throw error("unterminated string", e);
+                default: text.append((char) e); // \" \\ \/
+            }
+        }
+    }
+
+    /** Integer part of a number; a fraction or exponent, if any, is skipped. */
+    private int readInt() throws IOException {
+        int c = skipWhitespaceAndPeek();
+        if (c == 'n') {
+            skipValue();
+            return 0;
+        }
+        boolean negative = c == '-';
+        if (negative) pos++;
+        int value = 0;
+        while ((c = peek()) >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            pos++;
+        }
+        while ((c = peek()) == '.' || c == 'e' || c == 'E' || c == '+' || c == '-' || (c >= '0' && c <= '9')) pos++;
+        return negative ? -value : value;
+    }
+
+    /** Skips one value of any type, nested containers included. */
+    private void skipValue() throws IOException {
+        int c = skipWhitespaceAndPeek();
+        if (c == '"') {
+            pos++;
+            while ((c = next()) != '"') {
+                if (c == '\\') next();
+                else if (c == -1) throw error("unterminated string", c);
+            }
+            return;
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = next();
+                if (c == '"') {
+                    while ((c = next()) != '"') {
+                        if (c == '\\') next();
+                        else if (c == -1) break;
+                    }
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0 && c != -1);
+            if (c == -1) throw error("unterminated container", c);
+            return;
+        }
+        // number, true, false, null
+        while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) pos++;
+    }
+
+    private int skipWhitespaceAndPeek() throws IOException {
+        int c;
+        while ((c = peek()) != -1 && Character.isWhitespace(c)) pos++;
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos];
+    }
+
+    private int next() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) return false;
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private static IOException error(String message, int found) {
+        return new IOException("Malformed PMD JSON: " + message + " but found "
+                + (found == -1 ? "end of input" : "'" + (char) found + "'"));
+    }
+}
@@ -0,0 +1,341 @@
+package com.reviewer.analysis;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The whole-repo reverse-dependency graph: a memory-mapped {@link ReverseGraphSnapshot} plus a
+ * small on-heap patch holding what changed since the snapshot was written.
+ *
+ * <p>The patch records, for every file changed since, its fingerprint, the class it declares
+ * and the classes it depends on, and the full row of every class whose dependents had to be
+ * recomputed (see {@link JavaSymbolIndex#patchReverseDependencyGraph}). A lookup answers from
+ * the patched row when there is one, otherwise from the snapshot row with the patched files'
+ * edges swapped for their current ones.
+ *
+ * <p>The snapshot file is never rewritten. Patches go to {@value #PATCH_FILE}, which also names
+ * the snapshot it applies to; a full rebuild writes a new snapshot under a new name and then
+ * points the patch file at it. Older snapshots are deleted once nothing maps them any more, so
+ * a mapping that is still open (which Windows does not let anyone replace) never blocks a save.
+ *
+ * <p>Patch file layout (big-endian, strings as {@code writeUTF}, paths repo-relative):
+ * <pre>
+ *   int magic, int version
+ *   UTF snapshot file name, long snapshot createdAtMillis
+ *   long symbol-index generation
+ *   int count, count × UTF path of a file read from the working tree
+ *   int count, count × (UTF path, boolean indexed, [UTF fingerprint, UTF class, int n, n × UTF fqn])
+ *   int count, count × (UTF fqn, int n, n × UTF dependent path)
+ * </pre>
+ */
+public final class ReverseGraph {
+
+    public static final String PATCH_FILE = "reverse-graph.patch";
+    private static final String SNAPSHOT_PREFIX = "reverse-graph";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int MAGIC = 0x43525250; // "CRRP"
+    private static final int VERSION = 1;
+
+    /** A file changed since the snapshot; {@code fingerprint} is null when it is no longer indexed. */
+    private static final class PatchedFile {
+        final String fingerprint;
+        final String declaredClass;
+        final Set<String> dependencies;
+
+        PatchedFile(String fingerprint, String declaredClass, Set<String> dependencies) {
+            this.fingerprint = fingerprint;
+            this.declaredClass = declaredClass;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private final ReverseGraphSnapshot snapshot;
+    private final Path repoRoot;
+    /** File name of the snapshot in the cache directory; null until a new snapshot is saved. */
+    private String snapshotName;
+    /** Symbol-index generation this graph was last brought up to date with. */
+    private long generation;
+    /** Files that were read from the working tree then; their fingerprints are not in the store. */
+    private Set<String> workTreePaths;
+    /** Absolute path → state of each file changed since the snapshot. */
+    private final Map<String, PatchedFile> files = new HashMap<>();
+    /** fqn → absolute paths of every dependent, for the rows recomputed since the snapshot. */
+    private final Map<String, Set<String>> rows = new HashMap<>();
+    /** fqn → patched files that depend on it; the inverse of {@link PatchedFile#dependencies}. */
+    private final Map<String, Set<String>> patchedDependents = new HashMap<>();
+    private boolean modified;
+
+    private ReverseGraph(ReverseGraphSnapshot snapshot, String snapshotName, Path repoRoot,
+                         long generation, Set<String> workTreePaths) {
+        this.snapshot = snapshot;
+        this.snapshotName = snapshotName;
+        this.repoRoot = repoRoot;
+        this.generation = generation;
+        this.workTreePaths = workTreePaths;
+    }
+
+    /**
+     * A graph freshly built from {@code graph} (fqn → absolute dependent paths) over every class
+     * in {@code index}, with an empty patch. Nothing is written until {@link #save}.
+     */
+    public static ReverseGraph of(Map<String, ? extends Set<String>> graph, JavaSymbolIndex index,
+                                  Path repoRoot, long createdAtMillis) {
+        Map<String, String> fileClasses = new HashMap<>();
+        for (JavaSymbolIndex.ClassInfo info : index.getAllClasses()) fileClasses.put(info.path.toString(), info.fqn);
+        ReverseGraphSnapshot snapshot = ReverseGraphSnapshot.of(graph, index.getFingerprints(), fileClasses, repoRoot, createdAtMillis);
+        ReverseGraph result = new ReverseGraph(snapshot, null, repoRoot, index.getGeneration(), new HashSet<>(index.getWorkTreePaths()));
+        result.modified = true;
+        return result;
+    }
+
+    /**
+     * Loads the graph saved in {@code cacheDir}: maps its snapshot and reads its patch.
+     * Returns null when there is none; throws when it is unreadable or the snapshot is gone.
+     */
+    public static ReverseGraph load(Path cacheDir, Path repoRoot) throws IOException {
+        Path patchFile = cacheDir.resolve(PATCH_FILE);
+        if (!Files.exists(patchFile)) return null;
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(patchFile)));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("not a reverse-graph patch");
+        String snapshotName = in.readUTF();
+        long createdAtMillis = in.readLong();
+        ReverseGraphSnapshot snapshot = ReverseGraphSnapshot.map(cacheDir.resolve(snapshotName), repoRoot);
+        if (snapshot.getCreatedAtMillis() != createdAtMillis) throw new IOException("reverse-graph patch is for another snapshot");
+
+        long generation = in.readLong();
+        Set<String> workTreePaths = new HashSet<>();
+        for (int i = in.readInt(); i > 0; i--) workTreePaths.add(absolute(repoRoot, in.readUTF()));
+        ReverseGraph graph = new ReverseGraph(snapshot, snapshotName, repoRoot, generation, workTreePaths);
+        for (int i = in.readInt(); i > 0; i--) {
+            String path = absolute(repoRoot, in.readUTF());
+            if (!in.readBoolean()) {
+                graph.putFile(path, new PatchedFile(null, null, Collections.emptySet()));
+                continue;
+            }
+            String fingerprint = in.readUTF();
+            String declaredClass = in.readUTF();
+            if (declaredClass.isEmpty()) declaredClass = null;
+            Set<String> dependencies = new LinkedHashSet<>();
+            for (int n = in.readInt(); n > 0; n--) dependencies.add(in.readUTF());
+            graph.putFile(path, new PatchedFile(fingerprint, declaredClass, dependencies));
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            String fqn = in.readUTF();
+            Set<String> dependents = new LinkedHashSet<>();
+            for (int n = in.readInt(); n > 0; n--) dependents.add(absolute(repoRoot, in.readUTF()));
+            graph.rows.put(fqn, dependents);
+        }
+        return graph;
+    }
+
+    /**
+     * Writes what changed since the last save: a new snapshot after a rebuild, and the patch file.
+     * Returns false when there was nothing to write.
+     */
+    public boolean save(Path cacheDir) throws IOException {
+        if (!modified) return false;
+        Files.createDirectories(cacheDir);
+        if (snapshotName == null) {
+            String name = SNAPSHOT_PREFIX + "-" + Long.toHexString(snapshot.getCreatedAtMillis());
+            for (int n = 1; Files.exists(cacheDir.resolve(name + SNAPSHOT_SUFFIX)); n++) {
+                name = SNAPSHOT_PREFIX + "-" + Long.toHexString(snapshot.getCreatedAtMillis()) + "-" + n;
+            }
+            snapshot.write(cacheDir.resolve(name + SNAPSHOT_SUFFIX));
+            snapshotName = name + SNAPSHOT_SUFFIX;
+        }
+
+        Path tmp = Files.createTempFile(cacheDir, PATCH_FILE, ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(snapshotName);
+            out.writeLong(snapshot.getCreatedAtMillis());
+            out.writeLong(generation);
+            out.writeInt(workTreePaths.size());
+            for (String path : workTreePaths) out.writeUTF(relative(path));
+            out.writeInt(files.size());
+            for (Map.Entry<String, PatchedFile> e : new TreeMap<>(files).entrySet()) {
+                PatchedFile file = e.getValue();
+                out.writeUTF(relative(e.getKey()));
+                out.writeBoolean(file.fingerprint != null);
+                if (file.fingerprint == null) continue;
+                out.writeUTF(file.fingerprint);
+                out.writeUTF(file.declaredClass != null ? file.declaredClass : "");
+                out.writeInt(file.dependencies.size());
+                for (String fqn : file.dependencies) out.writeUTF(fqn);
+            }
+            out.writeInt(rows.size());
+            for (Map.Entry<String, Set<String>> e : new TreeMap<>(rows).entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeInt(e.getValue().size());
+                for (String path : e.getValue()) out.writeUTF(relative(path));
+            }
+        }
+        try {
+            Files.move(tmp, cacheDir.resolve(PATCH_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException atomicUnsupported) {
+            Files.move(tmp, cacheDir.resolve(PATCH_FILE), StandardCopyOption.REPLACE_EXISTING);
+        }
+        modified = false;
+        deleteOtherSnapshots(cacheDir);
+        return true;
+    }
+
+    /** Removes superseded snapshots; one still mapped (by this or another process) stays until a later save. */
+    private void deleteOtherSnapshots(Path cacheDir) {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(cacheDir, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path entry : entries) {
+                if (entry.getFileName().toString().equals(snapshotName)) continue;
+                try {
+                    Files.deleteIfExists(entry);
+                } catch (IOException stillMapped) {
+                    // Retried on the next save
+                }
+            }
+        } catch (IOException ignored) {
+            // Leftover snapshots only cost disk space
+        }
+    }
+
+    public long getCreatedAtMillis() {
+        return snapshot.getCreatedAtMillis();
+    }
+
+    /** Number of files changed since the snapshot was written. */
+    public int patchedFileCount() {
+        return files.size();
+    }
+
+    /**
+     * Absolute paths of the files added, modified or removed since this graph was last brought up
+     * to date, found by comparing fingerprints with {@code index}. Only the files the index read
+     * from source or lost since the generation recorded here, and those read from the working
+     * tree last time, are compared; when the index did not start from that generation, all are.
+     */
+    public Set<String> changedSources(JavaSymbolIndex index) {
+        Map<String, String> current = index.getFingerprints();
+        Set<String> candidates = index.changedSince(generation);
+        if (candidates == null) {
+            Map<String, String> previous = snapshot.fileFingerprints();
+            for (Map.Entry<String, PatchedFile> e : files.entrySet()) {
+                if (e.getValue().fingerprint == null) previous.remove(e.getKey());
+                else previous.put(e.getKey(), e.getValue().fingerprint);
+            }
+            Set<String> changed = new HashSet<>();
+            for (Map.Entry<String, String> e : current.entrySet()) {
+                if (!e.getValue().equals(previous.get(e.getKey()))) changed.add(e.getKey());
+            }
+            for (String path : previous.keySet()) {
+                if (!current.containsKey(path)) changed.add(path);
+            }
+            return changed;
+        }
+        Set<String> changed = new HashSet<>();
+        for (Set<String> paths : List.of(candidates, workTreePaths)) {
+            for (String path : paths) {
+                if (!Objects.equals(fingerprintOf(path), current.get(path))) changed.add(path);
+            }
+        }
+        return changed;
+    }
+
+    /** Records that this graph now reflects {@code index}, so the next run compares against it. */
+    public void markUpToDate(JavaSymbolIndex index) {
+        Set<String> paths = index.getWorkTreePaths();
+        if (generation == index.getGeneration() && workTreePaths.equals(paths)) return;
+        generation = index.getGeneration();
+        workTreePaths = new HashSet<>(paths);
+        modified = true;
+    }
+
+    /**
+     * Returns the absolute paths of files that depend on {@code fqn}, or an empty set when the
+     * class is unknown or has no dependents.
+     */
+    public Set<String> dependentsOf(String fqn) {
+        if (files.isEmpty() && rows.isEmpty()) return snapshot.dependentsOf(fqn);
+        Set<String> row = rows.get(fqn);
+        List<String> dependents = new ArrayList<>();
+        if (row != null) {
+            dependents.addAll(row);
+        } else {
+            for (String dependent : snapshot.dependentsOf(fqn)) {
+                if (!files.containsKey(dependent)) dependents.add(dependent);
+            }
+            dependents.addAll(patchedDependents.getOrDefault(fqn, Collections.emptySet()));
+        }
+        // In snapshot order, so that a patched graph lists dependents as a rebuilt one would
+        dependents.sort(Comparator.comparing(this::relative));
+        return new LinkedHashSet<>(dependents);
+    }
+
+    // ── Patching (see JavaSymbolIndex#patchReverseDependencyGraph) ─────────────────────────────
+
+    /** The class the file at {@code path} declared when the graph last saw it, or null. */
+    String declaredClassOf(String path) {
+        PatchedFile file = files.get(path);
+        if (file != null) return file.fingerprint == null ? null : file.declaredClass;
+        return snapshot.declaredClassOf(path);
+    }
+
+    /** Replaces every dependent of {@code fqn}. */
+    void replaceRow(String fqn, Set<String> dependents) {
+        rows.put(fqn, new LinkedHashSet<>(dependents));
+        modified = true;
+    }
+
+    /**
+     * Replaces what the graph knows of the file at {@code path}: its fingerprint (null when it is
+     * no longer indexed), the class it declares and the classes it depends on.
+     */
+    void replaceFile(String path, String fingerprint, String declaredClass, Set<String> dependencies) {
+        putFile(path, new PatchedFile(fingerprint, declaredClass, new LinkedHashSet<>(dependencies)));
+        for (Map.Entry<String, Set<String>> row : rows.entrySet()) {
+            if (dependencies.contains(row.getKey())) row.getValue().add(path);
+            else row.getValue().remove(path);
+        }
+        modified = true;
+    }
+
+    private void putFile(String path, PatchedFile file) {
+        PatchedFile previous = files.put(path, file);
+        if (previous != null) {
+            for (String fqn : previous.dependencies) {
+                Set<String> dependents = patchedDependents.get(fqn);
+                if (dependents != null) dependents.remove(path);
+            }
+        }
+        for (String fqn : file.dependencies) patchedDependents.computeIfAbsent(fqn, k -> new HashSet<>()).add(path);
+    }
+
+    private String fingerprintOf(String path) {
+        PatchedFile file = files.get(path);
+        return file != null ? file.fingerprint : snapshot.fingerprintOf(path);
+    }
+
+    private String relative(String path) {
+        return ReverseGraphSnapshot.relativize(repoRoot, path);
+    }
+
+    private static String absolute(Path repoRoot, String stored) {
+        return repoRoot.resolve(stored).normalize().toString();
+    }
+}
@@ -0,0 +1,292 @@
+package com.reviewer.analysis;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable whole-repo reverse-dependency graph in a compact binary layout.
+ *
+ * <p>FQNs and repo-relative paths are interned into two sorted string tables and the
+ * adjacency is stored as compressed sparse rows: {@code rows[i]..rows[i+1]} indexes the
+ * slice of {@code edges} holding the path ids of every file that depends on FQN {@code i}.
+ * The same layout is used on disk and in memory, so loading is a single {@code mmap} and
+ * only the strings actually looked up are ever decoded.
+ *
+ * <p>Layout (big-endian):
+ * <pre>
+ *   int magic, int version, long createdAtMillis
+ *   int fqnCount, int pathCount, int edgeCount
+ *   string table (fqns):  int[fqnCount + 1] byte offsets, int byteLen, byte[byteLen] UTF-8
+ *   string table (paths): int[pathCount + 1] byte offsets, int byteLen, byte[byteLen] UTF-8
+ *   int[fqnCount + 1] rows
+ *   int[edgeCount] edges
+ *   int fileCount
+ *   string table (indexed files):      sorted repo-relative paths
+ *   string table (file fingerprints):  parallel to the file table
+ *   string table (declared classes):   parallel to the file table
+ * </pre>
+ *
+ * <p>The file fingerprints record the content each edge was computed from, and the declared
+ * classes which row each file's own class had, so that {@link ReverseGraph} can patch only
+ * what the files whose fingerprint changed since touch.
+ */
+public final class ReverseGraphSnapshot {
+
+    private static final int MAGIC = 0x43525247; // "CRRG"
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4;
+
+    private final ByteBuffer buf;
+    private final Path repoRoot;
+    private final long createdAtMillis;
+    private final int fqnCount;
+    private final StringTable fqns;
+    private final StringTable paths;
+    private final int rowsPos;
+    private final int edgesPos;
+    private final StringTable files;
+    private final StringTable fingerprints;
+    private final StringTable declaredClasses;
+
+    private ReverseGraphSnapshot(ByteBuffer buf, Path repoRoot) throws IOException {
+        this.buf = buf;
+        this.repoRoot = repoRoot;
+        if (buf.capacity() < HEADER_BYTES || buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+            throw new IOException("not a reverse-graph snapshot");
+        }
+        this.createdAtMillis = buf.getLong(8);
+        this.fqnCount = buf.getInt(16);
+        int pathCount = buf.getInt(20);
+        int edgeCount = buf.getInt(24);
+        this.fqns = new StringTable(buf, HEADER_BYTES, fqnCount);
+        this.paths = new StringTable(buf, fqns.endPos, pathCount);
+        this.rowsPos = paths.endPos;
+        this.edgesPos = rowsPos + (fqnCount + 1) * 4;
+        int filesPos = edgesPos + edgeCount * 4;
+        if ((long) filesPos + 4 > buf.capacity()) {
+            throw new IOException("truncated reverse-graph snapshot");
+        }
+        int fileCount = buf.getInt(filesPos);
+        this.files = new StringTable(buf, filesPos + 4, fileCount);
+        this.fingerprints = new StringTable(buf, files.endPos, fileCount);
+        this.declaredClasses = new StringTable(buf, fingerprints.endPos, fileCount);
+        if (declaredClasses.endPos > buf.capacity()) {
+            throw new IOException("truncated reverse-graph snapshot");
+        }
+    }
+
+    /**
+     * Serialises {@code graph} (fqn → absolute dependent paths) into a snapshot together with
+     * the fingerprint and declared class of every file it was computed from, both keyed by
+     * absolute path. Paths outside {@code repoRoot} are stored as-is.
+     */
+    public static ReverseGraphSnapshot of(Map<String, ? extends Set<String>> graph, Map<String, String> fileFingerprints,
+                                          Map<String, String> fileClasses, Path repoRoot, long createdAtMillis) {
+        String[] fqnTable = graph.keySet().toArray(new String[0]);
+        Arrays.sort(fqnTable);
+
+        Map<String, String> relByAbs = new HashMap<>();
+        for (Set<String> deps : graph.values()) {
+            for (String abs : deps) relByAbs.computeIfAbsent(abs, a -> relativize(repoRoot, a));
+        }
+        String[] pathTable = new TreeSet<>(relByAbs.values()).toArray(new String[0]);
+        Map<String, Integer> pathIds = new HashMap<>(pathTable.length * 2);
+        for (int i = 0; i < pathTable.length; i++) pathIds.put(pathTable[i], i);
+
+        int[] rows = new int[fqnTable.length + 1];
+        int[][] rowEdges = new int[fqnTable.length][];
+        for (int i = 0; i < fqnTable.length; i++) {
+            rowEdges[i] = graph.get(fqnTable[i]).stream()
+                    .mapToInt(abs -> pathIds.get(relByAbs.get(abs)))
+                    .sorted().distinct().toArray();
+            rows[i + 1] = rows[i] + rowEdges[i].length;
+        }
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(createdAtMillis);
+            out.writeInt(fqnTable.length);
+            out.writeInt(pathTable.length);
+            out.writeInt(rows[fqnTable.length]);
+            StringTable.write(out, fqnTable);
+            StringTable.write(out, pathTable);
+            for (int r : rows) out.writeInt(r);
+            for (int[] row : rowEdges) {
+                for (int e : row) out.writeInt(e);
+            }
+            Map<String, String> fingerprintByRel = new TreeMap<>();
+            Map<String, String> classByRel = new HashMap<>();
+            for (Map.Entry<String, String> e : fileFingerprints.entrySet()) {
+                String rel = relativize(repoRoot, e.getKey());
+                fingerprintByRel.put(rel, e.getValue());
+                classByRel.put(rel, fileClasses.getOrDefault(e.getKey(), ""));
+            }
+            String[] fileTable = fingerprintByRel.keySet().toArray(new String[0]);
+            String[] classTable = new String[fileTable.length];
+            for (int i = 0; i < fileTable.length; i++) classTable[i] = classByRel.get(fileTable[i]);
+            out.writeInt(fileTable.length);
+            StringTable.write(out, fileTable);
+            StringTable.write(out, fingerprintByRel.values().toArray(new String[0]));
+            StringTable.write(out, classTable);
+            out.flush();
+            return new ReverseGraphSnapshot(ByteBuffer.wrap(bytes.toByteArray()), repoRoot);
+        } catch (IOException e) {
+            // In-memory streams do not fail; a malformed header here is a programming error
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Memory-maps a snapshot written by {@link #write}. Throws when the file is missing or malformed. */
+    public static ReverseGraphSnapshot map(Path file, Path repoRoot) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ReverseGraphSnapshot(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()), repoRoot);
+        }
+    }
+
+    /**
+     * Writes the snapshot atomically (temp file + move). {@link ReverseGraph} always writes to
+     * a new file, since a file that is still mapped cannot be replaced on Windows.
+     */
+    public void write(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ByteBuffer src = buf.duplicate();
+            src.clear();
+            while (src.hasRemaining()) ch.write(src);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException atomicUnsupported) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * Returns the absolute paths of files that depend on {@code fqn}, or an empty set when
+     * the class is unknown or has no dependents.
+     */
+    public Set<String> dependentsOf(String fqn) {
+        int i = fqns.indexOf(fqn);
+        if (i < 0) return Collections.emptySet();
+        int from = buf.getInt(rowsPos + i * 4);
+        int to = buf.getInt(rowsPos + (i + 1) * 4);
+        Set<String> result = new LinkedHashSet<>();
+        for (int e = from; e < to; e++) {
+            String stored = paths.get(buf.getInt(edgesPos + e * 4));
+            result.add(repoRoot.resolve(stored).normalize().toString());
+        }
+        return result;
+    }
+
+    /** Decodes the recorded file fingerprints as absolute path → fingerprint. */
+    public Map<String, String> fileFingerprints() {
+        Map<String, String> result = new HashMap<>(files.count * 2);
+        for (int i = 0; i < files.count; i++) {
+            result.put(repoRoot.resolve(files.get(i)).normalize().toString(), fingerprints.get(i));
+        }
+        return result;
+    }
+
+    /** The recorded fingerprint of the file at absolute path {@code path}, or null when it was not indexed. */
+    public String fingerprintOf(String path) {
+        int i = files.indexOf(relativize(repoRoot, path));
+        return i < 0 ? null : fingerprints.get(i);
+    }
+
+    /** The class the file at absolute path {@code path} declared, or null when it was not indexed. */
+    public String declaredClassOf(String path) {
+        int i = files.indexOf(relativize(repoRoot, path));
+        if (i < 0) return null;
+        String fqn = declaredClasses.get(i);
+        return fqn.isEmpty() ? null : fqn;
+    }
+
+    static String relativize(Path repoRoot, String absolute) {
+        try {
+            Path p = Path.of(absolute);
+            if (p.startsWith(repoRoot)) return repoRoot.relativize(p).toString().replace('\\', '/');
+        } catch (RuntimeException ignored) {}
+        return absolute;
+    }
+
+    /** UTF-8 strings addressed through an offsets array and decoded on demand; sorted when searched. */
+    private static final class StringTable {
+        private final ByteBuffer buf;
+        private final int count;
+        private final int offsetsPos;
+        private final int bytesPos;
+        final int endPos;
+
+        StringTable(ByteBuffer buf, int pos, int count) {
+            this.buf = buf;
+            this.count = count;
+            this.offsetsPos = pos;
+            int byteLen = buf.getInt(pos + (count + 1) * 4);
+            this.bytesPos = pos + (count + 1) * 4 + 4;
+            this.endPos = bytesPos + byteLen;
+        }
+
+        static void write(DataOutputStream out, String[] sorted) throws IOException {
+            byte[][] encoded = new byte[sorted.length][];
+            int total = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                encoded[i] = sorted[i].getBytes(StandardCharsets.UTF_8);
+                total += encoded[i].length;
+            }
+            int offset = 0;
+            for (byte[] e : encoded) {
+                out.writeInt(offset);
+                offset += e.length;
+            }
+            out.writeInt(offset);
+            out.writeInt(total);
+            for (byte[] e : encoded) out.write(e);
+        }
+
+        String get(int i) {
+            int from = buf.getInt(offsetsPos + i * 4);
+            int to = buf.getInt(offsetsPos + (i + 1) * 4);
+            byte[] b = new byte[to - from];
+            buf.duplicate().position(bytesPos + from).get(b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+
+        /** Binary search; ordering matches {@link String#compareTo} used when the table was sorted. */
+        int indexOf(String key) {
+            int lo = 0, hi = count - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = get(mid).compareTo(key);
+                if (cmp < 0) lo = mid + 1;
+                else if (cmp > 0) hi = mid - 1;
+                else return mid;
+            }
+            return -1;
+        }
+    }
+}
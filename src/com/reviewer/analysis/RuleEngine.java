@@ -1,127 +1,351 @@
 package com.reviewer.analysis;
 
 import com.reviewer.model.Models.*;
+import com.reviewer.util.RunMetrics;
 import java.util.regex.*;
 import java.util.*;
 
 public class RuleEngine {
 
     // -----------------------------------------------------------------------
-    // Static pattern cache — compiled once per JVM instead of once per file
+    // Static pattern cache — compiled once per JVM instead of once per file.
+    // One holder per rule family: a holder is initialised (and its patterns
+    // compiled) the first time its family runs, so disabled families such as
+    // enable.rules.soap=false cost nothing at startup.
     // -----------------------------------------------------------------------
     // reviewBugPatterns
-    private static final Pattern P_RESOURCE_OPEN   = Pattern.compile("(?:InputStream|OutputStream|Reader|Writer|Connection|Statement|ResultSet|Socket)\\s+(\\w+)\\s*=\\s*(?:new|[^;]+?\\.get\\w+)\\(", Pattern.MULTILINE);
-    private static final Pattern P_BIGDECIMAL_EQ   = Pattern.compile("(\\w+)\\.equals\\((\\w+)\\)");
-    private static final Pattern P_BIGDECIMAL_CTOR = Pattern.compile("new\\s+BigDecimal\\(\\s*(\\d+(?:\\.\\d+)?)\\s*\\)");
-    private static final Pattern P_OPTIONAL_NULL   = Pattern.compile("Optional<[^>]+>\\s+\\w+\\s*\\([^)]{0,200}\\)\\s*\\{[^}]{0,300}return\\s+null;");
-    private static final Pattern P_FOREACH_COLL    = Pattern.compile("for\\s*\\(.*?:\\s*(\\w+)\\s*\\)");
-    private static final Pattern P_NEW_STREAM      = Pattern.compile("new\\s+(FileInputStream|FileOutputStream|FileReader|FileWriter|BufferedReader|BufferedWriter|InputStreamReader|OutputStreamWriter|Scanner|PrintWriter|ZipInputStream|ZipOutputStream)\\s*\\(");
+    private static final class BugPatterns {
+        static final Pattern RESOURCE_OPEN        = Pattern.compile("(?:InputStream|OutputStream|Reader|Writer|Connection|Statement|ResultSet|Socket)\\s+(\\w+)\\s*=\\s*(?:new|[^;]+?\\.get\\w+)\\(", Pattern.MULTILINE);
+        static final Pattern BIGDECIMAL_EQ        = Pattern.compile("(\\w+)\\.equals\\((\\w+)\\)");
+        static final Pattern BIGDECIMAL_CTOR      = Pattern.compile("new\\s+BigDecimal\\(\\s*(\\d+(?:\\.\\d+)?)\\s*\\)");
+        static final Pattern OPTIONAL_NULL        = Pattern.compile("Optional<[^>]+>\\s+\\w+\\s*\\([^)]{0,200}\\)\\s*\\{[^}]{0,300}return\\s+null;");
+        static final Pattern FOREACH_COLL         = Pattern.compile("for\\s*\\(.*?:\\s*(\\w+)\\s*\\)");
+        static final Pattern NEW_STREAM           = Pattern.compile("new\\s+(FileInputStream|FileOutputStream|FileReader|FileWriter|BufferedReader|BufferedWriter|InputStreamReader|OutputStreamWriter|Scanner|PrintWriter|ZipInputStream|ZipOutputStream)\\s*\\(");
+        static final Pattern LOCK_NO_FINALLY      = Pattern.compile("\\.(lock|lockInterruptibly)\\s*\\(\\s*\\)");
+        static final Pattern EXECUTOR_NO_SHUTDOWN = Pattern.compile("Executors\\.(?:newFixedThreadPool|newCachedThreadPool|newSingleThreadExecutor|newScheduledThreadPool|newWorkStealingPool)\\s*\\(");
+        static final Pattern DOUBLE_CHECK_LOCK    = Pattern.compile("if\\s*\\(\\s*(\\w+)\\s*==\\s*null\\s*\\)[^}]+synchronized[^}]+if\\s*\\(\\s*\\1\\s*==\\s*null", Pattern.DOTALL);
+        static final Pattern FLOAT_EQ             = Pattern.compile("\\b(\\w+)\\s*==\\s*(\\w+)\\b");
+        static final Pattern NAN_CMP              = Pattern.compile("(?:Double|Float)\\.NaN\\s*(?:==|!=)");
+        static final Pattern EMPTY_CATCH_COMMENT  = Pattern.compile("catch\\s*\\([^)]+\\)\\s*\\{\\s*//[^\\n]*\\n\\s*\\}");
+    }
+
     // reviewNullSafety
-    private static final Pattern P_OPTIONAL_OF     = Pattern.compile("Optional\\.of\\(([^)]+)\\)");
-    private static final Pattern P_CHAINED_DEREF   = Pattern.compile("\\w+\\.\\w+\\(\\)\\.\\w+\\(");
-    private static final Pattern P_LIST_GET        = Pattern.compile("\\.get\\((\\d+)\\)");
-    private static final Pattern P_OPT_GET         = Pattern.compile("(\\w+)\\.get\\(\\)");
+    private static final class NullSafetyPatterns {
+        static final Pattern OPTIONAL_OF   = Pattern.compile("Optional\\.of\\(([^)]+)\\)");
+        static final Pattern CHAINED_DEREF = Pattern.compile("\\w+\\.\\w+\\(\\)\\.\\w+\\(");
+        static final Pattern LIST_GET      = Pattern.compile("\\.get\\((\\d+)\\)");
+        static final Pattern OPT_GET       = Pattern.compile("(\\w+)\\.get\\(\\)");
+        static final Pattern RESP_BODY_GET = Pattern.compile("\\.getBody\\s*\\(\\s*\\)\\.\\w+");
+    }
+
     // reviewExceptionHandling
-    private static final Pattern P_EMPTY_CATCH     = Pattern.compile("catch\\s*\\(\\s*(\\w+)\\s+(\\w+)\\s*\\)\\s*\\{\\s*\\}");
-    private static final Pattern P_CATCH_THROWABLE = Pattern.compile("catch\\s*\\(\\s*Throwable\\s+\\w+\\s*\\)");
-    private static final Pattern P_CATCH_EXCEPTION = Pattern.compile("catch\\s*\\(\\s*Exception\\s+\\w+\\s*\\)");
-    private static final Pattern P_CATCH_INTERRUPT = Pattern.compile("catch\\s*\\(\\s*InterruptedException\\s+\\w+\\s*\\)");
+    private static final class ExceptionPatterns {
+        static final Pattern EMPTY_CATCH     = Pattern.compile("catch\\s*\\(\\s*(\\w+)\\s+(\\w+)\\s*\\)\\s*\\{\\s*\\}");
+        static final Pattern CATCH_THROWABLE = Pattern.compile("catch\\s*\\(\\s*Throwable\\s+\\w+\\s*\\)");
+        static final Pattern CATCH_EXCEPTION = Pattern.compile("catch\\s*\\(\\s*Exception\\s+\\w+\\s*\\)");
+        static final Pattern CATCH_INTERRUPT = Pattern.compile("catch\\s*\\(\\s*InterruptedException\\s+\\w+\\s*\\)");
+    }
+
     // reviewLogging
-    private static final Pattern P_LOG_SENSITIVE   = Pattern.compile("log\\.(info|debug|error|warn)\\(\".*?(password|secret|token|apiKey|ssn).*?\"\\)", Pattern.CASE_INSENSITIVE);
-    private static final Pattern P_LOG_IN_LOOP     = Pattern.compile("for\\s*\\(.*\\)\\s*\\{[^}]{0,200}?log\\.(info|debug|error|warn)\\(", Pattern.DOTALL);
-    private static final Pattern P_SYS_OUT         = Pattern.compile("System\\.(out|err)\\.print");
-    private static final Pattern P_LOG_CALLS       = Pattern.compile("log\\.(info|debug|error|warn)\\((.*?)\\);", Pattern.DOTALL);
+    private static final class LoggingPatterns {
+        static final Pattern LOG_SENSITIVE = Pattern.compile("log\\.(info|debug|error|warn)\\(\".*?(password|secret|token|apiKey|ssn).*?\"\\)", Pattern.CASE_INSENSITIVE);
+        static final Pattern LOG_IN_LOOP   = Pattern.compile("for\\s*\\(.*\\)\\s*\\{[^}]{0,200}?log\\.(info|debug|error|warn)\\(", Pattern.DOTALL);
+        static final Pattern SYS_OUT       = Pattern.compile("System\\.(out|err)\\.print");
+        static final Pattern LOG_CALLS     = Pattern.compile("log\\.(info|debug|error|warn)\\((.*?)\\);", Pattern.DOTALL);
+    }
+
     // reviewSpringBoot
-    private static final Pattern P_TX_PRIVATE      = Pattern.compile("@Transactional[^;{}]*private\\s+\\w+\\s+\\w+", Pattern.DOTALL);
-    private static final Pattern P_REQUEST_BODY    = Pattern.compile("@RequestBody");
-    private static final Pattern P_FIELD_INJECT    = Pattern.compile("@Autowired\\s+private\\s+\\w+");
-    private static final Pattern P_HARDCODED_URL   = Pattern.compile("\"https?://[^\"]+\"");
-    private static final Pattern P_REPO_FIND       = Pattern.compile("for\\s*\\(.*\\)\\s*\\{[^}]{0,200}?\\.find(All|By|One)\\(", Pattern.DOTALL);
-    private static final Pattern P_SCHED_FIXED     = Pattern.compile("@Scheduled\\([^)]*(fixedRate|fixedDelay)\\s*=\\s*(\\d+)");
-    private static final Pattern P_CROSS_WILD      = Pattern.compile("@CrossOrigin\\s*\\([^)]*(?:origins|value)\\s*=\\s*(?:\"\\*\"|\\{\\s*\"\\*\"\\s*\\})");
-    private static final Pattern P_CROSS_BARE      = Pattern.compile("@CrossOrigin\\s*(?:(?=\\n|\\r|\\s*$)|(?=\\s+[^(]))");
-    private static final Pattern P_ASYNC_PRIVATE   = Pattern.compile("@Async[^;{}\\n]*\\n(?:\\s*@[^\\n]*\\n)*\\s*private\\s+\\w+\\s+\\w+\\s*\\(", Pattern.DOTALL);
-    private static final Pattern P_LIFECYCLE_STAT  = Pattern.compile("@(?:PostConstruct|PreDestroy)[^;{}\\n]*\\n(?:\\s*@[^\\n]*\\n)*\\s*(?:public|protected|private)\\s+static\\s+", Pattern.DOTALL);
-    private static final Pattern P_RESP_WILDCARD   = Pattern.compile("ResponseEntity<\\?>\\s+\\w+\\s*\\(");
-    private static final Pattern P_SENSITIVE_FIELD = Pattern.compile("(?:private|protected)\\s+(?:String|char\\[\\])\\s+(password|secret|token|apiKey|apiSecret|creditCard|cvv|ssn)\\b");
-    private static final Pattern P_SELF_INVOKE     = Pattern.compile("\\bthis\\.(\\w+)\\s*\\(");
-    private static final Pattern P_CACHE_PRIVATE   = Pattern.compile("@Cacheable[^;{}\\n]*\\n(?:\\s*@[^\\n]*\\n)*\\s*private\\s+\\w+\\s+\\w+\\s*\\(", Pattern.DOTALL);
-    private static final Pattern P_CACHEABLE       = Pattern.compile("@Cacheable\\(([^)]*)\\)");
-    private static final Pattern P_REST_TPL_NEW    = Pattern.compile("new\\s+RestTemplate\\s*\\(");
-    private static final Pattern P_VALUE_NO_DEF    = Pattern.compile("@Value\\(\\\"\\$\\{([^:}]+)\\}\\\"\\)");
-    private static final Pattern P_VALUE_SECRET    = Pattern.compile("@Value\\(\\\"\\$\\{[^}]*?(password|secret|token)[^}]*\\}\\\"\\)", Pattern.CASE_INSENSITIVE);
+    private static final class SpringBootPatterns {
+        static final Pattern TX_PRIVATE          = Pattern.compile("@Transactional[^;{}]*private\\s+\\w+\\s+\\w+", Pattern.DOTALL);
+        static final Pattern REQUEST_BODY        = Pattern.compile("@RequestBody");
+        static final Pattern FIELD_INJECT        = Pattern.compile("@Autowired\\s+private\\s+\\w+");
+        static final Pattern HARDCODED_URL       = Pattern.compile("\"https?://[^\"]+\"");
+        static final Pattern REPO_FIND           = Pattern.compile("for\\s*\\(.*\\)\\s*\\{[^}]{0,200}?\\.find(All|By|One)\\(", Pattern.DOTALL);
+        static final Pattern SCHED_FIXED         = Pattern.compile("@Scheduled\\([^)]*(fixedRate|fixedDelay)\\s*=\\s*(\\d+)");
+        static final Pattern CROSS_WILD          = Pattern.compile("@CrossOrigin\\s*\\([^)]*(?:origins|value)\\s*=\\s*(?:\"\\*\"|\\{\\s*\"\\*\"\\s*\\})");
+        static final Pattern CROSS_BARE          = Pattern.compile("@CrossOrigin\\s*(?:(?=\\n|\\r|\\s*$)|(?=\\s+[^(]))");
+        static final Pattern ASYNC_PRIVATE       = Pattern.compile("@Async[^;{}\\n]*\\n(?:\\s*@[^\\n]*\\n)*\\s*private\\s+\\w+\\s+\\w+\\s*\\(", Pattern.DOTALL);
+        static final Pattern LIFECYCLE_STAT      = Pattern.compile("@(?:PostConstruct|PreDestroy)[^;{}\\n]*\\n(?:\\s*@[^\\n]*\\n)*\\s*(?:public|protected|private)\\s+static\\s+", Pattern.DOTALL);
+        static final Pattern RESP_WILDCARD       = Pattern.compile("ResponseEntity<\\?>\\s+\\w+\\s*\\(");
+        static final Pattern SENSITIVE_FIELD     = Pattern.compile("(?:private|protected)\\s+(?:String|char\\[\\])\\s+(password|secret|token|apiKey|apiSecret|creditCard|cvv|ssn)\\b");
+        static final Pattern SELF_INVOKE         = Pattern.compile("\\bthis\\.(\\w+)\\s*\\(");
+        static final Pattern CACHE_PRIVATE       = Pattern.compile("@Cacheable[^;{}\\n]*\\n(?:\\s*@[^\\n]*\\n)*\\s*private\\s+\\w+\\s+\\w+\\s*\\(", Pattern.DOTALL);
+        static final Pattern CACHEABLE           = Pattern.compile("@Cacheable\\(([^)]*)\\)");
+        static final Pattern REST_TPL_NEW        = Pattern.compile("new\\s+RestTemplate\\s*\\(");
+        static final Pattern VALUE_NO_DEF        = Pattern.compile("@Value\\(\\\"\\$\\{([^:}]+)\\}\\\"\\)");
+        static final Pattern VALUE_SECRET        = Pattern.compile("@Value\\(\\\"\\$\\{[^}]*?(password|secret|token)[^}]*\\}\\\"\\)", Pattern.CASE_INSENSITIVE);
+        static final Pattern SCHED_HEADER        = Pattern.compile("@Scheduled\\b[^\\n]*\\n");
+        static final Pattern DATA_ENTITY         = Pattern.compile("@Data[^;{}\\n]*(?:\\n(?:\\s*@[^\\n]*\\n)*)\\s*(?:public|final)?\\s*class\\s+\\w+", Pattern.DOTALL);
+        static final Pattern BUILDER_ENTITY      = Pattern.compile("@Builder[^;{}\\n]*(?:\\n(?:\\s*@[^\\n]*\\n)*)\\s*(?:public|final)?\\s*class\\s+\\w+", Pattern.DOTALL);
+        static final Pattern HASHMAP_FIELD       = Pattern.compile("(?:private|protected)\\s+(?:HashMap|Map<[^>]+>)\\s+\\w+\\s*=\\s*new\\s+HashMap\\s*<");
+        static final Pattern TX_HTTP_CALL        = Pattern.compile("@Transactional[^;{}\\n]*(?:\\n(?:\\s*@[^\\n]*\\n)*)\\s*(?:public|protected)\\s+[\\w<>\\[\\]]+\\s+\\w+\\s*\\(", Pattern.DOTALL);
+        static final Pattern LAZY_ENTITY_DIRECT  = Pattern.compile("@OneToMany\\([^)]*fetch\\s*=\\s*FetchType\\.LAZY");
+        static final Pattern ASYNC_NO_EXECUTOR   = Pattern.compile("@EnableAsync\\b");
+        static final Pattern ENABLE_SCHEDULING   = Pattern.compile("@EnableScheduling\\b");
+        static final Pattern EVENT_LISTENER_PRIV = Pattern.compile("@EventListener[^;{}\\n]*(?:\\n(?:\\s*@[^\\n]*\\n)*)\\s*private\\s+\\w+\\s+\\w+\\s*\\(", Pattern.DOTALL);
+        static final Pattern FINAL_COMPONENT     = Pattern.compile("@(?:Component|Service|Repository|Controller|RestController)[^;{}\\n]*(?:\\n(?:\\s*@[^\\n]*\\n)*)\\s*(?:public\\s+)?final\\s+class\\s+", Pattern.DOTALL);
+    }
+
     // reviewPerformance
-    private static final Pattern P_OR_ELSE         = Pattern.compile("\\.orElse\\s*\\(\\s*(\\w+\\(.*?\\))\\s*\\)");
-    private static final Pattern P_CONCAT_LOOP     = Pattern.compile("for\\s*\\(.*\\)\\s*\\{[^}]{0,200}?\\+=\\s*\"", Pattern.DOTALL);
-    private static final Pattern P_THREAD_SLEEP    = Pattern.compile("Thread\\.sleep\\(\\s*\\d+\\s*\\)");
-    private static final Pattern P_SLEEP_LITERAL   = Pattern.compile("Thread\\.sleep\\(\\s*(\\d+)\\s*\\)");
+    private static final class PerformancePatterns {
+        static final Pattern OR_ELSE      = Pattern.compile("\\.orElse\\s*\\(\\s*(\\w+\\(.*?\\))\\s*\\)");
+        static final Pattern CONCAT_LOOP  = Pattern.compile("for\\s*\\(.*\\)\\s*\\{[^}]{0,200}?\\+=\\s*\"", Pattern.DOTALL);
+        static final Pattern THREAD_SLEEP = Pattern.compile("Thread\\.sleep\\(\\s*\\d+\\s*\\)");
+    }
+
     // reviewCodeQuality
-    private static final Pattern P_BOXED_CMP       = Pattern.compile("\\b(Integer|Long|Boolean)\\b[^\\n]*?(?:==|!=)[^\\n]*");
-    private static final Pattern P_HARDCODED_CRED  = Pattern.compile("\"(?i)(password|passwd|secretKey|apiKey|token)=.+\"");
-    private static final Pattern P_TODO_FIXME      = Pattern.compile("//\\s*(TODO|FIXME)");
-    private static final Pattern P_WHILE_TRUE      = Pattern.compile("while\\s*\\(\\s*true\\s*\\)\\s*\\{");
-    private static final Pattern P_DEEP_NESTING    = Pattern.compile("(?:if|for|while)\\s*\\([^)]*\\)\\s*\\{[^{}]*\\{[^{}]*\\{[^{}]*\\{[^{}]*\\{", Pattern.DOTALL);
-    private static final Pattern P_SIMPLE_LITERAL  = Pattern.compile("\"([A-Za-z][A-Za-z0-9_-]{2,})\"");
-    private static final Pattern P_NUMBER_LITERAL  = Pattern.compile("(?<!\")(?<!\\.)\\b(\\d{2,})\\b(?!\")(?!\\s*[,)]\\s*(?:TimeUnit|SECONDS|MINUTES|HOURS|MILLISECONDS))");
-    private static final Pattern P_DOMAIN_LITERAL  = Pattern.compile("\"([A-Z][A-Z0-9_]{1,})\"");
-    private static final Pattern P_LIT_EQUALS      = Pattern.compile("([A-Za-z0-9_\\.\\(\\)]+)\\.(equals(?:IgnoreCase)?)\\(\\s*\"([^\"]+)\"\\s*\\)");
-    private static final Pattern P_LITERAL_CONST   = Pattern.compile("\"([A-Z0-9_]{3,})\"");
-    private static final Pattern P_STRING_EQ       = Pattern.compile("(\\w+)\\s*(==|!=)\\s*(\"[^\"]*\")|(\"[^\"]*\")\\s*(==|!=)\\s*(\\w+)");
+    private static final class CodeQualityPatterns {
+        static final Pattern SLEEP_LITERAL  = Pattern.compile("Thread\\.sleep\\(\\s*(\\d+)\\s*\\)");
+        static final Pattern BOXED_CMP      = Pattern.compile("\\b(Integer|Long|Boolean)\\b[^\\n]*?(?:==|!=)[^\\n]*");
+        static final Pattern HARDCODED_CRED = Pattern.compile("\"(?i)(password|passwd|secretKey|apiKey|token)=.+\"");
+        static final Pattern TODO_FIXME     = Pattern.compile("//\\s*(TODO|FIXME)");
+        static final Pattern WHILE_TRUE     = Pattern.compile("while\\s*\\(\\s*true\\s*\\)\\s*\\{");
+        static final Pattern DEEP_NESTING   = Pattern.compile("(?:if|for|while)\\s*\\([^)]*\\)\\s*\\{[^{}]*\\{[^{}]*\\{[^{}]*\\{[^{}]*\\{", Pattern.DOTALL);
+        static final Pattern SIMPLE_LITERAL = Pattern.compile("\"([A-Za-z][A-Za-z0-9_-]{2,})\"");
+        static final Pattern NUMBER_LITERAL = Pattern.compile("(?<!\")(?<!\\.)\\b(\\d{2,})\\b(?!\")(?!\\s*[,)]\\s*(?:TimeUnit|SECONDS|MINUTES|HOURS|MILLISECONDS))");
+        static final Pattern DOMAIN_LITERAL = Pattern.compile("\"([A-Z][A-Z0-9_]{1,})\"");
+        static final Pattern LIT_EQUALS     = Pattern.compile("([A-Za-z0-9_\\.\\(\\)]+)\\.(equals(?:IgnoreCase)?)\\(\\s*\"([^\"]+)\"\\s*\\)");
+        static final Pattern LITERAL_CONST  = Pattern.compile("\"([A-Z0-9_]{3,})\"");
+        static final Pattern STRING_EQ      = Pattern.compile("(\\w+)\\s*(==|!=)\\s*(\"[^\"]*\")|(\"[^\"]*\")\\s*(==|!=)\\s*(\\w+)");
+    }
+
     // reviewJavaModern
-    private static final Pattern P_LEGACY_DATE     = Pattern.compile("(?:new\\s+(?:java\\.util\\.)?(?:Date|GregorianCalendar)\\s*\\(|Calendar\\.getInstance\\s*\\(|new\\s+SimpleDateFormat\\s*\\()");
-    private static final Pattern P_RAW_COLL        = Pattern.compile("new\\s+(ArrayList|HashMap|HashSet|LinkedList|TreeMap|TreeSet|LinkedHashMap|LinkedHashSet|PriorityQueue|ArrayDeque)\\s*(?!\\s*<)\\s*\\(");
-    private static final Pattern P_EMPTY_COLLS     = Pattern.compile("Collections\\.(EMPTY_LIST|EMPTY_SET|EMPTY_MAP)\\b");
-    private static final Pattern P_DOUBLE_BRACE    = Pattern.compile("new\\s+\\w+(?:<[^>]*>)?\\s*\\(\\s*\\)\\s*\\{\\s*\\{");
-    private static final Pattern P_MATH_RANDOM     = Pattern.compile("Math\\.random\\(\\)");
-    private static final Pattern P_INSTANCEOF_CAST = Pattern.compile("instanceof\\s+(\\w+)\\b[^;{]*\\n[^;{]*\\(\\s*\\1\\s*\\)");
-    // reviewSecurity (reuse mapping pattern, listed below)
+    private static final class JavaModernPatterns {
+        static final Pattern LEGACY_DATE     = Pattern.compile("(?:new\\s+(?:java\\.util\\.)?(?:Date|GregorianCalendar)\\s*\\(|Calendar\\.getInstance\\s*\\(|new\\s+SimpleDateFormat\\s*\\()");
+        static final Pattern RAW_COLL        = Pattern.compile("new\\s+(ArrayList|HashMap|HashSet|LinkedList|TreeMap|TreeSet|LinkedHashMap|LinkedHashSet|PriorityQueue|ArrayDeque)\\s*(?!\\s*<)\\s*\\(");
+        static final Pattern EMPTY_COLLS     = Pattern.compile("Collections\\.(EMPTY_LIST|EMPTY_SET|EMPTY_MAP)\\b");
+        static final Pattern DOUBLE_BRACE    = Pattern.compile("new\\s+\\w+(?:<[^>]*>)?\\s*\\(\\s*\\)\\s*\\{\\s*\\{");
+        static final Pattern MATH_RANDOM     = Pattern.compile("Math\\.random\\(\\)");
+        static final Pattern INSTANCEOF_CAST = Pattern.compile("instanceof\\s+(\\w+)\\b[^;{]*\\n[^;{]*\\(\\s*\\1\\s*\\)");
+    }
+
     // reviewOpenApi
-    private static final Pattern P_MAPPING_ANNO    = Pattern.compile("@(?:GetMapping|PostMapping|PutMapping|DeleteMapping|PatchMapping|RequestMapping)\\b");
-    private static final Pattern P_METHOD_PARAM    = Pattern.compile("(?:@RequestParam|@PathVariable|@RequestHeader)\\s+(?:[\\w<>\\[\\]]+)\\s+(\\w+)");
-    // reviewScheduled
-    private static final Pattern P_SCHED_HEADER    = Pattern.compile("@Scheduled\\b[^\\n]*\\n");
+    private static final class OpenApiPatterns {
+        static final Pattern MAPPING_ANNO = Pattern.compile("@(?:GetMapping|PostMapping|PutMapping|DeleteMapping|PatchMapping|RequestMapping)\\b");
+        static final Pattern METHOD_PARAM = Pattern.compile("(?:@RequestParam|@PathVariable|@RequestHeader)\\s+(?:[\\w<>\\[\\]]+)\\s+(\\w+)");
+    }
+
     // reviewSoap
-    private static final Pattern P_WEBMETHOD_NO_ACTION = Pattern.compile("@WebMethod\\s*(?:\\((?![^)]*action\\s*=)[^)]*\\)|(?![\\s(]))");
-    private static final Pattern P_WEBPARAM_NO_NAME    = Pattern.compile("@WebParam\\s*(?:\\((?![^)]*name\\s*=)[^)]*\\)|(?![\\s(]))");
-    private static final Pattern P_WEBSERVICE_NO_NS    = Pattern.compile("@WebService\\s*(?:\\((?![^)]*targetNamespace\\s*=)[^)]*\\)|(?![\\s(]))");
+    private static final class SoapPatterns {
+        static final Pattern WEBMETHOD_NO_ACTION = Pattern.compile("@WebMethod\\s*(?:\\((?![^)]*action\\s*=)[^)]*\\)|(?![\\s(]))");
+        static final Pattern WEBPARAM_NO_NAME    = Pattern.compile("@WebParam\\s*(?:\\((?![^)]*name\\s*=)[^)]*\\)|(?![\\s(]))");
+        static final Pattern WEBSERVICE_NO_NS    = Pattern.compile("@WebService\\s*(?:\\((?![^)]*targetNamespace\\s*=)[^)]*\\)|(?![\\s(]))");
+    }
+
     // reviewGrpc
-    private static final Pattern P_GRPC_NO_DEADLINE   = Pattern.compile("(?:newBlockingStub|newFutureStub|newStub)\\s*\\([^)]+\\)(?!\\.withDeadline)");
-    private static final Pattern P_GRPC_NO_INTERCEPT   = Pattern.compile("ManagedChannelBuilder\\.forAddress\\s*\\([^)]+\\)(?!.*intercept)");
+    private static final class GrpcPatterns {
+        static final Pattern GRPC_NO_DEADLINE  = Pattern.compile("(?:newBlockingStub|newFutureStub|newStub)\\s*\\([^)]+\\)(?!\\.withDeadline)");
+        static final Pattern GRPC_NO_INTERCEPT = Pattern.compile("ManagedChannelBuilder\\.forAddress\\s*\\([^)]+\\)(?!.*intercept)");
+    }
+
     // reviewOutboundClients
-    private static final Pattern P_WEBCLIENT_NO_TIMEOUT = Pattern.compile("WebClient\\.builder\\s*\\(\\s*\\)(?!.*responseTimeout)");
-    private static final Pattern P_FEIGN_NO_FALLBACK    = Pattern.compile("@FeignClient\\s*\\([^)]*\\)");
-    private static final Pattern P_JAXB_NO_TRY          = Pattern.compile("JAXBContext\\.newInstance\\s*\\([^)]*\\)");
-    private static final Pattern P_RESTTPL_NO_TIMEOUT   = Pattern.compile("new\\s+RestTemplate\\s*\\(\\s*\\)");
-    private static final Pattern P_WEBCLIENT_BLOCK       = Pattern.compile("\\.block\\s*\\(\\s*\\)");
+    private static final class OutboundClientPatterns {
+        static final Pattern WEBCLIENT_NO_TIMEOUT = Pattern.compile("WebClient\\.builder\\s*\\(\\s*\\)(?!.*responseTimeout)");
+        static final Pattern FEIGN_NO_FALLBACK    = Pattern.compile("@FeignClient\\s*\\([^)]*\\)");
+        static final Pattern JAXB_NO_TRY          = Pattern.compile("JAXBContext\\.newInstance\\s*\\([^)]*\\)");
+        static final Pattern RESTTPL_NO_TIMEOUT   = Pattern.compile("new\\s+RestTemplate\\s*\\(\\s*\\)");
+        static final Pattern WEBCLIENT_BLOCK      = Pattern.compile("\\.block\\s*\\(\\s*\\)");
+    }
+
     // reviewQuartz
-    private static final Pattern P_QUARTZ_NO_MISFIRE    = Pattern.compile("(?:SimpleScheduleBuilder|CronScheduleBuilder)\\.(?:simpleSchedule|cronSchedule)\\s*\\([^)]*\\)(?!.*withMisfireHandling)");
+    private static final class QuartzPatterns {
+        static final Pattern QUARTZ_NO_MISFIRE = Pattern.compile("(?:SimpleScheduleBuilder|CronScheduleBuilder)\\.(?:simpleSchedule|cronSchedule)\\s*\\([^)]*\\)(?!.*withMisfireHandling)");
+    }
+
     // reviewSecurity
-    private static final Pattern P_SQL_CONCAT            = Pattern.compile("\"\\s*\\+\\s*(?!\")");
-    private static final Pattern P_PATH_TRAVERSAL        = Pattern.compile("(?:new\\s+File|Paths\\.get|new\\s+FileInputStream)\\s*\\(\\s*(?!\")");
-    private static final Pattern P_PREAUTHORIZE          = Pattern.compile("@(?:GetMapping|PostMapping|PutMapping|DeleteMapping|PatchMapping|RequestMapping)\\b");
-    // gap rules: security
-    private static final Pattern P_XXE_PARSER           = Pattern.compile("(?:newDocumentBuilder|newSAXParser|newTransformer|XMLInputFactory\\.newInstance)\\s*\\(");
-    private static final Pattern P_UNSAFE_DESER         = Pattern.compile("\\.readObject\\s*\\(\\s*\\)");
-    private static final Pattern P_INSECURE_RANDOM       = Pattern.compile("new\\s+Random\\s*\\(\\s*\\)");
-    // gap rules: concurrency
-    private static final Pattern P_LOCK_NO_FINALLY      = Pattern.compile("\\.(lock|lockInterruptibly)\\s*\\(\\s*\\)");
-    private static final Pattern P_EXECUTOR_NO_SHUTDOWN = Pattern.compile("Executors\\.(?:newFixedThreadPool|newCachedThreadPool|newSingleThreadExecutor|newScheduledThreadPool|newWorkStealingPool)\\s*\\(");
-    private static final Pattern P_DOUBLE_CHECK_LOCK    = Pattern.compile("if\\s*\\(\\s*(\\w+)\\s*==\\s*null\\s*\\)[^}]+synchronized[^}]+if\\s*\\(\\s*\\1\\s*==\\s*null", Pattern.DOTALL);
-    // gap rules: bug patterns
-    private static final Pattern P_FLOAT_EQ             = Pattern.compile("\\b(\\w+)\\s*==\\s*(\\w+)\\b");
-    private static final Pattern P_NAN_CMP              = Pattern.compile("(?:Double|Float)\\.NaN\\s*(?:==|!=)");
-    private static final Pattern P_EMPTY_CATCH_COMMENT  = Pattern.compile("catch\\s*\\([^)]+\\)\\s*\\{\\s*//[^\\n]*\\n\\s*\\}");
-    // reviewSpringBoot extra
-    private static final Pattern P_RESP_BODY_GET         = Pattern.compile("\\.getBody\\s*\\(\\s*\\)\\.\\w+");
-    private static final Pattern P_DATA_ENTITY           = Pattern.compile("@Data[^;{}\\n]*(?:\\n(?:\\s*@[^\\n]*\\n)*)\\s*(?:public|final)?\\s*class\\s+\\w+", Pattern.DOTALL);
-    private static final Pattern P_BUILDER_ENTITY        = Pattern.compile("@Builder[^;{}\\n]*(?:\\n(?:\\s*@[^\\n]*\\n)*)\\s*(?:public|final)?\\s*class\\s+\\w+", Pattern.DOTALL);
-    private static final Pattern P_HASHMAP_FIELD         = Pattern.compile("(?:private|protected)\\s+(?:HashMap|Map<[^>]+>)\\s+\\w+\\s*=\\s*new\\s+HashMap\\s*<");
-    private static final Pattern P_TX_HTTP_CALL          = Pattern.compile("@Transactional[^;{}\\n]*(?:\\n(?:\\s*@[^\\n]*\\n)*)\\s*(?:public|protected)\\s+[\\w<>\\[\\]]+\\s+\\w+\\s*\\(", Pattern.DOTALL);
-    private static final Pattern P_LAZY_ENTITY_DIRECT   = Pattern.compile("@OneToMany\\([^)]*fetch\\s*=\\s*FetchType\\.LAZY");
-    private static final Pattern P_ASYNC_NO_EXECUTOR    = Pattern.compile("@EnableAsync\\b");
-    private static final Pattern P_ENABLE_SCHEDULING    = Pattern.compile("@EnableScheduling\\b");
-    private static final Pattern P_EVENT_LISTENER_PRIV  = Pattern.compile("@EventListener[^;{}\\n]*(?:\\n(?:\\s*@[^\\n]*\\n)*)\\s*private\\s+\\w+\\s+\\w+\\s*\\(", Pattern.DOTALL);
-    private static final Pattern P_FINAL_COMPONENT      = Pattern.compile("@(?:Component|Service|Repository|Controller|RestController)[^;{}\\n]*(?:\\n(?:\\s*@[^\\n]*\\n)*)\\s*(?:public\\s+)?final\\s+class\\s+", Pattern.DOTALL);
+    private static final class SecurityPatterns {
+        static final Pattern SQL_CONCAT      = Pattern.compile("\"\\s*\\+\\s*(?!\")");
+        static final Pattern PATH_TRAVERSAL  = Pattern.compile("(?:new\\s+File|Paths\\.get|new\\s+FileInputStream)\\s*\\(\\s*(?!\")");
+        static final Pattern PREAUTHORIZE    = Pattern.compile("@(?:GetMapping|PostMapping|PutMapping|DeleteMapping|PatchMapping|RequestMapping)\\b");
+        static final Pattern XXE_PARSER      = Pattern.compile("(?:newDocumentBuilder|newSAXParser|newTransformer|XMLInputFactory\\.newInstance)\\s*\\(");
+        static final Pattern UNSAFE_DESER    = Pattern.compile("\\.readObject\\s*\\(\\s*\\)");
+        static final Pattern INSECURE_RANDOM = Pattern.compile("new\\s+Random\\s*\\(\\s*\\)");
+    }
+
+    // -----------------------------------------------------------------------
+    // Literal anchors: the literals a pattern cannot match without. One
+    // Aho–Corasick pass per file finds which anchors occur, and a rule whose
+    // anchors are all absent is not run at all (see matcher()). Kept apart from
+    // the pattern holders so the scanner is built without compiling any pattern.
+    // Patterns with no selective literal, or that match case-insensitively, are
+    // registered without anchors and always run.
+    //
+    // Every rule is line-local unless registered through classLevel(): it only
+    // reports matches that begin on a changed line, so in hunk-scoped mode it is
+    // evaluated over the changed hunks and their enclosing methods (see Scope).
+    // Class-level rules (first match in the file, counts across the whole file,
+    // or a DOTALL ".*" that lets a match start anywhere above the hunk) always
+    // see the whole file.
+    // -----------------------------------------------------------------------
+    private static final class Anchors {
+        private static final List<String> LITERALS = new ArrayList<>();
+        private static final List<List<Integer>> RULES_BY_LITERAL = new ArrayList<>();
+        private static final BitSet UNANCHORED = new BitSet();
+        private static final BitSet CLASS_LEVEL = new BitSet();
+        private static int ruleCount;
+
+        // reviewBugPatterns
+        static final int RESOURCE_OPEN        = rule("InputStream", "OutputStream", "Reader", "Writer", "Connection", "Statement", "ResultSet", "Socket");
+        static final int BIGDECIMAL_EQ        = rule(".equals(");
+        static final int BIGDECIMAL_CTOR      = rule("BigDecimal(");
+        static final int OPTIONAL_NULL        = rule("Optional<");
+        static final int NEW_STREAM           = rule("FileInputStream", "FileOutputStream", "FileReader", "FileWriter", "BufferedReader", "BufferedWriter", "InputStreamReader", "OutputStreamWriter", "Scanner", "PrintWriter", "ZipInputStream", "ZipOutputStream");
+        static final int LOCK_NO_FINALLY      = rule(".lock");
+        static final int EXECUTOR_NO_SHUTDOWN = rule("Executors.");
+        static final int FLOAT_EQ             = rule("==");
+        static final int NAN_CMP              = rule(".NaN");
+        static final int EMPTY_CATCH_COMMENT  = rule("catch");
+        static final int FOREACH_COLL         = rule();
+
+        // reviewNullSafety
+        static final int OPTIONAL_OF   = rule("Optional.of(");
+        static final int CHAINED_DEREF = rule("().");
+        static final int LIST_GET      = rule(".get(");
+        static final int OPT_GET       = rule(".get()");
+        static final int RESP_BODY_GET = rule(".getBody");
+
+        // reviewExceptionHandling
+        static final int EMPTY_CATCH     = rule("catch");
+        static final int CATCH_THROWABLE = rule("Throwable");
+        static final int CATCH_EXCEPTION = rule("Exception");
+        static final int CATCH_INTERRUPT = rule("InterruptedException");
+
+        // reviewLogging
+        static final int LOG_SENSITIVE = rule();
+        static final int LOG_IN_LOOP   = classLevel(rule("log."));
+        static final int SYS_OUT       = rule("System.");
+
+        // reviewSpringBoot
+        static final int TX_PRIVATE          = rule("@Transactional");
+        static final int REQUEST_BODY        = rule("@RequestBody");
+        static final int FIELD_INJECT        = rule("@Autowired");
+        static final int HARDCODED_URL       = rule("\"http");
+        static final int REPO_FIND           = classLevel(rule(".find"));
+        static final int SCHED_FIXED         = rule("@Scheduled(");
+        static final int CROSS_WILD          = rule("@CrossOrigin");
+        static final int CROSS_BARE          = rule("@CrossOrigin");
+        static final int ASYNC_PRIVATE       = rule("@Async");
+        static final int LIFECYCLE_STAT      = rule("@PostConstruct", "@PreDestroy");
+        static final int RESP_WILDCARD       = rule("ResponseEntity<?>");
+        static final int SENSITIVE_FIELD     = rule("password", "secret", "token", "apiKey", "apiSecret", "creditCard", "cvv", "ssn");
+        static final int SELF_INVOKE         = rule("this.");
+        static final int CACHE_PRIVATE       = rule("@Cacheable");
+        static final int CACHEABLE           = rule("@Cacheable(");
+        static final int REST_TPL_NEW        = rule("RestTemplate");
+        static final int VALUE_NO_DEF        = rule("@Value(\"${");
+        static final int VALUE_SECRET        = rule();
+        static final int SCHED_HEADER        = rule("@Scheduled");
+        static final int SCHED_NO_ENABLE     = classLevel(rule("@Scheduled"));
+        static final int DATA_ENTITY         = classLevel(rule("@Data"));
+        static final int BUILDER_ENTITY      = classLevel(rule("@Builder"));
+        static final int HASHMAP_FIELD       = rule("HashMap");
+        static final int TX_HTTP_CALL        = rule("@Transactional");
+        static final int TX_READ_ONLY        = rule("@Transactional");
+        static final int JAVAX_IMPORT        = rule("javax.");
+        static final int ASYNC_NO_EXECUTOR   = classLevel(rule("@EnableAsync"));
+        static final int EVENT_LISTENER_PRIV = rule("@EventListener");
+        static final int FINAL_COMPONENT     = classLevel(rule("@Component", "@Service", "@Repository", "@Controller", "@RestController"));
+
+        // reviewPerformance
+        static final int OR_ELSE      = rule(".orElse");
+        static final int CONCAT_LOOP  = classLevel(rule("+="));
+        static final int THREAD_SLEEP = rule("Thread.sleep(");
+
+        // reviewCodeQuality
+        static final int SLEEP_LITERAL  = rule("Thread.sleep(");
+        static final int BOXED_CMP      = rule("Integer", "Long", "Boolean");
+        static final int TODO_FIXME     = rule("TODO", "FIXME");
+        static final int WHILE_TRUE     = rule("true");
+        static final int LIT_EQUALS     = rule(".equals");
+        static final int HARDCODED_CRED = rule();
+        static final int SIMPLE_LITERAL = rule();
+        static final int NUMBER_LITERAL = rule();
+        static final int DOMAIN_LITERAL = classLevel(rule());
+        static final int DEEP_NESTING   = rule();
+        static final int LITERAL_CONST  = rule();
+        static final int STRING_EQ      = rule();
+
+        // reviewJavaModern
+        static final int LEGACY_DATE     = rule("Date", "GregorianCalendar", "Calendar.getInstance", "SimpleDateFormat");
+        static final int RAW_COLL        = rule("ArrayList", "HashMap", "HashSet", "LinkedList", "TreeMap", "TreeSet", "LinkedHashMap", "LinkedHashSet", "PriorityQueue", "ArrayDeque");
+        static final int EMPTY_COLLS     = rule("Collections.EMPTY_");
+        static final int MATH_RANDOM     = rule("Math.random()");
+        static final int INSTANCEOF_CAST = rule("instanceof");
+        static final int DOUBLE_BRACE    = rule();
+
+        // reviewOpenApi
+        static final int MAPPING_ANNO = rule("@GetMapping", "@PostMapping", "@PutMapping", "@DeleteMapping", "@PatchMapping", "@RequestMapping");
+        static final int METHOD_PARAM = rule("@RequestParam", "@PathVariable", "@RequestHeader");
+        static final int OPERATION    = rule("@Operation");
+
+        // reviewSoap
+        static final int WEBSERVICE_NO_NS    = classLevel(rule("@WebService"));
+        static final int WEBMETHOD_NO_ACTION = rule("@WebMethod");
+        static final int WEBPARAM_NO_NAME    = rule("@WebParam");
+
+        // reviewGrpc
+        static final int GRPC_NO_DEADLINE  = rule("newBlockingStub", "newFutureStub", "newStub");
+        static final int GRPC_NO_INTERCEPT = rule("ManagedChannelBuilder.forAddress");
+
+        // reviewOutboundClients
+        static final int FEIGN_NO_FALLBACK    = rule("@FeignClient");
+        static final int WEBCLIENT_NO_TIMEOUT = rule("WebClient.builder");
+        static final int WEBCLIENT_BLOCK      = rule(".block");
+        static final int RESTTPL_NO_TIMEOUT   = rule("RestTemplate");
+        static final int JAXB_NO_TRY          = rule("JAXBContext.newInstance");
+
+        // reviewQuartz
+        static final int QUARTZ_NO_MISFIRE = rule("SimpleScheduleBuilder.", "CronScheduleBuilder.");
+
+        // reviewSecurity
+        static final int XXE_PARSER      = rule("newDocumentBuilder", "newSAXParser", "newTransformer", "XMLInputFactory.newInstance");
+        static final int UNSAFE_DESER    = rule(".readObject");
+        static final int INSECURE_RANDOM = rule("Random");
+        static final int PREAUTHORIZE    = rule("@GetMapping", "@PostMapping", "@PutMapping", "@DeleteMapping", "@PatchMapping", "@RequestMapping");
+        static final int PATH_TRAVERSAL  = rule("File", "Paths.get");
+        static final int SQL_CONCAT      = rule();
+
+        private static final LiteralScanner SCANNER = new LiteralScanner(LITERALS);
+
+        /**
+         * Registers a rule that can only match where one of {@code literals} occurs, or that
+         * always runs when there are none; returns its id.
+         */
+        private static int rule(String... literals) {
+            int id = ruleCount++;
+            if (literals.length == 0) UNANCHORED.set(id);
+            for (String literal : literals) {
+                int index = LITERALS.indexOf(literal);
+                if (index < 0) {
+                    index = LITERALS.size();
+                    LITERALS.add(literal);
+                    RULES_BY_LITERAL.add(new ArrayList<>());
+                }
+                RULES_BY_LITERAL.get(index).add(id);
+            }
+            return id;
+        }
+
+        /** Marks {@code rule} as needing the whole file rather than the changed hunks. */
+        private static int classLevel(int rule) {
+            CLASS_LEVEL.set(rule);
+            return rule;
+        }
+
+        static boolean isClassLevel(int rule) {
+            return CLASS_LEVEL.get(rule);
+        }
+
+        /** Ids of the unanchored rules and of those at least one of whose anchors occurs in {@code content}. */
+        static BitSet eligible(String content) {
+            BitSet found = SCANNER.scan(content);
+            BitSet rules = (BitSet) UNANCHORED.clone();
+            for (int literal = found.nextSetBit(0); literal >= 0; literal = found.nextSetBit(literal + 1)) {
+                for (int rule : RULES_BY_LITERAL.get(literal)) rules.set(rule);
+            }
+            return rules;
+        }
+    }
 
     /**
      * Well-known string values that carry semantic meaning as-is and do not need to
@@ -152,53 +376,107 @@ public class RuleEngine {
     );
 
     public static void runRules(String content, String[] lines, ChangedFile file, List<Finding> findings, Config config) {
-        List<Range> methodRanges = findMethodRanges(lines);
+        // Outline and offsets are shared with impact analysis and the report through SourceFile
+        SourceFile source = SourceFile.of(content);
+        List<Range> methodRanges = source.methodRanges();
         AnalysisContext context = new AnalysisContext();
         context.className = file.name.replace(".java", "");
         context.analyze(content, methodRanges, lines);
-        int[] lineOffsets = buildLineOffsets(content);
+        int[] lineOffsets = source.lineOffsets();
+        Scope scope = Scope.of(content, file, methodRanges, lineOffsets, config);
 
         // When PMD ran successfully for this file, skip the rule groups it covers to avoid
         // duplicate findings. Groups with no PMD equivalent always run regardless.
         boolean pmdCovered = config.enablePmdAnalysis
                 && config.pmdCoveredFiles.contains(file.name);
 
-        if (config.enableRulesBugPatterns    && !pmdCovered) reviewBugPatterns(content, lines, file, findings, context, lineOffsets);
-        if (config.enableRulesNullSafety     && !pmdCovered) reviewNullSafety(content, lines, file, findings, context, lineOffsets);
-        if (config.enableRulesExceptions     && !pmdCovered) reviewExceptionHandling(content, lines, file, findings, context, lineOffsets);
-        if (config.enableRulesLogging        && !pmdCovered) reviewLogging(content, lines, file, findings, context, methodRanges, lineOffsets);
-        if (config.enableRulesPerformance    && !pmdCovered) reviewPerformance(content, lines, file, findings, context, lineOffsets);
-        if (config.enableRulesCodeQuality    && !pmdCovered) reviewCodeQuality(content, lines, file, findings, context, config, lineOffsets);
-        if (config.enableRulesCodeQuality    && !pmdCovered) reviewJavaModern(content, lines, file, findings, config, lineOffsets);
+        if (config.enableRulesBugPatterns    && !pmdCovered) reviewBugPatterns(content, lines, file, findings, scope.family("bug patterns"), context, lineOffsets);
+        if (config.enableRulesNullSafety     && !pmdCovered) reviewNullSafety(content, lines, file, findings, scope.family("null safety"), context, lineOffsets);
+        if (config.enableRulesExceptions     && !pmdCovered) reviewExceptionHandling(content, lines, file, findings, scope.family("exceptions"), context, lineOffsets);
+        if (config.enableRulesLogging        && !pmdCovered) reviewLogging(content, lines, file, findings, scope.family("logging"), context, methodRanges, lineOffsets);
+        if (config.enableRulesPerformance    && !pmdCovered) reviewPerformance(content, lines, file, findings, scope.family("performance"), context, lineOffsets);
+        if (config.enableRulesCodeQuality    && !pmdCovered) reviewCodeQuality(content, lines, file, findings, scope.family("code quality"), context, config, lineOffsets);
+        if (config.enableRulesCodeQuality    && !pmdCovered) reviewJavaModern(content, lines, file, findings, scope.family("modern java"), config, lineOffsets);
         // These have no PMD equivalent — always run:
-        if (config.enableRulesSpringBoot)     reviewSpringBoot(content, lines, file, findings, context, config, lineOffsets);
-        if (config.enableRulesSecurity)       reviewSecurity(content, lines, file, findings, context, lineOffsets);
-        if (config.enableRulesOpenApi)        reviewOpenApi(content, lines, file, findings, context, lineOffsets);
-        if (config.enableRulesSoap)           reviewSoap(content, lines, file, findings, context, lineOffsets);
-        if (config.enableRulesGrpc)           reviewGrpc(content, lines, file, findings, context, lineOffsets);
-        if (config.enableRulesOutboundClient) reviewOutboundClients(content, lines, file, findings, context, lineOffsets);
-        if (config.enableRulesScheduled)      reviewQuartz(content, lines, file, findings, lineOffsets);
+        if (config.enableRulesSpringBoot)     reviewSpringBoot(content, lines, file, findings, scope.family("spring boot"), context, config, lineOffsets);
+        if (config.enableRulesSecurity)       reviewSecurity(content, lines, file, findings, scope.family("security"), context, lineOffsets);
+        if (config.enableRulesOpenApi)        reviewOpenApi(content, lines, file, findings, scope.family("openapi"), context, lineOffsets);
+        if (config.enableRulesSoap)           reviewSoap(content, lines, file, findings, scope.family("soap"), context, lineOffsets);
+        if (config.enableRulesGrpc)           reviewGrpc(content, lines, file, findings, scope.family("grpc"), context, lineOffsets);
+        if (config.enableRulesOutboundClient) reviewOutboundClients(content, lines, file, findings, scope.family("outbound clients"), context, lineOffsets);
+        if (config.enableRulesScheduled)      reviewQuartz(content, lines, file, findings, scope.family("scheduled"), lineOffsets);
 
         // AST post-pass: remove false positives from noisy regex rules when JavaParser is available
-        List<Finding> filtered = AstRuleFilter.filter(content, findings);
+        List<Finding> filtered = RunMetrics.time("ast filter", () -> AstRuleFilter.filter(content, findings));
         findings.clear();
         findings.addAll(filtered);
     }
 
     /**
-     * Builds a sorted array of character offsets where each newline character occurs.
-     * Used by {@link #getLineNumber(int[], int)} for O(log n) line-number lookups
-     * instead of the previous O(n) substring + stream count approach.
+     * Matcher for a rule registered in {@link Anchors}. When none of the rule's anchors occur in
+     * the file the pattern cannot match, so the matcher runs over nothing; otherwise a line-local
+     * rule only finds matches that begin inside the scope's windows.
      */
-    static int[] buildLineOffsets(String content) {
-        List<Integer> offsets = new ArrayList<>();
-        offsets.add(0);
-        for (int i = 0; i < content.length(); i++) {
-            if (content.charAt(i) == '\n') offsets.add(i + 1);
-        }
-        int[] arr = new int[offsets.size()];
-        for (int i = 0; i < offsets.size(); i++) arr[i] = offsets.get(i);
-        return arr;
+    private static RuleMatcher matcher(Pattern pattern, int rule, Scope scope, String content) {
+        if (!scope.eligible.get(rule)) return new RuleMatcher(pattern, "", null, null);
+        if (RunMetrics.isEnabled()) RunMetrics.count("rule scans: " + scope.family);
+        if (Anchors.isClassLevel(rule)) return new RuleMatcher(pattern, content, null, null);
+        return new RuleMatcher(pattern, content, scope.starts, scope.ends);
+    }
+
+    /**
+     * Per-file rule state: the rules whose anchors occur in the file and, when rules are
+     * hunk-scoped, the windows line-local rules run over. Every line-local rule drops matches
+     * that do not begin on a changed line, so each window is a changed line widened to its
+     * enclosing method — the same scope the logging rules use — and the rest of the file,
+     * usually most of it, is never searched.
+     */
+    private static final class Scope {
+        final BitSet eligible;
+        /** Sorted, disjoint [starts[i], ends[i]) character windows; null to search the whole file. */
+        final int[] starts;
+        final int[] ends;
+        /** Rule family being evaluated, for the {@link RunMetrics} scan counters. */
+        private String family;
+
+        private Scope(BitSet eligible, int[] starts, int[] ends) {
+            this.eligible = eligible;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        Scope family(String name) {
+            family = name;
+            return this;
+        }
+
+        static Scope of(String content, ChangedFile file, List<Range> methodRanges, int[] lineOffsets, Config config) {
+            BitSet eligible = Anchors.eligible(content);
+            if (!config.onlyChangedLines || !config.ruleHunkScope) return new Scope(eligible, null, null);
+
+            List<int[]> spans = new ArrayList<>();
+            for (int line : file.changedLines) {
+                if (line < 1 || line > lineOffsets.length) continue;
+                Range r = methodRanges == null ? null : getMethodRangeForLine(methodRanges, line);
+                spans.add(r != null ? new int[] { Math.max(1, r.start), Math.min(r.end, lineOffsets.length) } : new int[] { line, line });
+            }
+            spans.sort(Comparator.comparingInt(span -> span[0]));
+            List<int[]> merged = new ArrayList<>();
+            for (int[] span : spans) {
+                int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && span[0] <= last[1] + 1) last[1] = Math.max(last[1], span[1]);
+                else merged.add(span);
+            }
+
+            int[] starts = new int[merged.size()];
+            int[] ends = new int[merged.size()];
+            for (int i = 0; i < merged.size(); i++) {
+                int[] span = merged.get(i);
+                starts[i] = lineOffsets[span[0] - 1];
+                ends[i] = span[1] < lineOffsets.length ? lineOffsets[span[1]] : content.length();
+            }
+            return new Scope(eligible, starts, ends);
+        }
     }
 
     /** O(log n) line-number lookup using the pre-built offset table. */
@@ -228,39 +506,6 @@ public class RuleEngine {
         return scope;
     }
 
-    private static List<Range> findMethodRanges(String[] lines) {
-        List<Range> ranges = new ArrayList<>();
-        int i = 0;
-        while (i < lines.length) {
-            int braceLine = -1;
-            String sig = lines[i];
-            if (sig.contains("(")) {
-                int look = i;
-                while (look < lines.length && look < i + 6) {
-                    if (lines[look].contains("{")) { 
-                        braceLine = look; 
-                        break; 
-                    }
-                    if (look > i) sig += lines[look];
-                    look++;
-                }
-            }
-            if (braceLine >= 0) {
-                String normalized = sig.replaceAll("/\\*.*?\\*/", " ").replaceAll("//.*", " ").replaceAll("\\s+", " ").trim();
-                if (!normalized.matches("(?i)^\\s*(if|for|while|switch|catch|do|try|synchronized)\\b.*") && normalized.contains("(") && normalized.contains(")")) {
-                    int end = findBlockEndLine(lines, braceLine, lines[braceLine].indexOf('{'));
-                    if (end > 0) {
-                        ranges.add(new Range(i + 1, end));
-                        i = end;
-                        continue;
-                    }
-                }
-            }
-            i++;
-        }
-        return ranges;
-    }
-
     private static Range getMethodRangeForLine(List<Range> ranges, int line) {
         for (Range r : ranges) {
             if (line >= r.start && line <= r.end) return r;
@@ -268,26 +513,9 @@ public class RuleEngine {
         return null;
     }
 
-    private static int findBlockEndLine(String[] lines, int startLineIdx, int startCharIdx) {
-        int depth = 0;
-        for (int i = startLineIdx; i < lines.length; i++) {
-            String l = lines[i];
-            int start = (i == startLineIdx) ? startCharIdx : 0;
-            for (int c = start; c < l.length(); c++) {
-                char ch = l.charAt(c);
-                if (ch == '{') depth++;
-                else if (ch == '}') {
-                    depth--;
-                    if (depth == 0) return i + 1;
-                }
-            }
-        }
-        return -1;
-    }
-
     private static List<LogCall> findLogCallsCached(String content) {
         List<LogCall> calls = new ArrayList<>();
-        Matcher m = P_LOG_CALLS.matcher(content);
+        Matcher m = LoggingPatterns.LOG_CALLS.matcher(content);
         while (m.find()) {
             int line = getLineNumber(content, m.start());
             String level = m.group(1);
@@ -372,8 +600,8 @@ public class RuleEngine {
         }
     }
 
-    private static void reviewBugPatterns(String content, String[] lines, ChangedFile file, List<Finding> findings, AnalysisContext context, int[] lo) {
-        Matcher m = P_RESOURCE_OPEN.matcher(content);
+    private static void reviewBugPatterns(String content, String[] lines, ChangedFile file, List<Finding> findings, Scope scope, AnalysisContext context, int[] lo) {
+        RuleMatcher m = matcher(BugPatterns.RESOURCE_OPEN, Anchors.RESOURCE_OPEN, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -401,7 +629,7 @@ public class RuleEngine {
         }
 
         // BigDecimal equality using equals() is scale-sensitive (1.0 != 1.00)
-        m = P_BIGDECIMAL_EQ.matcher(content);
+        m = matcher(BugPatterns.BIGDECIMAL_EQ, Anchors.BIGDECIMAL_EQ, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -425,7 +653,7 @@ public class RuleEngine {
         }
 
         // BigDecimal constructed from numeric literal is scale-sensitive and can lose intent
-        m = P_BIGDECIMAL_CTOR.matcher(content);
+        m = matcher(BugPatterns.BIGDECIMAL_CTOR, Anchors.BIGDECIMAL_CTOR, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -438,7 +666,7 @@ public class RuleEngine {
         }
 
         // Optional-returning methods should not return null
-        m = P_OPTIONAL_NULL.matcher(content);
+        m = matcher(BugPatterns.OPTIONAL_NULL, Anchors.OPTIONAL_NULL, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -449,7 +677,7 @@ public class RuleEngine {
         }
 
         // Modifying collection during foreach (ConcurrentModification risk)
-        m = P_FOREACH_COLL.matcher(content);
+        m = matcher(BugPatterns.FOREACH_COLL, Anchors.FOREACH_COLL, scope, content);
         while (m.find()) {
             String coll = m.group(1);
             int line = getLineNumber(lo, m.start());
@@ -465,7 +693,7 @@ public class RuleEngine {
         }
 
         // Resource leak detection (try-with-resources)
-        m = P_NEW_STREAM.matcher(content);
+        m = matcher(BugPatterns.NEW_STREAM, Anchors.NEW_STREAM, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -489,7 +717,7 @@ public class RuleEngine {
         }
 
         // Lock acquired without unlock() in a finally block
-        m = P_LOCK_NO_FINALLY.matcher(content);
+        m = matcher(BugPatterns.LOCK_NO_FINALLY, Anchors.LOCK_NO_FINALLY, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -515,7 +743,7 @@ public class RuleEngine {
         }
 
         // ExecutorService created without shutdown
-        m = P_EXECUTOR_NO_SHUTDOWN.matcher(content);
+        m = matcher(BugPatterns.EXECUTOR_NO_SHUTDOWN, Anchors.EXECUTOR_NO_SHUTDOWN, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -536,7 +764,7 @@ public class RuleEngine {
         }
 
         // NaN comparison — NaN == NaN is always false
-        m = P_NAN_CMP.matcher(content);
+        m = matcher(BugPatterns.NAN_CMP, Anchors.NAN_CMP, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -547,7 +775,7 @@ public class RuleEngine {
         }
 
         // Float/double equality with ==
-        m = P_FLOAT_EQ.matcher(content);
+        m = matcher(BugPatterns.FLOAT_EQ, Anchors.FLOAT_EQ, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -576,7 +804,7 @@ public class RuleEngine {
         }
 
         // Empty catch with only a comment — should at least log
-        m = P_EMPTY_CATCH_COMMENT.matcher(content);
+        m = matcher(BugPatterns.EMPTY_CATCH_COMMENT, Anchors.EMPTY_CATCH_COMMENT, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -588,9 +816,9 @@ public class RuleEngine {
         }
     }
 
-    private static void reviewNullSafety(String content, String[] lines, ChangedFile file, List<Finding> findings, AnalysisContext context, int[] lo) {
+    private static void reviewNullSafety(String content, String[] lines, ChangedFile file, List<Finding> findings, Scope scope, AnalysisContext context, int[] lo) {
         // Optional.of can throw NPE
-        Matcher m = P_OPTIONAL_OF.matcher(content);
+        RuleMatcher m = matcher(NullSafetyPatterns.OPTIONAL_OF, Anchors.OPTIONAL_OF, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -605,7 +833,7 @@ public class RuleEngine {
         }
 
         // Chained dereference a.b().c() risk (simple heuristic)
-        m = P_CHAINED_DEREF.matcher(content);
+        m = matcher(NullSafetyPatterns.CHAINED_DEREF, Anchors.CHAINED_DEREF, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -627,7 +855,7 @@ public class RuleEngine {
         }
 
         // List get without bounds check
-        m = P_LIST_GET.matcher(content);
+        m = matcher(NullSafetyPatterns.LIST_GET, Anchors.LIST_GET, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -648,7 +876,7 @@ public class RuleEngine {
         }
 
         // getBody() null-dereference on ResponseEntity
-        m = P_RESP_BODY_GET.matcher(content);
+        m = matcher(NullSafetyPatterns.RESP_BODY_GET, Anchors.RESP_BODY_GET, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -673,7 +901,7 @@ public class RuleEngine {
         }
 
         // Optional.get without presence check
-        m = P_OPT_GET.matcher(content);
+        m = matcher(NullSafetyPatterns.OPT_GET, Anchors.OPT_GET, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -704,9 +932,9 @@ public class RuleEngine {
         }
     }
 
-    private static void reviewExceptionHandling(String content, String[] lines, ChangedFile file, List<Finding> findings, AnalysisContext context, int[] lo) {
+    private static void reviewExceptionHandling(String content, String[] lines, ChangedFile file, List<Finding> findings, Scope scope, AnalysisContext context, int[] lo) {
         // Empty catch blocks
-        Matcher m = P_EMPTY_CATCH.matcher(content);
+        RuleMatcher m = matcher(ExceptionPatterns.EMPTY_CATCH, Anchors.EMPTY_CATCH, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -723,7 +951,7 @@ public class RuleEngine {
         }
 
         // Catching Throwable
-        m = P_CATCH_THROWABLE.matcher(content);
+        m = matcher(ExceptionPatterns.CATCH_THROWABLE, Anchors.CATCH_THROWABLE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -739,7 +967,7 @@ public class RuleEngine {
         }
 
         // Catching generic Exception
-        m = P_CATCH_EXCEPTION.matcher(content);
+        m = matcher(ExceptionPatterns.CATCH_EXCEPTION, Anchors.CATCH_EXCEPTION, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -754,7 +982,7 @@ public class RuleEngine {
         }
 
         // Swallowed interrupt
-        m = P_CATCH_INTERRUPT.matcher(content);
+        m = matcher(ExceptionPatterns.CATCH_INTERRUPT, Anchors.CATCH_INTERRUPT, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -775,11 +1003,11 @@ public class RuleEngine {
         }
     }
 
-    private static void reviewLogging(String content, String[] lines, ChangedFile file, List<Finding> findings, AnalysisContext context, List<Range> methodRanges, int[] lo) {
+    private static void reviewLogging(String content, String[] lines, ChangedFile file, List<Finding> findings, Scope scope, AnalysisContext context, List<Range> methodRanges, int[] lo) {
         Set<Integer> loggingScope = buildLoggingScope(file, lines, methodRanges);
 
         // Sensitive data in logs
-        Matcher m = P_LOG_SENSITIVE.matcher(content);
+        RuleMatcher m = matcher(LoggingPatterns.LOG_SENSITIVE, Anchors.LOG_SENSITIVE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!loggingScope.contains(line)) continue;
@@ -795,7 +1023,7 @@ public class RuleEngine {
         }
 
         // Logging inside loops
-        m = P_LOG_IN_LOOP.matcher(content);
+        m = matcher(LoggingPatterns.LOG_IN_LOOP, Anchors.LOG_IN_LOOP, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!loggingScope.contains(line)) continue;
@@ -818,7 +1046,7 @@ public class RuleEngine {
         }
 
         // System.out/err usage
-        m = P_SYS_OUT.matcher(content);
+        m = matcher(LoggingPatterns.SYS_OUT, Anchors.SYS_OUT, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!loggingScope.contains(line)) continue;
@@ -922,10 +1150,10 @@ public class RuleEngine {
         }
     }
 
-    private static void reviewSecurity(String content, String[] lines, ChangedFile file, List<Finding> findings, AnalysisContext context, int[] lo) {
+    private static void reviewSecurity(String content, String[] lines, ChangedFile file, List<Finding> findings, Scope scope, AnalysisContext context, int[] lo) {
 
         // XXE — XML parsers created without disabling external entities (applies to all classes)
-        Matcher m = P_XXE_PARSER.matcher(content);
+        RuleMatcher m = matcher(SecurityPatterns.XXE_PARSER, Anchors.XXE_PARSER, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -954,7 +1182,7 @@ public class RuleEngine {
         }
 
         // Unsafe deserialization — ObjectInputStream.readObject() without a filter
-        m = P_UNSAFE_DESER.matcher(content);
+        m = matcher(SecurityPatterns.UNSAFE_DESER, Anchors.UNSAFE_DESER, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -978,7 +1206,7 @@ public class RuleEngine {
         }
 
         // Insecure Random in security-sensitive method names
-        m = P_INSECURE_RANDOM.matcher(content);
+        m = matcher(SecurityPatterns.INSECURE_RANDOM, Anchors.INSECURE_RANDOM, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1003,7 +1231,7 @@ public class RuleEngine {
         if (!context.isController) return;
 
         // @PreAuthorize / @Secured missing on REST endpoint methods
-        m = P_PREAUTHORIZE.matcher(content);
+        m = matcher(SecurityPatterns.PREAUTHORIZE, Anchors.PREAUTHORIZE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1025,7 +1253,7 @@ public class RuleEngine {
         }
 
         // SQL injection via string concatenation
-        m = P_SQL_CONCAT.matcher(content);
+        m = matcher(SecurityPatterns.SQL_CONCAT, Anchors.SQL_CONCAT, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1039,7 +1267,7 @@ public class RuleEngine {
         }
 
         // Path traversal
-        m = P_PATH_TRAVERSAL.matcher(content);
+        m = matcher(SecurityPatterns.PATH_TRAVERSAL, Anchors.PATH_TRAVERSAL, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1053,9 +1281,9 @@ public class RuleEngine {
         }
     }
 
-    private static void reviewSpringBoot(String content, String[] lines, ChangedFile file, List<Finding> findings, AnalysisContext context, Config config, int[] lo) {
+    private static void reviewSpringBoot(String content, String[] lines, ChangedFile file, List<Finding> findings, Scope scope, AnalysisContext context, Config config, int[] lo) {
         // Transactional on private method
-        Matcher m = P_TX_PRIVATE.matcher(content);
+        RuleMatcher m = matcher(SpringBootPatterns.TX_PRIVATE, Anchors.TX_PRIVATE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1074,7 +1302,7 @@ public class RuleEngine {
         Severity springSeverity = context.isController || context.isService ? Severity.MUST_FIX : Severity.SHOULD_FIX;
 
         // @RequestBody without @Valid
-        m = P_REQUEST_BODY.matcher(content);
+        m = matcher(SpringBootPatterns.REQUEST_BODY, Anchors.REQUEST_BODY, scope, content);
         while (m.find()) {
             int start = m.start();
             // Scan the entire method parameter list rather than a fixed ±50 char window so that
@@ -1105,7 +1333,7 @@ public class RuleEngine {
         }
 
         // Field injection
-        m = P_FIELD_INJECT.matcher(content);
+        m = matcher(SpringBootPatterns.FIELD_INJECT, Anchors.FIELD_INJECT, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1121,7 +1349,7 @@ public class RuleEngine {
         }
 
         // Hardcoded URLs
-        m = P_HARDCODED_URL.matcher(content);
+        m = matcher(SpringBootPatterns.HARDCODED_URL, Anchors.HARDCODED_URL, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1132,7 +1360,7 @@ public class RuleEngine {
         }
 
         // N+1 query heuristic: repository.find* inside loop
-        m = P_REPO_FIND.matcher(content);
+        m = matcher(SpringBootPatterns.REPO_FIND, Anchors.REPO_FIND, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1154,7 +1382,7 @@ public class RuleEngine {
         }
 
         // @Value without default
-        m = P_VALUE_NO_DEF.matcher(content);
+        m = matcher(SpringBootPatterns.VALUE_NO_DEF, Anchors.VALUE_NO_DEF, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1166,7 +1394,7 @@ public class RuleEngine {
         }
 
         // @Value potential secrets
-        m = P_VALUE_SECRET.matcher(content);
+        m = matcher(SpringBootPatterns.VALUE_SECRET, Anchors.VALUE_SECRET, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1177,7 +1405,7 @@ public class RuleEngine {
         }
 
         // @Cacheable without explicit key
-        m = P_CACHEABLE.matcher(content);
+        m = matcher(SpringBootPatterns.CACHEABLE, Anchors.CACHEABLE, scope, content);
         while (m.find()) {
             String body = m.group(1);
             int line = getLineNumber(lo, m.start());
@@ -1191,7 +1419,7 @@ public class RuleEngine {
         }
 
         // RestTemplate constructed inline
-        m = P_REST_TPL_NEW.matcher(content);
+        m = matcher(SpringBootPatterns.REST_TPL_NEW, Anchors.REST_TPL_NEW, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1202,7 +1430,7 @@ public class RuleEngine {
         }
 
         // @Scheduled with numeric fixedRate/fixedDelay
-        m = P_SCHED_FIXED.matcher(content);
+        m = matcher(SpringBootPatterns.SCHED_FIXED, Anchors.SCHED_FIXED, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1214,7 +1442,7 @@ public class RuleEngine {
 
         // @CrossOrigin without restricted origins (security risk)
         // Flag: @CrossOrigin with wildcard, OR @CrossOrigin with no origins arg (defaults differ by Spring version)
-        m = P_CROSS_WILD.matcher(content);
+        m = matcher(SpringBootPatterns.CROSS_WILD, Anchors.CROSS_WILD, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1224,7 +1452,7 @@ public class RuleEngine {
                 "@CrossOrigin(origins = \"https://your-app.example.com\")"));
         }
         // Also warn on bare @CrossOrigin (no args) which allows all in many Spring versions
-        m = P_CROSS_BARE.matcher(content);
+        m = matcher(SpringBootPatterns.CROSS_BARE, Anchors.CROSS_BARE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1239,7 +1467,7 @@ public class RuleEngine {
         }
 
         // @Async on private method (AOP proxy can't intercept it, so @Async is silently ignored)
-        m = P_ASYNC_PRIVATE.matcher(content);
+        m = matcher(SpringBootPatterns.ASYNC_PRIVATE, Anchors.ASYNC_PRIVATE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1254,7 +1482,7 @@ public class RuleEngine {
         }
 
         // @PostConstruct / @PreDestroy on static method (Spring ignores them on static methods)
-        m = P_LIFECYCLE_STAT.matcher(content);
+        m = matcher(SpringBootPatterns.LIFECYCLE_STAT, Anchors.LIFECYCLE_STAT, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1267,7 +1495,7 @@ public class RuleEngine {
         // @Transactional(readOnly=true) suggestion for query methods in @Service
         if (context.isService) {
             Pattern txReadOnly = Pattern.compile("@Transactional(?!\\([^)]*readOnly\\s*=\\s*true)(?:\\([^)]*\\))?\\s+(?:public|protected)\\s+[\\w<>\\[\\],\\s]+\\s+((?:get|find|list|fetch|load|search|count|query|select)\\w+)\\s*\\(");
-            m = txReadOnly.matcher(content);
+            m = matcher(txReadOnly, Anchors.TX_READ_ONLY, scope, content);
             while (m.find()) {
                 int line = getLineNumber(lo, m.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -1280,7 +1508,7 @@ public class RuleEngine {
         }
 
         // ResponseEntity<?> wildcard (loses type safety)
-        m = P_RESP_WILDCARD.matcher(content);
+        m = matcher(SpringBootPatterns.RESP_WILDCARD, Anchors.RESP_WILDCARD, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1293,7 +1521,7 @@ public class RuleEngine {
 
         // Sensitive fields in @Entity without @JsonIgnore (data exposure risk)
         if (context.isEntity) {
-            m = P_SENSITIVE_FIELD.matcher(content);
+            m = matcher(SpringBootPatterns.SENSITIVE_FIELD, Anchors.SENSITIVE_FIELD, scope, content);
             while (m.find()) {
                 int line = getLineNumber(lo, m.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -1315,7 +1543,7 @@ public class RuleEngine {
         }
 
         // @Transactional self-invocation: this.transactionalMethod() bypasses the Spring AOP proxy
-        m = P_SELF_INVOKE.matcher(content);
+        m = matcher(SpringBootPatterns.SELF_INVOKE, Anchors.SELF_INVOKE, scope, content);
         while (m.find()) {
             String calledMethod = m.group(1);
             int line = getLineNumber(lo, m.start());
@@ -1331,7 +1559,7 @@ public class RuleEngine {
         }
 
         // @Cacheable on private method (AOP proxy cannot intercept it)
-        m = P_CACHE_PRIVATE.matcher(content);
+        m = matcher(SpringBootPatterns.CACHE_PRIVATE, Anchors.CACHE_PRIVATE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1358,7 +1586,7 @@ public class RuleEngine {
 
         // @Scheduled method that blocks the scheduler thread by calling Future.get() or CompletableFuture.join()
         // without a timeout.  This starves the shared scheduler thread pool.
-        m = P_SCHED_HEADER.matcher(content);
+        m = matcher(SpringBootPatterns.SCHED_HEADER, Anchors.SCHED_HEADER, scope, content);
         while (m.find()) {
             int annoLine = getLineNumber(lo, m.start());
             // Find the opening brace of the method body
@@ -1383,7 +1611,7 @@ public class RuleEngine {
 
         // @Data on @Entity — Lombok generates equals/hashCode on all fields incl. null id (breaks JPA dirty-check)
         if (context.isEntity) {
-            Matcher dm = P_DATA_ENTITY.matcher(content);
+            RuleMatcher dm = matcher(SpringBootPatterns.DATA_ENTITY, Anchors.DATA_ENTITY, scope, content);
             if (dm.find()) {
                 int line = getLineNumber(lo, dm.start());
                 if (isInChangedLines(file, line)) {
@@ -1394,7 +1622,7 @@ public class RuleEngine {
                 }
             }
             // @Builder on @Entity without @NoArgsConstructor — JPA proxies need a no-arg constructor
-            Matcher bm = P_BUILDER_ENTITY.matcher(content);
+            RuleMatcher bm = matcher(SpringBootPatterns.BUILDER_ENTITY, Anchors.BUILDER_ENTITY, scope, content);
             if (bm.find() && !content.contains("@NoArgsConstructor") && !content.contains("@AllArgsConstructor")) {
                 int line = getLineNumber(lo, bm.start());
                 if (isInChangedLines(file, line)) {
@@ -1408,7 +1636,7 @@ public class RuleEngine {
 
         // HashMap as class-level field in @Service/@Component — not thread-safe
         if (context.isService || context.classAnnotations.contains("Component")) {
-            Matcher hm = P_HASHMAP_FIELD.matcher(content);
+            RuleMatcher hm = matcher(SpringBootPatterns.HASHMAP_FIELD, Anchors.HASHMAP_FIELD, scope, content);
             while (hm.find()) {
                 int line = getLineNumber(lo, hm.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -1427,7 +1655,7 @@ public class RuleEngine {
 
         // @Transactional method containing HTTP/network calls — holds DB connection during I/O
         if ((context.isService || context.isController) && content.contains("@Transactional")) {
-            Matcher tm = P_TX_HTTP_CALL.matcher(content);
+            RuleMatcher tm = matcher(SpringBootPatterns.TX_HTTP_CALL, Anchors.TX_HTTP_CALL, scope, content);
             while (tm.find()) {
                 int line = getLineNumber(lo, tm.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -1449,7 +1677,7 @@ public class RuleEngine {
 
         // @Async without a configured executor — Spring uses SimpleAsyncTaskExecutor (unbounded new threads)
         if (content.contains("@Async") && content.contains("@EnableAsync")) {
-            Matcher am = P_ASYNC_NO_EXECUTOR.matcher(content);
+            RuleMatcher am = matcher(SpringBootPatterns.ASYNC_NO_EXECUTOR, Anchors.ASYNC_NO_EXECUTOR, scope, content);
             if (am.find()) {
                 int line = getLineNumber(lo, am.start());
                 if (isInChangedLines(file, line) && !content.contains("AsyncConfigurer") && !content.contains("ThreadPoolTaskExecutor")) {
@@ -1464,7 +1692,7 @@ public class RuleEngine {
         // @Scheduled without @EnableScheduling — silently never runs
         if (content.contains("@Scheduled") && !content.contains("@EnableScheduling")) {
             // Only warn on the @Scheduled annotation line itself
-            Matcher sm = P_SCHED_HEADER.matcher(content);
+            RuleMatcher sm = matcher(SpringBootPatterns.SCHED_HEADER, Anchors.SCHED_NO_ENABLE, scope, content);
             if (sm.find()) {
                 int line = getLineNumber(lo, sm.start());
                 if (isInChangedLines(file, line)) {
@@ -1479,7 +1707,7 @@ public class RuleEngine {
         }
 
         // @EventListener on private method — Spring AOP cannot proxy private methods
-        Matcher elm = P_EVENT_LISTENER_PRIV.matcher(content);
+        RuleMatcher elm = matcher(SpringBootPatterns.EVENT_LISTENER_PRIV, Anchors.EVENT_LISTENER_PRIV, scope, content);
         while (elm.find()) {
             int line = getLineNumber(lo, elm.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1490,7 +1718,7 @@ public class RuleEngine {
         }
 
         // final class annotated with @Component / @Service — CGLIB subclass proxy fails
-        Matcher fcm = P_FINAL_COMPONENT.matcher(content);
+        RuleMatcher fcm = matcher(SpringBootPatterns.FINAL_COMPONENT, Anchors.FINAL_COMPONENT, scope, content);
         if (fcm.find()) {
             int line = getLineNumber(lo, fcm.start());
             if (isInChangedLines(file, line)) {
@@ -1504,7 +1732,7 @@ public class RuleEngine {
         // Spring Boot 3+ requires Jakarta EE (jakarta.*) — flag any remaining javax.* imports
         if (config.springBootVersion >= 3) {
             Pattern P_JAVAX = Pattern.compile("^import\\s+javax\\.(servlet|persistence|validation|transaction|annotation)\\.", Pattern.MULTILINE);
-            m = P_JAVAX.matcher(content);
+            m = matcher(P_JAVAX, Anchors.JAVAX_IMPORT, scope, content);
             while (m.find()) {
                 int line = getLineNumber(lo, m.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -1518,7 +1746,7 @@ public class RuleEngine {
         }
     }
 
-    private static void reviewOpenApi(String content, String[] lines, ChangedFile file, List<Finding> findings, AnalysisContext context, int[] lo) {
+    private static void reviewOpenApi(String content, String[] lines, ChangedFile file, List<Finding> findings, Scope scope, AnalysisContext context, int[] lo) {
         // Only relevant for REST controllers
         if (!context.isController) return;
 
@@ -1546,7 +1774,7 @@ public class RuleEngine {
         }
 
         // Rule 2: Mapping annotation without @Operation (undocumented endpoint)
-        Matcher m = P_MAPPING_ANNO.matcher(content);
+        RuleMatcher m = matcher(OpenApiPatterns.MAPPING_ANNO, Anchors.MAPPING_ANNO, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1568,7 +1796,7 @@ public class RuleEngine {
 
         // Rule 3: @Operation present but no @ApiResponse declared (no documented response codes)
         if (content.contains("@Operation") && !content.contains("@ApiResponse")) {
-            Matcher om = Pattern.compile("@Operation\\b").matcher(content);
+            RuleMatcher om = matcher(Pattern.compile("@Operation\\b"), Anchors.OPERATION, scope, content);
             while (om.find()) {
                 int line = getLineNumber(lo, om.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -1580,7 +1808,7 @@ public class RuleEngine {
         }
 
         // Rule 4: Method parameter with complex object type in controller but no @Parameter or @Schema
-        m = P_METHOD_PARAM.matcher(content);
+        m = matcher(OpenApiPatterns.METHOD_PARAM, Anchors.METHOD_PARAM, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1595,9 +1823,9 @@ public class RuleEngine {
         }
     }
 
-    private static void reviewPerformance(String content, String[] lines, ChangedFile file, List<Finding> findings, AnalysisContext context, int[] lo) {
+    private static void reviewPerformance(String content, String[] lines, ChangedFile file, List<Finding> findings, Scope scope, AnalysisContext context, int[] lo) {
         // orElse(expensiveCall())
-        Matcher m = P_OR_ELSE.matcher(content);
+        RuleMatcher m = matcher(PerformancePatterns.OR_ELSE, Anchors.OR_ELSE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1619,7 +1847,7 @@ public class RuleEngine {
         }
 
         // String concatenation in loops
-        m = P_CONCAT_LOOP.matcher(content);
+        m = matcher(PerformancePatterns.CONCAT_LOOP, Anchors.CONCAT_LOOP, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1635,7 +1863,7 @@ public class RuleEngine {
         }
 
         // Thread.sleep in production code
-        m = P_THREAD_SLEEP.matcher(content);
+        m = matcher(PerformancePatterns.THREAD_SLEEP, Anchors.THREAD_SLEEP, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1646,9 +1874,9 @@ public class RuleEngine {
         }
     }
 
-    private static void reviewCodeQuality(String content, String[] lines, ChangedFile file, List<Finding> findings, AnalysisContext context, Config config, int[] lo) {
+    private static void reviewCodeQuality(String content, String[] lines, ChangedFile file, List<Finding> findings, Scope scope, AnalysisContext context, Config config, int[] lo) {
         // Boxed types compared with ==
-        Matcher m = P_BOXED_CMP.matcher(content);
+        RuleMatcher m = matcher(CodeQualityPatterns.BOXED_CMP, Anchors.BOXED_CMP, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             // Guard: ensure == actually appears on the same line as the boxed type token
@@ -1667,7 +1895,7 @@ public class RuleEngine {
         }
 
         // Hardcoded credentials
-        m = P_HARDCODED_CRED.matcher(content);
+        m = matcher(CodeQualityPatterns.HARDCODED_CRED, Anchors.HARDCODED_CRED, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1685,7 +1913,7 @@ public class RuleEngine {
         }
 
         // TODO/FIXME markers
-        m = P_TODO_FIXME.matcher(content);
+        m = matcher(CodeQualityPatterns.TODO_FIXME, Anchors.TODO_FIXME, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1715,7 +1943,7 @@ public class RuleEngine {
         }
 
         // Thread.sleep sanity: suspicious very low or very high literals
-        m = P_SLEEP_LITERAL.matcher(content);
+        m = matcher(CodeQualityPatterns.SLEEP_LITERAL, Anchors.SLEEP_LITERAL, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1740,7 +1968,7 @@ public class RuleEngine {
         }
 
         // Hardcoded string literals (heuristic)
-        m = P_SIMPLE_LITERAL.matcher(content);
+        m = matcher(CodeQualityPatterns.SIMPLE_LITERAL, Anchors.SIMPLE_LITERAL, scope, content);
         Set<String> seenLiteralsOnLine = new HashSet<>();
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
@@ -1765,7 +1993,7 @@ public class RuleEngine {
         }
 
         // Hardcoded numeric literals (non-string) with length >= 2
-        m = P_NUMBER_LITERAL.matcher(content);
+        m = matcher(CodeQualityPatterns.NUMBER_LITERAL, Anchors.NUMBER_LITERAL, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1786,7 +2014,7 @@ public class RuleEngine {
         }
 
         // Uppercase literals repeated -> promote to constants/enums
-        m = P_DOMAIN_LITERAL.matcher(content);
+        m = matcher(CodeQualityPatterns.DOMAIN_LITERAL, Anchors.DOMAIN_LITERAL, scope, content);
         Map<String, List<Integer>> literalOccurrences = new HashMap<>();
         while (m.find()) {
             literalOccurrences.computeIfAbsent(m.group(1), k -> new ArrayList<>()).add(getLineNumber(lo, m.start()));
@@ -1803,7 +2031,7 @@ public class RuleEngine {
         }
 
         // Literal equals on possibly null receiver with constant suggestion
-        m = P_LIT_EQUALS.matcher(content);
+        m = matcher(CodeQualityPatterns.LIT_EQUALS, Anchors.LIT_EQUALS, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1835,7 +2063,7 @@ public class RuleEngine {
         }
 
         // Potential infinite while(true) without exit markers
-        m = P_WHILE_TRUE.matcher(content);
+        m = matcher(CodeQualityPatterns.WHILE_TRUE, Anchors.WHILE_TRUE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1853,7 +2081,7 @@ public class RuleEngine {
         // Resource leak detection (already handled by reviewBugPatterns)
 
         // Multi-line: Deep nesting detection (heuristic)
-        m = P_DEEP_NESTING.matcher(content);
+        m = matcher(CodeQualityPatterns.DEEP_NESTING, Anchors.DEEP_NESTING, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1864,7 +2092,7 @@ public class RuleEngine {
         }
 
         // Actionable recommendation: Suggested constant name (combined for same line)
-        m = P_LITERAL_CONST.matcher(content);
+        m = matcher(CodeQualityPatterns.LITERAL_CONST, Anchors.LITERAL_CONST, scope, content);
         Map<Integer, List<String>> tokensByLine = new HashMap<>();
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
@@ -1908,7 +2136,7 @@ public class RuleEngine {
         if (config.strictJava) {
             // String comparison using == or !=
             // Capture groups: 1=var, 2=op, 3=lit OR 4=lit, 5=op, 6=var
-            m = P_STRING_EQ.matcher(content);
+            m = matcher(CodeQualityPatterns.STRING_EQ, Anchors.STRING_EQ, scope, content);
             while (m.find()) {
                 int line = getLineNumber(lo, m.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -1933,9 +2161,9 @@ public class RuleEngine {
         }
     }
 
-    private static void reviewJavaModern(String content, String[] lines, ChangedFile file, List<Finding> findings, Config config, int[] lo) {
+    private static void reviewJavaModern(String content, String[] lines, ChangedFile file, List<Finding> findings, Scope scope, Config config, int[] lo) {
         // 1. Legacy java.util.Date / Calendar / SimpleDateFormat usage
-        Matcher m = P_LEGACY_DATE.matcher(content);
+        RuleMatcher m = matcher(JavaModernPatterns.LEGACY_DATE, Anchors.LEGACY_DATE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1948,7 +2176,7 @@ public class RuleEngine {
         }
 
         // 2. Raw collection types (missing generic type parameter)
-        m = P_RAW_COLL.matcher(content);
+        m = matcher(JavaModernPatterns.RAW_COLL, Anchors.RAW_COLL, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1961,7 +2189,7 @@ public class RuleEngine {
         }
 
         // 3. Collections.EMPTY_LIST / EMPTY_SET / EMPTY_MAP (type-unsafe, use emptyList() etc.)
-        m = P_EMPTY_COLLS.matcher(content);
+        m = matcher(JavaModernPatterns.EMPTY_COLLS, Anchors.EMPTY_COLLS, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1974,7 +2202,7 @@ public class RuleEngine {
         }
 
         // 4. Double-brace initialization (creates anonymous inner class — memory leak risk)
-        m = P_DOUBLE_BRACE.matcher(content);
+        m = matcher(JavaModernPatterns.DOUBLE_BRACE, Anchors.DOUBLE_BRACE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1985,7 +2213,7 @@ public class RuleEngine {
         }
 
         // 5. Math.random() for anything non-trivial (use ThreadLocalRandom or SecureRandom)
-        m = P_MATH_RANDOM.matcher(content);
+        m = matcher(JavaModernPatterns.MATH_RANDOM, Anchors.MATH_RANDOM, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -1997,7 +2225,7 @@ public class RuleEngine {
 
         // 6. instanceof + explicit cast on next token (suggest Java 16+ pattern matching)
         if (config.javaSourceVersion >= 16) {
-            m = P_INSTANCEOF_CAST.matcher(content);
+            m = matcher(JavaModernPatterns.INSTANCEOF_CAST, Anchors.INSTANCEOF_CAST, scope, content);
             while (m.find()) {
                 int line = getLineNumber(lo, m.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -2014,11 +2242,11 @@ public class RuleEngine {
     // SOAP / JAX-WS
     // -----------------------------------------------------------------------
     private static void reviewSoap(String content, String[] lines, ChangedFile file,
-                                    List<Finding> findings, AnalysisContext context, int[] lo) {
+                                    List<Finding> findings, Scope scope, AnalysisContext context, int[] lo) {
         if (!context.isSoapEndpoint) return;
 
         // @WebService missing targetNamespace — WSDL portType will use package name, breaks clients
-        Matcher m = P_WEBSERVICE_NO_NS.matcher(content);
+        RuleMatcher m = matcher(SoapPatterns.WEBSERVICE_NO_NS, Anchors.WEBSERVICE_NO_NS, scope, content);
         if (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (isInChangedLines(file, line)) {
@@ -2031,7 +2259,7 @@ public class RuleEngine {
         }
 
         // @WebMethod missing action — SOAPAction header will be empty, confuses some WS stacks
-        m = P_WEBMETHOD_NO_ACTION.matcher(content);
+        m = matcher(SoapPatterns.WEBMETHOD_NO_ACTION, Anchors.WEBMETHOD_NO_ACTION, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -2043,7 +2271,7 @@ public class RuleEngine {
         }
 
         // @WebParam missing name — WSDL parameter names become 'arg0', 'arg1' etc.
-        m = P_WEBPARAM_NO_NAME.matcher(content);
+        m = matcher(SoapPatterns.WEBPARAM_NO_NAME, Anchors.WEBPARAM_NO_NAME, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -2074,11 +2302,11 @@ public class RuleEngine {
     // gRPC
     // -----------------------------------------------------------------------
     private static void reviewGrpc(String content, String[] lines, ChangedFile file,
-                                    List<Finding> findings, AnalysisContext context, int[] lo) {
+                                    List<Finding> findings, Scope scope, AnalysisContext context, int[] lo) {
         if (!context.isGrpcClient) return;
 
         // Stub created without a deadline — hangs forever on unresponsive server
-        Matcher m = P_GRPC_NO_DEADLINE.matcher(content);
+        RuleMatcher m = matcher(GrpcPatterns.GRPC_NO_DEADLINE, Anchors.GRPC_NO_DEADLINE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -2090,7 +2318,7 @@ public class RuleEngine {
         }
 
         // ManagedChannel built without an interceptor — no tracing, auth, or retry
-        m = P_GRPC_NO_INTERCEPT.matcher(content);
+        m = matcher(GrpcPatterns.GRPC_NO_INTERCEPT, Anchors.GRPC_NO_INTERCEPT, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -2121,12 +2349,12 @@ public class RuleEngine {
     // Outbound clients — Feign, WebClient, RestTemplate, JAXB
     // -----------------------------------------------------------------------
     private static void reviewOutboundClients(String content, String[] lines, ChangedFile file,
-                                               List<Finding> findings, AnalysisContext context, int[] lo) {
+                                               List<Finding> findings, Scope scope, AnalysisContext context, int[] lo) {
         if (!context.isOutboundClient) return;
 
         // @FeignClient without fallback — any downstream failure propagates unchecked
         if (context.isFeignClient) {
-            Matcher m = P_FEIGN_NO_FALLBACK.matcher(content);
+            RuleMatcher m = matcher(OutboundClientPatterns.FEIGN_NO_FALLBACK, Anchors.FEIGN_NO_FALLBACK, scope, content);
             while (m.find()) {
                 String body = m.group(0);
                 if (body.contains("fallback") || body.contains("fallbackFactory")) continue;
@@ -2143,7 +2371,7 @@ public class RuleEngine {
 
         // WebClient.builder() chain — flag if no responseTimeout is set
         if (content.contains("WebClient")) {
-            Matcher m = P_WEBCLIENT_NO_TIMEOUT.matcher(content);
+            RuleMatcher m = matcher(OutboundClientPatterns.WEBCLIENT_NO_TIMEOUT, Anchors.WEBCLIENT_NO_TIMEOUT, scope, content);
             while (m.find()) {
                 int line = getLineNumber(lo, m.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -2157,7 +2385,7 @@ public class RuleEngine {
             }
 
             // .block() on a reactive chain in a non-scheduled context — defeats non-blocking purpose
-            m = P_WEBCLIENT_BLOCK.matcher(content);
+            m = matcher(OutboundClientPatterns.WEBCLIENT_BLOCK, Anchors.WEBCLIENT_BLOCK, scope, content);
             while (m.find()) {
                 int line = getLineNumber(lo, m.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -2173,7 +2401,7 @@ public class RuleEngine {
 
         // new RestTemplate() without timeout configuration
         if (content.contains("RestTemplate")) {
-            Matcher m = P_RESTTPL_NO_TIMEOUT.matcher(content);
+            RuleMatcher m = matcher(OutboundClientPatterns.RESTTPL_NO_TIMEOUT, Anchors.RESTTPL_NO_TIMEOUT, scope, content);
             while (m.find()) {
                 int line = getLineNumber(lo, m.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -2190,7 +2418,7 @@ public class RuleEngine {
 
         // JAXBContext.newInstance outside a try-catch — JAXBException is checked
         if (content.contains("JAXBContext")) {
-            Matcher m = P_JAXB_NO_TRY.matcher(content);
+            RuleMatcher m = matcher(OutboundClientPatterns.JAXB_NO_TRY, Anchors.JAXB_NO_TRY, scope, content);
             while (m.find()) {
                 int line = getLineNumber(lo, m.start());
                 if (!isInChangedLines(file, line)) continue;
@@ -2218,11 +2446,11 @@ public class RuleEngine {
     // Quartz scheduler
     // -----------------------------------------------------------------------
     private static void reviewQuartz(String content, String[] lines, ChangedFile file,
-                                      List<Finding> findings, int[] lo) {
+                                      List<Finding> findings, Scope scope, int[] lo) {
         if (!content.contains("JobDetail") && !content.contains("implements Job")) return;
 
         // Schedule built without misfire handling — silent job skips under load
-        Matcher m = P_QUARTZ_NO_MISFIRE.matcher(content);
+        RuleMatcher m = matcher(QuartzPatterns.QUARTZ_NO_MISFIRE, Anchors.QUARTZ_NO_MISFIRE, scope, content);
         while (m.find()) {
             int line = getLineNumber(lo, m.start());
             if (!isInChangedLines(file, line)) continue;
@@ -2284,6 +2512,6 @@ public class RuleEngine {
 
     /** Legacy O(n) fallback — kept only for internal log-call line resolution. */
     private static int getLineNumber(String content, int index) {
-        return (int) content.substring(0, Math.min(index, content.length())).chars().filter(c -> c == '\n').count() + 1;
+        return SourceFile.of(content).lineOf(Math.min(index, content.length()));
     }
 }
@@ -0,0 +1,91 @@
+package com.reviewer.analysis;
+
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link Matcher} restricted to matches that begin inside a set of character windows, used by
+ * {@link RuleEngine} to evaluate line-local rules over the changed hunks only.
+ *
+ * <p>Each window is searched on its own region with transparent, non-anchoring bounds, so
+ * lookarounds, {@code \b} and {@code ^}/{@code $} behave as they do on the whole text. A match
+ * may run past the end of its window. Text between windows is not searched for match starts, so
+ * the results differ from a whole-text scan only where a match beginning in such a gap would
+ * have hidden one beginning inside the next window, or where a match could only begin inside a
+ * window by running more than {@link #SLACK} characters past it.
+ */
+final class RuleMatcher implements MatchResult {
+
+    /**
+     * How far past its window a match is first looked for. Longer matches are still found in
+     * full; the bound only keeps a window's search from scanning the rest of the text.
+     */
+    private static final int SLACK = 4096;
+
+    private final Matcher matcher;
+    private final int length;
+    /** Sorted, disjoint [starts[i], ends[i]) windows; null to search the whole text. */
+    private final int[] starts;
+    private final int[] ends;
+    private int window;
+    private int from;
+
+    RuleMatcher(Pattern pattern, CharSequence text, int[] starts, int[] ends) {
+        this.matcher = pattern.matcher(text);
+        this.length = text.length();
+        this.starts = starts;
+        this.ends = ends;
+        if (starts != null) matcher.useTransparentBounds(true).useAnchoringBounds(false);
+    }
+
+    /** Advances to the next match that begins inside a window; see {@link Matcher#find()}. */
+    boolean find() {
+        if (starts == null) return matcher.find();
+        while (window < starts.length) {
+            int lo = Math.max(from, starts[window]);
+            int hi = ends[window];
+            if (lo >= hi) {
+                window++;
+                continue;
+            }
+            int limit = (int) Math.min(length, (long) hi + SLACK);
+            matcher.region(lo, limit);
+            if (!matcher.find() || matcher.start() >= hi && !enterWindowAt(matcher.start())) {
+                window++;
+                continue;
+            }
+            if (matcher.hitEnd() && limit < length) {
+                // The slack cut the search short: redo it from the match against the rest of the text
+                matcher.region(matcher.start(), length);
+                matcher.find();
+            }
+            from = next();
+            return true;
+        }
+        return false;
+    }
+
+    /** Moves to the window containing {@code index}; false when it lies between windows. */
+    private boolean enterWindowAt(int index) {
+        for (int w = window + 1; w < starts.length && starts[w] <= index; w++) {
+            if (index < ends[w]) {
+                window = w;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int next() {
+        return matcher.end() == matcher.start() ? matcher.end() + 1 : matcher.end();
+    }
+
+    @Override public int start() { return matcher.start(); }
+    @Override public int start(int group) { return matcher.start(group); }
+    @Override public int end() { return matcher.end(); }
+    @Override public int end(int group) { return matcher.end(group); }
+    @Override public String group() { return matcher.group(); }
+    @Override public String group(int group) { return matcher.group(group); }
+    @Override public int groupCount() { return matcher.groupCount(); }
+}
@@ -0,0 +1,277 @@
+package com.reviewer.analysis;
+
+import com.reviewer.model.Models.Range;
+import com.reviewer.util.RunMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One source file as seen by every analysis of a run: the rules, impact analysis, the AST
+ * filter and the report all ask the same instance instead of re-reading, re-splitting and
+ * re-parsing the content on their own.
+ *
+ * <p>Every view is derived lazily on first use and then kept: the line array, the line-offset
+ * table and the method outline (both the character spans used for caller detection and the
+ * line ranges used for scoping findings). Derivations are pure, so a concurrent first use at
+ * worst computes the same value twice. The JavaParser AST is not kept here but in
+ * {@link AstCache}, whose size bound would not hold for ASTs pinned by every file of the run.
+ *
+ * <p>Instances are shared per run: {@link #read(Path)} returns the same object for the same
+ * file, and {@link #of(String)} finds it again from its content so that helpers that only
+ * receive a {@code String} reuse the derived views. {@link #clear()} starts a new run.
+ */
+public final class SourceFile {
+
+    /** Content-only files not backed by a registered path, kept in a small LRU. */
+    private static final int DETACHED_LIMIT = 64;
+
+    private static final Map<String, SourceFile> BY_PATH = new ConcurrentHashMap<>();
+    private static final Map<Long, SourceFile> BY_CONTENT = new ConcurrentHashMap<>();
+    private static final Map<Long, SourceFile> DETACHED =
+            Collections.synchronizedMap(new LinkedHashMap<Long, SourceFile>(DETACHED_LIMIT, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, SourceFile> e) {
+                    return size() > DETACHED_LIMIT;
+                }
+            });
+
+    private final String content;
+    private volatile String[] lines;
+    private volatile int[] lineOffsets;
+    private volatile List<ImpactAnalyzer.MethodSpan> methodSpans;
+    private volatile List<Range> methodRanges;
+    /** Set once parsing has failed, so that a file that does not parse is not parsed again. */
+    private volatile boolean unparseable;
+
+    private SourceFile(String content) {
+        this.content = content;
+    }
+
+    /**
+     * The shared instance for {@code path}, reading the file the first time it is asked for
+     * in this run.
+     */
+    public static SourceFile read(Path path) throws IOException {
+        Path normalized = path.toAbsolutePath().normalize();
+        String key = normalized.toString();
+        SourceFile existing = BY_PATH.get(key);
+        if (existing != null) return existing;
+        SourceFile file = new SourceFile(Files.readString(normalized));
+        RunMetrics.fileRead(normalized);
+        SourceFile raced = BY_PATH.putIfAbsent(key, file);
+        if (raced != null) return raced;
+        BY_CONTENT.put(contentKey(file.content), file);
+        return file;
+    }
+
+    /**
+     * The content {@link #read(Path)} returns for {@code path}, without keeping a file read from
+     * disk: for whole-repository passes that read each file once.
+     */
+    public static String contentOf(Path path) throws IOException {
+        Path normalized = path.toAbsolutePath().normalize();
+        SourceFile existing = BY_PATH.get(normalized.toString());
+        if (existing != null) return existing.content;
+        String content = Files.readString(normalized);
+        RunMetrics.fileRead(normalized);
+        return content;
+    }
+
+    /**
+     * Makes {@code content} what {@link #read(Path)} returns for {@code path} for the rest of the
+     * run instead of the file on disk, such as the staged version of a file being committed.
+     */
+    public static SourceFile preload(Path path, String content) {
+        Path normalized = path.toAbsolutePath().normalize();
+        SourceFile file = new SourceFile(content);
+        BY_PATH.put(normalized.toString(), file);
+        BY_CONTENT.put(contentKey(content), file);
+        return file;
+    }
+
+    /**
+     * The shared instance whose content is {@code content}: the file it was read from when
+     * there is one, otherwise a detached instance kept in a small LRU.
+     */
+    public static SourceFile of(String content) {
+        long key = contentKey(content);
+        SourceFile registered = BY_CONTENT.get(key);
+        if (registered != null && sameContent(registered.content, content)) return registered;
+        synchronized (DETACHED) {
+            SourceFile detached = DETACHED.get(key);
+            if (detached == null || !sameContent(detached.content, content)) {
+                detached = new SourceFile(content);
+                DETACHED.put(key, detached);
+            }
+            return detached;
+        }
+    }
+
+    /** Drops every shared instance; the next run re-reads files that may have changed. */
+    public static void clear() {
+        BY_PATH.clear();
+        BY_CONTENT.clear();
+        DETACHED.clear();
+    }
+
+    /** Length plus {@code hashCode}; collisions are resolved by comparing content. */
+    private static long contentKey(String content) {
+        return ((long) content.length() << 32) ^ (content.hashCode() & 0xFFFFFFFFL);
+    }
+
+    private static boolean sameContent(String a, String b) {
+        return a == b || (a != null && a.equals(b));
+    }
+
+    public String content() {
+        return content;
+    }
+
+    /** Content split on line terminators, as {@code content.split("\\R")}. */
+    public String[] lines() {
+        String[] l = lines;
+        if (l == null) {
+            l = content.split("\\R");
+            lines = l;
+        }
+        return l;
+    }
+
+    /** Character offset at which each line starts; index 0 is line 1. */
+    public int[] lineOffsets() {
+        int[] offsets = lineOffsets;
+        if (offsets == null) {
+            String c = content;
+            int count = 1;
+            for (int i = 0; i < c.length(); i++) {
+                if (c.charAt(i) == '\n') count++;
+            }
+            offsets = new int[count];
+            int n = 1;
+            for (int i = 0; i < c.length(); i++) {
+                if (c.charAt(i) == '\n') offsets[n++] = i + 1;
+            }
+            lineOffsets = offsets;
+        }
+        return offsets;
+    }
+
+    /** 1-based line number of the character at {@code offset}; O(log n). */
+    public int lineOf(int offset) {
+        int[] offsets = lineOffsets();
+        int lo = 0, hi = offsets.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= offset) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo + 1;
+    }
+
+    /** Method declarations as character spans [header, body end); see {@link ImpactAnalyzer#buildMethodSpans}. */
+    List<ImpactAnalyzer.MethodSpan> methodSpans() {
+        List<ImpactAnalyzer.MethodSpan> spans = methodSpans;
+        if (spans == null) {
+            spans = Collections.unmodifiableList(ImpactAnalyzer.buildMethodSpans(content));
+            methodSpans = spans;
+        }
+        return spans;
+    }
+
+    /**
+     * Method bodies as 1-based inclusive line ranges, starting at the first line of the
+     * signature (annotations on the lines above included when they share the window).
+     * Nested declarations are covered by the range of the enclosing method.
+     */
+    public List<Range> methodRanges() {
+        List<Range> ranges = methodRanges;
+        if (ranges == null) {
+            ranges = Collections.unmodifiableList(findMethodRanges(lines()));
+            methodRanges = ranges;
+        }
+        return ranges;
+    }
+
+    private static List<Range> findMethodRanges(String[] lines) {
+        List<Range> ranges = new ArrayList<>();
+        int i = 0;
+        while (i < lines.length) {
+            StringBuilder sig = new StringBuilder();
+            int j = i;
+            boolean sawParen = false;
+            boolean sawBrace = false;
+            while (j < lines.length && j - i < 6) {
+                String l = lines[j];
+                sig.append(l).append("\n");
+                if (l.contains("(")) sawParen = true;
+                if (l.contains("{")) {
+                    sawBrace = true;
+                    break;
+                }
+                if (l.contains(";")) break;
+                j++;
+            }
+
+            if (sawParen && sawBrace) {
+                String normalized = sig.toString().replaceAll("/\\*.*?\\*/", " ").replaceAll("//.*", " ").replaceAll("\\s+", " ").trim();
+                if (looksLikeMethodSignature(normalized)) {
+                    int endLine = findBlockEndLine(lines, j, lines[j].indexOf('{'));
+                    if (endLine > 0) {
+                        ranges.add(new Range(i + 1, endLine));
+                        i = endLine;
+                        continue;
+                    }
+                }
+            }
+            i++;
+        }
+        return ranges;
+    }
+
+    private static boolean looksLikeMethodSignature(String normalized) {
+        if (!normalized.contains("(") || !normalized.contains(")") || !normalized.contains("{")) return false;
+        if (normalized.matches("(?i)^\\s*(if|for|while|switch|catch|do|try|synchronized)\\b.*")) return false;
+        return normalized.matches(".*\\b\\w+\\s*\\([^;]*\\)\\s*(throws\\s+[^\\{]+)?\\s*\\{.*");
+    }
+
+    private static int findBlockEndLine(String[] lines, int startLineIdx, int startCharIdx) {
+        int depth = 0;
+        for (int i = startLineIdx; i < lines.length; i++) {
+            String l = lines[i];
+            int start = (i == startLineIdx) ? startCharIdx : 0;
+            for (int c = start; c < l.length(); c++) {
+                char ch = l.charAt(c);
+                if (ch == '{') depth++;
+                else if (ch == '}') {
+                    depth--;
+                    if (depth == 0) return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The parsed compilation unit, or empty when JavaParser is unavailable or the content
+     * does not parse. The unit comes from {@link AstCache} on every call rather than being
+     * held by this instance.
+     */
+    public Optional<com.github.javaparser.ast.CompilationUnit> ast() {
+        if (unparseable || !AstInvocationFinder.isAvailable()) return Optional.empty();
+        try {
+            return Optional.of(AstCache.get(content));
+        } catch (Exception e) {
+            unparseable = true;
+            return Optional.empty();
+        }
+    }
+}
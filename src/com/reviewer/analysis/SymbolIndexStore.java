@@ -0,0 +1,324 @@
+package com.reviewer.analysis;
+
+import com.reviewer.analysis.JavaSymbolIndex.ClassInfo;
+import com.reviewer.git.CatFileBatch;
+import com.reviewer.git.GitRepository;
+import com.reviewer.util.RunMetrics;
+import com.reviewer.util.Trace;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On-disk store of {@link ClassInfo} entries keyed by git blob id.
+ *
+ * <p>{@code git ls-files -s} reports the blob id of every tracked file straight from
+ * {@code .git/index}, which is far cheaper than reading and regex-parsing each source.
+ * A file is only re-parsed when its blob id differs from the one recorded in the store;
+ * all other entries are rebuilt from the cache file in a single sequential read.
+ *
+ * <p>Files with unstaged modifications are indexed as staged, from their blob, which is what
+ * the commit contains (see {@link #preloadBlobs}). Untracked files have no blob id, so they are
+ * always parsed from the working tree and never written to the store.
+ *
+ * <p>Each save is stamped with a new generation, so that a cache derived from the index (the
+ * reverse-dependency graph) can tell whether the store changed since it was written.
+ *
+ * <p>Cache format (one entry per line, tab-separated):
+ * <pre>
+ *   V=2
+ *   G=&lt;generation, hex&gt;
+ *   &lt;blob&gt;	&lt;repo-relative path&gt;	&lt;package&gt;	&lt;simpleName&gt;	&lt;fqn&gt;	&lt;supertype,supertype&gt;
+ *   &lt;blob&gt;	&lt;repo-relative path&gt;	-          (file contains no type declaration)
+ * </pre>
+ */
+final class SymbolIndexStore {
+
+    static final String FILE_NAME = "symbol-index.tsv";
+    private static final String VERSION_LINE = "V=2";
+    private static final String GENERATION_PREFIX = "G=";
+    private static final String NO_TYPE = "-";
+    /** Generation of a store that is missing or unreadable; never stamped on a save. */
+    static final long NO_GENERATION = 0;
+
+    private SymbolIndexStore() {}
+
+    /** A tracked file as reported by {@code git ls-files -s}. */
+    static final class TrackedFile {
+        final String relativePath;
+        final String blobId;
+
+        TrackedFile(String relativePath, String blobId) {
+            this.relativePath = relativePath;
+            this.blobId = blobId;
+        }
+    }
+
+    /** A persisted entry; {@code info} is null when the file declares no type. */
+    static final class Entry {
+        final String blobId;
+        final ClassInfo info;
+
+        Entry(String blobId, ClassInfo info) {
+            this.blobId = blobId;
+            this.info = info;
+        }
+    }
+
+    /** The store as last saved: its entries and the generation stamped on them. */
+    static final class Contents {
+        final long generation;
+        final Map<String, Entry> entries;
+
+        Contents(long generation, Map<String, Entry> entries) {
+            this.generation = generation;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * Lists tracked {@code .java} files with their staged blob ids.
+     * Returns null when git is unavailable or {@code repoRoot} is not a work tree,
+     * signalling the caller to fall back to a full directory walk.
+     */
+    static List<TrackedFile> listTrackedJavaFiles(Path repoRoot) {
+        List<TrackedFile> fromIndex = readTrackedJavaFiles(repoRoot);
+        if (fromIndex != null) return fromIndex;
+        byte[] out = runGitZ(repoRoot, "git", "ls-files", "-s", "-z", "--", "*.java");
+        if (out == null) return null;
+        List<TrackedFile> files = new ArrayList<>();
+        for (String record : splitNul(out)) {
+            // <mode> SP <blob> SP <stage> TAB <path>
+            int tab = record.indexOf('\t');
+            if (tab < 0) continue;
+            String[] meta = record.substring(0, tab).split(" ");
+            if (meta.length < 3) continue;
+            // Skip unmerged higher stages; stage 0 is the normal entry
+            if (!"0".equals(meta[2])) continue;
+            files.add(new TrackedFile(record.substring(tab + 1), meta[1]));
+        }
+        return files;
+    }
+
+    /** The same listing read from .git/index in-process, or null when the git CLI has to answer. */
+    private static List<TrackedFile> readTrackedJavaFiles(Path repoRoot) {
+        try (GitRepository git = GitRepository.open(repoRoot)) {
+            if (git == null) return null;
+            List<TrackedFile> files = new ArrayList<>();
+            for (GitRepository.IndexEntry e : git.indexEntries()) {
+                if (e.path.endsWith(".java")) files.add(new TrackedFile(e.path, e.id));
+            }
+            return files;
+        } catch (IOException | RuntimeException e) {
+            Trace.debug("Native index read failed, using git: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns repo-relative paths of {@code .java} files whose working-tree content differs
+     * from the index, plus untracked (non-ignored) {@code .java} files.
+     */
+    static Set<String> listDirtyJavaFiles(Path repoRoot) {
+        Set<String> fromIndex = readDirtyJavaFiles(repoRoot);
+        if (fromIndex != null) return fromIndex;
+        Set<String> dirty = new HashSet<>();
+        byte[] modified = runGitZ(repoRoot, "git", "diff", "--name-only", "-z", "--", "*.java");
+        if (modified != null) dirty.addAll(splitNul(modified));
+        byte[] untracked = runGitZ(repoRoot, "git", "ls-files", "--others", "--exclude-standard", "-z", "--", "*.java");
+        if (untracked != null) dirty.addAll(splitNul(untracked));
+        return dirty;
+    }
+
+    /** The same paths from the index's stat data and a walk of the work tree, or null when the git CLI has to answer. */
+    private static Set<String> readDirtyJavaFiles(Path repoRoot) {
+        try (GitRepository git = GitRepository.open(repoRoot)) {
+            if (git == null) return null;
+            return git.dirtyPaths(path -> path.endsWith(".java"));
+        } catch (IOException | RuntimeException e) {
+            Trace.debug("Native dirty-file scan failed, using git: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Makes the blob of each of {@code files} what {@link SourceFile#read} returns for it in this
+     * run, instead of the working-tree file with its unstaged edits. Blobs come from .git
+     * in-process when possible, otherwise from one git cat-file --batch process. Returns the
+     * relative paths loaded; the others are still read from the working tree.
+     */
+    static Set<String> preloadBlobs(Path repoRoot, List<TrackedFile> files) {
+        Set<String> loaded = new HashSet<>();
+        if (files.isEmpty()) return loaded;
+        List<byte[]> blobs = null;
+        try (GitRepository git = GitRepository.open(repoRoot)) {
+            if (git != null) {
+                blobs = new ArrayList<>(files.size());
+                for (TrackedFile file : files) blobs.add(git.readBlob(file.blobId));
+            }
+        } catch (IOException | RuntimeException e) {
+            Trace.debug("Native blob read failed, using git cat-file: {}", e.getMessage());
+            blobs = null;
+        }
+        if (blobs == null) {
+            List<String> ids = new ArrayList<>(files.size());
+            for (TrackedFile file : files) ids.add(file.blobId);
+            try (CatFileBatch batch = CatFileBatch.start(repoRoot)) {
+                blobs = batch.read(ids);
+            } catch (IOException e) {
+                Trace.debug("Could not read staged blobs, indexing the work tree: {}", e.getMessage());
+                return loaded;
+            }
+        }
+        for (int i = 0; i < files.size(); i++) {
+            if (blobs.get(i) == null) continue;
+            SourceFile.preload(repoRoot.resolve(files.get(i).relativePath), new String(blobs.get(i), StandardCharsets.UTF_8));
+            loaded.add(files.get(i).relativePath);
+        }
+        return loaded;
+    }
+
+    /** Loads the store; returns no entries when it is missing, from another version, or corrupt. */
+    static Contents load(Path cacheDir, Path repoRoot) {
+        Contents empty = new Contents(NO_GENERATION, Collections.emptyMap());
+        Path file = cacheDir.resolve(FILE_NAME);
+        if (!Files.exists(file)) return empty;
+        Map<String, Entry> entries = new HashMap<>();
+        long generation;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!VERSION_LINE.equals(reader.readLine())) return empty;
+            String stamp = reader.readLine();
+            if (stamp == null || !stamp.startsWith(GENERATION_PREFIX)) return empty;
+            generation = Long.parseUnsignedLong(stamp.substring(GENERATION_PREFIX.length()), 16);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", -1);
+                if (parts.length == 3 && NO_TYPE.equals(parts[2])) {
+                    entries.put(parts[1], new Entry(parts[0], null));
+                    continue;
+                }
+                if (parts.length != 6) continue;
+                List<String> supertypes = parts[5].isEmpty()
+                        ? Collections.emptyList()
+                        : Arrays.asList(parts[5].split(","));
+                Path absolute = repoRoot.resolve(parts[1]).toAbsolutePath().normalize();
+                entries.put(parts[1], new Entry(parts[0],
+                        new ClassInfo(absolute, parts[2], parts[3], parts[4], supertypes)));
+            }
+        } catch (IOException | RuntimeException e) {
+            return empty;
+        }
+        return new Contents(generation, entries);
+    }
+
+    /** A generation for the next save, distinct from {@link #NO_GENERATION}. */
+    static long newGeneration() {
+        long generation;
+        do {
+            generation = ThreadLocalRandom.current().nextLong();
+        } while (generation == NO_GENERATION);
+        return generation;
+    }
+
+    /**
+     * Writes the store atomically (temp file + move) so a crashed run never leaves a torn file.
+     * Returns false when it could not be written.
+     */
+    static boolean save(Path cacheDir, Map<String, Entry> entries, long generation) {
+        try {
+            Files.createDirectories(cacheDir);
+            Path tmp = Files.createTempFile(cacheDir, FILE_NAME, ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writer.write(VERSION_LINE);
+                writer.write('\n');
+                writer.write(GENERATION_PREFIX + Long.toHexString(generation));
+                writer.write('\n');
+                for (Map.Entry<String, Entry> e : new LinkedHashMap<>(entries).entrySet()) {
+                    Entry entry = e.getValue();
+                    writer.write(entry.blobId);
+                    writer.write('\t');
+                    writer.write(e.getKey());
+                    writer.write('\t');
+                    if (entry.info == null) {
+                        writer.write(NO_TYPE);
+                    } else {
+                        writer.write(entry.info.packageName);
+                        writer.write('\t');
+                        writer.write(entry.info.simpleName);
+                        writer.write('\t');
+                        writer.write(entry.info.fqn);
+                        writer.write('\t');
+                        writer.write(String.join(",", entry.info.supertypeSimpleNames));
+                    }
+                    writer.write('\n');
+                }
+            }
+            try {
+                Files.move(tmp, cacheDir.resolve(FILE_NAME),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException atomicUnsupported) {
+                Files.move(tmp, cacheDir.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException ignored) {
+            // A missing store only costs a full re-parse on the next run
+            return false;
+        }
+    }
+
+    private static List<String> splitNul(byte[] out) {
+        List<String> result = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < out.length; i++) {
+            if (out[i] == 0) {
+                if (i > start) result.add(new String(out, start, i - start, StandardCharsets.UTF_8));
+                start = i + 1;
+            }
+        }
+        if (start < out.length) result.add(new String(out, start, out.length - start, StandardCharsets.UTF_8));
+        return result;
+    }
+
+    /** Runs a NUL-delimited git command in {@code repoRoot}; returns null on any failure. */
+    private static byte[] runGitZ(Path repoRoot, String... cmd) {
+        Process p = null;
+        RunMetrics.count("git processes");
+        try {
+            p = new ProcessBuilder(cmd)
+                    .directory(repoRoot.toFile())
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            // Drain stdout fully before waitFor — avoids pipe-buffer deadlock on large output
+            try (InputStream in = p.getInputStream()) {
+                in.transferTo(buffer);
+            }
+            if (!p.waitFor(30, TimeUnit.SECONDS)) {
+                p.destroyForcibly();
+                return null;
+            }
+            return p.exitValue() == 0 ? buffer.toByteArray() : null;
+        } catch (Exception e) {
+            if (p != null) p.destroyForcibly();
+            return null;
+        }
+    }
+}
@@ -1,21 +1,38 @@
 package com.reviewer.core;
 
+import com.reviewer.analysis.AstCache;
+import com.reviewer.analysis.EndpointReachIndex;
 import com.reviewer.analysis.ImpactAnalyzer;
 import com.reviewer.analysis.JavaSymbolIndex;
+import com.reviewer.analysis.MethodCallGraph;
 import com.reviewer.analysis.OpenApiSpecParser;
+import com.reviewer.analysis.ReverseGraph;
+import com.reviewer.analysis.SourceFile;
+import com.reviewer.git.CatFileBatch;
+import com.reviewer.git.GitRepository;
+import com.reviewer.git.LineDiff;
 import com.reviewer.language.Language;
 import com.reviewer.language.LanguageFactory;
 import com.reviewer.model.Models.*;
 import com.reviewer.report.HtmlReportGenerator;
 import com.reviewer.util.ColorConsole;
+import com.reviewer.util.RunMetrics;
+import com.reviewer.util.Trace;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -31,19 +48,40 @@ public class ReviewEngine {
     private int totalStagedFiles = 0;
     private Map<String, Set<String>> reverseDependencyGraph = new HashMap<>();
     private Map<String, JavaSymbolIndex.ClassInfo> classInfoCache = new HashMap<>();
-    private final Map<String, String> fileContentCache = new HashMap<>();
+    private final Map<String, String> fileContentCache = new ConcurrentHashMap<>();
     private JavaSymbolIndex symbolIndex;
     private Path repoRoot;
+    /** In-process reader for .git, or null when the git CLI is used instead; see {@link Config#nativeGit}. */
+    private GitRepository git;
+    /** Staged changes by path when they were read through {@link #git}; null when they came from the CLI. */
+    private Map<String, GitRepository.StagedChange> nativeStagedChanges;
     private final Path CACHE_DIR = Paths.get(".code-reviewer-cache");
-    private final Path GRAPH_CACHE = CACHE_DIR.resolve("reverse-graph.json");
+    /** Whole-repo reverse-dependency graph, loaded from {@link #CACHE_DIR} and patched, or built this run. */
+    private ReverseGraph reverseGraph;
+    private final Path REACH_CACHE = CACHE_DIR.resolve("endpoint-reach.bin");
+    /** Method → reaching endpoints, loaded or built on first transitive lookup; see {@link #getEndpointReachIndex}. */
+    private EndpointReachIndex endpointReachIndex;
+    private boolean endpointReachIndexResolved;
     /**
      * Populated lazily from {@code openapi.spec.paths} config.
      * Maps operationId → "HTTP_METHOD /path" (e.g. "processAffiliateLead" → "POST /affiliate/v1/lead").
      */
     private Map<String, String> openApiOperationMap = null;
+    /**
+     * Per repo root, the last symbol index and reachability index built in this JVM. A one-shot
+     * run never reads these back; the review daemon uses them to start each review warm.
+     */
+    private static final Map<Path, JavaSymbolIndex> WARM_SYMBOL_INDEXES = new ConcurrentHashMap<>();
+    private static final Map<Path, EndpointReachIndex> WARM_REACH_INDEXES = new ConcurrentHashMap<>();
 
     public ReviewEngine(Config config) {
         this.config = config;
+        Trace.configure(config.debug, config.traceBufferEntries);
+        RunMetrics.configure(config.reportTimings);
+        // Files may have changed since a previous review in this JVM
+        SourceFile.clear();
+        GitRepository.configure(config.nativeGit);
+        this.git = GitRepository.open(Path.of(""));
         this.repoRoot = resolveRepoRoot();
         initializeBranch();
     }
@@ -70,7 +108,7 @@ public class ReviewEngine {
         }
         openApiOperationMap = OpenApiSpecParser.parseAll(specPaths);
         if (!openApiOperationMap.isEmpty()) {
-            debug("OpenAPI operation map loaded: " + openApiOperationMap.size() + " operations from " + specPaths.size() + " spec(s)");
+            Trace.debug("OpenAPI operation map loaded: {} operations from {} spec(s)", openApiOperationMap.size(), specPaths.size());
         }
         return openApiOperationMap;
     }
@@ -91,9 +129,9 @@ public class ReviewEngine {
                 Path candidate = repoRoot.resolve(pattern).normalize();
                 if (Files.exists(candidate) && Files.isRegularFile(candidate)) {
                     result.add(candidate);
-                    debug("OpenAPI spec (exact): " + candidate);
+                    Trace.debug("OpenAPI spec (exact): {}", candidate);
                 } else {
-                    debug("OpenAPI spec path not found: " + candidate);
+                    Trace.debug("OpenAPI spec path not found: {}", candidate);
                 }
             } else {
                 // Glob pattern — walk the repo and collect matches
@@ -107,10 +145,10 @@ public class ReviewEngine {
                         })
                         .forEach(p -> {
                             result.add(p);
-                            debug("OpenAPI spec (glob match): " + p);
+                            Trace.debug("OpenAPI spec (glob match): {}", p);
                         });
                 } catch (IOException e) {
-                    debug("OpenAPI glob expansion failed for '" + pattern + "': " + e.getMessage());
+                    if (Trace.isEnabled()) Trace.debug("OpenAPI glob expansion failed for '" + pattern + "': " + e.getMessage());
                 }
             }
         }
@@ -165,9 +203,9 @@ public class ReviewEngine {
             } catch (IOException ignored) {}
         }
         if (!found.isEmpty()) {
-            debug("OpenAPI auto-discovered " + found.size() + " spec file(s): " + found);
+            Trace.debug("OpenAPI auto-discovered {} spec file(s): {}", found.size(), found);
         } else {
-            debug("OpenAPI auto-discovery: no spec files found");
+            Trace.debug("OpenAPI auto-discovery: no spec files found");
         }
         return found;
     }
@@ -253,6 +291,16 @@ public class ReviewEngine {
                                                   Map<String, String> opMap,
                                                   String className,
                                                   String classContent) {
+        return resolveOpenApiEndpoints(delegateInterfaces, touchedMethods, opMap, className,
+                ImpactAnalyzer.extractDeclaredMethodNames(classContent));
+    }
+
+    /** Same as above, with the class's declared method names already extracted (e.g. from the call graph). */
+    private List<String> resolveOpenApiEndpoints(List<String> delegateInterfaces,
+                                                  List<String> touchedMethods,
+                                                  Map<String, String> opMap,
+                                                  String className,
+                                                  List<String> declaredMethods) {
         List<String> endpoints = new ArrayList<>();
         if (delegateInterfaces.isEmpty() || opMap.isEmpty()) return endpoints;
 
@@ -263,28 +311,20 @@ public class ReviewEngine {
                 String httpPathEntry = opMap.get(pure);
                 String ep = className + "." + pure + " [" + httpPathEntry + "]";
                 if (!endpoints.contains(ep)) endpoints.add(ep);
-                debug("OpenAPI delegate match (direct): " + pure + " → " + httpPathEntry + " in " + className);
+                Trace.debug("OpenAPI delegate match (direct): {} → {} in {}", pure, httpPathEntry, className);
             }
         }
 
         // Mode 2: transitive — scan class content for method declarations matching operationIds.
         // Used when callingMethods are internal helpers; the OpenAPI entry point method is
         // declared in the same class and matches an operationId in the spec.
-        if (classContent != null && !classContent.isBlank()) {
-            // Match method declarations: (public|protected|...) <returnType> <methodName>(
-            Pattern methodDecl = Pattern.compile(
-                "(?:^|\\n)\\s*(?:@Override\\s+)?(?:public|protected|private)?\\s+[\\w<>\\[\\],\\s]+\\s+(\\w+)\\s*\\(",
-                Pattern.MULTILINE);
-            Matcher m = methodDecl.matcher(classContent);
-            while (m.find()) {
-                String declaredMethod = m.group(1);
-                if (opMap.containsKey(declaredMethod)) {
-                    String httpPathEntry = opMap.get(declaredMethod);
-                    String ep = className + "." + declaredMethod + " [" + httpPathEntry + "]";
-                    if (!endpoints.contains(ep)) {
-                        endpoints.add(ep);
-                        debug("OpenAPI delegate match (declared): " + declaredMethod + " → " + httpPathEntry + " in " + className);
-                    }
+        for (String declaredMethod : declaredMethods) {
+            if (opMap.containsKey(declaredMethod)) {
+                String httpPathEntry = opMap.get(declaredMethod);
+                String ep = className + "." + declaredMethod + " [" + httpPathEntry + "]";
+                if (!endpoints.contains(ep)) {
+                    endpoints.add(ep);
+                    Trace.debug("OpenAPI delegate match (declared): {} → {} in {}", declaredMethod, httpPathEntry, className);
                 }
             }
         }
@@ -292,13 +332,8 @@ public class ReviewEngine {
         return endpoints;
     }
 
-    private void debug(String message) {
-        if (config != null && config.debug) {
-            System.out.println("[DEBUG] " + message);
-        }
-    }
-
     private Path resolveRepoRoot() {
+        if (git != null) return git.workTree();
         List<String> root = runGit("git", "rev-parse", "--show-toplevel");
         if (!root.isEmpty()) {
             return Paths.get(root.get(0)).toAbsolutePath().normalize();
@@ -307,6 +342,14 @@ public class ReviewEngine {
     }
 
     private void initializeBranch() {
+        if (git != null) {
+            try {
+                currentBranch = git.branch();
+                return;
+            } catch (IOException e) {
+                Trace.debug("Native branch lookup failed, using git: {}", e.getMessage());
+            }
+        }
         List<String> branchInfo = runGit("git", "rev-parse", "--abbrev-ref", "HEAD");
         if (!branchInfo.isEmpty()) {
             currentBranch = branchInfo.get(0);
@@ -314,27 +357,36 @@ public class ReviewEngine {
     }
 
     public List<ChangedFile> getStagedFiles() {
-        List<String> allStaged = runGit("git", "diff", "--cached", "--name-only", "--diff-filter=ACMR");
+        List<String> allStaged = RunMetrics.time("git diff", () -> {
+            List<String> staged = readStagedNatively();
+            return staged != null ? staged : runGit("git", "diff", "--cached", "--name-only", "--diff-filter=ACMR");
+        });
         this.totalStagedFiles = allStaged.size();
-        debug("All staged files (" + totalStagedFiles + "): " + allStaged);
+        Trace.debug("All staged files ({}): {}", totalStagedFiles, allStaged);
 
         Language lang = LanguageFactory.getLanguage(config.primaryLanguage);
         List<String> extensions = lang.getSupportedExtensions();
-        debug("Primary language: " + lang.getName() + ", extensions: " + extensions);
+        Trace.debug(() -> "Primary language: " + lang.getName() + ", extensions: " + extensions);
 
         // Also collect staged config files for security scanning
         List<String> configFiles = allStaged.stream()
             .filter(f -> f.endsWith(".properties") || f.endsWith(".yml") || f.endsWith(".yaml"))
             .collect(Collectors.toList());
-        debug("Staged config files: " + configFiles);
+        Trace.debug("Staged config files: {}", configFiles);
 
         List<String> relevantFiles = allStaged.stream()
             .filter(f -> extensions.stream().anyMatch(f::endsWith))
             .collect(Collectors.toList());
-        debug("Staged files for language '" + lang.getName() + "': " + relevantFiles);
+        Trace.debug(() -> "Staged files for language '" + lang.getName() + "': " + relevantFiles);
+
+        RunMetrics.time("staged content", () -> {
+            List<String> toLoad = new ArrayList<>(relevantFiles);
+            toLoad.addAll(configFiles);
+            loadStagedContent(toLoad);
+        });
 
         // One git process for all files instead of one per file
-        Map<String, Set<Integer>> changedLinesByFile = batchGetChangedLines(relevantFiles);
+        Map<String, Set<Integer>> changedLinesByFile = RunMetrics.time("git diff", () -> batchGetChangedLines(relevantFiles));
 
         // Scan config files for security issues
         for (String cf : configFiles) {
@@ -354,11 +406,101 @@ public class ReviewEngine {
             .collect(Collectors.toList());
     }
 
-    /** Single git diff --staged -U0 call; parses per-file hunk headers for all relevant files at once. */
+    /** Staged paths read from .git without a git process, or null when the CLI has to answer. */
+    private List<String> readStagedNatively() {
+        if (git == null) return null;
+        try {
+            Map<String, GitRepository.StagedChange> changes = new LinkedHashMap<>();
+            for (GitRepository.StagedChange c : git.stagedChanges()) changes.put(c.path, c);
+            nativeStagedChanges = changes;
+            return new ArrayList<>(changes.keySet());
+        } catch (IOException | RuntimeException e) {
+            Trace.debug("Native staged-file read failed, using git: {}", e.getMessage());
+            closeNativeGit();
+            return null;
+        }
+    }
+
+    /**
+     * Puts the staged (index) version of {@code paths} into the shared {@link SourceFile} store,
+     * so rules, impact analysis and the report see what is being committed rather than the work
+     * tree, which may hold further unstaged edits. Blobs come from .git in-process when possible,
+     * otherwise from one git cat-file --batch process; a path that cannot be read this way is
+     * read from disk as before.
+     */
+    private void loadStagedContent(List<String> paths) {
+        if (paths.isEmpty()) return;
+        List<byte[]> blobs = null;
+        if (git != null && nativeStagedChanges != null) {
+            try {
+                blobs = new ArrayList<>(paths.size());
+                for (String p : paths) {
+                    GitRepository.StagedChange change = nativeStagedChanges.get(p);
+                    blobs.add(change == null ? null : git.readBlob(change.newId));
+                }
+            } catch (IOException | RuntimeException e) {
+                Trace.debug("Native blob read failed, using git cat-file: {}", e.getMessage());
+                blobs = null;
+            }
+        }
+        if (blobs == null) {
+            List<String> names = paths.stream().map(p -> ":" + p).collect(Collectors.toList());
+            try (CatFileBatch batch = CatFileBatch.start(repoRoot)) {
+                blobs = batch.read(names);
+            } catch (IOException e) {
+                Trace.debug("Could not read staged content, reviewing the work tree: {}", e.getMessage());
+                return;
+            }
+        }
+        int loaded = 0;
+        for (int i = 0; i < paths.size(); i++) {
+            byte[] blob = blobs.get(i);
+            if (blob == null) continue;
+            String content = new String(blob, StandardCharsets.UTF_8);
+            // Registered under both spellings the engine resolves a staged path with
+            Path fromRoot = repoRoot.resolve(paths.get(i)).normalize();
+            Path fromCwd = Path.of(paths.get(i)).toAbsolutePath().normalize();
+            SourceFile.preload(fromRoot, content);
+            if (!fromCwd.equals(fromRoot)) SourceFile.preload(fromCwd, content);
+            loaded++;
+        }
+        RunMetrics.add("staged blobs read", loaded);
+        Trace.debug("Loaded staged content for {} of {} files", loaded, paths.size());
+    }
+
+    private void closeNativeGit() {
+        if (git == null) return;
+        try {
+            git.close();
+        } catch (IOException ignored) {}
+        git = null;
+    }
+
+    /**
+     * Changed lines per file: diffed in-process from the HEAD and index blobs when the staged
+     * files were read natively, otherwise from a single git diff --staged -U0 call whose hunk
+     * headers are parsed for all relevant files at once.
+     */
     private Map<String, Set<Integer>> batchGetChangedLines(List<String> files) {
         Map<String, Set<Integer>> result = new LinkedHashMap<>();
         for (String f : files) result.put(f, new HashSet<>());
 
+        if (nativeStagedChanges != null && git != null) {
+            try {
+                for (String f : files) {
+                    GitRepository.StagedChange change = nativeStagedChanges.get(f);
+                    if (change == null) continue;
+                    for (LineDiff.Hunk h : git.hunks(change)) addHunkLines(result.get(f), h.newStart, h.newCount);
+                }
+                return result;
+            } catch (IOException | RuntimeException e) {
+                Trace.debug("Native diff failed, using git: {}", e.getMessage());
+                for (Set<Integer> lines : result.values()) lines.clear();
+            } finally {
+                closeNativeGit();
+            }
+        }
+
         // --diff-filter=ACMR: Added, Copied, Modified, Renamed — skip Deleted/binary files
         List<String> diff = runGit("git", "diff", "--staged", "-U0", "--diff-filter=ACMR");
         String currentFile = null;
@@ -375,109 +517,52 @@ public class ReviewEngine {
                 try {
                     int start = Integer.parseInt(parts[0]);
                     int count = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
-                    Set<Integer> fileLines = result.get(currentFile);
-                    // count == 0 means a pure-deletion hunk: @@ -old,N +new,0 @@
-                    // No new lines were added, so the loop body never runs and changedLines
-                    // stays empty, causing touched-method detection to return [].
-                    // Fix: record 'start' (the new-file position of the deletion) so the
-                    // intersection check in extractTouchedMethods() can still find the method.
-                    if (count == 0) {
-                        fileLines.add(start);
-                    } else {
-                        for (int i = 0; i < count; i++) fileLines.add(start + i);
-                    }
+                    addHunkLines(result.get(currentFile), start, count);
                 } catch (NumberFormatException ignored) {}
             }
         }
         return result;
     }
 
+    private static void addHunkLines(Set<Integer> fileLines, int start, int count) {
+        // count == 0 means a pure-deletion hunk: @@ -old,N +new,0 @@
+        // No new lines were added, so the loop body never runs and changedLines
+        // stays empty, causing touched-method detection to return [].
+        // Fix: record 'start' (the new-file position of the deletion) so the
+        // intersection check in extractTouchedMethods() can still find the method.
+        if (count == 0) {
+            fileLines.add(start);
+        } else {
+            for (int i = 0; i < count; i++) fileLines.add(start + i);
+        }
+    }
+
     private Set<Integer> expandChangedLinesToMethodScope(String filePath, Set<Integer> changedLines) throws IOException {
-        List<String> fileLines = Files.readAllLines(Path.of(filePath));
-        List<LineRange> methodRanges = findMethodRanges(fileLines);
-        debug("filepath, changedlines: " + filePath + changedLines);
+        List<Range> methodRanges = SourceFile.read(Path.of(filePath)).methodRanges();
+        Trace.debug("filepath, changedlines: {}{}", filePath, changedLines);
         if (methodRanges.isEmpty()) return changedLines;
 
         Set<Integer> expanded = new HashSet<>(changedLines);
-        for (LineRange r : methodRanges) {
+        for (Range r : methodRanges) {
             boolean intersects = false;
             for (int cl : changedLines) {
-                if (cl >= r.startLine && cl <= r.endLine) {
+                if (cl >= r.start && cl <= r.end) {
                     intersects = true;
                     break;
                 }
             }
             if (!intersects) continue;
-            for (int i = r.startLine; i <= r.endLine; i++) {
+            for (int i = r.start; i <= r.end; i++) {
                 expanded.add(i);
             }
         }
         return expanded;
     }
 
-    private List<LineRange> findMethodRanges(List<String> fileLines) {
-        List<LineRange> ranges = new ArrayList<>();
-        int i = 0;
-        while (i < fileLines.size()) {
-            int sigStart = i;
-            StringBuilder sig = new StringBuilder();
-            int j = i;
-            boolean sawParen = false;
-            boolean sawBrace = false;
-            while (j < fileLines.size() && j - i < 6) {
-                String l = fileLines.get(j);
-                sig.append(l).append("\n");
-                if (l.contains("(")) sawParen = true;
-                if (l.contains("{")) {
-                    sawBrace = true;
-                    break;
-                }
-                if (l.contains(";")) break;
-                j++;
-            }
-
-            if (sawParen && sawBrace) {
-                String normalized = sig.toString().replaceAll("/\\*.*?\\*/", " ").replaceAll("//.*", " ").replaceAll("\\s+", " ").trim();
-                if (looksLikeMethodSignature(normalized)) {
-                    int braceLineIdx = j;
-                    int endLine = findBlockEndLine(fileLines, braceLineIdx, fileLines.get(braceLineIdx).indexOf('{'));
-                    if (endLine > 0) {
-                        ranges.add(new LineRange(sigStart + 1, endLine));
-                        i = endLine;
-                        continue;
-                    }
-                }
-            }
-            i++;
-        }
-        return ranges;
-    }
-
-    private boolean looksLikeMethodSignature(String normalized) {
-        if (!normalized.contains("(") || !normalized.contains(")") || !normalized.contains("{")) return false;
-        if (normalized.matches("(?i)^\\s*(if|for|while|switch|catch|do|try|synchronized)\\b.*")) return false;
-        return normalized.matches(".*\\b\\w+\\s*\\([^;]*\\)\\s*(throws\\s+[^\\{]+)?\\s*\\{.*");
-    }
-
-    private int findBlockEndLine(List<String> lines, int startLineIdx, int startCharIdx) {
-        int depth = 0;
-        for (int i = startLineIdx; i < lines.size(); i++) {
-            String l = lines.get(i);
-            int start = (i == startLineIdx) ? startCharIdx : 0;
-            for (int c = start; c < l.length(); c++) {
-                char ch = l.charAt(c);
-                if (ch == '{') depth++;
-                else if (ch == '}') {
-                    depth--;
-                    if (depth == 0) return i + 1;
-                }
-            }
-        }
-        return -1;
-    }
-
     public String run(List<ChangedFile> allChangedFiles) throws IOException {
-        debug("Received " + allChangedFiles.size() + " files for review.");
+        AstCache.setMaxBytes((long) config.astCacheMaxMb << 20);
+        AstCache.Stats astBefore = AstCache.stats();
+        Trace.debug("Received {} files for review.", allChangedFiles.size());
         List<ChangedFile> testFiles = allChangedFiles.stream()
             .filter(this::isTestFile)
             .collect(Collectors.toList());
@@ -485,10 +570,10 @@ public class ReviewEngine {
             .filter(f -> !isTestFile(f))
             .collect(Collectors.toList());
 
-        debug("Test files count: " + testFiles.size());
-        debug("Non-test files to review: " + changedFiles.size());
+        Trace.debug("Test files count: {}", testFiles.size());
+        Trace.debug("Non-test files to review: {}", changedFiles.size());
         for (ChangedFile f : changedFiles) {
-            debug("Reviewing: " + f.path);
+            Trace.debug("Reviewing: {}", f.path);
         }
 
         if (changedFiles.isEmpty()) {
@@ -499,33 +584,61 @@ public class ReviewEngine {
         // Run PMD first so pmdCoveredFiles is populated before RuleEngine skips overlapping groups
         if (config.enablePmdAnalysis && "java".equals(config.primaryLanguage)) {
             try {
-                debug("PMD Path: " + config.pmdPath);
-                debug("PMD Ruleset: " + config.pmdRulesetPath);
-                debug("Files to analyze: " + changedFiles.size());
-                List<Finding> pmdFindings = com.reviewer.analysis.PmdAnalyzer.analyze(changedFiles, config);
-                findings.addAll(pmdFindings);
-                debug("PMD findings: " + pmdFindings.size() + ", covered files: " + config.pmdCoveredFiles);
+                RunMetrics.time("pmd", () -> {
+                    Trace.debug("PMD Path: {}", config.pmdPath);
+                    Trace.debug("PMD Ruleset: {}", config.pmdRulesetPath);
+                    Trace.debug("Files to analyze: {}", changedFiles.size());
+                    List<Finding> pmdFindings = com.reviewer.analysis.PmdAnalyzer.analyze(changedFiles, config);
+                    findings.addAll(pmdFindings);
+                    Trace.debug("PMD findings: {}, covered files: {}", pmdFindings.size(), config.pmdCoveredFiles);
+                });
             } catch (Exception e) {
                 System.err.println("PMD analysis failed, falling back to built-in rules: " + e.getMessage());
             }
         }
         // RuleEngine runs after PMD — skips overlapping categories for pmdCoveredFiles
-        for (ChangedFile file : changedFiles) {
-            reviewFile(file);
-        }
+        findings.addAll(RunMetrics.time("rules", () -> reviewFiles(changedFiles)));
 
         testingStatusByFile = generateTestingStatus(changedFiles, testFiles);
 
         if ("java".equals(config.primaryLanguage) && config.enableImpactAnalysis) {
-            ensureSymbolIndex();
-            loadOrBuildReverseGraph(changedFiles);
-            impactEntries = analyzeImpact(changedFiles);
-            enrichImpactEntriesWithTesting();
+            // Set before the index build: scoped-call extraction depends on the AST flag
+            ImpactAnalyzer.setStructuralFallbackEnabled(config.transitiveCallerStructuralFallback);
+            ImpactAnalyzer.setAstCallerDetectionEnabled(config.useAstCallerDetection);
+            RunMetrics.time("symbol index", this::ensureSymbolIndex);
+            RunMetrics.time("dependency graph", () -> loadOrBuildReverseGraph(changedFiles));
+            RunMetrics.time("impact analysis", () -> {
+                impactEntries = analyzeImpact(changedFiles);
+                enrichImpactEntriesWithTesting();
+            });
         }
 
         deduplicateFindings();
-        printReport(changedFiles);
-        return generateHtmlReport(changedFiles);
+        AstCache.Stats astAfter = AstCache.stats();
+        Trace.debug("AST cache: {}", astAfter);
+        RunMetrics.add("ast parses", astAfter.misses - astBefore.misses);
+        RunMetrics.add("ast cache hits", astAfter.hits - astBefore.hits);
+        String reportPath = RunMetrics.time("report", () -> {
+            printReport(changedFiles);
+            return generateHtmlReport(changedFiles);
+        });
+        printTimings();
+        return reportPath;
+    }
+
+    /**
+     * With {@link Config#reportTimings} on, prints the phase table and writes it to
+     * timings.json in the cache directory.
+     */
+    private void printTimings() {
+        RunMetrics.Snapshot timings = RunMetrics.snapshot();
+        if (timings == null) return;
+        System.out.println(ColorConsole.CYAN + "\n--- Timings ---" + ColorConsole.RESET);
+        System.out.print(timings.toTable());
+        Path json = CACHE_DIR.resolve("timings.json");
+        if (timings.writeJson(json)) {
+            System.out.println("  Timings: " + json.toAbsolutePath());
+        }
     }
 
     /**
@@ -553,8 +666,7 @@ public class ReviewEngine {
             Path p = repoRoot.resolve(filePath).normalize();
             if (!Files.exists(p)) p = Paths.get(filePath).toAbsolutePath().normalize();
             if (!Files.exists(p)) return;
-            String content = Files.readString(p);
-            String[] lines = content.split("\\R");
+            String[] lines = SourceFile.read(p).lines();
             // All lines in a newly staged config file are "changed"
             Set<Integer> allLines = new HashSet<>();
             for (int i = 1; i <= lines.length; i++) allLines.add(i);
@@ -619,7 +731,7 @@ public class ReviewEngine {
                 }
             }
         } catch (Exception e) {
-            debug("Config file scan failed for " + filePath + ": " + e.getMessage());
+            Trace.debug(() -> "Config file scan failed for " + filePath + ": " + e.getMessage());
         }
     }
 
@@ -633,20 +745,65 @@ public class ReviewEngine {
         String key = path.toAbsolutePath().normalize().toString();
         String cached = fileContentCache.get(key);
         if (cached != null) return cached;
-        String content = Files.readString(path);
+        String content = SourceFile.read(path).content();
         fileContentCache.put(key, content);
         return content;
     }
 
-    private void reviewFile(ChangedFile file) throws IOException {
+    /**
+     * Runs the per-file rules for {@code files} on a pool of at most {@link Config#reviewThreads}
+     * threads. Each file collects findings into its own buffer, so the AST post-pass in
+     * {@link com.reviewer.analysis.RuleEngine#runRules} only ever sees that file's findings,
+     * and the buffers are concatenated in input order so the result does not depend on
+     * scheduling.
+     */
+    private List<Finding> reviewFiles(List<ChangedFile> files) throws IOException {
+        int threads = Math.max(1, Math.min(config.reviewThreads, files.size()));
+        List<Finding> merged = new ArrayList<>();
+        if (threads == 1) {
+            for (ChangedFile file : files) merged.addAll(reviewFile(file));
+            return merged;
+        }
+        Trace.debug("Reviewing {} files on {} threads", files.size(), threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "code-reviewer-rules");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<List<Finding>>> pending = new ArrayList<>(files.size());
+            for (ChangedFile file : files) pending.add(pool.submit(() -> reviewFile(file)));
+            for (Future<List<Finding>> result : pending) {
+                try {
+                    merged.addAll(result.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) throw (IOException) cause;
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    if (cause instanceof Error) throw (Error) cause;
+                    throw new IOException(cause);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reviewing files");
+        } finally {
+            pool.shutdownNow();
+        }
+        return merged;
+    }
+
+    private List<Finding> reviewFile(ChangedFile file) throws IOException {
+        List<Finding> fileFindings = new ArrayList<>();
         Path fullPath = Path.of(file.path).toAbsolutePath();
         if (!Files.exists(fullPath)) {
-            debug("File not found for review: " + fullPath);
-            return;
+            Trace.debug("File not found for review: {}", fullPath);
+            return fileFindings;
         }
         String content = readFileCached(fullPath);
-        String[] lines = content.split("\\R");
-        LanguageFactory.getLanguage(config.primaryLanguage).analyzeFile(content, lines, file, findings, config);
+        String[] lines = SourceFile.of(content).lines();
+        LanguageFactory.getLanguage(config.primaryLanguage).analyzeFile(content, lines, file, fileFindings, config);
+        return fileFindings;
     }
     private int findMatchingBrace(String content, int startIndex) {
         int depth = 0;
@@ -662,15 +819,12 @@ public class ReviewEngine {
     }
 
     private List<ImpactEntry> analyzeImpact(List<ChangedFile> files) {
-        ImpactAnalyzer.setDebugEnabled(config != null && config.debug);
-        ImpactAnalyzer.setStructuralFallbackEnabled(config != null && config.transitiveCallerStructuralFallback);
-        ImpactAnalyzer.setAstCallerDetectionEnabled(config == null || config.useAstCallerDetection);
         List<ImpactEntry> impact = new ArrayList<>();
         for (ChangedFile f : files) {
             ImpactEntry entry = new ImpactEntry(f.name);
             JavaSymbolIndex.ClassInfo classInfo = resolveClassInfo(f);
             if (classInfo == null) {
-                debug("No class info for " + f.path + ", skipping impact detection");
+                Trace.debug("No class info for {}, skipping impact detection", f.path);
                 continue;
             }
             entry.fullyQualifiedName = classInfo.fqn;
@@ -679,12 +833,12 @@ public class ReviewEngine {
                 if (path == null || !Files.exists(path)) continue;
                 String content = readFileCached(path);
                 String className = classInfo.simpleName;
-                debug("Analyzing impact for " + classInfo.fqn + " (" + f.path + ")");
+                Trace.debug("Analyzing impact for {} ({})", classInfo.fqn, f.path);
                 
                 List<String> touchedMethods = ImpactAnalyzer.extractTouchedMethods(f, content);
-                debug("Touched methods: " + touchedMethods);
+                Trace.debug("Touched methods: {}", touchedMethods);
                 touchedMethods = ImpactAnalyzer.filterValidMethodNames(touchedMethods);
-                debug("Filtered touched methods: " + touchedMethods);
+                Trace.debug("Filtered touched methods: {}", touchedMethods);
 
                 if (!touchedMethods.isEmpty()) {
                     entry.functions.addAll(touchedMethods);
@@ -699,7 +853,7 @@ public class ReviewEngine {
                     List<String> expanded = ImpactAnalyzer.expandWithIntraClassCallers(content, touchedMethods);
                     expanded = ImpactAnalyzer.filterValidMethodNames(expanded);
                     if (expanded.size() > touchedMethods.size()) {
-                        debug("Source intra-class expansion: " + touchedMethods + " -> " + expanded);
+                        Trace.debug("Source intra-class expansion: {} -> {}", touchedMethods, expanded);
                         bfsTouchedMethods = expanded;
                     }
                 }
@@ -712,7 +866,7 @@ public class ReviewEngine {
                             // Expand to include annotated handlers that delegate to this touched method.
                             List<String> tmScope = ImpactAnalyzer.expandWithIntraClassCallers(content, Collections.singletonList(tm));
                             List<String> eps = ImpactAnalyzer.extractControllerEndpoints(content, className, tmScope);
-                            debug("Controller self endpoints for " + tm + ": " + eps);
+                            Trace.debug("Controller self endpoints for {}: {}", tm, eps);
                             if (eps != null) {
                                 for (String ep : eps) {
                                     entry.endpoints.add(ep + " [via " + tm + "()]");
@@ -723,7 +877,7 @@ public class ReviewEngine {
                         // Expand to include annotated handlers that delegate to any touched method.
                         List<String> tmScope = ImpactAnalyzer.expandWithIntraClassCallers(content, bfsTouchedMethods);
                         List<String> endpoints = ImpactAnalyzer.extractControllerEndpoints(content, className, tmScope);
-                        debug("Controller self endpoints: " + endpoints);
+                        Trace.debug("Controller self endpoints: {}", endpoints);
                         if (endpoints != null) {
                             entry.endpoints.addAll(endpoints);
                         }
@@ -734,48 +888,59 @@ public class ReviewEngine {
                 if (!bfsTouchedMethods.isEmpty() && implementsApiDelegate(content, config.openApiDelegateSuffix)) {
                     Map<String, String> opMap = getOpenApiOperationMap();
                     List<String> delegateInterfaces = extractDelegateInterfaces(content, config.openApiDelegateSuffix);
-                    debug("OpenAPI delegate interfaces in " + className + ": " + delegateInterfaces);
+                    Trace.debug("OpenAPI delegate interfaces in {}: {}", className, delegateInterfaces);
                     // Direct mode: developer changed this file, so touched methods may be operationId methods directly.
                     // Also scan full content in case they changed an internal helper — surface all exposed operationIds.
                     List<String> openApiEndpoints = resolveOpenApiEndpoints(delegateInterfaces, bfsTouchedMethods, opMap, className, content);
                     if (!openApiEndpoints.isEmpty()) {
                         if (!entry.layers.contains("API/Web")) entry.layers.add("API/Web");
                         entry.endpoints.addAll(openApiEndpoints);
-                        debug("OpenAPI endpoints added for " + className + ": " + openApiEndpoints);
+                        Trace.debug("OpenAPI endpoints added for {}: {}", className, openApiEndpoints);
                     }
                 }
 
                 Set<String> dependents = reverseDependencyGraph.getOrDefault(classInfo.fqn, Collections.emptySet());
-                debug("Dependents for " + classInfo.fqn + ": " + dependents);
+                Trace.debug("Dependents for {}: {}", classInfo.fqn, dependents);
                 for (String dependentFile : dependents) {
                     Path depPath = Path.of(dependentFile);
                     String depFileName = depPath.getFileName().toString();
                     if (isTestFile(new ChangedFile(dependentFile, depFileName, Collections.emptySet()))) {
-                        debug("Skipping dependent test file " + dependentFile);
+                        Trace.debug("Skipping dependent test file {}", dependentFile);
                         continue;
                     }
-                    String depContent = readFileCached(depPath);
                     String depClassName = depFileName.replace(".java", "");
+                    // Answer from the dependent's persisted summary where it reproduces the source scans
+                    // exactly; the source is only read for the checks it cannot answer.
+                    MethodCallGraph.FileCalls depCalls = dependentSummary(depPath, depClassName);
+                    String depContent = depCalls == null ? readFileCached(depPath) : null;
 
                     // 1. Identify WHICH methods in the dependent call the service, attributed per
                     //    touched method so notes and endpoints carry [via tm()] when >1 method changed.
                     Map<String, List<String>> callerToVia = new LinkedHashMap<>();
                     for (String tm : bfsTouchedMethods) {
-                        List<String> callers = ImpactAnalyzer.getMethodsCalling(
-                                depContent, classInfo.simpleName, classInfo.fqn,
-                                classInfo.supertypeSimpleNames,
-                                Collections.singletonList(tm), true);
+                        List<String> callers = depCalls == null ? null : directCallersFromSummary(depCalls, classInfo, tm);
+                        if (callers == null) {
+                            if (depContent == null) depContent = readFileCached(depPath);
+                            callers = ImpactAnalyzer.getMethodsCalling(
+                                    depContent, classInfo.simpleName, classInfo.fqn,
+                                    classInfo.supertypeSimpleNames,
+                                    Collections.singletonList(tm), true);
+                        }
                         for (String caller : callers) {
                             callerToVia.computeIfAbsent(caller, k -> new ArrayList<>()).add(tm);
                         }
                     }
                     List<String> callingMethods = new ArrayList<>(callerToVia.keySet());
-                    debug("Calling methods in " + depFileName + " -> " + callingMethods);
+                    Trace.debug("Calling methods in {} -> {}", depFileName, callingMethods);
 
                     if (!callingMethods.isEmpty()) {
                         // Track method-scoped dependents for the graph display.
                         entry.methodScopedDependents.add(dependentFile);
-                        String depType = classifyDependencyType(depContent, classInfo);
+                        String depType = depCalls == null ? null : classifyDependencyType(depCalls, depPath, classInfo);
+                        if (depType == null) {
+                            if (depContent == null) depContent = readFileCached(depPath);
+                            depType = classifyDependencyType(depContent, classInfo);
+                        }
                         boolean multiTouched = bfsTouchedMethods.size() > 1;
                         for (Map.Entry<String, List<String>> e : callerToVia.entrySet()) {
                             String via = multiTouched
@@ -784,16 +949,15 @@ public class ReviewEngine {
                             entry.notes.add("Impacted Method [" + depType + "]: " + depFileName + " -> " + e.getKey() + "()" + via);
                         }
 
-                        if (depContent.contains("@RestController") || depContent.contains("@Controller")) {
+                        if (hasMarker(depCalls, depContent, "@RestController") || hasMarker(depCalls, depContent, "@Controller")) {
                             if (!entry.layers.contains("API/Web")) entry.layers.add("API/Web");
                             if (multiTouched) {
                                 // Extract endpoints per caller so each carries [via tm()] attribution.
                                 // Expand each caller to include annotated handlers that delegate to it.
                                 for (Map.Entry<String, List<String>> e : callerToVia.entrySet()) {
-                                    List<String> callerScope = ImpactAnalyzer.expandWithIntraClassCallers(depContent, Collections.singletonList(e.getKey()));
-                                    List<String> eps = ImpactAnalyzer.extractControllerEndpoints(
-                                                depContent, depClassName, callerScope);
-                                    debug("Endpoints for " + depFileName + " caller " + e.getKey() + ": " + eps);
+                                    List<String> callerScope = expandWithIntraClassCallers(depCalls, depContent, Collections.singletonList(e.getKey()));
+                                    List<String> eps = controllerEndpoints(depCalls, depContent, depClassName, callerScope);
+                                    Trace.debug(() -> "Endpoints for " + depFileName + " caller " + e.getKey() + ": " + eps);
                                     if (eps != null) {
                                         String via = " [via " + e.getValue().stream().map(m -> m + "()").collect(Collectors.joining(", ")) + "]";
                                         for (String ep : eps) {
@@ -803,22 +967,29 @@ public class ReviewEngine {
                                 }
                             } else {
                                 // Expand callingMethods to include annotated handlers that delegate to them.
-                                List<String> callerScope = ImpactAnalyzer.expandWithIntraClassCallers(depContent, callingMethods);
-                                List<String> endpoints = ImpactAnalyzer.extractControllerEndpoints(depContent, depClassName, callerScope);
-                                debug("Endpoints for " + depFileName + ": " + endpoints);
+                                List<String> callerScope = expandWithIntraClassCallers(depCalls, depContent, callingMethods);
+                                List<String> endpoints = controllerEndpoints(depCalls, depContent, depClassName, callerScope);
+                                Trace.debug("Endpoints for {}: {}", depFileName, endpoints);
                                 if (endpoints != null) {
                                     entry.endpoints.addAll(endpoints);
                                 }
                             }
-                        } else if (implementsApiDelegate(depContent, config.openApiDelegateSuffix)) {
+                        } else if (depCalls != null
+                                ? depCalls.implementsDelegate(config.openApiDelegateSuffix)
+                                : implementsApiDelegate(depContent, config.openApiDelegateSuffix)) {
                             // Dependent is an OpenAPI delegate impl — scan its content for declared operationId methods.
                             // callingMethods here are internal helpers (e.g. findAffiliateHandlerUsingTokenAndProcessRequest),
                             // NOT the operationId entry points. Scan the class to find which operationIds it declares.
                             Map<String, String> opMap = getOpenApiOperationMap();
-                            List<String> depDelegateInterfaces = extractDelegateInterfaces(depContent, config.openApiDelegateSuffix);
-                            debug("OpenAPI delegate interfaces in dependent " + depClassName + ": " + depDelegateInterfaces);
-                            // Use content-scanning overload so internal callingMethods also trigger operationId scan
-                            List<String> openApiEps = resolveOpenApiEndpoints(depDelegateInterfaces, callingMethods, opMap, depClassName, depContent);
+                            List<String> depDelegateInterfaces = depCalls != null
+                                    ? depCalls.delegateInterfaces(config.openApiDelegateSuffix)
+                                    : extractDelegateInterfaces(depContent, config.openApiDelegateSuffix);
+                            Trace.debug("OpenAPI delegate interfaces in dependent {}: {}", depClassName, depDelegateInterfaces);
+                            // Scan all declared methods so internal callingMethods also trigger the operationId scan
+                            List<String> depDeclaredMethods = depCalls != null
+                                    ? depCalls.declaredMethods()
+                                    : ImpactAnalyzer.extractDeclaredMethodNames(depContent);
+                            List<String> openApiEps = resolveOpenApiEndpoints(depDelegateInterfaces, callingMethods, opMap, depClassName, depDeclaredMethods);
                             if (!openApiEps.isEmpty()) {
                                 if (!entry.layers.contains("API/Web")) entry.layers.add("API/Web");
                                 if (multiTouched) {
@@ -828,8 +999,9 @@ public class ReviewEngine {
                                     entry.endpoints.addAll(openApiEps);
                                 }
                             }
-                        } else if (depContent.contains("@WebService") || depContent.contains("@WebMethod")) {
+                        } else if (hasMarker(depCalls, depContent, "@WebService") || hasMarker(depCalls, depContent, "@WebMethod")) {
                             if (!entry.layers.contains("SOAP")) entry.layers.add("SOAP");
+                            if (depContent == null) depContent = readFileCached(depPath);
                             List<String> soapOps = ImpactAnalyzer.extractSoapOperations(depContent, callingMethods);
                             if (multiTouched) {
                                 String via = " [via " + touchedMethods.stream().map(m -> m + "()").collect(Collectors.joining(", ")) + "]";
@@ -837,8 +1009,9 @@ public class ReviewEngine {
                             } else {
                                 entry.endpoints.addAll(soapOps);
                             }
-                        } else if (depContent.contains("@FeignClient")) {
+                        } else if (hasMarker(depCalls, depContent, "@FeignClient")) {
                             if (!entry.layers.contains("Feign Client")) entry.layers.add("Feign Client");
+                            if (depContent == null) depContent = readFileCached(depPath);
                             List<String> feignOps = ImpactAnalyzer.extractFeignOperations(depContent, callingMethods);
                             if (multiTouched) {
                                 String via = " [via " + touchedMethods.stream().map(m -> m + "()").collect(Collectors.joining(", ")) + "]";
@@ -846,8 +1019,9 @@ public class ReviewEngine {
                             } else {
                                 entry.endpoints.addAll(feignOps);
                             }
-                        } else if (depContent.contains("ManagedChannel") || depContent.contains("newBlockingStub")) {
+                        } else if (hasMarker(depCalls, depContent, "ManagedChannel") || hasMarker(depCalls, depContent, "newBlockingStub")) {
                             if (!entry.layers.contains("gRPC Client")) entry.layers.add("gRPC Client");
+                            if (depContent == null) depContent = readFileCached(depPath);
                             List<String> grpcOps = ImpactAnalyzer.extractGrpcOperations(depContent, callingMethods);
                             if (multiTouched) {
                                 String via = " [via " + touchedMethods.stream().map(m -> m + "()").collect(Collectors.joining(", ")) + "]";
@@ -855,9 +1029,9 @@ public class ReviewEngine {
                             } else {
                                 entry.endpoints.addAll(grpcOps);
                             }
-                        } else if (depContent.contains("implements Job") || depContent.contains("JobDetail")) {
+                        } else if (hasMarker(depCalls, depContent, "implements Job") || hasMarker(depCalls, depContent, "JobDetail")) {
                             if (!entry.layers.contains("Scheduled/Quartz")) entry.layers.add("Scheduled/Quartz");
-                        } else if (depContent.contains("@Service")) {
+                        } else if (hasMarker(depCalls, depContent, "@Service")) {
                             if (!entry.layers.contains("Service")) entry.layers.add("Service");
                         }
                     }
@@ -887,15 +1061,37 @@ public class ReviewEngine {
 
                 boolean isController = content.contains("@RestController") || content.contains("@Controller");
                 if (config.enableTransitiveApiDiscovery && !isController && !bfsTouchedMethods.isEmpty()) {
-                    debug("Attempting transitive controller discovery for " + classInfo.fqn);
+                    Trace.debug("Attempting transitive controller discovery for {}", classInfo.fqn);
                     Set<String> existingEndpoints = new HashSet<>(entry.endpoints);
 
-                    // Run BFS once with the full expanded set — produces a consolidated unique list.
-                    List<String> consolidatedEndpoints = discoverTransitiveControllerEndpoints(
-                            classInfo, bfsTouchedMethods,
-                            config.transitiveApiDiscoveryMaxDepth,
-                            config.transitiveApiDiscoveryMaxVisitedFiles,
-                            config.transitiveApiDiscoveryMaxControllers);
+                    // One BFS for all methods: each carries the touched methods it was reached from,
+                    // so the consolidated list and the per-method breakdown come from the same walk.
+                    Map<String, BitSet> touchedOrigins = new LinkedHashMap<>();
+                    for (int i = 0; i < touchedMethods.size(); i++) {
+                        BitSet origin = new BitSet();
+                        origin.set(i);
+                        touchedOrigins.put(touchedMethods.get(i), origin);
+                    }
+                    Map<String, BitSet> bfsOrigins = expandWithOrigins(null, content, touchedOrigins);
+                    // The structural fallback scans sources per query and cannot be precomputed;
+                    // every other configuration is answered exactly by the reachability index.
+                    EndpointReachIndex reachIndex = config.transitiveCallerStructuralFallback ? null : getEndpointReachIndex();
+                    TransitiveEndpoints reached;
+                    if (reachIndex != null) {
+                        reached = new TransitiveEndpoints();
+                        for (Map.Entry<String, BitSet> origin : bfsOrigins.entrySet()) {
+                            for (String ep : reachIndex.endpointsReaching(classInfo.fqn, origin.getKey())) {
+                                reached.add(ep, origin.getValue());
+                            }
+                        }
+                    } else {
+                        reached = RunMetrics.time("transitive bfs", () -> discoverTransitiveControllerEndpoints(
+                                classInfo, bfsOrigins,
+                                config.transitiveApiDiscoveryMaxDepth,
+                                config.transitiveApiDiscoveryMaxVisitedFiles,
+                                config.transitiveApiDiscoveryMaxControllers));
+                    }
+                    List<String> consolidatedEndpoints = reached.all();
 
                     if (!consolidatedEndpoints.isEmpty()) {
                         if (!entry.layers.contains("API/Web")) entry.layers.add("API/Web");
@@ -904,23 +1100,12 @@ public class ReviewEngine {
                         }
 
                         // Only produce per-method breakdown when there are multiple *directly* changed
-                        // methods and their individual BFS results are genuinely different.
+                        // methods and their endpoint sets are genuinely different.
                         if (touchedMethods.size() > 1) {
                             Map<String, List<String>> perMethod = new LinkedHashMap<>();
-                            for (String tm : touchedMethods) {
-                                // Find which bfs-expanded methods originated from this touched method.
-                                // Use the touched method itself + any bfs expansions that call it.
-                                List<String> tmBfsMethods = new ArrayList<>();
-                                tmBfsMethods.add(tm);
-                                for (String bm : bfsTouchedMethods) {
-                                    if (!bm.equals(tm) && !tmBfsMethods.contains(bm)) tmBfsMethods.add(bm);
-                                }
-                                List<String> tmEndpoints = discoverTransitiveControllerEndpoints(
-                                        classInfo, tmBfsMethods,
-                                        config.transitiveApiDiscoveryMaxDepth,
-                                        config.transitiveApiDiscoveryMaxVisitedFiles,
-                                        config.transitiveApiDiscoveryMaxControllers);
-                                if (!tmEndpoints.isEmpty()) perMethod.put(tm, tmEndpoints);
+                            for (int i = 0; i < touchedMethods.size(); i++) {
+                                List<String> tmEndpoints = reached.reachedFrom(i);
+                                if (!tmEndpoints.isEmpty()) perMethod.put(touchedMethods.get(i), tmEndpoints);
                             }
                             // Only use per-method view if at least two methods have different endpoint sets.
                             boolean allSame = perMethod.values().stream()
@@ -942,55 +1127,55 @@ public class ReviewEngine {
         return impact;
     }
 
-    private Map<String, List<String>> discoverTransitiveControllerEndpointsByMethod(JavaSymbolIndex.ClassInfo startClass, List<String> initialTouchedMethods, int maxDepth, int maxVisitedFiles, int maxControllers) {
-        Map<String, List<String>> result = new LinkedHashMap<>();
-        for (String touchedMethod : initialTouchedMethods) {
-            List<String> endpoints = discoverTransitiveControllerEndpoints(startClass, Collections.singletonList(touchedMethod), maxDepth, maxVisitedFiles, maxControllers);
-            if (!endpoints.isEmpty()) {
-                result.put(touchedMethod, endpoints);
-            }
-        }
-        return result;
-    }
-
-    private List<String> discoverTransitiveControllerEndpoints(JavaSymbolIndex.ClassInfo startClass, List<String> initialTouchedMethods, int maxDepth, int maxVisitedFiles, int maxControllers) {
+    /**
+     * Walks the reverse dependency graph upward from {@code startClass} in a single pass and
+     * collects the controller / OpenAPI endpoints that transitively call the impacted methods.
+     *
+     * <p>Every method carried through the walk has an origin mask: bit {@code i} is set when the
+     * method was reached from the {@code i}-th directly touched method. Callers and intra-class
+     * expansions inherit the union of the masks of the methods they call, and endpoints record
+     * the union of the masks of their handlers, so per-method attribution comes out of the same
+     * traversal. A class is only revisited for methods or origins it has not propagated yet.
+     */
+    private TransitiveEndpoints discoverTransitiveControllerEndpoints(JavaSymbolIndex.ClassInfo startClass, Map<String, BitSet> initialMethodOrigins, int maxDepth, int maxVisitedFiles, int maxControllers) {
+        TransitiveEndpoints result = new TransitiveEndpoints();
         if (startClass == null || reverseDependencyGraph == null || reverseDependencyGraph.isEmpty()) {
-            return Collections.emptyList();
+            return result;
         }
-        if (initialTouchedMethods == null || initialTouchedMethods.isEmpty()) {
-            return Collections.emptyList();
+        if (initialMethodOrigins == null || initialMethodOrigins.isEmpty()) {
+            return result;
         }
         maxDepth = Math.max(1, maxDepth);
         maxVisitedFiles = Math.max(1, maxVisitedFiles);
         maxControllers = Math.max(1, maxControllers);
 
         Queue<TransitiveNode> queue = new ArrayDeque<>();
-        Set<String> visitedFqns = new HashSet<>();
-        Set<String> visitedPaths = new HashSet<>();
-        List<String> endpoints = new ArrayList<>();
-
-        queue.add(new TransitiveNode(startClass.fqn, ImpactAnalyzer.filterValidMethodNames(initialTouchedMethods), 0, startClass.supertypeSimpleNames));
-        visitedFqns.add(startClass.fqn);
-
-        int visitedFiles = 0;
-        int foundControllers = 0;
+        // fqn → method → origins already propagated from that class
+        Map<String, Map<String, BitSet>> propagated = new HashMap<>();
+        Set<String> visitedFiles = new HashSet<>();
+        Set<String> foundControllers = new HashSet<>();
+
+        Map<String, BitSet> initial = new LinkedHashMap<>();
+        for (String method : ImpactAnalyzer.filterValidMethodNames(new ArrayList<>(initialMethodOrigins.keySet()))) {
+            initial.put(method, initialMethodOrigins.get(method));
+        }
+        propagated.put(startClass.fqn, new HashMap<>(initial));
+        queue.add(new TransitiveNode(startClass.fqn, initial, 0, startClass.supertypeSimpleNames));
 
-        while (!queue.isEmpty() && visitedFiles < maxVisitedFiles && foundControllers < maxControllers) {
+        while (!queue.isEmpty() && visitedFiles.size() < maxVisitedFiles && foundControllers.size() < maxControllers) {
             TransitiveNode node = queue.poll();
             if (node.depth >= maxDepth) continue;
+            RunMetrics.count("bfs nodes expanded");
 
-            if (node.impactedMethods == null || node.impactedMethods.isEmpty()) {
+            if (node.methodOrigins.isEmpty()) {
                 continue;
             }
+            List<String> impactedMethods = new ArrayList<>(node.methodOrigins.keySet());
 
             Set<String> dependents = getOrComputeDependents(node.fqn);
-            debug("Transitive: processing node " + node.fqn + " at depth " + node.depth + " with methods " + node.impactedMethods + ", found " + dependents.size() + " dependents");
+            Trace.debug(() -> "Transitive: processing node " + node.fqn + " at depth " + node.depth + " with methods " + impactedMethods + ", found " + dependents.size() + " dependents");
             for (String dependentFile : dependents) {
-                if (visitedFiles >= maxVisitedFiles || foundControllers >= maxControllers) break;
-                if (visitedPaths.contains(dependentFile)) {
-                    debug("Transitive: skipping already-visited " + dependentFile);
-                    continue;
-                }
+                if (visitedFiles.size() >= maxVisitedFiles || foundControllers.size() >= maxControllers) break;
 
                 Path depPath = Path.of(dependentFile);
                 String depFileName = depPath.getFileName().toString();
@@ -1002,11 +1187,22 @@ public class ReviewEngine {
                 if (depInfo == null) {
                     continue;
                 }
-                String depContent;
-                try {
-                    depContent = readFileCached(depPath);
-                } catch (IOException e) {
-                    continue;
+                String currentSimpleName = simpleNameFromFqn(node.fqn);
+                // Answer from the persisted call graph when it can reproduce getMethodsCalling exactly;
+                // the source is only read when the structural fallback has to scan it.
+                MethodCallGraph.FileCalls depCalls = symbolIndex.getFileCalls(depPath).orElse(null);
+                if (depCalls != null
+                        && (!depCalls.canResolve(currentSimpleName, node.fqn, node.supertypeSimpleNames)
+                            || (config.transitiveCallerStructuralFallback && !depCalls.mentionsAny(impactedMethods)))) {
+                    depCalls = null;
+                }
+                String depContent = null;
+                if (depCalls == null) {
+                    try {
+                        depContent = readFileCached(depPath);
+                    } catch (IOException e) {
+                        continue;
+                    }
                 }
 
                 // Only traverse/record endpoints if we can prove a call chain to the impacted methods.
@@ -1017,18 +1213,19 @@ public class ReviewEngine {
                 // find the exact impacted method name in the controller method body, otherwise the
                 // structural scan would return every controller method that injects the service and
                 // surface unrelated endpoints.
-                boolean isController = depContent.contains("@RestController") || depContent.contains("@Controller");
-                boolean isApiDelegate = implementsApiDelegate(depContent, config.openApiDelegateSuffix);
+                boolean isController = depCalls != null
+                        ? depCalls.isController()
+                        : depContent.contains("@RestController") || depContent.contains("@Controller");
+                boolean isApiDelegate = depCalls != null
+                        ? depCalls.implementsDelegate(config.openApiDelegateSuffix)
+                        : implementsApiDelegate(depContent, config.openApiDelegateSuffix);
                 // Only pure @RestController/@Controller is a terminal node for call-matching purposes.
                 // OpenAPI delegates are BOTH endpoint sources AND intermediate nodes: they emit OpenAPI
                 // endpoints AND get re-enqueued so @RestController callers above them are also found.
-                // So for getMethodsCalling / intra-class expansion / visitKey, treat delegates like
-                // intermediate nodes (confirmedDependent=true, expand callers, file-based visitKey).
-                String currentSimpleName = simpleNameFromFqn(node.fqn);
-                debug("Transitive: checking " + depFileName + " for calls to " + currentSimpleName + "." + node.impactedMethods);
-                List<String> callingMethods = ImpactAnalyzer.getMethodsCalling(depContent, currentSimpleName, node.fqn, node.supertypeSimpleNames, node.impactedMethods, false, !isController);
-                callingMethods = ImpactAnalyzer.filterValidMethodNames(callingMethods);
-                debug("Transitive: found calling methods in " + depFileName + ": " + callingMethods);
+                // So for getMethodsCalling / intra-class expansion, treat delegates like intermediate nodes.
+                Trace.debug("Transitive: checking {} for calls to {}.{}", depFileName, currentSimpleName, impactedMethods);
+                Map<String, BitSet> callingMethods = findCallersWithOrigins(depCalls, depContent, currentSimpleName, node, isController);
+                if (Trace.isEnabled()) Trace.debug("Transitive: found calling methods in " + depFileName + ": " + callingMethods.keySet());
 
                 // For non-controller nodes (including OpenAPI delegates), expand callingMethods to
                 // include any method in the same class that delegates to one of the found callers.
@@ -1036,9 +1233,8 @@ public class ReviewEngine {
                 // publicApi() calls privateHelper() — without expansion the BFS only tracks
                 // privateHelper, which no upstream file calls, so the chain would die here.
                 if (!isController && !callingMethods.isEmpty()) {
-                    List<String> expanded = ImpactAnalyzer.expandWithIntraClassCallers(depContent, callingMethods);
-                    expanded = ImpactAnalyzer.filterValidMethodNames(expanded);
-                    debug("Transitive: intra-class expansion in " + depFileName + ": " + callingMethods + " -> " + expanded);
+                    Map<String, BitSet> expanded = expandWithOrigins(depCalls, depContent, callingMethods);
+                    if (Trace.isEnabled()) Trace.debug("Transitive: intra-class expansion in " + depFileName + ": " + callingMethods.keySet() + " -> " + expanded.keySet());
                     callingMethods = expanded;
                 }
 
@@ -1046,72 +1242,263 @@ public class ReviewEngine {
                     continue;
                 }
 
-                // Mark visited only when we have a proven call-chain.
-                // For @RestController, use (fqn + methods) key so we can revisit with different calling methods.
-                // For delegates and intermediate nodes use file path — they will be re-enqueued via visitedFqns key.
-                String visitKey = isController ? (depInfo.fqn + ":" + callingMethods.toString()) : dependentFile;
-                if (!visitedPaths.add(visitKey)) {
-                    debug("Transitive: skipping already-processed " + depFileName + " with methods " + callingMethods);
+                // Continue only with the methods/origins this class has not propagated yet; the
+                // depth limit bounds the walk, this keeps each (class, method, origin) to one visit.
+                Map<String, BitSet> delta = newOrigins(propagated.computeIfAbsent(depInfo.fqn, k -> new HashMap<>()), callingMethods);
+                if (delta.isEmpty()) {
+                    if (Trace.isEnabled()) Trace.debug("Transitive: skipping already-processed " + depFileName + " with methods " + callingMethods.keySet());
                     continue;
                 }
 
-                visitedFiles++;
+                visitedFiles.add(dependentFile);
 
                 if (isController) {
-                    foundControllers++;
+                    foundControllers.add(dependentFile);
                     // Expand callingMethods to include annotated endpoint handlers that delegate
                     // to the found callers (e.g. @PostMapping createOrder() → private doCreate()
                     // → service.touchedMethod()). Without expansion, doCreate has no annotation
                     // and extractControllerEndpoints returns empty; createOrder would be missed.
-                    List<String> callerScope = ImpactAnalyzer.expandWithIntraClassCallers(depContent, callingMethods);
-                    List<String> controllerEndpoints = null;
-                    /*if (config.enableStructuralImpact && com.reviewer.analysis.TreeSitterAnalyzer.isAvailable()) {
-                        controllerEndpoints = com.reviewer.analysis.TreeSitterAnalyzer.extractImpactedEndpoints(depContent, depInfo.simpleName, callerScope);
-                    }*/
-                    if (controllerEndpoints == null || controllerEndpoints.isEmpty()) {
-                        controllerEndpoints = ImpactAnalyzer.extractControllerEndpoints(depContent, depInfo.simpleName, callerScope);
+                    Map<String, BitSet> callerScope = expandWithOrigins(depCalls, depContent, delta);
+                    for (Map.Entry<String, BitSet> handler : callerScope.entrySet()) {
+                        List<String> handlerMethod = Collections.singletonList(handler.getKey());
+                        List<String> controllerEndpoints = depCalls != null
+                                ? depCalls.controllerEndpoints(handlerMethod)
+                                : ImpactAnalyzer.extractControllerEndpoints(depContent, depInfo.simpleName, handlerMethod);
+                        for (String ep : controllerEndpoints) result.add(ep, handler.getValue());
                     }
-                    if (controllerEndpoints != null) endpoints.addAll(controllerEndpoints);
                 } else if (isApiDelegate) {
                     // Emit OpenAPI endpoints for this delegate — it IS an API entry point.
                     Map<String, String> opMap = getOpenApiOperationMap();
-                    List<String> depDelegateInterfaces = extractDelegateInterfaces(depContent, config.openApiDelegateSuffix);
-                    debug("Transitive: OpenAPI delegate " + depFileName + " interfaces=" + depDelegateInterfaces + " callingMethods=" + callingMethods);
+                    List<String> depDelegateInterfaces = depCalls != null
+                            ? depCalls.delegateInterfaces(config.openApiDelegateSuffix)
+                            : extractDelegateInterfaces(depContent, config.openApiDelegateSuffix);
+                    Trace.debug(() -> "Transitive: OpenAPI delegate " + depFileName + " interfaces=" + depDelegateInterfaces + " callingMethods=" + delta.keySet());
                     // callingMethods are internal methods of the delegate (e.g. findAffiliateHandlerUsingTokenAndProcessRequest).
                     // Scan the delegate class content to find the operationId method(s) it declares — those are the real entry points.
-                    List<String> openApiEps = resolveOpenApiEndpoints(depDelegateInterfaces, callingMethods, opMap, depInfo.simpleName, depContent);
-                    endpoints.addAll(openApiEps);
+                    List<String> declaredMethods = depCalls != null
+                            ? depCalls.declaredMethods()
+                            : ImpactAnalyzer.extractDeclaredMethodNames(depContent);
+                    for (Map.Entry<BitSet, List<String>> group : groupByOrigin(delta).entrySet()) {
+                        for (String ep : resolveOpenApiEndpoints(depDelegateInterfaces, group.getValue(), opMap, depInfo.simpleName, declaredMethods)) {
+                            result.add(ep, group.getKey());
+                        }
+                    }
                     // Also continue BFS traversal: the delegate can itself be called by @RestController
                     // methods (e.g. AffiliateController.processLTV2 → AffiliateRequestHandler.processLTFlow
                     // → GroupThreeFlow.processLead). Stopping here would miss those controller endpoints.
-                    // Expand callingMethods with intra-class callers so the BFS can traverse upward through
-                    // the delegate's public entry points (including the operationId methods themselves).
-                    List<String> expandedForBfs = ImpactAnalyzer.expandWithIntraClassCallers(depContent, callingMethods);
-                    expandedForBfs = ImpactAnalyzer.filterValidMethodNames(expandedForBfs);
-                    List<String> sortedMethods = new java.util.ArrayList<>(expandedForBfs);
-                    java.util.Collections.sort(sortedMethods);
-                    String fqnMethodsKey = depInfo.fqn + "|" + sortedMethods;
-                    if (visitedFqns.add(fqnMethodsKey)) {
-                        debug("Transitive: enqueuing OpenAPI delegate " + depFileName + " for further BFS with methods " + expandedForBfs);
-                        queue.add(new TransitiveNode(depInfo.fqn, expandedForBfs, node.depth + 1, depInfo.supertypeSimpleNames));
-                    }
+                    Trace.debug(() -> "Transitive: enqueuing OpenAPI delegate " + depFileName + " for further BFS with methods " + delta.keySet());
+                    queue.add(new TransitiveNode(depInfo.fqn, delta, node.depth + 1, depInfo.supertypeSimpleNames));
                 } else {
-                    // Key by (fqn + sorted touched methods) so the same class can be re-enqueued
-                    // when reached via a different call path carrying different methods.
-                    // E.g., if ClassA is reachable via methodX (path 1) AND methodY (path 2),
-                    // both paths must be explored or we lose the endpoints reachable via path 2.
-                    // The depth limit is the cycle-guard; the FQN-only key was too coarse.
-                    List<String> sortedMethods = new java.util.ArrayList<>(callingMethods);
-                    java.util.Collections.sort(sortedMethods);
-                    String fqnMethodsKey = depInfo.fqn + "|" + sortedMethods;
-                    if (!visitedFqns.add(fqnMethodsKey)) {
-                        continue;
-                    }
-                    queue.add(new TransitiveNode(depInfo.fqn, callingMethods, node.depth + 1, depInfo.supertypeSimpleNames));
+                    queue.add(new TransitiveNode(depInfo.fqn, delta, node.depth + 1, depInfo.supertypeSimpleNames));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the methods of a dependent that call the node's impacted methods and gives each the
+     * union of the origins of the methods it calls. The caller set is computed once for all
+     * impacted methods; a single caller → callee scan of the file then attributes it.
+     */
+    private Map<String, BitSet> findCallersWithOrigins(MethodCallGraph.FileCalls calls, String content,
+                                                       String targetSimpleName, TransitiveNode node, boolean isController) {
+        List<String> callers = ImpactAnalyzer.filterValidMethodNames(
+                findCallers(calls, content, targetSimpleName, node, new ArrayList<>(node.methodOrigins.keySet()), isController));
+        Map<String, BitSet> ordered = new LinkedHashMap<>();
+        if (callers.isEmpty()) return ordered;
+
+        BitSet all = new BitSet();
+        for (BitSet mask : node.methodOrigins.values()) all.or(mask);
+        Map<String, BitSet> origins = groupByOrigin(node.methodOrigins).size() > 1
+                ? calleeOrigins(calls, content, targetSimpleName, node)
+                : Collections.emptyMap();
+        // A caller the scan cannot tie to a callee, e.g. one found structurally, keeps every origin of the node
+        for (String caller : callers) ordered.put(caller, origins.getOrDefault(caller, all));
+        return ordered;
+    }
+
+    /**
+     * Callers of the node's impacted methods, each with the union of the origins of the
+     * impacted methods it calls: from the call graph's caller → callee edges when there is one,
+     * otherwise from the call tokens of each method body.
+     */
+    private static Map<String, BitSet> calleeOrigins(MethodCallGraph.FileCalls calls, String content,
+                                                     String targetSimpleName, TransitiveNode node) {
+        Map<String, BitSet> origins = new HashMap<>();
+        if (calls != null) {
+            Map<String, BitSet> byCallee = new HashMap<>();
+            for (Map.Entry<String, BitSet> e : node.methodOrigins.entrySet()) {
+                byCallee.computeIfAbsent(e.getKey(), k -> new BitSet()).or(e.getValue());
+                byCallee.computeIfAbsent(e.getKey().split("\\(")[0].trim(), k -> new BitSet()).or(e.getValue());
+            }
+            for (Map.Entry<String, Set<String>> edge : calls.callersByCallee(targetSimpleName, node.fqn, node.supertypeSimpleNames).entrySet()) {
+                BitSet mask = byCallee.get(edge.getKey());
+                if (mask == null) continue;
+                for (String caller : edge.getValue()) origins.computeIfAbsent(caller, k -> new BitSet()).or(mask);
+            }
+        } else {
+            for (Map.Entry<String, Set<String>> edge : ImpactAnalyzer.callsByMethod(content, node.methodOrigins.keySet()).entrySet()) {
+                BitSet mask = new BitSet();
+                for (String callee : edge.getValue()) mask.or(node.methodOrigins.get(callee));
+                origins.put(edge.getKey(), mask);
+            }
+        }
+        return origins;
+    }
+
+    private List<String> findCallers(MethodCallGraph.FileCalls calls, String content, String targetSimpleName,
+                                     TransitiveNode node, List<String> methods, boolean isController) {
+        if (calls != null) {
+            return calls.mentionsAny(methods)
+                    ? calls.callersOf(targetSimpleName, node.fqn, node.supertypeSimpleNames, methods)
+                    : Collections.emptyList();
+        }
+        return ImpactAnalyzer.getMethodsCalling(content, targetSimpleName, node.fqn, node.supertypeSimpleNames, methods, false, !isController);
+    }
+
+    /**
+     * Intra-class caller expansion that carries origins: each added method gets the union of
+     * the origins of the methods it (transitively) calls within the class. The calls between
+     * the expanded methods are scanned once and origins flow along them until nothing changes.
+     */
+    private static Map<String, BitSet> expandWithOrigins(MethodCallGraph.FileCalls calls, String content, Map<String, BitSet> origins) {
+        List<String> expanded = ImpactAnalyzer.filterValidMethodNames(
+                expandWithIntraClassCallers(calls, content, new ArrayList<>(origins.keySet())));
+        Map<String, BitSet> result = new LinkedHashMap<>();
+        for (String method : expanded) {
+            BitSet mask = origins.get(method);
+            result.put(method, mask != null ? mask : new BitSet());
+        }
+        if (origins.keySet().containsAll(result.keySet())) return result;
+
+        Map<String, Set<String>> callees = calls != null
+                ? calls.callsByMethod(expanded)
+                : ImpactAnalyzer.callsByMethod(content, expanded);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<String, BitSet> e : result.entrySet()) {
+                if (origins.containsKey(e.getKey())) continue;
+                BitSet mask = e.getValue();
+                int before = mask.cardinality();
+                for (String callee : callees.getOrDefault(e.getKey(), Collections.emptySet())) {
+                    if (!callee.equals(e.getKey())) mask.or(result.get(callee));
                 }
+                if (mask.cardinality() != before) changed = true;
             }
         }
-        return endpoints.stream().distinct().collect(Collectors.toList());
+        return result;
+    }
+
+    /** Groups methods by identical origin mask, preserving first-seen order. */
+    private static Map<BitSet, List<String>> groupByOrigin(Map<String, BitSet> origins) {
+        Map<BitSet, List<String>> groups = new LinkedHashMap<>();
+        for (Map.Entry<String, BitSet> e : origins.entrySet()) {
+            groups.computeIfAbsent(e.getValue(), k -> new ArrayList<>()).add(e.getKey());
+        }
+        return groups;
+    }
+
+    /**
+     * Merges {@code incoming} into {@code propagated} and returns only the part not seen
+     * before: methods reached for the first time, or known methods with new origin bits.
+     */
+    private static Map<String, BitSet> newOrigins(Map<String, BitSet> propagated, Map<String, BitSet> incoming) {
+        Map<String, BitSet> delta = new LinkedHashMap<>();
+        for (Map.Entry<String, BitSet> e : incoming.entrySet()) {
+            BitSet seen = propagated.get(e.getKey());
+            BitSet fresh = (BitSet) e.getValue().clone();
+            if (seen != null) fresh.andNot(seen);
+            if (seen == null || !fresh.isEmpty()) {
+                BitSet merged = (BitSet) fresh.clone();
+                if (seen != null) merged.or(seen);
+                propagated.put(e.getKey(), merged);
+                delta.put(e.getKey(), fresh);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Returns the endpoint reachability index for the current sources: the one kept in this JVM
+     * or in {@link #REACH_CACHE} when it was computed from identical inputs, otherwise that one
+     * patched with the sources changed since (or a new one when there is none). Returns null
+     * when there is no symbol index to build from.
+     */
+    private EndpointReachIndex getEndpointReachIndex() {
+        if (endpointReachIndexResolved) return endpointReachIndex;
+        endpointReachIndexResolved = true;
+        if (symbolIndex == null) return null;
+        Map<String, String> opMap = getOpenApiOperationMap();
+        String key = EndpointReachIndex.versionKey(opMap, config.openApiDelegateSuffix, config.useAstCallerDetection);
+        EndpointReachIndex previous = WARM_REACH_INDEXES.get(repoRoot);
+        if (previous == null || !previous.getVersionKey().equals(key)) previous = EndpointReachIndex.load(REACH_CACHE, repoRoot, key);
+        if (previous != null && previous.isUpToDate(symbolIndex.getFingerprints())) {
+            endpointReachIndex = previous;
+            WARM_REACH_INDEXES.put(repoRoot, endpointReachIndex);
+            Trace.debug(() -> "Endpoint reachability index loaded: " + endpointReachIndex.nodeCount() + " methods, " + endpointReachIndex.endpointCount() + " endpoints");
+            return endpointReachIndex;
+        }
+        long start = System.currentTimeMillis();
+        EndpointReachIndex base = previous;
+        endpointReachIndex = RunMetrics.time("endpoint reach index", () -> EndpointReachIndex.build(symbolIndex, this::getOrComputeDependents,
+                path -> isTestFile(new ChangedFile(path.toString(), path.getFileName().toString(), Collections.emptySet())),
+                opMap, config.openApiDelegateSuffix, key, base));
+        WARM_REACH_INDEXES.put(repoRoot, endpointReachIndex);
+        Trace.debug(() -> "Endpoint reachability index " + (base != null ? "updated" : "built") + " in " + (System.currentTimeMillis() - start) + " ms: " + endpointReachIndex.nodeCount() + " methods, " + endpointReachIndex.endpointCount() + " endpoints");
+        try {
+            endpointReachIndex.save(REACH_CACHE, repoRoot);
+        } catch (IOException e) {
+            Trace.debug(() -> "Failed to persist endpoint reachability index: " + e.getMessage());
+        }
+        return endpointReachIndex;
+    }
+
+    /**
+     * The persisted summary of a direct dependent, or null when there is none or it was
+     * extracted under a different class name than the one impact analysis reports.
+     */
+    private MethodCallGraph.FileCalls dependentSummary(Path depPath, String depClassName) {
+        if (symbolIndex == null) return null;
+        JavaSymbolIndex.ClassInfo depInfo = symbolIndex.getClassInfo(depPath).orElse(null);
+        if (depInfo == null || !depInfo.simpleName.equals(depClassName)) return null;
+        return symbolIndex.getFileCalls(depPath).orElse(null);
+    }
+
+    /**
+     * Callers of {@code method} in a dependent with the semantics of
+     * {@code getMethodsCalling(..., allowBroadFallback=true)}, answered from its summary.
+     * Returns null when only the source can decide: receivers the summary cannot resolve, the
+     * structural fallback, or a broad any-qualifier match.
+     */
+    private List<String> directCallersFromSummary(MethodCallGraph.FileCalls calls, JavaSymbolIndex.ClassInfo target, String method) {
+        if (!calls.canResolve(target.simpleName, target.fqn, target.supertypeSimpleNames)) return null;
+        List<String> methods = Collections.singletonList(method);
+        if (!calls.mentionsAny(methods)) {
+            return config.transitiveCallerStructuralFallback ? null : Collections.emptyList();
+        }
+        List<String> callers = calls.callersOf(target.simpleName, target.fqn, target.supertypeSimpleNames, methods);
+        return callers.isEmpty() && calls.hasQualifiedCall(method) ? null : callers;
+    }
+
+    /** {@code content.contains(marker)}, from the summary when there is one. */
+    private static boolean hasMarker(MethodCallGraph.FileCalls calls, String content, String marker) {
+        return calls != null ? calls.has(marker) : content.contains(marker);
+    }
+
+    /** Controller endpoints of the given handlers, from the summary when there is one. */
+    private static List<String> controllerEndpoints(MethodCallGraph.FileCalls calls, String content,
+                                                    String className, List<String> methods) {
+        if (calls == null) return ImpactAnalyzer.extractControllerEndpoints(content, className, methods);
+        return calls.controllerEndpoints(methods).stream().distinct().collect(Collectors.toList());
+    }
+
+    /** Intra-class caller expansion from the call graph when available, otherwise from the source. */
+    private static List<String> expandWithIntraClassCallers(MethodCallGraph.FileCalls calls, String content, List<String> methods) {
+        return calls != null
+                ? calls.expandWithIntraClassCallers(methods)
+                : ImpactAnalyzer.expandWithIntraClassCallers(content, methods);
     }
 
     private Set<String> getOrComputeDependents(String fqn) {
@@ -1125,6 +1512,13 @@ public class ReviewEngine {
         if (existing != null && !existing.isEmpty()) {
             return existing;
         }
+        if (existing == null && reverseGraph != null) {
+            Set<String> fromSnapshot = reverseGraph.dependentsOf(fqn);
+            if (!fromSnapshot.isEmpty()) {
+                reverseDependencyGraph.put(fqn, fromSnapshot);
+                return fromSnapshot;
+            }
+        }
         JavaSymbolIndex.ClassInfo targetInfo = null;
         for (JavaSymbolIndex.ClassInfo info : symbolIndex.getAllClasses()) {
             if (fqn.equals(info.fqn)) {
@@ -1170,6 +1564,28 @@ public class ReviewEngine {
         return "CALLS";
     }
 
+    /**
+     * {@link #classifyDependencyType(String, JavaSymbolIndex.ClassInfo)} answered from a
+     * dependent's summary and the identifier index, or null when a name is outside the index.
+     */
+    private String classifyDependencyType(MethodCallGraph.FileCalls calls, Path path, JavaSymbolIndex.ClassInfo target) {
+        if (calls.has("@Autowired") || calls.has("@Inject")) {
+            List<String> names = new ArrayList<>();
+            names.add(target.simpleName);
+            names.addAll(target.supertypeSimpleNames);
+            for (String name : names) {
+                Optional<Boolean> found = symbolIndex.containsWord(path, name);
+                if (found.isEmpty()) return null;
+                if (found.get()) return "INJECTED";
+            }
+        }
+        if (calls.inherits(target.simpleName)) return "EXTENDS";
+        for (String supertype : target.supertypeSimpleNames) {
+            if (calls.inherits(supertype)) return "EXTENDS";
+        }
+        return "CALLS";
+    }
+
     private static boolean containsWordToken(String content, String token) {
         if (token == null || token.isEmpty()) return false;
         Pattern p = Pattern.compile("\\b" + Pattern.quote(token) + "\\b");
@@ -1187,18 +1603,42 @@ public class ReviewEngine {
 
     private static class TransitiveNode {
         final String fqn;
-        final List<String> impactedMethods;
+        /** Impacted methods of this class → origin mask (bit i = reached from the i-th touched method). */
+        final Map<String, BitSet> methodOrigins;
         final int depth;
         /** Simple names of the target's supertypes/interfaces for interface-injection detection. */
         final List<String> supertypeSimpleNames;
-        TransitiveNode(String fqn, List<String> impactedMethods, int depth, List<String> supertypeSimpleNames) {
+        TransitiveNode(String fqn, Map<String, BitSet> methodOrigins, int depth, List<String> supertypeSimpleNames) {
             this.fqn = fqn;
-            this.impactedMethods = impactedMethods;
+            this.methodOrigins = methodOrigins;
             this.depth = depth;
             this.supertypeSimpleNames = supertypeSimpleNames != null ? supertypeSimpleNames : Collections.emptyList();
         }
     }
 
+    /** Endpoints found by the transitive BFS, each with the origin mask of the touched methods that reach it. */
+    private static final class TransitiveEndpoints {
+        private final Map<String, BitSet> origins = new LinkedHashMap<>();
+
+        void add(String endpoint, BitSet mask) {
+            origins.computeIfAbsent(endpoint, k -> new BitSet()).or(mask);
+        }
+
+        List<String> all() {
+            return new ArrayList<>(origins.keySet());
+        }
+
+        /** Endpoints reached from the {@code index}-th touched method, in discovery order. */
+        List<String> reachedFrom(int index) {
+            List<String> endpoints = new ArrayList<>();
+            for (Map.Entry<String, BitSet> e : origins.entrySet()) {
+                if (e.getValue().get(index)) endpoints.add(e.getKey());
+            }
+            return endpoints;
+        }
+    }
+
+
     private Optional<String> findApiWrapper(String content, Collection<String> existingCallers) {
         Pattern headerPattern = Pattern.compile("(?ms)(@[\\w]+Mapping\\b[^\\n]*?\\)\\s*)?(?:public|protected|private)[^{]*?(\\w+)\\s*\\([^)]*\\)\\s*\\{");
         Matcher matcher = headerPattern.matcher(content);
@@ -1224,159 +1664,79 @@ public class ReviewEngine {
             return;
         }
 
-        // Try loading the graph from the disk cache first (avoids re-reading all source files).
-        Map<String, Set<String>> cached = tryLoadGraphCache(changedFiles);
-        if (cached != null) {
-            reverseDependencyGraph = cached;
-            debug("Dependency graph loaded from disk cache.");
-            return;
+        // The snapshot covers every class in the repo, so one build serves any later staged set.
+        ReverseGraph cached = tryLoadGraphCache();
+        Map<String, String> fingerprints = symbolIndex.getFingerprints();
+        Set<String> changedSources = cached == null ? null : cached.changedSources(symbolIndex);
+        if (changedSources != null && changedSources.isEmpty()) {
+            reverseGraph = cached;
+            Trace.debug("Dependency graph loaded from disk cache.");
+        } else if (changedSources != null
+                && cached.patchedFileCount() + changedSources.size() <= Math.max(50, fingerprints.size() / 4)) {
+            // Patch only the edges touched by the edited files; the snapshot keeps its timestamp so
+            // the TTL still forces a periodic full rebuild, and a large patch forces one sooner.
+            symbolIndex.patchReverseDependencyGraph(cached, changedSources);
+            reverseGraph = cached;
+            Trace.debug("Dependency graph patched for {} changed source file(s).", changedSources.size());
+        } else {
+            Map<String, Set<String>> full = symbolIndex.buildReverseDependencyGraph(symbolIndex.getAllClasses(), null);
+            reverseGraph = ReverseGraph.of(full, symbolIndex, repoRoot, System.currentTimeMillis());
         }
+        reverseGraph.markUpToDate(symbolIndex);
+        saveGraphCache(reverseGraph);
 
-        List<JavaSymbolIndex.ClassInfo> targets = changedFiles.stream()
-            .map(this::resolveClassInfo)
-            .filter(Objects::nonNull)
-            .collect(Collectors.toList());
-
-        // Pass the in-memory content cache so JavaSymbolIndex does not re-read files
-        // that ReviewEngine has already loaded via readFileCached().
-        reverseDependencyGraph = symbolIndex.buildReverseDependencyGraph(targets, fileContentCache);
-
-        saveGraphCache(changedFiles, reverseDependencyGraph);
+        reverseDependencyGraph = new LinkedHashMap<>();
+        for (ChangedFile file : changedFiles) {
+            JavaSymbolIndex.ClassInfo info = resolveClassInfo(file);
+            if (info != null) {
+                reverseDependencyGraph.put(info.fqn, reverseGraph.dependentsOf(info.fqn));
+            }
+        }
     }
 
     // ── Disk cache helpers ─────────────────────────────────────────────────────────────────────
 
     /**
-     * Attempts to load the dependency graph from the disk cache.
-     * Returns null if the cache is missing, stale, or corrupt.
-     * Cache format (one entry per line):
-     *   V=1
-     *   KEY=<csv of path:mtime pairs for changed files>
-     *   DEP=<targetFqn>=<dep1|dep2|…>
+     * Loads the saved graph (see {@link ReverseGraph} for the files). Returns null if the cache is
+     * missing, expired, or corrupt. Staleness of individual files is handled by
+     * {@link ReverseGraph#changedSources} and patched rather than discarded.
      */
-    private Map<String, Set<String>> tryLoadGraphCache(List<ChangedFile> changedFiles) {
+    private ReverseGraph tryLoadGraphCache() {
         try {
             if (config.rebuildGraphCache) {
-                debug("Graph cache rebuild forced via flag — skipping cache.");
+                Trace.debug("Graph cache rebuild forced via flag — skipping cache.");
                 return null;
             }
-            if (!Files.exists(GRAPH_CACHE)) return null;
-            List<String> lines = Files.readAllLines(GRAPH_CACHE, java.nio.charset.StandardCharsets.UTF_8);
-            // V=3 format: line 0 = V=3, line 1 = TS=<epoch-ms>, line 2 = KEY=..., lines 3+ = DEP=...
-            // (V=2 caches used the wrong package for interface supertypes and must be discarded.)
-            if (lines.size() < 3) return null;
-            if (!"V=3".equals(lines.get(0))) return null;
-
-            String tsLine = lines.get(1);
-            if (!tsLine.startsWith("TS=")) return null;
-            long cachedAt = Long.parseLong(tsLine.substring(3));
+            ReverseGraph graph = ReverseGraph.load(CACHE_DIR, repoRoot);
+            if (graph == null) return null;
+
+            long cachedAt = graph.getCreatedAtMillis();
             long ttlMs = (long) config.graphCacheTtlHours * 3_600_000L;
             if (System.currentTimeMillis() - cachedAt > ttlMs) {
-                debug("Graph cache expired (age > " + config.graphCacheTtlHours + "h) — rebuilding.");
-                return null;
-            }
-
-            // Invalidate if any .java file in the repo is newer than the cache timestamp.
-            // This catches the case where a new caller was added or an existing caller was
-            // modified between runs — their dependency edges would be missing from the cache.
-            if (anySourceNewerThan(cachedAt)) {
-                debug("Graph cache stale — a source file is newer than the cache, rebuilding.");
+                Trace.debug("Graph cache expired (age > {}h) — rebuilding.", config.graphCacheTtlHours);
                 return null;
             }
 
-            String expectedKey = "KEY=" + buildCacheKey(changedFiles);
-            if (!expectedKey.equals(lines.get(2))) return null;
-
-            Map<String, Set<String>> graph = new LinkedHashMap<>();
-            for (int i = 3; i < lines.size(); i++) {
-                String line = lines.get(i);
-                if (!line.startsWith("DEP=")) continue;
-                String rest = line.substring(4);
-                int eq = rest.indexOf('=');
-                if (eq == -1) continue;
-                String fqn = rest.substring(0, eq);
-                String pathsPart = rest.substring(eq + 1);
-                Set<String> paths = new LinkedHashSet<>();
-                if (!pathsPart.isEmpty()) {
-                    for (String p : pathsPart.split("\\|")) {
-                        if (!p.isEmpty()) paths.add(p);
-                    }
-                }
-                graph.put(fqn, paths);
-            }
-            debug("Graph cache hit — key: " + expectedKey);
             return graph;
         } catch (Exception e) {
-            debug("Graph cache load failed: " + e.getMessage());
+            Trace.debug(() -> "Graph cache load failed: " + e.getMessage());
             return null;
         }
     }
 
-    private void saveGraphCache(List<ChangedFile> changedFiles, Map<String, Set<String>> graph) {
+    private void saveGraphCache(ReverseGraph graph) {
         try {
-            Files.createDirectories(CACHE_DIR);
-            StringBuilder sb = new StringBuilder();
-            sb.append("V=3\n");
-            sb.append("TS=").append(System.currentTimeMillis()).append('\n');
-            sb.append("KEY=").append(buildCacheKey(changedFiles)).append('\n');
-            for (Map.Entry<String, Set<String>> entry : graph.entrySet()) {
-                sb.append("DEP=").append(entry.getKey()).append('=');
-                sb.append(String.join("|", entry.getValue()));
-                sb.append('\n');
-            }
-            Files.writeString(GRAPH_CACHE, sb.toString(), java.nio.charset.StandardCharsets.UTF_8);
-            debug("Graph cache saved (TTL=" + config.graphCacheTtlHours + "h).");
+            if (graph.save(CACHE_DIR)) Trace.debug("Graph cache saved (TTL={}h).", config.graphCacheTtlHours);
         } catch (Exception e) {
-            debug("Graph cache save failed: " + e.getMessage());
+            System.err.println("[WARN] Failed to save dependency graph cache: " + e.getMessage());
         }
     }
 
-    /**
-     * Returns true if any .java file under the repo root has a last-modified time
-     * strictly newer than {@code cachedAtMs}. Skips target/, build/, .git/ directories.
-     * Short-circuits on the first match to keep overhead minimal.
-     */
-    private boolean anySourceNewerThan(long cachedAtMs) {
-        try (Stream<Path> walk = Files.walk(repoRoot)) {
-            return walk.filter(Files::isRegularFile)
-                       .filter(p -> p.toString().endsWith(".java"))
-                       .filter(p -> {
-                           String s = p.toString().replace('\\', '/');
-                           return !s.contains("/target/") && !s.contains("/build/") && !s.contains("/.git/");
-                       })
-                       .anyMatch(p -> {
-                           try {
-                               return Files.getLastModifiedTime(p).toMillis() > cachedAtMs;
-                           } catch (IOException e) {
-                               return false;
-                           }
-                       });
-        } catch (IOException e) {
-            debug("anySourceNewerThan walk failed: " + e.getMessage());
-            return true;
-        }
-    }
-
-    private String buildCacheKey(List<ChangedFile> changedFiles) {
-        return changedFiles.stream()
-            .sorted(Comparator.comparing(f -> f.path))
-            .map(f -> {
-                try {
-                    Path p = resolvePath(f.path);
-                    long mtime = (p != null && Files.exists(p))
-                        ? Files.getLastModifiedTime(p).toMillis() : 0L;
-                    return f.path + ":" + mtime;
-                } catch (IOException e) {
-                    return f.path + ":0";
-                }
-            })
-            .collect(Collectors.joining(","));
-    }
-
     private void ensureSymbolIndex() {
         if (symbolIndex != null) return;
         try {
-            symbolIndex = JavaSymbolIndex.build(repoRoot);
+            symbolIndex = JavaSymbolIndex.build(repoRoot, CACHE_DIR, WARM_SYMBOL_INDEXES.get(repoRoot));
+            WARM_SYMBOL_INDEXES.put(repoRoot, symbolIndex);
         } catch (IOException e) {
             System.err.println("[WARN] Failed to build Java symbol index: " + e.getMessage());
             symbolIndex = null;
@@ -1413,6 +1773,7 @@ public class ReviewEngine {
 
     private List<String> runGit(String... cmd) {
         Process p = null;
+        RunMetrics.count("git processes");
         try {
             p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
             List<String> lines;
@@ -1464,15 +1825,6 @@ public class ReviewEngine {
         }
     }
 
-    private static class LineRange {
-        int startLine;
-        int endLine;
-        LineRange(int startLine, int endLine) {
-            this.startLine = startLine;
-            this.endLine = endLine;
-        }
-    }
-
     private String generateHtmlReport(List<ChangedFile> files) {
         return HtmlReportGenerator.generate(files, findings, impactEntries, testingStatusByFile, currentBranch, totalStagedFiles, config, reverseDependencyGraph);
     }
@@ -0,0 +1,126 @@
+package com.reviewer.git;
+
+import com.reviewer.util.RunMetrics;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@code git cat-file --batch} process kept open across requests: each {@link #read} writes
+ * all of its object names at once and reads the contents back to back, so a batch of any size
+ * costs one pipe round trip, and the process is started once however many batches follow.
+ * Used for blob contents when {@link GitRepository} cannot read the repository itself.
+ */
+public final class CatFileBatch implements Closeable {
+
+    private final Process process;
+    private final OutputStream requests;
+    private final InputStream responses;
+
+    private CatFileBatch(Process process) {
+        this.process = process;
+        this.requests = process.getOutputStream();
+        this.responses = new BufferedInputStream(process.getInputStream(), 1 << 16);
+    }
+
+    /** Starts {@code git cat-file --batch} in {@code workTree}. */
+    public static CatFileBatch start(Path workTree) throws IOException {
+        RunMetrics.count("git processes");
+        Process p = new ProcessBuilder("git", "cat-file", "--batch")
+                .directory(workTree.toFile())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        return new CatFileBatch(p);
+    }
+
+    /**
+     * Contents of the named objects, in request order, with null for names git cannot resolve.
+     * A name is anything {@code git rev-parse} accepts, such as a blob id or {@code :path} for
+     * the staged version of a repository-relative path.
+     */
+    public synchronized List<byte[]> read(List<String> names) throws IOException {
+        List<String> sent = new ArrayList<>(names.size());
+        for (String name : names) {
+            // One request per line, so a name with a line break cannot be asked for
+            if (name.indexOf('\n') < 0 && name.indexOf('\r') < 0) sent.add(name);
+        }
+        // Ask from another thread: git answers while the requests are still being written and
+        // would stop reading them once its output pipe is full
+        IOException[] writeFailure = new IOException[1];
+        Thread writer = new Thread(() -> {
+            try {
+                for (String name : sent) requests.write((name + "\n").getBytes(StandardCharsets.UTF_8));
+                requests.flush();
+            } catch (IOException e) {
+                writeFailure[0] = e;
+            }
+        }, "git-cat-file-requests");
+        writer.setDaemon(true);
+        writer.start();
+
+        List<byte[]> out = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0) {
+                out.add(null);
+                continue;
+            }
+            String header = readLine();
+            if (header == null) throw new IOException("git cat-file exited early", writeFailure[0]);
+            // "<id> <type> <size>", or "<name> missing" / "<name> ambiguous"
+            if (header.endsWith(" missing") || header.endsWith(" ambiguous")) {
+                out.add(null);
+                continue;
+            }
+            int space = header.lastIndexOf(' ');
+            int size;
+            try {
+                size = Integer.parseInt(header.substring(space + 1));
+            } catch (NumberFormatException e) {
+                throw new IOException("Unexpected git cat-file output: " + header);
+            }
+            byte[] content = responses.readNBytes(size);
+            if (content.length != size || responses.read() != '\n') throw new IOException("Truncated git cat-file output for " + name);
+            out.add(content);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeFailure[0] != null) throw writeFailure[0];
+        return out;
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int c;
+        while ((c = responses.read()) != '\n') {
+            if (c < 0) return null;
+            line.write(c);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /** Ends the request stream, which makes git exit, and waits briefly for it. */
+    @Override
+    public synchronized void close() {
+        try {
+            requests.close();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) process.destroyForcibly();
+        } catch (IOException e) {
+            process.destroyForcibly();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.reviewer.git;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parsed {@code .git/index} (versions 2 to 4) and its cache-tree extension, which records the
+ * tree id of every directory the index still knows to be unchanged since the last write-tree.
+ *
+ * <p>Entries are located up front but decoded on demand: a staged-change scan only looks at the
+ * directories the cache tree cannot vouch for, and jumps over the rest with {@link #endOfDir},
+ * so an index of tens of thousands of entries costs little more than reading the file.
+ *
+ * <p>Split indexes ({@code link} extension) and sparse-index directory entries are not read;
+ * the constructor throws so that the caller falls back to the git CLI.
+ */
+final class GitIndex {
+
+    static final int MODE_TREE = 0040000;
+    static final int MODE_GITLINK = 0160000;
+
+    private static final int SIGNATURE = 0x44495243; // "DIRC"
+    private static final int EXT_TREE = 0x54524545; // "TREE"
+    private static final int EXT_LINK = 0x6c696e6b; // "link"
+    private static final int EXT_SDIR = 0x73646972; // "sdir"
+
+    private final byte[] data;
+    private final int count;
+    private final int[] entryOffset;
+    /** Where each entry's path bytes are: in {@link #data}, or for version 4 in a buffer of decoded paths. */
+    private final byte[] paths;
+    private final int[] pathStart;
+    private final int[] pathLength;
+    /** Directory path ("" for the root) → offset of its tree id in {@link #data}, for the directories the cache tree has as valid. */
+    private final Map<String, Integer> cachedTrees = new HashMap<>();
+
+    GitIndex(Path file) throws IOException {
+        byte[] b = Files.readAllBytes(file);
+        if (b.length < 12 + 20 || PackFile.readInt(b, 0) != SIGNATURE) throw new IOException("Not a git index: " + file);
+        int version = PackFile.readInt(b, 4);
+        if (version < 2 || version > 4) throw new IOException("Unsupported index version " + version);
+        data = b;
+        count = PackFile.readInt(b, 8);
+        entryOffset = new int[count];
+        pathStart = new int[count];
+        pathLength = new int[count];
+        byte[] decoded = version == 4 ? new byte[Math.max(64, count * 32)] : null;
+        int decodedLength = 0;
+        int pos = 12;
+        for (int i = 0; i < count; i++) {
+            int start = pos;
+            entryOffset[i] = start;
+            if ((PackFile.readInt(b, start + 24) & 0170000) == MODE_TREE) {
+                throw new IOException("Sparse index directory entries are not supported");
+            }
+            int flags = ((b[start + 60] & 0xff) << 8) | (b[start + 61] & 0xff);
+            pos = start + 62;
+            if ((flags & 0x4000) != 0) {
+                if (version < 3) throw new IOException("Extended index flags in a version 2 index");
+                pos += 2;
+            }
+            if (version == 4) {
+                // Prefix-compressed: drop N bytes from the previous path, then append the suffix
+                int c = b[pos++] & 0xff;
+                int strip = c & 0x7f;
+                while ((c & 0x80) != 0) {
+                    c = b[pos++] & 0xff;
+                    strip = ((strip + 1) << 7) | (c & 0x7f);
+                }
+                int nul = ObjectStore.indexOf(b, (byte) 0, pos);
+                int keep = i == 0 ? 0 : pathLength[i - 1] - strip;
+                int length = keep + nul - pos;
+                if (decodedLength + length > decoded.length) decoded = Arrays.copyOf(decoded, Math.max(decoded.length * 2, decodedLength + length));
+                if (keep > 0) System.arraycopy(decoded, pathStart[i - 1], decoded, decodedLength, keep);
+                System.arraycopy(b, pos, decoded, decodedLength + keep, nul - pos);
+                pathStart[i] = decodedLength;
+                pathLength[i] = length;
+                decodedLength += length;
+                pos = nul + 1;
+            } else {
+                int length = flags & 0xfff;
+                // Names of 0xfff bytes or more only record that they are long
+                if (length == 0xfff) length = ObjectStore.indexOf(b, (byte) 0, pos + 0xfff) - pos;
+                pathStart[i] = pos;
+                pathLength[i] = length;
+                pos = start + ((pos - start + length + 8) & ~7);
+            }
+        }
+        paths = decoded != null ? decoded : b;
+
+        int end = b.length - 20;
+        while (pos + 8 <= end) {
+            int signature = PackFile.readInt(b, pos);
+            int size = PackFile.readInt(b, pos + 4);
+            int ext = pos + 8;
+            if (signature == EXT_LINK) throw new IOException("Split index is not supported");
+            if (signature == EXT_SDIR) throw new IOException("Sparse index is not supported");
+            if (signature == EXT_TREE) readCacheTree(b, new int[] { ext }, ext + size, "");
+            pos = ext + size;
+        }
+    }
+
+    /** One cache-tree node and, recursively, its subtrees. */
+    private void readCacheTree(byte[] b, int[] pos, int limit, String parent) throws IOException {
+        int nul = ObjectStore.indexOf(b, (byte) 0, pos[0]);
+        if (nul < 0 || nul >= limit) throw new IOException("Corrupt cache-tree extension");
+        String name = new String(b, pos[0], nul - pos[0], StandardCharsets.UTF_8);
+        String path = parent.isEmpty() ? name : parent + "/" + name;
+        int newline = ObjectStore.indexOf(b, (byte) '\n', nul + 1);
+        String[] counts = new String(b, nul + 1, newline - nul - 1, StandardCharsets.US_ASCII).split(" ");
+        int entryCount = Integer.parseInt(counts[0]);
+        int subtrees = Integer.parseInt(counts[1]);
+        pos[0] = newline + 1;
+        if (entryCount >= 0) {
+            cachedTrees.put(path, pos[0]);
+            pos[0] += 20;
+        }
+        for (int i = 0; i < subtrees; i++) readCacheTree(b, pos, limit, path);
+    }
+
+    /** Number of entries, all stages included, in index (path byte) order. */
+    int size() {
+        return count;
+    }
+
+    String path(int i) {
+        return new String(paths, pathStart[i], pathLength[i], StandardCharsets.UTF_8);
+    }
+
+    int mode(int i) {
+        return PackFile.readInt(data, entryOffset[i] + 24);
+    }
+
+    String id(int i) {
+        return ObjectStore.hex(data, entryOffset[i] + 40);
+    }
+
+    /** Seconds part of the work-tree file's modification time when the entry was last refreshed. */
+    long mtimeSeconds(int i) {
+        return PackFile.readInt(data, entryOffset[i] + 8) & 0xffffffffL;
+    }
+
+    /** Nanoseconds part of that time; 0 when git was built without nanosecond timestamps. */
+    int mtimeNanos(int i) {
+        return PackFile.readInt(data, entryOffset[i] + 12);
+    }
+
+    /** Work-tree file size when the entry was last refreshed, truncated to 32 bits. */
+    long fileSize(int i) {
+        return PackFile.readInt(data, entryOffset[i] + 36) & 0xffffffffL;
+    }
+
+    /** 0 for a normal entry, 1 to 3 for the sides of a conflict. */
+    int stage(int i) {
+        return (data[entryOffset[i] + 60] >> 4) & 3;
+    }
+
+    /** Whether the entry was added with {@code git add -N}; it is in the index but not staged. */
+    boolean intentToAdd(int i) {
+        int at = entryOffset[i];
+        return (data[at + 60] & 0x40) != 0 && (data[at + 62] & 0x20) != 0;
+    }
+
+    /** Tree id the cache tree records for {@code dir} ("" for the root), or null when it is not valid. */
+    String cachedTree(String dir) {
+        Integer at = cachedTrees.get(dir);
+        return at == null ? null : ObjectStore.hex(data, at);
+    }
+
+    /** Index of the first entry from {@code from} on that is not inside directory {@code dir}. */
+    int endOfDir(String dir, int from) {
+        byte[] prefix = (dir + "/").getBytes(StandardCharsets.UTF_8);
+        int lo = from;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparePrefix(mid, prefix) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Negative or zero when entry {@code i} sorts before or inside {@code prefix}, positive when after it. */
+    private int comparePrefix(int i, byte[] prefix) {
+        int start = pathStart[i];
+        int n = Math.min(pathLength[i], prefix.length);
+        for (int k = 0; k < n; k++) {
+            int d = (paths[start + k] & 0xff) - (prefix[k] & 0xff);
+            if (d != 0) return d;
+        }
+        return 0;
+    }
+}
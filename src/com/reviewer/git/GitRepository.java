@@ -0,0 +1,591 @@
+package com.reviewer.git;
+
+import com.reviewer.util.Trace;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * In-process reader for the parts of a git repository a pre-commit review needs: the work tree
+ * root, the current branch, the staged changes (HEAD tree against the index) and blob contents.
+ * It answers what {@code rev-parse --show-toplevel}, {@code rev-parse --abbrev-ref HEAD},
+ * {@code diff --cached --name-status} and {@code cat-file blob} would, without starting a
+ * process, which on Windows costs tens of milliseconds per spawn.
+ *
+ * <p>Only the common layout is read: a {@code .git} directory or a {@code gitdir:} file (linked
+ * work trees and submodules), SHA-1 objects, loose refs and {@code packed-refs}, and index
+ * versions 2 to 4. {@link #open} returns null for anything else (SHA-256 or reftable
+ * repositories, split or sparse indexes, {@code core.worktree}, {@code GIT_DIR}
+ * pointing elsewhere), and the methods throw {@link IOException} when the repository turns out to
+ * be unreadable; callers then fall back to the git CLI. {@link #configure} turns native reads off
+ * altogether.
+ *
+ * <p>Renames are detected like {@code git diff}'s default: exact renames by blob id, then pairs
+ * with at least 50% similar content, scored here by the bytes of lines the two files share.
+ */
+public final class GitRepository implements Closeable {
+
+    private static volatile boolean enabled = true;
+
+    private final Path workTree;
+    private final Path gitDir;
+    private final Path commonDir;
+    private final Path indexFile;
+    private ObjectStore objects;
+
+    /** A path whose index entry differs from HEAD, as {@code git diff --cached --name-status} reports it. */
+    public static final class StagedChange {
+        /** 'A', 'M' or 'R'. */
+        public final char status;
+        public final String path;
+        /** The HEAD path for a rename, otherwise {@link #path} or null when added. */
+        public final String oldPath;
+        /** HEAD blob id, or null when added. */
+        public final String oldId;
+        public final String newId;
+
+        StagedChange(char status, String path, String oldPath, String oldId, String newId) {
+            this.status = status;
+            this.path = path;
+            this.oldPath = oldPath;
+            this.oldId = oldId;
+            this.newId = newId;
+        }
+    }
+
+    /** A stage-0 index entry, as {@code git ls-files -s} reports it. */
+    public static final class IndexEntry {
+        public final String path;
+        public final String id;
+
+        IndexEntry(String path, String id) {
+            this.path = path;
+            this.id = id;
+        }
+    }
+
+    private GitRepository(Path workTree, Path gitDir, Path commonDir, Path indexFile) {
+        this.workTree = workTree;
+        this.gitDir = gitDir;
+        this.commonDir = commonDir;
+        this.indexFile = indexFile;
+    }
+
+    /** Turns native reads on or off; when off {@link #open} always returns null. */
+    public static void configure(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * The repository whose work tree contains {@code start}, or null when there is none, native
+     * reads are off, or the repository uses a layout this reader does not handle.
+     */
+    public static GitRepository open(Path start) {
+        if (!enabled) return null;
+        try {
+            return discover(start.toAbsolutePath().normalize());
+        } catch (IOException | RuntimeException e) {
+            Trace.debug("Native git reader not used: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static GitRepository discover(Path start) throws IOException {
+        for (String var : new String[] { "GIT_WORK_TREE", "GIT_OBJECT_DIRECTORY", "GIT_ALTERNATE_OBJECT_DIRECTORIES", "GIT_COMMON_DIR" }) {
+            if (System.getenv(var) != null) throw new IOException(var + " is set");
+        }
+        for (Path dir = start; dir != null; dir = dir.getParent()) {
+            Path dotGit = dir.resolve(".git");
+            Path gitDir;
+            if (Files.isDirectory(dotGit)) {
+                gitDir = dotGit;
+            } else if (Files.isRegularFile(dotGit)) {
+                String line = Files.readString(dotGit, StandardCharsets.UTF_8).trim();
+                if (!line.startsWith("gitdir:")) throw new IOException("Unrecognised .git file in " + dir);
+                gitDir = dir.resolve(line.substring("gitdir:".length()).trim()).normalize();
+            } else {
+                continue;
+            }
+            if (!Files.isRegularFile(gitDir.resolve("HEAD"))) continue;
+            Path commonDir = gitDir;
+            Path commonDirFile = gitDir.resolve("commondir");
+            if (Files.isRegularFile(commonDirFile)) {
+                commonDir = gitDir.resolve(Files.readString(commonDirFile, StandardCharsets.UTF_8).trim()).normalize();
+            }
+            checkConfig(commonDir.resolve("config"));
+            // Relative values of these are relative to the directory git ran the hook in
+            Path cwd = Path.of("").toAbsolutePath();
+            String envGitDir = System.getenv("GIT_DIR");
+            if (envGitDir != null && !Files.isSameFile(cwd.resolve(envGitDir), gitDir)) throw new IOException("GIT_DIR points elsewhere");
+            // Commit hooks run against GIT_INDEX_FILE, which is a temporary index for 'git commit <paths>'
+            String envIndex = System.getenv("GIT_INDEX_FILE");
+            Path indexFile = envIndex != null ? cwd.resolve(envIndex).normalize() : gitDir.resolve("index");
+            return new GitRepository(dir.toRealPath(), gitDir, commonDir, indexFile);
+        }
+        throw new IOException("Not inside a git work tree: " + start);
+    }
+
+    /** Rejects repository formats and settings this reader does not implement. */
+    private static void checkConfig(Path config) throws IOException {
+        if (!Files.exists(config)) return;
+        String section = "";
+        for (String raw : Files.readAllLines(config, StandardCharsets.UTF_8)) {
+            String line = raw.trim();
+            if (line.startsWith("[")) {
+                section = line.toLowerCase(Locale.ROOT);
+                continue;
+            }
+            String setting = line.replace(" ", "").replace("\t", "").toLowerCase(Locale.ROOT);
+            if (section.startsWith("[extensions")
+                    && (setting.startsWith("objectformat=") && !setting.equals("objectformat=sha1")
+                        || setting.startsWith("refstorage=") && !setting.equals("refstorage=files"))) {
+                throw new IOException("Unsupported repository extension: " + line);
+            }
+            if (section.startsWith("[core") && setting.startsWith("worktree=")) {
+                throw new IOException("Unsupported core setting: " + line);
+            }
+        }
+    }
+
+    public Path workTree() {
+        return workTree;
+    }
+
+    /** The branch HEAD points at, or "HEAD" when it is detached, like {@code rev-parse --abbrev-ref HEAD}. */
+    public String branch() throws IOException {
+        String head = Files.readString(gitDir.resolve("HEAD"), StandardCharsets.UTF_8).trim();
+        if (!head.startsWith("ref:")) return "HEAD";
+        String ref = head.substring(4).trim();
+        return ref.startsWith("refs/heads/") ? ref.substring("refs/heads/".length()) : ref;
+    }
+
+    /** Id of the commit HEAD resolves to, or null on an unborn branch. */
+    String headCommit() throws IOException {
+        String value = Files.readString(gitDir.resolve("HEAD"), StandardCharsets.UTF_8).trim();
+        for (int depth = 0; depth < 10; depth++) {
+            if (!value.startsWith("ref:")) return value;
+            String ref = value.substring(4).trim();
+            value = readRef(ref);
+            if (value == null) return null;
+        }
+        throw new IOException("Symbolic ref loop at HEAD");
+    }
+
+    private String readRef(String ref) throws IOException {
+        // Per-work-tree refs (HEAD, refs/bisect, ...) live in the git dir, branches in the common dir
+        for (Path base : new Path[] { gitDir, commonDir }) {
+            Path loose = base.resolve(ref);
+            if (Files.isRegularFile(loose)) return Files.readString(loose, StandardCharsets.UTF_8).trim();
+        }
+        Path packed = commonDir.resolve("packed-refs");
+        if (Files.exists(packed)) {
+            for (String line : Files.readAllLines(packed, StandardCharsets.UTF_8)) {
+                if (line.isEmpty() || line.charAt(0) == '#' || line.charAt(0) == '^') continue;
+                int space = line.indexOf(' ');
+                if (space == 40 && line.substring(41).equals(ref)) return line.substring(0, 40);
+            }
+        }
+        return null;
+    }
+
+    /** Stage-0 index entries in index order, like {@code git ls-files -s} without the unmerged stages. */
+    public List<IndexEntry> indexEntries() throws IOException {
+        GitIndex index = new GitIndex(indexFile);
+        List<IndexEntry> out = new ArrayList<>(index.size());
+        for (int i = 0; i < index.size(); i++) {
+            if (index.stage(i) == 0) out.add(new IndexEntry(index.path(i), index.id(i)));
+        }
+        return out;
+    }
+
+    /**
+     * Added, modified and renamed paths between HEAD and the index, in path order: what
+     * {@code git diff --cached --diff-filter=ACMR} lists. Directories the index's cache tree
+     * records with the same tree id as HEAD are skipped without being read.
+     */
+    public List<StagedChange> stagedChanges() throws IOException {
+        GitIndex index = new GitIndex(indexFile);
+        Map<String, TreeEntry> head = new HashMap<>();
+        Set<String> cleanDirs = new HashSet<>();
+        String commit = headCommit();
+        if (commit != null) {
+            ObjectStore.RawObject c = objects().read(commit);
+            if (c.type != PackFile.OBJ_COMMIT) throw new IOException("HEAD is not a commit");
+            String text = new String(c.data, 0, Math.min(c.data.length, 64), StandardCharsets.US_ASCII);
+            if (!text.startsWith("tree ")) throw new IOException("Malformed commit " + commit);
+            if (text.substring(5, 45).equals(index.cachedTree(""))) return new ArrayList<>();
+            walkTree(text.substring(5, 45), "", index, head, cleanDirs);
+        }
+
+        Set<String> unmerged = new HashSet<>();
+        List<StagedChange> added = new ArrayList<>();
+        List<StagedChange> changes = new ArrayList<>();
+        Set<String> inIndex = new HashSet<>();
+        for (int i = 0; i < index.size(); ) {
+            String path = index.path(i);
+            String cleanDir = cleanDirOf(path, cleanDirs);
+            if (cleanDir != null) {
+                i = index.endOfDir(cleanDir, i);
+                continue;
+            }
+            if (index.stage(i) != 0) {
+                unmerged.add(path);
+            } else if (!index.intentToAdd(i)) {
+                inIndex.add(path);
+                String id = index.id(i);
+                int mode = index.mode(i);
+                TreeEntry old = head.get(path);
+                if (old == null) {
+                    added.add(new StagedChange('A', path, null, null, id));
+                } else if (!old.id.equals(id) || old.mode != mode) {
+                    // A type change (file ↔ symlink ↔ submodule) is 'T', which the filter leaves out
+                    if ((old.mode & 0170000) == (mode & 0170000)) changes.add(new StagedChange('M', path, path, old.id, id));
+                }
+            }
+            i++;
+        }
+        List<TreeEntry> deleted = new ArrayList<>();
+        for (TreeEntry t : head.values()) {
+            if (!inIndex.contains(t.path) && !unmerged.contains(t.path)) deleted.add(t);
+        }
+        changes.addAll(detectRenames(added, deleted));
+        changes.sort(Comparator.comparing(s -> s.path, GitRepository::comparePaths));
+        return changes;
+    }
+
+    /** The directory among {@code cleanDirs} that contains {@code path}, or null. */
+    private static String cleanDirOf(String path, Set<String> cleanDirs) {
+        if (cleanDirs.isEmpty()) return null;
+        for (int slash = path.indexOf('/'); slash >= 0; slash = path.indexOf('/', slash + 1)) {
+            String dir = path.substring(0, slash);
+            if (cleanDirs.contains(dir)) return dir;
+        }
+        return null;
+    }
+
+    private static final class TreeEntry {
+        final String path;
+        final int mode;
+        final String id;
+
+        TreeEntry(String path, int mode, String id) {
+            this.path = path;
+            this.mode = mode;
+            this.id = id;
+        }
+    }
+
+    private void walkTree(String treeId, String dir, GitIndex index,
+                          Map<String, TreeEntry> out, Set<String> cleanDirs) throws IOException {
+        if (!dir.isEmpty() && treeId.equals(index.cachedTree(dir))) {
+            cleanDirs.add(dir);
+            return;
+        }
+        ObjectStore.RawObject tree = objects().read(treeId);
+        if (tree.type != PackFile.OBJ_TREE) throw new IOException("Not a tree: " + treeId);
+        byte[] b = tree.data;
+        int pos = 0;
+        while (pos < b.length) {
+            int space = ObjectStore.indexOf(b, (byte) ' ', pos);
+            int nul = ObjectStore.indexOf(b, (byte) 0, space);
+            int mode = Integer.parseInt(new String(b, pos, space - pos, StandardCharsets.US_ASCII), 8);
+            String name = new String(b, space + 1, nul - space - 1, StandardCharsets.UTF_8);
+            String id = ObjectStore.hex(b, nul + 1);
+            pos = nul + 21;
+            String path = dir.isEmpty() ? name : dir + "/" + name;
+            if ((mode & 0170000) == GitIndex.MODE_TREE) {
+                walkTree(id, path, index, out, cleanDirs);
+            } else {
+                out.put(path, new TreeEntry(path, mode, id));
+            }
+        }
+    }
+
+    /** Pairs added paths with deleted ones: exact blob matches first, then by similarity. */
+    private List<StagedChange> detectRenames(List<StagedChange> added, List<TreeEntry> deleted) throws IOException {
+        if (added.isEmpty() || deleted.isEmpty()) return added;
+        List<StagedChange> out = new ArrayList<>();
+        Map<String, List<TreeEntry>> deletedById = new LinkedHashMap<>();
+        for (TreeEntry d : deleted) deletedById.computeIfAbsent(d.id, k -> new ArrayList<>()).add(d);
+        List<StagedChange> unpaired = new ArrayList<>();
+        Set<TreeEntry> used = new HashSet<>();
+        for (StagedChange a : added) {
+            List<TreeEntry> sources = deletedById.get(a.newId);
+            TreeEntry source = null;
+            if (sources != null) {
+                for (TreeEntry s : sources) {
+                    if (!used.contains(s)) {
+                        source = s;
+                        break;
+                    }
+                }
+            }
+            if (source != null) {
+                used.add(source);
+                out.add(new StagedChange('R', a.path, source.path, source.id, a.newId));
+            } else {
+                unpaired.add(a);
+            }
+        }
+        List<TreeEntry> remaining = new ArrayList<>();
+        for (TreeEntry d : deleted) if (!used.contains(d) && (d.mode & 0170000) == 0100000) remaining.add(d);
+        // diff.renameLimit defaults to 1000 sources by 1000 destinations
+        if (unpaired.isEmpty() || remaining.isEmpty() || (long) unpaired.size() * remaining.size() > 1_000_000L) {
+            out.addAll(unpaired);
+            return out;
+        }
+
+        List<double[]> scores = new ArrayList<>(); // {score, addedIndex, deletedIndex}
+        List<Map<String, Integer>> deletedLines = new ArrayList<>();
+        List<Integer> deletedSizes = new ArrayList<>();
+        for (TreeEntry d : remaining) {
+            byte[] content = readBlob(d.id);
+            deletedLines.add(LineDiff.isBinary(content) ? null : lineCounts(content));
+            deletedSizes.add(content.length);
+        }
+        for (int i = 0; i < unpaired.size(); i++) {
+            byte[] content = readBlob(unpaired.get(i).newId);
+            if (LineDiff.isBinary(content)) continue;
+            Map<String, Integer> lines = lineCounts(content);
+            for (int j = 0; j < remaining.size(); j++) {
+                Map<String, Integer> other = deletedLines.get(j);
+                if (other == null) continue;
+                int max = Math.max(content.length, deletedSizes.get(j));
+                if (max == 0 || Math.min(content.length, deletedSizes.get(j)) * 2 < max) continue;
+                long shared = 0;
+                for (Map.Entry<String, Integer> e : lines.entrySet()) {
+                    Integer n = other.get(e.getKey());
+                    if (n != null) shared += (long) e.getKey().length() * Math.min(n, e.getValue());
+                }
+                double score = (double) shared / max;
+                if (score >= 0.5) scores.add(new double[] { score, i, j });
+            }
+        }
+        scores.sort((x, y) -> Double.compare(y[0], x[0]));
+        boolean[] addedDone = new boolean[unpaired.size()];
+        boolean[] deletedDone = new boolean[remaining.size()];
+        for (double[] s : scores) {
+            int i = (int) s[1];
+            int j = (int) s[2];
+            if (addedDone[i] || deletedDone[j]) continue;
+            addedDone[i] = true;
+            deletedDone[j] = true;
+            StagedChange a = unpaired.get(i);
+            TreeEntry d = remaining.get(j);
+            out.add(new StagedChange('R', a.path, d.path, d.id, a.newId));
+        }
+        for (int i = 0; i < unpaired.size(); i++) if (!addedDone[i]) out.add(unpaired.get(i));
+        return out;
+    }
+
+    private static Map<String, Integer> lineCounts(byte[] content) {
+        Map<String, Integer> counts = new HashMap<>();
+        int start = 0;
+        for (int i = 0; i <= content.length; i++) {
+            if (i == content.length || content[i] == '\n') {
+                int end = Math.min(i + 1, content.length);
+                if (end > start) counts.merge(new String(content, start, end - start, StandardCharsets.ISO_8859_1), 1, Integer::sum);
+                start = end;
+            }
+        }
+        return counts;
+    }
+
+    /** Git's path order: bytewise on the UTF-8 encoding. */
+    private static int comparePaths(String a, String b) {
+        byte[] x = a.getBytes(StandardCharsets.UTF_8);
+        byte[] y = b.getBytes(StandardCharsets.UTF_8);
+        return Arrays.compareUnsigned(x, y);
+    }
+
+    /**
+     * Paths accepted by {@code filter} whose work-tree content differs from the index, or that
+     * are untracked and not ignored: what {@code git diff --name-only} plus
+     * {@code git ls-files --others --exclude-standard} list. Like git, an entry whose file still
+     * has the size and modification time recorded in the index is taken as unchanged unless it
+     * was modified no earlier than the index was written; only the others are hashed. Content
+     * filters such as {@code core.autocrlf} are not applied, so a file they would normalise is
+     * reported as changed.
+     */
+    public Set<String> dirtyPaths(Predicate<String> filter) throws IOException {
+        GitIndex index = new GitIndex(indexFile);
+        FileTime indexTime = Files.getLastModifiedTime(indexFile);
+        Set<String> dirty = new HashSet<>();
+        Set<String> tracked = new HashSet<>();
+        for (int i = 0; i < index.size(); i++) {
+            String path = index.path(i);
+            tracked.add(path);
+            if (!filter.test(path)) continue;
+            if (index.stage(i) != 0) {
+                dirty.add(path); // unmerged
+                continue;
+            }
+            if ((index.mode(i) & 0170000) != 0100000) continue; // symlinks and submodules
+            if (index.intentToAdd(i) || !unchanged(index, i, workTree.resolve(path), indexTime)) dirty.add(path);
+        }
+        walkUntracked(filter, tracked, dirty);
+        return dirty;
+    }
+
+    private static boolean unchanged(GitIndex index, int i, Path file, FileTime indexTime) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return false; // deleted
+        }
+        if (!attrs.isRegularFile() || (attrs.size() & 0xffffffffL) != index.fileSize(i)) return false;
+        Instant modified = attrs.lastModifiedTime().toInstant();
+        boolean sameTime = modified.getEpochSecond() == index.mtimeSeconds(i)
+                && (index.mtimeNanos(i) == 0 || modified.getNano() == index.mtimeNanos(i));
+        if (sameTime && modified.isBefore(indexTime.toInstant())) return true;
+        // Touched, or racily clean: written in the same tick as the index, so compare content
+        return blobId(Files.readAllBytes(file)).equals(index.id(i));
+    }
+
+    /** Adds untracked, non-ignored files to {@code out}, skipping ignored directories and nested repositories. */
+    private void walkUntracked(Predicate<String> filter, Set<String> tracked, Set<String> out) throws IOException {
+        IgnoreRules rules = new IgnoreRules();
+        rules.addFile(globalExcludesFile(), "");
+        rules.addFile(commonDir.resolve("info").resolve("exclude"), "");
+        Deque<Integer> depths = new ArrayDeque<>();
+        Files.walkFileTree(workTree, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                String rel = relative(dir);
+                if (!rel.isEmpty()) {
+                    if (dir.getFileName().toString().equals(".git") || rules.ignored(rel, true)
+                            || Files.exists(dir.resolve(".git"), LinkOption.NOFOLLOW_LINKS)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                }
+                depths.push(rules.size());
+                rules.addFile(dir.resolve(".gitignore"), rel.isEmpty() ? "" : rel + "/");
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String rel = relative(file);
+                if (filter.test(rel) && !tracked.contains(rel) && !rules.ignored(rel, false)) out.add(rel);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                rules.truncate(depths.pop());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private String relative(Path path) {
+        String rel = workTree.relativize(path).toString();
+        return File.separatorChar == '/' ? rel : rel.replace(File.separatorChar, '/');
+    }
+
+    /** {@code core.excludesFile} from the repository or user config, else git's default location. */
+    private Path globalExcludesFile() throws IOException {
+        String home = System.getProperty("user.home");
+        String value = configValue(commonDir.resolve("config"), "core", "excludesfile");
+        if (value == null && home != null) value = configValue(Path.of(home, ".gitconfig"), "core", "excludesfile");
+        if (value != null) {
+            return value.startsWith("~/") && home != null ? Path.of(home, value.substring(2)) : workTree.resolve(value);
+        }
+        String xdg = System.getenv("XDG_CONFIG_HOME");
+        if (xdg != null && !xdg.isEmpty()) return Path.of(xdg, "git", "ignore");
+        return home == null ? null : Path.of(home, ".config", "git", "ignore");
+    }
+
+    /** The last {@code key} of {@code [section]} in a config file, unquoted; null when unset. */
+    private static String configValue(Path config, String section, String key) throws IOException {
+        if (!Files.isRegularFile(config)) return null;
+        String current = "";
+        String value = null;
+        for (String raw : Files.readAllLines(config, StandardCharsets.UTF_8)) {
+            String line = raw.trim();
+            if (line.startsWith("[")) {
+                current = line.substring(1, Math.max(1, line.indexOf(']'))).trim().toLowerCase(Locale.ROOT);
+                continue;
+            }
+            int eq = line.indexOf('=');
+            if (!current.equals(section) || eq < 0 || !line.substring(0, eq).trim().equalsIgnoreCase(key)) continue;
+            value = line.substring(eq + 1).trim();
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) value = value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /** The id git gives {@code content} as a blob. */
+    static String blobId(byte[] content) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-1");
+            sha.update(("blob " + content.length + "\0").getBytes(StandardCharsets.US_ASCII));
+            return ObjectStore.hex(sha.digest(content), 0);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 unavailable", e);
+        }
+    }
+
+    public byte[] readBlob(String id) throws IOException {
+        ObjectStore.RawObject blob = objects().read(id);
+        if (blob.type != PackFile.OBJ_BLOB) throw new IOException("Not a blob: " + id);
+        return blob.data;
+    }
+
+    /** Hunks between the HEAD and staged versions of a change; all lines for an added file. */
+    public List<LineDiff.Hunk> hunks(StagedChange change) throws IOException {
+        byte[] before = change.oldId == null ? new byte[0] : readBlob(change.oldId);
+        return LineDiff.diff(before, readBlob(change.newId));
+    }
+
+    private synchronized ObjectStore objects() throws IOException {
+        if (objects == null) objects = new ObjectStore(commonDir.resolve("objects"));
+        return objects;
+    }
+
+    /** Releases open pack files; the repository can still be used and reopens them on demand. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (objects != null) {
+            objects.close();
+            objects = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GitRepository[" + workTree + "]";
+    }
+}
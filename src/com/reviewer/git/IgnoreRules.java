@@ -0,0 +1,130 @@
+package com.reviewer.git;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The ignore rules {@code git ls-files --others --exclude-standard} applies: the global excludes
+ * file, {@code info/exclude} and the {@code .gitignore} of every directory, read while the work
+ * tree is walked. Later rules take precedence, so the last matching pattern decides: a deeper
+ * {@code .gitignore} over a shallower one, and every {@code .gitignore} over the two files.
+ *
+ * <p>Patterns follow gitignore(5): {@code !} negates, a trailing {@code /} matches directories
+ * only, a pattern with a {@code /} before its end is relative to the directory of its file and
+ * any other matches a name at any depth below it; {@code *}, {@code ?}, {@code [...]} and
+ * {@code **} are globs. A directory that is ignored is not entered, so nothing inside it can be
+ * re-included, as in git.
+ */
+final class IgnoreRules {
+
+    private static final class Rule {
+        /** Directory of the file the rule comes from, with a trailing '/', or "" for the work tree root. */
+        final String base;
+        final Pattern pattern;
+        /** Matched against the path relative to {@link #base} rather than against the name alone. */
+        final boolean anchored;
+        final boolean negated;
+        final boolean dirOnly;
+
+        Rule(String base, Pattern pattern, boolean anchored, boolean negated, boolean dirOnly) {
+            this.base = base;
+            this.pattern = pattern;
+            this.anchored = anchored;
+            this.negated = negated;
+            this.dirOnly = dirOnly;
+        }
+    }
+
+    private final List<Rule> rules = new ArrayList<>();
+
+    /** Adds the rules of {@code file}, if it exists, for paths below {@code base} ("" or ending in '/'). */
+    void addFile(Path file, String base) throws IOException {
+        if (file == null || !Files.isRegularFile(file)) return;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) add(line, base);
+    }
+
+    /** Number of rules read so far; {@link #truncate} drops the ones added after it. */
+    int size() {
+        return rules.size();
+    }
+
+    void truncate(int size) {
+        rules.subList(size, rules.size()).clear();
+    }
+
+    /** Whether {@code path}, relative to the work tree root, is ignored. */
+    boolean ignored(String path, boolean directory) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            Rule rule = rules.get(i);
+            if (rule.dirOnly && !directory) continue;
+            if (!path.startsWith(rule.base)) continue;
+            String subject = rule.anchored ? path.substring(rule.base.length()) : name;
+            if (rule.pattern.matcher(subject).matches()) return !rule.negated;
+        }
+        return false;
+    }
+
+    private void add(String line, String base) {
+        String p = stripTrailingSpaces(line);
+        if (p.isEmpty() || p.startsWith("#")) return;
+        boolean negated = p.startsWith("!");
+        if (negated) p = p.substring(1);
+        else if (p.startsWith("\\!") || p.startsWith("\\#")) p = p.substring(1);
+        boolean dirOnly = p.endsWith("/");
+        if (dirOnly) p = p.substring(0, p.length() - 1);
+        if (p.isEmpty()) return;
+        boolean anchored = p.indexOf('/') >= 0;
+        if (p.startsWith("/")) p = p.substring(1);
+        rules.add(new Rule(base, Pattern.compile(toRegex(p)), anchored, negated, dirOnly));
+    }
+
+    /** Trailing spaces are dropped unless escaped with a backslash. */
+    private static String stripTrailingSpaces(String line) {
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == ' ' && !(end > 1 && line.charAt(end - 2) == '\\')) end--;
+        return line.substring(0, end);
+    }
+
+    private static String toRegex(String glob) {
+        StringBuilder re = new StringBuilder();
+        int n = glob.length();
+        for (int i = 0; i < n; i++) {
+            char c = glob.charAt(i);
+            if (c == '*' && i + 1 < n && glob.charAt(i + 1) == '*'
+                    && (i == 0 || glob.charAt(i - 1) == '/') && (i + 2 == n || glob.charAt(i + 2) == '/')) {
+                if (i + 2 == n) {
+                    re.append(".*"); // "a/**": everything inside a
+                } else {
+                    re.append("(?:.*/)?"); // "**/b" and "a/**/b": zero or more directories
+                    i++;
+                }
+                i++;
+            } else if (c == '*') {
+                re.append("[^/]*");
+            } else if (c == '?') {
+                re.append("[^/]");
+            } else if (c == '[') {
+                int close = glob.indexOf(']', i + 2);
+                if (close < 0) {
+                    re.append("\\[");
+                    continue;
+                }
+                String set = glob.substring(i + 1, close);
+                if (set.startsWith("!")) set = "^" + set.substring(1);
+                re.append('[').append(set.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                i = close;
+            } else if (c == '\\' && i + 1 < n) {
+                re.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+            } else {
+                re.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return re.toString();
+    }
+}
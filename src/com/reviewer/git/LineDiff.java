@@ -0,0 +1,636 @@
+package com.reviewer.git;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Line diff of two blobs producing the hunks {@code git diff -U0} would print.
+ *
+ * <p>This follows git's xdiff step for step so the changed lines agree with the CLI: the common
+ * tail is dropped in 1 KiB blocks as xdiff does without context, lines with no match on the other
+ * side (or very many) are set aside before Myers' divide-and-conquer search with xdiff's cost
+ * cut-offs, and each run of changed lines is then moved to where git's default indent heuristic
+ * places it. Lines are compared byte for byte including their terminator, so a last line without
+ * a newline differs from the same line with one. Blobs with a NUL byte in their first 8000 bytes
+ * are treated as binary and produce no hunks, as git does.
+ */
+public final class LineDiff {
+
+    private static final int BINARY_PROBE = 8000;
+
+    // Search tuning, as in xdiff
+    private static final int MAX_EQLIMIT = 1024;
+    private static final int SIMSCAN_WINDOW = 100;
+    private static final int KPDIS_RUN = 4;
+    private static final int MAX_COST_MIN = 256;
+    private static final int HEUR_MIN_COST = 256;
+    private static final int SNAKE_CNT = 20;
+    private static final int K_HEUR = 4;
+
+    // Indent heuristic weights, as in xdiff
+    private static final int MAX_INDENT = 200;
+    private static final int MAX_BLANKS = 20;
+    private static final int START_OF_FILE_PENALTY = 1;
+    private static final int END_OF_FILE_PENALTY = 21;
+    private static final int TOTAL_BLANK_WEIGHT = -30;
+    private static final int POST_BLANK_WEIGHT = 6;
+    private static final int RELATIVE_INDENT_PENALTY = -4;
+    private static final int RELATIVE_INDENT_WITH_BLANK_PENALTY = 10;
+    private static final int RELATIVE_OUTDENT_PENALTY = 24;
+    private static final int RELATIVE_OUTDENT_WITH_BLANK_PENALTY = 17;
+    private static final int RELATIVE_DEDENT_PENALTY = 23;
+    private static final int RELATIVE_DEDENT_WITH_BLANK_PENALTY = 17;
+    private static final int INDENT_WEIGHT = 60;
+    private static final int INDENT_HEURISTIC_MAX_SLIDING = 100;
+
+    private LineDiff() {}
+
+    /**
+     * A hunk in {@code git diff -U0} terms: {@code newStart} is the first added line (1-based) or,
+     * when {@code newCount} is 0, the line after which lines were deleted; likewise for the old side.
+     */
+    public static final class Hunk {
+        public final int oldStart;
+        public final int oldCount;
+        public final int newStart;
+        public final int newCount;
+
+        Hunk(int oldStart, int oldCount, int newStart, int newCount) {
+            this.oldStart = oldStart;
+            this.oldCount = oldCount;
+            this.newStart = newStart;
+            this.newCount = newCount;
+        }
+
+        @Override
+        public String toString() {
+            return "@@ -" + oldStart + "," + oldCount + " +" + newStart + "," + newCount + " @@";
+        }
+    }
+
+    public static boolean isBinary(byte[] content) {
+        for (int i = 0, n = Math.min(content.length, BINARY_PROBE); i < n; i++) if (content[i] == 0) return true;
+        return false;
+    }
+
+    public static List<Hunk> diff(byte[] oldContent, byte[] newContent) {
+        if (isBinary(oldContent) || isBinary(newContent)) return new ArrayList<>();
+        int tail = commonTail(oldContent, newContent);
+        Map<String, Integer> classes = new HashMap<>();
+        Side a = new Side(oldContent, oldContent.length - tail, classes);
+        Side b = new Side(newContent, newContent.length - tail, classes);
+        int[] countA = new int[classes.size()];
+        int[] countB = new int[classes.size()];
+        for (int c : a.recs) countA[c]++;
+        for (int c : b.recs) countB[c]++;
+
+        int lim = Math.min(a.n, b.n);
+        int prefix = 0;
+        while (prefix < lim && a.recs[prefix] == b.recs[prefix]) prefix++;
+        int suffix = 0;
+        while (suffix < lim - prefix && a.recs[a.n - 1 - suffix] == b.recs[b.n - 1 - suffix]) suffix++;
+        a.cleanup(prefix, a.n - suffix - 1, countB);
+        b.cleanup(prefix, b.n - suffix - 1, countA);
+
+        int diagonals = a.nreff + b.nreff + 3;
+        new Search(a, b, diagonals).compare(0, a.nreff, 0, b.nreff, false);
+
+        compact(a, b);
+        compact(b, a);
+        return hunks(a, b);
+    }
+
+    /** Length of the common tail xdiff drops without context: whole 1 KiB blocks, less the part after the first newline. */
+    private static int commonTail(byte[] a, byte[] b) {
+        final int block = 1024;
+        int smaller = Math.min(a.length, b.length);
+        int trimmed = 0;
+        while (block + trimmed <= smaller && regionEquals(a, a.length - trimmed - block, b, b.length - trimmed - block, block)) {
+            trimmed += block;
+        }
+        int recovered = 0;
+        int from = a.length - trimmed;
+        while (recovered < trimmed) {
+            if (a[from + recovered++] == '\n') break;
+        }
+        return trimmed - recovered;
+    }
+
+    private static boolean regionEquals(byte[] a, int aOff, byte[] b, int bOff, int len) {
+        for (int i = 0; i < len; i++) if (a[aOff + i] != b[bOff + i]) return false;
+        return true;
+    }
+
+    private static int bogosqrt(int n) {
+        int i = 1;
+        for (; n > 0; n >>= 2) i <<= 1;
+        return i;
+    }
+
+    /** One side of the diff: its lines, their classes, and which of them changed. */
+    private static final class Side {
+        final byte[] text;
+        final int n;
+        final int[] recs;
+        final int[] lineStart;
+        final int[] lineEnd;
+        /** Changed flags with a false sentinel at each end; line i is at i + 1. */
+        final boolean[] chg;
+        /** The lines handed to the search: their classes and line numbers. */
+        int[] ha;
+        int[] rindex;
+        int nreff;
+
+        Side(byte[] text, int length, Map<String, Integer> classes) {
+            this.text = text;
+            List<int[]> lines = new ArrayList<>();
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                if (text[i] == '\n') {
+                    lines.add(new int[] { start, i + 1 });
+                    start = i + 1;
+                }
+            }
+            if (start < length) lines.add(new int[] { start, length });
+            n = lines.size();
+            recs = new int[n];
+            lineStart = new int[n];
+            lineEnd = new int[n];
+            for (int i = 0; i < n; i++) {
+                int[] line = lines.get(i);
+                lineStart[i] = line[0];
+                lineEnd[i] = line[1];
+                String key = new String(text, line[0], line[1] - line[0], StandardCharsets.ISO_8859_1);
+                recs[i] = classes.computeIfAbsent(key, k -> classes.size());
+            }
+            chg = new boolean[n + 2];
+        }
+
+        boolean changed(int i) {
+            return chg[i + 1];
+        }
+
+        void mark(int i, boolean value) {
+            chg[i + 1] = value;
+        }
+
+        /**
+         * Marks lines in [dstart, dend] with no match on the other side as changed, along with
+         * lines matching very often that sit among such lines; the rest go to the search.
+         */
+        void cleanup(int dstart, int dend, int[] otherCounts) {
+            int mlim = Math.min(bogosqrt(n), MAX_EQLIMIT);
+            byte[] dis = new byte[n + 1];
+            for (int i = dstart; i <= dend; i++) {
+                int nm = otherCounts[recs[i]];
+                dis[i] = (byte) (nm == 0 ? 0 : nm >= mlim ? 2 : 1);
+            }
+            ha = new int[Math.max(0, dend - dstart + 1)];
+            rindex = new int[ha.length];
+            nreff = 0;
+            for (int i = dstart; i <= dend; i++) {
+                if (dis[i] == 1 || (dis[i] == 2 && !discardable(dis, i, dstart, dend))) {
+                    rindex[nreff] = i;
+                    ha[nreff] = recs[i];
+                    nreff++;
+                } else {
+                    mark(i, true);
+                }
+            }
+        }
+
+        /** Whether a line with many matches is surrounded mostly by lines with none. */
+        private static boolean discardable(byte[] dis, int i, int s, int e) {
+            if (i - s > SIMSCAN_WINDOW) s = i - SIMSCAN_WINDOW;
+            if (e - i > SIMSCAN_WINDOW) e = i + SIMSCAN_WINDOW;
+            int none = 0;
+            int many = 1;
+            for (int r = 1; i - r >= s; r++) {
+                if (dis[i - r] == 0) none++;
+                else if (dis[i - r] == 2) many++;
+                else break;
+            }
+            if (none == 0) return false;
+            int noneAfter = 0;
+            int manyAfter = 1;
+            for (int r = 1; i + r <= e; r++) {
+                if (dis[i + r] == 0) noneAfter++;
+                else if (dis[i + r] == 2) manyAfter++;
+                else break;
+            }
+            if (noneAfter == 0) return false;
+            none += noneAfter;
+            many += manyAfter;
+            return many * KPDIS_RUN < many + none;
+        }
+
+        /** Indentation width of a line with tabs to multiples of 8, or -1 when it is blank. */
+        int indent(int line) {
+            int ret = 0;
+            for (int i = lineStart[line]; i < lineEnd[line]; i++) {
+                byte c = text[i];
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r' && c != '\f' && c != 0x0b) return ret;
+                if (c == ' ') ret += 1;
+                else if (c == '\t') ret += 8 - ret % 8;
+                if (ret >= MAX_INDENT) return MAX_INDENT;
+            }
+            return -1;
+        }
+    }
+
+    /** Myers' divide-and-conquer search over the reduced line lists, with xdiff's cost cut-offs. */
+    private static final class Search {
+        private final Side a;
+        private final Side b;
+        private final int[] kvdf;
+        private final int[] kvdb;
+        /** Diagonal k is stored at k + base. */
+        private final int base;
+        private final int maxCost;
+        private int splitA;
+        private int splitB;
+        private boolean minLo;
+        private boolean minHi;
+
+        Search(Side a, Side b, int diagonals) {
+            this.a = a;
+            this.b = b;
+            this.kvdf = new int[diagonals];
+            this.kvdb = new int[diagonals];
+            this.base = b.nreff + 1;
+            this.maxCost = Math.max(bogosqrt(diagonals), MAX_COST_MIN);
+        }
+
+        void compare(int off1, int lim1, int off2, int lim2, boolean needMin) {
+            int[] ha1 = a.ha;
+            int[] ha2 = b.ha;
+            while (true) {
+                while (off1 < lim1 && off2 < lim2 && ha1[off1] == ha2[off2]) {
+                    off1++;
+                    off2++;
+                }
+                while (off1 < lim1 && off2 < lim2 && ha1[lim1 - 1] == ha2[lim2 - 1]) {
+                    lim1--;
+                    lim2--;
+                }
+                if (off1 == lim1) {
+                    for (; off2 < lim2; off2++) b.mark(b.rindex[off2], true);
+                    return;
+                }
+                if (off2 == lim2) {
+                    for (; off1 < lim1; off1++) a.mark(a.rindex[off1], true);
+                    return;
+                }
+                split(off1, lim1, off2, lim2, needMin);
+                int mid1 = splitA;
+                int mid2 = splitB;
+                boolean hi = minHi;
+                compare(off1, mid1, off2, mid2, minLo);
+                off1 = mid1;
+                off2 = mid2;
+                needMin = hi;
+            }
+        }
+
+        private int fwd(int d) {
+            return kvdf[d + base];
+        }
+
+        private int bwd(int d) {
+            return kvdb[d + base];
+        }
+
+        private void split(int off1, int lim1, int off2, int lim2, boolean needMin) {
+            int[] ha1 = a.ha;
+            int[] ha2 = b.ha;
+            int dmin = off1 - lim2;
+            int dmax = lim1 - off2;
+            int fmid = off1 - off2;
+            int bmid = lim1 - lim2;
+            boolean odd = ((fmid - bmid) & 1) != 0;
+            int fmin = fmid;
+            int fmax = fmid;
+            int bmin = bmid;
+            int bmax = bmid;
+            kvdf[fmid + base] = off1;
+            kvdb[bmid + base] = lim1;
+
+            for (int ec = 1;; ec++) {
+                boolean gotSnake = false;
+                if (fmin > dmin) kvdf[--fmin - 1 + base] = -1;
+                else ++fmin;
+                if (fmax < dmax) kvdf[++fmax + 1 + base] = -1;
+                else --fmax;
+
+                for (int d = fmax; d >= fmin; d -= 2) {
+                    int i1 = fwd(d - 1) >= fwd(d + 1) ? fwd(d - 1) + 1 : fwd(d + 1);
+                    int prev = i1;
+                    int i2 = i1 - d;
+                    while (i1 < lim1 && i2 < lim2 && ha1[i1] == ha2[i2]) {
+                        i1++;
+                        i2++;
+                    }
+                    if (i1 - prev > SNAKE_CNT) gotSnake = true;
+                    kvdf[d + base] = i1;
+                    if (odd && bmin <= d && d <= bmax && bwd(d) <= i1) {
+                        setSplit(i1, i2, true, true);
+                        return;
+                    }
+                }
+
+                if (bmin > dmin) kvdb[--bmin - 1 + base] = Integer.MAX_VALUE;
+                else ++bmin;
+                if (bmax < dmax) kvdb[++bmax + 1 + base] = Integer.MAX_VALUE;
+                else --bmax;
+
+                for (int d = bmax; d >= bmin; d -= 2) {
+                    int i1 = bwd(d - 1) < bwd(d + 1) ? bwd(d - 1) : bwd(d + 1) - 1;
+                    int prev = i1;
+                    int i2 = i1 - d;
+                    while (i1 > off1 && i2 > off2 && ha1[i1 - 1] == ha2[i2 - 1]) {
+                        i1--;
+                        i2--;
+                    }
+                    if (prev - i1 > SNAKE_CNT) gotSnake = true;
+                    kvdb[d + base] = i1;
+                    if (!odd && fmin <= d && d <= fmax && i1 <= fwd(d)) {
+                        setSplit(i1, i2, true, true);
+                        return;
+                    }
+                }
+
+                if (needMin) continue;
+
+                // Past the trigger cost, settle for a diagonal that has got far along a long snake
+                if (gotSnake && ec > HEUR_MIN_COST) {
+                    int best = 0;
+                    for (int d = fmax; d >= fmin; d -= 2) {
+                        int dd = d > fmid ? d - fmid : fmid - d;
+                        int i1 = fwd(d);
+                        int i2 = i1 - d;
+                        int v = (i1 - off1) + (i2 - off2) - dd;
+                        if (v > K_HEUR * ec && v > best && off1 + SNAKE_CNT <= i1 && i1 < lim1
+                                && off2 + SNAKE_CNT <= i2 && i2 < lim2) {
+                            for (int k = 1; ha1[i1 - k] == ha2[i2 - k]; k++) {
+                                if (k == SNAKE_CNT) {
+                                    best = v;
+                                    splitA = i1;
+                                    splitB = i2;
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                    if (best > 0) {
+                        minLo = true;
+                        minHi = false;
+                        return;
+                    }
+                    for (int d = bmax; d >= bmin; d -= 2) {
+                        int dd = d > bmid ? d - bmid : bmid - d;
+                        int i1 = bwd(d);
+                        int i2 = i1 - d;
+                        int v = (lim1 - i1) + (lim2 - i2) - dd;
+                        if (v > K_HEUR * ec && v > best && off1 < i1 && i1 <= lim1 - SNAKE_CNT
+                                && off2 < i2 && i2 <= lim2 - SNAKE_CNT) {
+                            for (int k = 0; ha1[i1 + k] == ha2[i2 + k]; k++) {
+                                if (k == SNAKE_CNT - 1) {
+                                    best = v;
+                                    splitA = i1;
+                                    splitB = i2;
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                    if (best > 0) {
+                        minLo = false;
+                        minHi = true;
+                        return;
+                    }
+                }
+
+                // Too expensive: split at the furthest-reaching path found so far
+                if (ec >= maxCost) {
+                    long fbest = -1;
+                    int fbest1 = -1;
+                    for (int d = fmax; d >= fmin; d -= 2) {
+                        int i1 = Math.min(fwd(d), lim1);
+                        int i2 = i1 - d;
+                        if (lim2 < i2) {
+                            i1 = lim2 + d;
+                            i2 = lim2;
+                        }
+                        if (fbest < i1 + i2) {
+                            fbest = i1 + i2;
+                            fbest1 = i1;
+                        }
+                    }
+                    long bbest = Long.MAX_VALUE;
+                    int bbest1 = Integer.MAX_VALUE;
+                    for (int d = bmax; d >= bmin; d -= 2) {
+                        int i1 = Math.max(off1, bwd(d));
+                        int i2 = i1 - d;
+                        if (i2 < off2) {
+                            i1 = off2 + d;
+                            i2 = off2;
+                        }
+                        if (i1 + i2 < bbest) {
+                            bbest = i1 + i2;
+                            bbest1 = i1;
+                        }
+                    }
+                    if ((lim1 + lim2) - bbest < fbest - (off1 + off2)) {
+                        setSplit(fbest1, (int) (fbest - fbest1), true, false);
+                    } else {
+                        setSplit(bbest1, (int) (bbest - bbest1), false, true);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void setSplit(int i1, int i2, boolean lo, boolean hi) {
+            splitA = i1;
+            splitB = i2;
+            minLo = lo;
+            minHi = hi;
+        }
+    }
+
+    /** A run of changed lines [start, end), possibly empty, on one side. */
+    private static final class Group {
+        int start;
+        int end;
+
+        Group(Side x) {
+            while (x.changed(end)) end++;
+        }
+
+        boolean next(Side x) {
+            if (end == x.n) return false;
+            start = end + 1;
+            end = start;
+            while (x.changed(end)) end++;
+            return true;
+        }
+
+        boolean previous(Side x) {
+            if (start == 0) return false;
+            end = start - 1;
+            start = end;
+            while (x.changed(start - 1)) start--;
+            return true;
+        }
+
+        boolean slideDown(Side x) {
+            if (end < x.n && x.recs[start] == x.recs[end]) {
+                x.mark(start++, false);
+                x.mark(end++, true);
+                while (x.changed(end)) end++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean slideUp(Side x) {
+            if (start > 0 && x.recs[start - 1] == x.recs[end - 1]) {
+                x.mark(--start, true);
+                x.mark(--end, false);
+                while (x.changed(start - 1)) start--;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Moves each run of changes in {@code x} to where git shows it, keeping the groups of {@code o}
+     * in step: lined up with a change on the other side if it can be, else at the best-scoring split.
+     */
+    private static void compact(Side x, Side o) {
+        Group g = new Group(x);
+        Group go = new Group(o);
+        while (true) {
+            if (g.end != g.start) {
+                int groupSize;
+                int endMatchingOther;
+                int earliestEnd;
+                do {
+                    groupSize = g.end - g.start;
+                    endMatchingOther = -1;
+                    while (g.slideUp(x)) {
+                        if (!go.previous(o)) throw new IllegalStateException("Group sync broken sliding up");
+                    }
+                    earliestEnd = g.end;
+                    if (go.end > go.start) endMatchingOther = g.end;
+                    while (g.slideDown(x)) {
+                        if (!go.next(o)) throw new IllegalStateException("Group sync broken sliding down");
+                        if (go.end > go.start) endMatchingOther = g.end;
+                    }
+                } while (groupSize != g.end - g.start);
+
+                if (g.end == earliestEnd) {
+                    // Nowhere else to go
+                } else if (endMatchingOther != -1) {
+                    while (go.end == go.start) {
+                        if (!g.slideUp(x) || !go.previous(o)) throw new IllegalStateException("Group sync broken sliding to match");
+                    }
+                } else {
+                    int shift = Math.max(earliestEnd, Math.max(g.end - groupSize - 1, g.end - INDENT_HEURISTIC_MAX_SLIDING));
+                    int bestShift = -1;
+                    int[] best = null;
+                    for (; shift <= g.end; shift++) {
+                        int[] score = new int[2]; // effective indent, penalty
+                        scoreSplit(x, shift, score);
+                        scoreSplit(x, shift - groupSize, score);
+                        if (bestShift == -1 || compareScores(score, best) <= 0) {
+                            best = score;
+                            bestShift = shift;
+                        }
+                    }
+                    while (g.end > bestShift) {
+                        if (!g.slideUp(x) || !go.previous(o)) throw new IllegalStateException("Group sync broken sliding to best split");
+                    }
+                }
+            }
+            if (!g.next(x)) break;
+            if (!go.next(o)) throw new IllegalStateException("Group sync broken moving to next group");
+        }
+    }
+
+    /** Adds how bad it looks to split {@code x} just before line {@code split} to {@code score}. */
+    private static void scoreSplit(Side x, int split, int[] score) {
+        boolean endOfFile = split >= x.n;
+        int indent = endOfFile ? -1 : x.indent(split);
+        int preBlank = 0;
+        int preIndent = -1;
+        for (int i = split - 1; i >= 0; i--) {
+            preIndent = x.indent(i);
+            if (preIndent != -1) break;
+            preBlank++;
+            if (preBlank == MAX_BLANKS) {
+                preIndent = 0;
+                break;
+            }
+        }
+        int postBlank = 0;
+        int postIndent = -1;
+        for (int i = split + 1; i < x.n; i++) {
+            postIndent = x.indent(i);
+            if (postIndent != -1) break;
+            postBlank++;
+            if (postBlank == MAX_BLANKS) {
+                postIndent = 0;
+                break;
+            }
+        }
+
+        if (preIndent == -1 && preBlank == 0) score[1] += START_OF_FILE_PENALTY;
+        if (endOfFile) score[1] += END_OF_FILE_PENALTY;
+        int blankAfter = indent == -1 ? 1 + postBlank : 0;
+        int totalBlank = preBlank + blankAfter;
+        score[1] += TOTAL_BLANK_WEIGHT * totalBlank;
+        score[1] += POST_BLANK_WEIGHT * blankAfter;
+        int effective = indent != -1 ? indent : postIndent;
+        boolean anyBlanks = totalBlank != 0;
+        score[0] += effective;
+        if (effective == -1 || preIndent == -1 || effective == preIndent) {
+            // No adjustment
+        } else if (effective > preIndent) {
+            score[1] += anyBlanks ? RELATIVE_INDENT_WITH_BLANK_PENALTY : RELATIVE_INDENT_PENALTY;
+        } else if (postIndent != -1 && postIndent > effective) {
+            score[1] += anyBlanks ? RELATIVE_OUTDENT_WITH_BLANK_PENALTY : RELATIVE_OUTDENT_PENALTY;
+        } else {
+            score[1] += anyBlanks ? RELATIVE_DEDENT_WITH_BLANK_PENALTY : RELATIVE_DEDENT_PENALTY;
+        }
+    }
+
+    private static int compareScores(int[] s1, int[] s2) {
+        return INDENT_WEIGHT * Integer.compare(s1[0], s2[0]) + (s1[1] - s2[1]);
+    }
+
+    private static List<Hunk> hunks(Side a, Side b) {
+        List<Hunk> hunks = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < a.n || j < b.n) {
+            if (i < a.n && j < b.n && !a.changed(i) && !b.changed(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            int si = i;
+            int sj = j;
+            while (a.changed(i)) i++;
+            while (b.changed(j)) j++;
+            int oldCount = i - si;
+            int newCount = j - sj;
+            hunks.add(new Hunk(oldCount == 0 ? si : si + 1, oldCount, newCount == 0 ? sj : sj + 1, newCount));
+        }
+        return hunks;
+    }
+}
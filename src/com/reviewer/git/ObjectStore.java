@@ -0,0 +1,207 @@
+package com.reviewer.git;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads objects from a repository's {@code objects} directory: loose objects, packs, and the
+ * object directories listed in {@code info/alternates}. Delta chains are resolved iteratively,
+ * with a small cache of recently inflated bases since tree walks revisit the same ones.
+ */
+final class ObjectStore implements Closeable {
+
+    /** An object's type (one of the {@code PackFile.OBJ_*} constants) and content. */
+    static final class RawObject {
+        final int type;
+        final byte[] data;
+
+        RawObject(int type, byte[] data) {
+            this.type = type;
+            this.data = data;
+        }
+    }
+
+    private static final int BASE_CACHE_BYTES = 32 << 20;
+
+    private final List<Path> objectDirs = new ArrayList<>();
+    private final List<PackFile> packs = new ArrayList<>();
+    private final Map<String, RawObject> baseCache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RawObject> eldest) {
+            if (cachedBytes <= BASE_CACHE_BYTES) return false;
+            cachedBytes -= eldest.getValue().data.length;
+            return true;
+        }
+    };
+    private long cachedBytes;
+
+    ObjectStore(Path objectsDir) throws IOException {
+        addObjectDir(objectsDir, 0);
+    }
+
+    private void addObjectDir(Path dir, int depth) throws IOException {
+        if (depth > 5 || objectDirs.contains(dir)) return;
+        objectDirs.add(dir);
+        Path packDir = dir.resolve("pack");
+        if (Files.isDirectory(packDir)) {
+            try (DirectoryStream<Path> idxFiles = Files.newDirectoryStream(packDir, "*.idx")) {
+                for (Path idx : idxFiles) {
+                    PackFile pack = new PackFile(idx);
+                    if (Files.exists(pack.packPath)) packs.add(pack);
+                }
+            }
+        }
+        Path alternates = dir.resolve("info").resolve("alternates");
+        if (Files.exists(alternates)) {
+            for (String line : Files.readAllLines(alternates, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                addObjectDir(dir.resolve(line).normalize(), depth + 1);
+            }
+        }
+    }
+
+    RawObject read(String id) throws IOException {
+        return read(parseId(id));
+    }
+
+    RawObject read(byte[] id) throws IOException {
+        for (PackFile pack : packs) {
+            long offset = pack.find(id);
+            if (offset >= 0) return readPacked(pack, offset);
+        }
+        String hex = hex(id, 0);
+        for (Path dir : objectDirs) {
+            Path loose = dir.resolve(hex.substring(0, 2)).resolve(hex.substring(2));
+            try (InputStream in = new InflaterInputStream(Files.newInputStream(loose))) {
+                return parseLoose(in.readAllBytes(), hex);
+            } catch (NoSuchFileException e) {
+                // Try the next object directory
+            }
+        }
+        throw new IOException("Object " + hex + " not found");
+    }
+
+    private static RawObject parseLoose(byte[] raw, String hex) throws IOException {
+        int space = indexOf(raw, (byte) ' ', 0);
+        int nul = indexOf(raw, (byte) 0, 0);
+        if (space < 0 || nul < space) throw new IOException("Corrupt loose object " + hex);
+        String typeName = new String(raw, 0, space, StandardCharsets.US_ASCII);
+        int type;
+        switch (typeName) {
+            case "commit": type = PackFile.OBJ_COMMIT; break;
+            case "tree": type = PackFile.OBJ_TREE; break;
+            case "blob": type = PackFile.OBJ_BLOB; break;
+            case "tag": type = PackFile.OBJ_TAG; break;
+            default: throw new IOException("Unknown object type " + typeName + " for " + hex);
+        }
+        byte[] data = new byte[raw.length - nul - 1];
+        System.arraycopy(raw, nul + 1, data, 0, data.length);
+        return new RawObject(type, data);
+    }
+
+    private RawObject readPacked(PackFile pack, long offset) throws IOException {
+        // Walk down to the first non-delta (or cached) base, then apply the deltas back up
+        Deque<PackFile.Header> deltas = new ArrayDeque<>();
+        Deque<PackFile> deltaPacks = new ArrayDeque<>();
+        RawObject base = null;
+        while (base == null) {
+            String key = pack.packPath + "@" + offset;
+            base = cached(key);
+            if (base != null) break;
+            PackFile.Header h = pack.header(offset);
+            if (h.type == PackFile.OBJ_OFS_DELTA) {
+                deltas.push(h);
+                deltaPacks.push(pack);
+                offset = h.baseOffset;
+            } else if (h.type == PackFile.OBJ_REF_DELTA) {
+                deltas.push(h);
+                deltaPacks.push(pack);
+                PackFile basePack = null;
+                long baseOffset = -1;
+                for (PackFile p : packs) {
+                    baseOffset = p.find(h.baseId);
+                    if (baseOffset >= 0) {
+                        basePack = p;
+                        break;
+                    }
+                }
+                if (basePack == null) {
+                    // Thin-pack base stored loose
+                    base = read(h.baseId);
+                } else {
+                    pack = basePack;
+                    offset = baseOffset;
+                }
+            } else if (h.type >= PackFile.OBJ_COMMIT && h.type <= PackFile.OBJ_TAG) {
+                base = new RawObject(h.type, pack.inflate(h.dataOffset, h.size));
+                if (!deltas.isEmpty()) cache(key, base);
+            } else {
+                throw new IOException("Unknown pack entry type " + h.type + " in " + pack.packPath);
+            }
+            if (deltas.size() > 10_000) throw new IOException("Delta chain too long in " + pack.packPath);
+        }
+        while (!deltas.isEmpty()) {
+            PackFile.Header h = deltas.pop();
+            PackFile p = deltaPacks.pop();
+            byte[] delta = p.inflate(h.dataOffset, h.size);
+            base = new RawObject(base.type, PackFile.applyDelta(base.data, delta));
+            if (!deltas.isEmpty()) cache(p.packPath + "@" + h.offset, base);
+        }
+        return base;
+    }
+
+    private synchronized RawObject cached(String key) {
+        return baseCache.get(key);
+    }
+
+    private synchronized void cache(String key, RawObject object) {
+        if (object.data.length > BASE_CACHE_BYTES / 4) return;
+        if (baseCache.put(key, object) == null) cachedBytes += object.data.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (PackFile pack : packs) pack.close();
+        synchronized (this) {
+            baseCache.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    static byte[] parseId(String hex) {
+        if (hex.length() != 40) throw new IllegalArgumentException("Not an object id: " + hex);
+        byte[] id = new byte[20];
+        for (int i = 0; i < 20; i++) id[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        return id;
+    }
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    static String hex(byte[] b, int off) {
+        byte[] out = new byte[40];
+        for (int i = 0; i < 20; i++) {
+            out[2 * i] = HEX[(b[off + i] >> 4) & 15];
+            out[2 * i + 1] = HEX[b[off + i] & 15];
+        }
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    static int indexOf(byte[] b, byte value, int from) {
+        for (int i = from; i < b.length; i++) if (b[i] == value) return i;
+        return -1;
+    }
+}
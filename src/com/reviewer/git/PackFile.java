@@ -0,0 +1,229 @@
+package com.reviewer.git;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * One {@code .pack} with its version 2 {@code .idx}. The index is read into memory whole; the
+ * pack is read with positional reads, so one open pack serves concurrent readers and holds no
+ * mapping that would stop {@code git gc} replacing it on Windows.
+ */
+final class PackFile implements Closeable {
+
+    static final int OBJ_COMMIT = 1;
+    static final int OBJ_TREE = 2;
+    static final int OBJ_BLOB = 3;
+    static final int OBJ_TAG = 4;
+    static final int OBJ_OFS_DELTA = 6;
+    static final int OBJ_REF_DELTA = 7;
+
+    private static final int IDX_MAGIC = 0xff744f63; // "\377tOc"
+
+    final Path packPath;
+    private final byte[] idx;
+    private final int count;
+    private final int shaTable;
+    private final int offsetTable;
+    private final int largeOffsetTable;
+    private FileChannel channel;
+
+    PackFile(Path idxPath) throws IOException {
+        String name = idxPath.getFileName().toString();
+        this.packPath = idxPath.resolveSibling(name.substring(0, name.length() - ".idx".length()) + ".pack");
+        this.idx = Files.readAllBytes(idxPath);
+        if (idx.length < 8 + 256 * 4 || readInt(idx, 0) != IDX_MAGIC || readInt(idx, 4) != 2) {
+            throw new IOException("Unsupported pack index (only version 2 is read): " + idxPath);
+        }
+        this.count = readInt(idx, 8 + 255 * 4);
+        this.shaTable = 8 + 256 * 4;
+        this.offsetTable = shaTable + count * 20 + count * 4;
+        this.largeOffsetTable = offsetTable + count * 4;
+    }
+
+    /** Offset of {@code id} in the pack, or -1 when the pack does not contain it. */
+    long find(byte[] id) {
+        int first = id[0] & 0xff;
+        int lo = first == 0 ? 0 : readInt(idx, 8 + (first - 1) * 4);
+        int hi = readInt(idx, 8 + first * 4);
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(idx, shaTable + mid * 20, id);
+            if (cmp == 0) return offsetAt(mid);
+            if (cmp < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return -1;
+    }
+
+    private long offsetAt(int n) {
+        int off = readInt(idx, offsetTable + n * 4);
+        if (off >= 0) return off;
+        int large = largeOffsetTable + (off & 0x7fffffff) * 8;
+        return ((long) readInt(idx, large) << 32) | (readInt(idx, large + 4) & 0xffffffffL);
+    }
+
+    /** Entry header at {@code offset}: type, inflated size and where the data (or delta base reference) starts. */
+    static final class Header {
+        long offset;
+        int type;
+        long size;
+        long dataOffset;
+        /** For {@link #OBJ_OFS_DELTA}: absolute offset of the base. */
+        long baseOffset;
+        /** For {@link #OBJ_REF_DELTA}: id of the base. */
+        byte[] baseId;
+    }
+
+    Header header(long offset) throws IOException {
+        byte[] buf = new byte[32];
+        int n = readAt(offset, buf);
+        int pos = 0;
+        Header h = new Header();
+        h.offset = offset;
+        int c = buf[pos++] & 0xff;
+        h.type = (c >> 4) & 7;
+        long size = c & 15;
+        int shift = 4;
+        while ((c & 0x80) != 0) {
+            c = buf[pos++] & 0xff;
+            size |= (long) (c & 0x7f) << shift;
+            shift += 7;
+        }
+        h.size = size;
+        if (h.type == OBJ_OFS_DELTA) {
+            c = buf[pos++] & 0xff;
+            long back = c & 0x7f;
+            while ((c & 0x80) != 0) {
+                c = buf[pos++] & 0xff;
+                back = ((back + 1) << 7) | (c & 0x7f);
+            }
+            h.baseOffset = offset - back;
+        } else if (h.type == OBJ_REF_DELTA) {
+            if (n < pos + 20) throw new IOException("Truncated pack entry in " + packPath);
+            h.baseId = new byte[20];
+            System.arraycopy(buf, pos, h.baseId, 0, 20);
+            pos += 20;
+        }
+        h.dataOffset = offset + pos;
+        return h;
+    }
+
+    /** Inflates the {@code size} bytes of zlib data starting at {@code offset}. */
+    byte[] inflate(long offset, long size) throws IOException {
+        if (size > Integer.MAX_VALUE - 16) throw new IOException("Object too large in " + packPath);
+        byte[] out = new byte[(int) size];
+        Inflater inflater = new Inflater();
+        try {
+            byte[] in = new byte[8192];
+            int produced = 0;
+            long pos = offset;
+            // Stop at the expected size; the zlib trailer after it need not be read
+            while (produced < out.length) {
+                if (inflater.needsInput()) {
+                    int n = readAt(pos, in);
+                    if (n <= 0) throw new IOException("Truncated pack data in " + packPath);
+                    pos += n;
+                    inflater.setInput(in, 0, n);
+                }
+                int got = inflater.inflate(out, produced, out.length - produced);
+                produced += got;
+                if (got == 0 && (inflater.finished() || inflater.needsDictionary())) break;
+            }
+            if (produced != out.length) throw new IOException("Pack entry size mismatch in " + packPath);
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt pack data in " + packPath, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private int readAt(long position, byte[] buf) throws IOException {
+        FileChannel ch = channel();
+        ByteBuffer bb = ByteBuffer.wrap(buf);
+        int total = 0;
+        while (bb.hasRemaining()) {
+            int n = ch.read(bb, position + total);
+            if (n < 0) break;
+            total += n;
+        }
+        return total;
+    }
+
+    private synchronized FileChannel channel() throws IOException {
+        if (channel == null) channel = FileChannel.open(packPath, StandardOpenOption.READ);
+        return channel;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /** Applies a git delta to {@code base}. */
+    static byte[] applyDelta(byte[] base, byte[] delta) throws IOException {
+        int[] pos = { 0 };
+        long baseSize = varint(delta, pos);
+        long resultSize = varint(delta, pos);
+        if (baseSize != base.length || resultSize > Integer.MAX_VALUE) throw new IOException("Delta does not match its base");
+        byte[] out = new byte[(int) resultSize];
+        int o = 0;
+        int p = pos[0];
+        while (p < delta.length) {
+            int op = delta[p++] & 0xff;
+            if ((op & 0x80) != 0) {
+                long copyOffset = 0;
+                int copySize = 0;
+                for (int i = 0; i < 4; i++) if ((op & (1 << i)) != 0) copyOffset |= (long) (delta[p++] & 0xff) << (8 * i);
+                for (int i = 0; i < 3; i++) if ((op & (0x10 << i)) != 0) copySize |= (delta[p++] & 0xff) << (8 * i);
+                if (copySize == 0) copySize = 0x10000;
+                if (copyOffset + copySize > base.length || o + copySize > out.length) throw new IOException("Delta copy out of range");
+                System.arraycopy(base, (int) copyOffset, out, o, copySize);
+                o += copySize;
+            } else if (op != 0) {
+                if (p + op > delta.length || o + op > out.length) throw new IOException("Delta insert out of range");
+                System.arraycopy(delta, p, out, o, op);
+                p += op;
+                o += op;
+            } else {
+                throw new IOException("Reserved delta opcode");
+            }
+        }
+        if (o != out.length) throw new IOException("Delta result size mismatch");
+        return out;
+    }
+
+    private static long varint(byte[] b, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        int c;
+        do {
+            c = b[pos[0]++] & 0xff;
+            value |= (long) (c & 0x7f) << shift;
+            shift += 7;
+        } while ((c & 0x80) != 0);
+        return value;
+    }
+
+    static int readInt(byte[] b, int off) {
+        return ((b[off] & 0xff) << 24) | ((b[off + 1] & 0xff) << 16) | ((b[off + 2] & 0xff) << 8) | (b[off + 3] & 0xff);
+    }
+
+    private static int compare(byte[] table, int off, byte[] id) {
+        for (int i = 0; i < 20; i++) {
+            int d = (table[off + i] & 0xff) - (id[i] & 0xff);
+            if (d != 0) return d;
+        }
+        return 0;
+    }
+}
@@ -1,5 +1,7 @@
 package com.reviewer.model;
 
+import com.reviewer.util.Trace;
+
 import java.util.*;
 import java.util.regex.*;
 
@@ -182,6 +184,13 @@ public class Models {
         public boolean blockOnMustFix = true;
         public boolean onlyChangedLines = true;
         public boolean expandChangedScopeToMethod = false;
+        /**
+         * With only.changed.lines, run line-local rules over the changed hunks and their
+         * enclosing method bodies instead of the whole file. Rules that need class-level
+         * context (e.g. @EnableAsync without an executor) always see the whole file.
+         * Set via property: rules.hunk.scope=false
+         */
+        public boolean ruleHunkScope = true;
         public boolean strictJava = false;
         public boolean strictSpring = false;
         public boolean showTestingScope = false;
@@ -233,6 +242,15 @@ public class Models {
         public boolean useAstCallerDetection = true;
         public String pmdPath = "pmd";
         public String pmdRulesetPath = "config/pmd/changelens-ruleset.xml";
+        /**
+         * Run PMD through its Java API inside the reviewer JVM when the PMD 7 jars are on the
+         * classpath, instead of launching {@code pmdPath}. The ruleset is parsed once and reused,
+         * and PMD's incremental cache lives in .code-reviewer-cache/pmd-cache.bin. Falls back to
+         * the CLI when the jars are missing or the in-process run fails.
+         *
+         * Set via property: pmd.in.process=false
+         */
+        public boolean pmdInProcess = true;
         /**
          * Files for which PMD ran successfully and produced results.
          * RuleEngine skips overlapping rule categories for these files to avoid duplicates.
@@ -259,6 +277,14 @@ public class Models {
          * Equivalent to passing {@code --rebuild-graph} on the command line.
          */
         public boolean rebuildGraphCache = false;
+        /**
+         * When true, times each phase of the review and counts files read, rule regex scans,
+         * AST parses and BFS work; the figures are printed as a table, added to the HTML report
+         * and written to .code-reviewer-cache/timings.json.
+         * Equivalent to passing {@code --timings} on the command line.
+         * Set via property: report.timings=false
+         */
+        public boolean reportTimings = false;
         /**
          * Maximum age of the on-disk dependency graph cache in hours.
          * Once the cache is older than this threshold it is discarded and rebuilt.
@@ -287,5 +313,50 @@ public class Models {
          * Set via property: primary.language=python
          */
         public String primaryLanguage = "java";
+        /**
+         * Number of files whose rules are evaluated concurrently. Each file is analysed
+         * independently and findings are merged in file order, so the value only affects speed.
+         * Default: one per available processor. Set to 1 to review files sequentially.
+         * Set via property: review.threads=4
+         */
+        public int reviewThreads = Runtime.getRuntime().availableProcessors();
+        /**
+         * Serve reviews from a long-lived per-repo daemon. The first commit starts it in the
+         * background (and is reviewed as usual); later commits reuse its warm JVM, symbol index,
+         * reachability index and AST cache through .code-reviewer-cache/daemon.sock.
+         * Set via property: daemon.enabled=true
+         */
+        public boolean daemonEnabled = false;
+        /**
+         * Read the staged changes, blob contents and changed-line hunks straight from .git
+         * (index, loose objects and packs) instead of starting git processes. Repositories this
+         * reader does not handle (SHA-256, reftable, split or sparse index, core.worktree) use the
+         * git CLI regardless.
+         * Set via property: git.native=true
+         */
+        public boolean nativeGit = true;
+        /**
+         * Upper bound, in MB, on the estimated memory held by cached JavaParser ASTs. Only matters
+         * for large reviews and the daemon, which keeps ASTs between commits.
+         * Set via property: ast.cache.max.mb=256
+         */
+        public int astCacheMaxMb = 256;
+        /**
+         * Minutes without a review after which the daemon exits.
+         * Set via property: daemon.idle.timeout.minutes=120
+         */
+        public int daemonIdleTimeoutMinutes = 120;
+        /**
+         * Seconds the hook waits for the daemon to finish a review it accepted. Past that the
+         * daemon is stopped and the commit is reviewed in the hook's own JVM instead.
+         * Set via property: daemon.review.timeout.seconds=300
+         */
+        public int daemonReviewTimeoutSeconds = 300;
+        /**
+         * With {@code debug=true}, how many of the most recent trace messages are kept in memory
+         * and written to .code-reviewer-cache/trace.log at the end of the run or when it fails.
+         * Set via property: debug.trace.entries=10000
+         */
+        public int traceBufferEntries = Trace.DEFAULT_CAPACITY;
     }
 }
@@ -1,7 +1,9 @@
 package com.reviewer.report;
 
+import com.reviewer.analysis.SourceFile;
 import com.reviewer.model.Models.*;
 import com.reviewer.util.ColorConsole;
+import com.reviewer.util.RunMetrics;
 import java.io.*;
 import java.nio.file.*;
 import java.time.LocalDateTime;
@@ -61,6 +63,7 @@ public class HtmlReportGenerator {
         if (files.isEmpty()) {
             html.append("<div class='empty-state'>No files to review</div>\n");
         }
+        appendTimings(html, RunMetrics.snapshot());
         
         html.append("</div>\n</div>\n</div>\n");
         appendScripts(html);
@@ -263,6 +266,9 @@ public class HtmlReportGenerator {
         html.append(".title-icon { font-size: 14px; }\n");
         html.append(".collapsible-title { display: flex; flex-direction: column; gap: 2px; }\n");
         html.append(".title-subtext { font-size: 10px; color: var(--text-soft); font-weight: 500; }\n");
+        html.append(".timings-table { border-collapse: collapse; margin-top: 10px; font-size: 12px; color: var(--text-secondary); }\n");
+        html.append(".timings-table th, .timings-table td { padding: 3px 12px 3px 0; text-align: left; }\n");
+        html.append(".timings-table td.num { text-align: right; font-variant-numeric: tabular-nums; }\n");
         html.append(".inline-count { padding: 2px 8px; border-radius: 999px; font-size: 8px; font-weight: 700; margin-left: auto; }\n");
         html.append(".inline-count.api { background: var(--inline-count-api-bg); color: var(--inline-count-api-text); }\n");
         html.append(".inline-count.methods { background: var(--inline-count-methods-bg); color: var(--inline-count-methods-text); }\n");
@@ -623,7 +629,7 @@ public class HtmlReportGenerator {
     private static void appendChangedCode(StringBuilder html, ChangedFile f, List<Finding> fileFindings) {
         if (f.changedLines == null || f.changedLines.isEmpty()) return;
         try {
-            List<String> fileLines = Files.readAllLines(Path.of(f.path));
+            String[] fileLines = SourceFile.read(Path.of(f.path)).lines();
             List<Integer> sorted = new ArrayList<>(f.changedLines);
             Collections.sort(sorted);
 
@@ -636,8 +642,8 @@ public class HtmlReportGenerator {
             html.append("<div class='finding-header'><span style='color:#64748b;'>Changed code</span></div>\n");
             html.append("<div class='code-block' style='background:#0f172a;'>\n");
             for (int ln : sorted) {
-                if (ln <= 0 || ln > fileLines.size()) continue;
-                String codeLine = fileLines.get(ln - 1);
+                if (ln <= 0 || ln > fileLines.length) continue;
+                String codeLine = fileLines[ln - 1];
                 html.append("<div style='display:flex; align-items:flex-start; gap:10px;'>");
                 html.append("<span style='color:#94a3b8; min-width:40px; display:inline-block;'>").append(ln).append("</span>");
                 html.append("<span style='flex:1;'>").append(escapeHtml(codeLine)).append("</span>");
@@ -776,6 +782,39 @@ public class HtmlReportGenerator {
         html.append("</ul></div></div>");
     }
 
+    /**
+     * Collapsed phase-timing and counter table, present only when the run collects timings.
+     * It is written while the report phase is still open, so that phase is left out.
+     */
+    private static void appendTimings(StringBuilder html, RunMetrics.Snapshot timings) {
+        if (timings == null) return;
+        html.append("<div class='collapsible-card' id='card-timings'>");
+        html.append("<div class='collapsible-header' onclick=\"toggleCard('card-timings')\">");
+        html.append("<div class='collapsible-title'><span>Timings</span>");
+        html.append("<span class='title-subtext'>").append(RunMetrics.Snapshot.millis(timings.totalNanos))
+            .append(" ms before report generation; .code-reviewer-cache/timings.json has the full run</span></div>");
+        html.append("<span class='chevron'>&#9662;</span>");
+        html.append("</div>");
+        html.append("<div class='collapsible-body'>");
+        html.append("<table class='timings-table'><tr><th>Phase</th><th>ms</th><th>Calls</th></tr>");
+        for (Map.Entry<String, Long> e : timings.phaseNanos.entrySet()) {
+            if (e.getValue() == 0) continue;
+            html.append("<tr><td>").append(escapeHtml(e.getKey())).append("</td><td class='num'>")
+                .append(RunMetrics.Snapshot.millis(e.getValue())).append("</td><td class='num'>")
+                .append(timings.phaseCalls.get(e.getKey())).append("</td></tr>");
+        }
+        html.append("</table>");
+        if (!timings.counters.isEmpty()) {
+            html.append("<table class='timings-table'><tr><th>Counter</th><th>Value</th></tr>");
+            for (Map.Entry<String, Long> e : timings.counters.entrySet()) {
+                html.append("<tr><td>").append(escapeHtml(e.getKey())).append("</td><td class='num'>")
+                    .append(e.getValue()).append("</td></tr>");
+            }
+            html.append("</table>");
+        }
+        html.append("</div></div>\n");
+    }
+
     private static void appendCollapsibleGraph(StringBuilder html, String impactKey, Set<String> dependents, String title, String subtitle) {
         if (dependents == null || dependents.isEmpty()) return;
         List<String> prodDeps = new ArrayList<>();
@@ -0,0 +1,230 @@
+package com.reviewer.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-run phase timings and counters, collected when a review is started with {@code --timings}
+ * (or {@code report.timings=true}). Like {@link Trace}, every call returns on a single volatile
+ * read when collection is off.
+ *
+ * <p>A phase's time is the sum over all the times it was entered, so a phase that runs on the
+ * rule worker threads (the AST filter) reports thread time, which can exceed the wall time of
+ * the phase around it. Phases are listed in the order they were first entered.
+ */
+public final class RunMetrics {
+
+    private static volatile Run current;
+
+    private RunMetrics() {}
+
+    /** Starts collecting for a new run, discarding the previous one; {@code on=false} stops collecting. */
+    public static void configure(boolean on) {
+        current = on ? new Run() : null;
+    }
+
+    public static boolean isEnabled() {
+        return current != null;
+    }
+
+    private static Phase phase(String name) {
+        Run run = current;
+        return run == null ? Phase.NONE : new Phase(run, name);
+    }
+
+    /** Runs {@code body} as phase {@code name} and returns its result: {@code x = RunMetrics.time("rules", () -> ...)}. */
+    public static <T, E extends Exception> T time(String name, TimedValue<T, E> body) throws E {
+        Phase phase = phase(name);
+        try {
+            return body.get();
+        } finally {
+            phase.close();
+        }
+    }
+
+    /** Runs {@code body} as phase {@code name}. */
+    public static <E extends Exception> void time(String name, TimedBlock<E> body) throws E {
+        Phase phase = phase(name);
+        try {
+            body.run();
+        } finally {
+            phase.close();
+        }
+    }
+
+    /** A timed computation; may throw the checked exception of the code it wraps. */
+    @FunctionalInterface
+    public interface TimedValue<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    /** A timed statement block; may throw the checked exception of the code it wraps. */
+    @FunctionalInterface
+    public interface TimedBlock<E extends Exception> {
+        void run() throws E;
+    }
+
+    public static void count(String counter) {
+        Run run = current;
+        if (run != null) run.counter(counter).increment();
+    }
+
+    public static void add(String counter, long amount) {
+        Run run = current;
+        if (run != null) run.counter(counter).add(amount);
+    }
+
+    /** Counts one source file read from disk. */
+    public static void fileRead(Path path) {
+        Run run = current;
+        if (run == null) return;
+        run.counter("files read").increment();
+        try {
+            run.counter("bytes read").add(Files.size(path));
+        } catch (IOException e) {
+            // Only the byte count is lost
+        }
+    }
+
+    /** The current run's figures, or null when collection is off. */
+    public static Snapshot snapshot() {
+        Run run = current;
+        return run == null ? null : run.snapshot();
+    }
+
+    /** Closing a phase adds the time since it was opened to its total. */
+    private static final class Phase {
+        static final Phase NONE = new Phase(null, null);
+
+        private final Run run;
+        private final String name;
+        private final long startNanos;
+
+        private Phase(Run run, String name) {
+            this.run = run;
+            this.name = name;
+            if (run != null) run.enter(name);
+            this.startNanos = run == null ? 0 : System.nanoTime();
+        }
+
+        void close() {
+            if (run != null) run.record(name, System.nanoTime() - startNanos);
+        }
+    }
+
+    /** Immutable copy of a run's figures. */
+    public static final class Snapshot {
+        public final long totalNanos;
+        /** Phase name → total nanoseconds, in the order the phases were first entered. */
+        public final Map<String, Long> phaseNanos;
+        /** Phase name → number of times entered. */
+        public final Map<String, Long> phaseCalls;
+        /** Counter name → value, sorted by name. */
+        public final Map<String, Long> counters;
+
+        Snapshot(long totalNanos, Map<String, Long> phaseNanos, Map<String, Long> phaseCalls, Map<String, Long> counters) {
+            this.totalNanos = totalNanos;
+            this.phaseNanos = phaseNanos;
+            this.phaseCalls = phaseCalls;
+            this.counters = counters;
+        }
+
+        /** Compact fixed-width table for the console. */
+        public String toTable() {
+            int width = "total".length();
+            for (String name : phaseNanos.keySet()) width = Math.max(width, name.length());
+            for (String name : counters.keySet()) width = Math.max(width, name.length());
+            StringBuilder sb = new StringBuilder();
+            String row = "  %-" + width + "s %10s %8s%n";
+            sb.append(String.format(row, "phase", "ms", "calls"));
+            for (Map.Entry<String, Long> e : phaseNanos.entrySet()) {
+                sb.append(String.format(row, e.getKey(), millis(e.getValue()), phaseCalls.get(e.getKey())));
+            }
+            sb.append(String.format(row, "total", millis(totalNanos), ""));
+            if (!counters.isEmpty()) {
+                String counterRow = "  %-" + width + "s %10d%n";
+                sb.append(String.format("%n  %-" + width + "s %10s%n", "counter", "value"));
+                for (Map.Entry<String, Long> e : counters.entrySet()) {
+                    sb.append(String.format(counterRow, e.getKey(), e.getValue()));
+                }
+            }
+            return sb.toString();
+        }
+
+        public String toJson() {
+            StringBuilder sb = new StringBuilder("{\n  \"totalMs\": ").append(millis(totalNanos)).append(",\n  \"phases\": [");
+            String sep = "\n";
+            for (Map.Entry<String, Long> e : phaseNanos.entrySet()) {
+                sb.append(sep).append("    {\"name\": ").append(quote(e.getKey()))
+                        .append(", \"ms\": ").append(millis(e.getValue()))
+                        .append(", \"calls\": ").append(phaseCalls.get(e.getKey())).append('}');
+                sep = ",\n";
+            }
+            sb.append(phaseNanos.isEmpty() ? "]" : "\n  ]").append(",\n  \"counters\": {");
+            sep = "\n";
+            for (Map.Entry<String, Long> e : counters.entrySet()) {
+                sb.append(sep).append("    ").append(quote(e.getKey())).append(": ").append(e.getValue());
+                sep = ",\n";
+            }
+            return sb.append(counters.isEmpty() ? "}" : "\n  }").append("\n}\n").toString();
+        }
+
+        /** Writes {@link #toJson()} to {@code file}, replacing it; false when it cannot be written. */
+        public boolean writeJson(Path file) {
+            try {
+                if (file.getParent() != null) Files.createDirectories(file.getParent());
+                Files.writeString(file, toJson(), StandardCharsets.UTF_8);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /** Milliseconds with one decimal. */
+        public static String millis(long nanos) {
+            return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+        }
+
+        private static String quote(String s) {
+            return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        }
+    }
+
+    private static final class Run {
+        private final long startNanos = System.nanoTime();
+        private final Map<String, long[]> phases = new LinkedHashMap<>(); // name → {nanos, calls}
+        private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+        LongAdder counter(String name) {
+            return counters.computeIfAbsent(name, k -> new LongAdder());
+        }
+
+        synchronized void enter(String phase) {
+            phases.computeIfAbsent(phase, k -> new long[2])[1]++;
+        }
+
+        synchronized void record(String phase, long nanos) {
+            phases.get(phase)[0] += nanos;
+        }
+
+        synchronized Snapshot snapshot() {
+            Map<String, Long> nanos = new LinkedHashMap<>();
+            Map<String, Long> calls = new LinkedHashMap<>();
+            for (Map.Entry<String, long[]> e : phases.entrySet()) {
+                nanos.put(e.getKey(), e.getValue()[0]);
+                calls.put(e.getKey(), e.getValue()[1]);
+            }
+            Map<String, Long> counts = new TreeMap<>();
+            counters.forEach((name, adder) -> counts.put(name, adder.sum()));
+            return new Snapshot(System.nanoTime() - startNanos, nanos, calls, counts);
+        }
+    }
+}
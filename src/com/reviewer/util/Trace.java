@@ -0,0 +1,141 @@
+package com.reviewer.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Debug tracing for the analysis hot paths. When tracing is off every call returns on a single
+ * volatile read: messages take {@code {}} placeholders filled from their arguments, or a
+ * {@link Supplier}, so nothing is concatenated or formatted unless the message is kept. Callers
+ * in tight loops, or whose arguments are themselves costly to compute, check
+ * {@link #isEnabled()} first.
+ *
+ * <p>When tracing is on (property {@code debug=true}) messages go to a bounded in-memory ring
+ * buffer instead of stdout; the newest entries win. {@link #dump(Path)} writes the buffer out,
+ * which the reviewer does at the end of a debug run and whenever a run fails.
+ */
+public final class Trace {
+
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private static volatile boolean enabled;
+    private static volatile Buffer buffer = new Buffer(1);
+
+    private Trace() {}
+
+    /** Turns tracing on or off and starts a fresh buffer holding the last {@code capacity} messages. */
+    public static void configure(boolean on, int capacity) {
+        buffer = new Buffer(on ? Math.max(1, capacity) : 1);
+        enabled = on;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void debug(String message) {
+        if (enabled) buffer.add(message);
+    }
+
+    public static void debug(String format, Object arg) {
+        if (enabled) buffer.add(format(format, arg));
+    }
+
+    public static void debug(String format, Object arg1, Object arg2) {
+        if (enabled) buffer.add(format(format, arg1, arg2));
+    }
+
+    public static void debug(String format, Object arg1, Object arg2, Object arg3) {
+        if (enabled) buffer.add(format(format, arg1, arg2, arg3));
+    }
+
+    public static void debug(Supplier<String> message) {
+        if (enabled) buffer.add(message.get());
+    }
+
+    /** Buffered messages, oldest first. */
+    public static List<String> snapshot() {
+        return buffer.snapshot();
+    }
+
+    /**
+     * Writes the buffered messages to {@code file}, replacing it. Returns false (and leaves the
+     * buffer as it is) when tracing is off or the file cannot be written.
+     */
+    public static boolean dump(Path file) {
+        if (!enabled) return false;
+        Buffer b = buffer;
+        List<String> lines = b.snapshot();
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                long dropped = b.written() - lines.size();
+                if (dropped > 0) w.write("# " + dropped + " older messages dropped (buffer holds " + b.capacity() + ")\n");
+                for (String line : lines) {
+                    w.write(line);
+                    w.write('\n');
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Replaces each {@code {}} in {@code format} with the next argument, SLF4J style. */
+    static String format(String format, Object... args) {
+        StringBuilder sb = new StringBuilder(format.length() + 16 * args.length);
+        int from = 0;
+        for (Object arg : args) {
+            int at = format.indexOf("{}", from);
+            if (at < 0) break;
+            sb.append(format, from, at).append(arg);
+            from = at + 2;
+        }
+        return sb.append(format, from, format.length()).toString();
+    }
+
+    /** Lossy multi-writer ring: concurrent writers claim slots with one atomic increment. */
+    private static final class Buffer {
+        private final AtomicReferenceArray<String> slots;
+        private final AtomicLong next = new AtomicLong();
+        private final long startNanos = System.nanoTime();
+
+        Buffer(int capacity) {
+            slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        void add(String message) {
+            long n = next.getAndIncrement();
+            long ms = (System.nanoTime() - startNanos) / 1_000_000;
+            slots.lazySet((int) (n % slots.length()), "+" + ms + "ms [" + Thread.currentThread().getName() + "] " + message);
+        }
+
+        int capacity() {
+            return slots.length();
+        }
+
+        long written() {
+            return next.get();
+        }
+
+        List<String> snapshot() {
+            long end = next.get();
+            int cap = slots.length();
+            List<String> out = new ArrayList<>((int) Math.min(end, cap));
+            for (long i = Math.max(0, end - cap); i < end; i++) {
+                String s = slots.get((int) (i % cap));
+                if (s != null) out.add(s);
+            }
+            return out;
+        }
+    }
+}
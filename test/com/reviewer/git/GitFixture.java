@@ -0,0 +1,80 @@
+package com.reviewer.git;
+
+import org.junit.jupiter.api.Assumptions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Runs the git CLI the native readers are checked against, in throwaway repositories. */
+final class GitFixture {
+
+    private GitFixture() {}
+
+    /** Skips the calling test when git is not on the PATH. */
+    static void assumeGit() {
+        boolean available;
+        try {
+            available = new ProcessBuilder("git", "--version").redirectErrorStream(true).start().waitFor() == 0;
+        } catch (IOException e) {
+            available = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            available = false;
+        }
+        Assumptions.assumeTrue(available, "git is not installed");
+    }
+
+    /** A new repository in {@code dir} with an identity for commits and no line-ending conversion. */
+    static Path init(Path dir) {
+        git(dir, "init", "-q", ".");
+        git(dir, "config", "user.name", "Test");
+        git(dir, "config", "user.email", "test@example.com");
+        git(dir, "config", "core.autocrlf", "false");
+        return dir;
+    }
+
+    static String git(Path dir, String... args) {
+        return new String(gitBytes(dir, args), StandardCharsets.UTF_8);
+    }
+
+    /** Output of {@code git args} run in {@code dir}; fails the test when git exits non-zero. */
+    static byte[] gitBytes(Path dir, String... args) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        try {
+            ProcessBuilder pb = new ProcessBuilder(command).directory(dir.toFile());
+            pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+            Process process = pb.start();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (InputStream in = process.getInputStream()) {
+                in.transferTo(out);
+            }
+            int code = process.waitFor();
+            if (code != 0) throw new AssertionError(String.join(" ", command) + " exited with " + code);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted running " + command, e);
+        }
+    }
+
+    static void write(Path file, String content) {
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
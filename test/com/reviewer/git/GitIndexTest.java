@@ -0,0 +1,128 @@
+package com.reviewer.git;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.reviewer.git.GitFixture.git;
+import static com.reviewer.git.GitFixture.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GitIndexTest {
+
+    @TempDir
+    Path repo;
+
+    @BeforeEach
+    void setUp() {
+        GitFixture.assumeGit();
+        GitFixture.init(repo);
+        write(repo.resolve("README.md"), "readme\n");
+        write(repo.resolve("src/main/java/com/x/App.java"), "class App {}\n");
+        write(repo.resolve("src/main/java/com/x/svc/Service.java"), "class Service {}\n");
+        write(repo.resolve("src/test/java/com/x/AppTest.java"), "class AppTest {}\n");
+        // Longer than the 12-bit name length field, which then only says "long"
+        write(repo.resolve("deep/" + "d".repeat(250) + "/" + "e".repeat(250) + "/" + "f".repeat(250)
+                + "/" + "g".repeat(250) + "/Long.java"), "class Long {}\n");
+        git(repo, "add", "-A");
+        git(repo, "commit", "-q", "-m", "init");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "2", "3", "4" })
+    void entriesMatchLsFiles(String version) throws IOException {
+        git(repo, "update-index", "--index-version", version);
+        GitIndex index = new GitIndex(repo.resolve(".git/index"));
+        List<String> expected = lines(git(repo, "ls-files", "-s"));
+        List<String> actual = new ArrayList<>();
+        for (int i = 0; i < index.size(); i++) {
+            actual.add(Integer.toOctalString(index.mode(i)) + " " + index.id(i) + " " + index.stage(i) + "\t" + index.path(i));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void statDataMatchesTheWorkTree() throws IOException {
+        GitIndex index = new GitIndex(repo.resolve(".git/index"));
+        for (int i = 0; i < index.size(); i++) {
+            Path file = repo.resolve(index.path(i));
+            assertEquals(Files.size(file), index.fileSize(i), index.path(i));
+            assertEquals(Files.getLastModifiedTime(file).toInstant().getEpochSecond(), index.mtimeSeconds(i), index.path(i));
+        }
+    }
+
+    @Test
+    void intentToAddNeedsExtendedFlags() throws IOException {
+        write(repo.resolve("src/main/java/com/x/Later.java"), "class Later {}\n");
+        git(repo, "add", "-N", "src/main/java/com/x/Later.java");
+        GitIndex index = new GitIndex(repo.resolve(".git/index"));
+        for (int i = 0; i < index.size(); i++) {
+            assertEquals(index.path(i).endsWith("Later.java"), index.intentToAdd(i), index.path(i));
+        }
+    }
+
+    @Test
+    void conflictsHaveHigherStages() throws IOException {
+        Path file = repo.resolve("src/main/java/com/x/App.java");
+        git(repo, "checkout", "-q", "-b", "side");
+        write(file, "class App { int side; }\n");
+        git(repo, "commit", "-q", "-am", "side");
+        git(repo, "checkout", "-q", "-");
+        write(file, "class App { int main; }\n");
+        git(repo, "commit", "-q", "-am", "main");
+        try {
+            git(repo, "merge", "-q", "side");
+        } catch (AssertionError expected) {
+            // The merge stops on the conflict
+        }
+        GitIndex index = new GitIndex(repo.resolve(".git/index"));
+        List<Integer> stages = new ArrayList<>();
+        for (int i = 0; i < index.size(); i++) {
+            if (index.path(i).equals("src/main/java/com/x/App.java")) stages.add(index.stage(i));
+        }
+        assertEquals(List.of(1, 2, 3), stages);
+    }
+
+    @Test
+    void cacheTreeVouchesOnlyForUntouchedDirectories() throws IOException {
+        GitIndex index = new GitIndex(repo.resolve(".git/index"));
+        assertEquals(git(repo, "rev-parse", "HEAD^{tree}").trim(), index.cachedTree(""));
+        assertEquals(git(repo, "rev-parse", "HEAD:src/main/java/com/x/svc").trim(), index.cachedTree("src/main/java/com/x/svc"));
+
+        write(repo.resolve("src/main/java/com/x/svc/Service.java"), "class Service { }\n");
+        git(repo, "add", "src/main/java/com/x/svc/Service.java");
+        index = new GitIndex(repo.resolve(".git/index"));
+        assertNull(index.cachedTree(""));
+        assertNull(index.cachedTree("src/main/java/com/x/svc"));
+        assertEquals(git(repo, "rev-parse", "HEAD:src/test").trim(), index.cachedTree("src/test"));
+    }
+
+    @Test
+    void endOfDirSkipsTheDirectory() throws IOException {
+        GitIndex index = new GitIndex(repo.resolve(".git/index"));
+        int first = -1;
+        for (int i = 0; i < index.size() && first < 0; i++) {
+            if (index.path(i).startsWith("src/main/")) first = i;
+        }
+        int end = index.endOfDir("src/main", first);
+        for (int i = first; i < end; i++) assertTrue(index.path(i).startsWith("src/main/"), index.path(i));
+        assertFalse(index.path(end).startsWith("src/main/"), index.path(end));
+    }
+
+    private static List<String> lines(String text) {
+        List<String> out = new ArrayList<>();
+        for (String line : text.split("\n")) if (!line.isEmpty()) out.add(line);
+        return out;
+    }
+}
@@ -0,0 +1,87 @@
+package com.reviewer.git;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.reviewer.git.GitFixture.git;
+import static com.reviewer.git.GitFixture.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GitRepositoryTest {
+
+    @TempDir
+    Path repo;
+
+    @BeforeEach
+    void setUp() {
+        GitFixture.assumeGit();
+        GitFixture.init(repo);
+        for (String name : new String[] { "src/a/A", "src/a/B", "src/b/C", "src/b/D", "lib/keep/K" }) {
+            write(repo.resolve(name + ".java"), "class " + name.substring(name.lastIndexOf('/') + 1) + " {}\n");
+        }
+        write(repo.resolve(".gitignore"), "build/\n*.log\nlib/*\n!lib/keep/\n");
+        write(repo.resolve("src/.gitignore"), "Gen*.java\n!GenKeep.java\n");
+        git(repo, "add", "-A");
+        git(repo, "commit", "-q", "-m", "init");
+    }
+
+    @Test
+    void cleanWorkTreeHasNoDirtyPaths() throws IOException {
+        assertEquals(Set.of(), dirtyPaths());
+        assertEquals(cliDirtyPaths(), dirtyPaths());
+    }
+
+    @Test
+    void dirtyPathsMatchDiffAndUntrackedListing() throws IOException {
+        write(repo.resolve("src/a/A.java"), "class A { int x; }\n");
+        Files.setLastModifiedTime(repo.resolve("src/a/B.java"), FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        Files.delete(repo.resolve("src/b/C.java"));
+        write(repo.resolve("src/b/New.java"), "class New {}\n");
+        write(repo.resolve("src/b/GenFoo.java"), "class GenFoo {}\n");
+        write(repo.resolve("src/b/GenKeep.java"), "class GenKeep {}\n");
+        write(repo.resolve("build/gen/X.java"), "class X {}\n");
+        write(repo.resolve("lib/L.java"), "class L {}\n");
+        write(repo.resolve("lib/keep/K2.java"), "class K2 {}\n");
+        write(repo.resolve("docs/Excluded.java"), "class Excluded {}\n");
+        write(repo.resolve(".git/info/exclude"), "docs/Excluded.java\n");
+        write(repo.resolve("nested/Inner.java"), "class Inner {}\n");
+        GitFixture.init(repo.resolve("nested"));
+        write(repo.resolve("src/a/Later.java"), "class Later {}\n");
+        git(repo, "add", "-N", "src/a/Later.java");
+
+        assertEquals(Set.of("src/a/A.java", "src/b/C.java", "src/b/New.java", "src/b/GenKeep.java",
+                "lib/keep/K2.java", "src/a/Later.java"), dirtyPaths());
+        assertEquals(cliDirtyPaths(), dirtyPaths());
+    }
+
+    @Test
+    void sameSizeEditInTheIndexTickIsCaught() throws IOException {
+        // Racily clean: size and time match the index entry, which was written in the same tick
+        git(repo, "add", "src/a/A.java");
+        write(repo.resolve("src/a/A.java"), "class Z {}\n");
+        assertEquals(Set.of("src/a/A.java"), dirtyPaths());
+        assertEquals(cliDirtyPaths(), dirtyPaths());
+    }
+
+    private Set<String> dirtyPaths() throws IOException {
+        try (GitRepository git = GitRepository.open(repo)) {
+            return new TreeSet<>(git.dirtyPaths(path -> path.endsWith(".java")));
+        }
+    }
+
+    private Set<String> cliDirtyPaths() {
+        Set<String> paths = new TreeSet<>();
+        String listing = git(repo, "diff", "--name-only", "--", "*.java")
+                + git(repo, "ls-files", "--others", "--exclude-standard", "--", "*.java");
+        for (String line : listing.split("\n")) if (!line.isEmpty()) paths.add(line);
+        return paths;
+    }
+}
@@ -0,0 +1,131 @@
+package com.reviewer.git;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.reviewer.git.GitFixture.git;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineDiffTest {
+
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@");
+
+    @Test
+    void identicalContentHasNoHunks() {
+        assertEquals(List.of(), headers("a\nb\nc\n", "a\nb\nc\n"));
+    }
+
+    @Test
+    void countsFollowGitDiffConventions() {
+        assertEquals(List.of("-1,0 +2,1"), headers("a\n", "a\nb\n"));
+        assertEquals(List.of("-0,0 +1,2"), headers("", "a\nb\n"));
+        assertEquals(List.of("-1,1 +0,0"), headers("a\nb\n", "b\n"));
+        assertEquals(List.of("-2,1 +2,1"), headers("a\nb\nc\n", "a\nB\nc\n"));
+        assertEquals(List.of("-1,1 +1,1"), headers("a", "a\n"));
+    }
+
+    @Test
+    void binaryContentHasNoHunks() {
+        assertEquals(List.of(), headers("a\0b\n", "a\0c\n"));
+    }
+
+    @Test
+    void indentHeuristicKeepsBlocksWhole() {
+        // A method appended after another: git slides the added block so it starts at the blank line
+        String before = "class A {\n    void a() {\n    }\n}\n";
+        String after = "class A {\n    void a() {\n    }\n\n    void b() {\n    }\n}\n";
+        assertEquals(List.of("-3,0 +4,3"), headers(before, after));
+    }
+
+    /**
+     * Every Java file changed by a commit of this repository's history, and between its first
+     * commit and HEAD: the hunks must be the ones {@code git diff -U0} reports, since changed
+     * lines are mapped to findings through them.
+     */
+    @Test
+    void matchesGitDiffAcrossThisRepositorysHistory() throws IOException {
+        GitFixture.assumeGit();
+        Path root = Path.of("").toAbsolutePath();
+        List<String[]> ranges = new ArrayList<>();
+        try {
+            for (String commit : git(root, "rev-list", "--no-merges", "--min-parents=1", "HEAD").split("\n")) {
+                if (!commit.isEmpty()) ranges.add(new String[] { commit + "^", commit });
+            }
+            for (String first : git(root, "rev-list", "--max-parents=0", "HEAD").split("\n")) {
+                if (!first.isEmpty()) ranges.add(new String[] { first, "HEAD" });
+            }
+        } catch (AssertionError e) {
+            Assumptions.abort("not running in a git checkout");
+        }
+        int files = 0;
+        try (GitRepository repository = GitRepository.open(root)) {
+            Assumptions.assumeTrue(repository != null, "repository layout not readable natively");
+            for (String[] range : ranges) {
+                String diff = git(root, "diff", "-U0", "--full-index", "--no-renames", "--no-color", "--no-ext-diff",
+                        "--diff-algorithm=myers", "--indent-heuristic", "--diff-filter=AM",
+                        range[0], range[1], "--", "*.java");
+                for (Map.Entry<String, FileDiff> e : parse(diff).entrySet()) {
+                    FileDiff expected = e.getValue();
+                    byte[] before = expected.oldId.matches("0+") ? new byte[0] : repository.readBlob(expected.oldId);
+                    List<String> actual = new ArrayList<>();
+                    for (LineDiff.Hunk h : LineDiff.diff(before, repository.readBlob(expected.newId))) actual.add(format(h));
+                    assertEquals(expected.hunks, actual, range[0] + ".." + range[1] + " " + e.getKey());
+                    files++;
+                }
+            }
+        }
+        assertTrue(files > 0, "no Java file changes in the history");
+    }
+
+    private static final class FileDiff {
+        String oldId;
+        String newId;
+        final List<String> hunks = new ArrayList<>();
+    }
+
+    /** Path → blob ids and normalised hunk headers, from {@code git diff -U0 --full-index} output. */
+    private static Map<String, FileDiff> parse(String diff) {
+        Map<String, FileDiff> files = new LinkedHashMap<>();
+        FileDiff current = null;
+        for (String line : diff.split("\n")) {
+            if (line.startsWith("diff --git ")) {
+                current = new FileDiff();
+                files.put(line.substring(line.lastIndexOf(" b/") + 3), current);
+            } else if (current != null && line.startsWith("index ") && current.newId == null) {
+                String[] ids = line.substring("index ".length()).split(" ")[0].split("\\.\\.");
+                current.oldId = ids[0];
+                current.newId = ids[1];
+            } else if (current != null && line.startsWith("@@ ")) {
+                Matcher m = HUNK_HEADER.matcher(line);
+                assertTrue(m.find(), line);
+                current.hunks.add("-" + m.group(1) + "," + (m.group(2) == null ? "1" : m.group(2))
+                        + " +" + m.group(3) + "," + (m.group(4) == null ? "1" : m.group(4)));
+            }
+        }
+        files.values().removeIf(f -> f.newId == null); // mode-only changes
+        return files;
+    }
+
+    private static List<String> headers(String before, String after) {
+        List<String> out = new ArrayList<>();
+        for (LineDiff.Hunk h : LineDiff.diff(before.getBytes(StandardCharsets.UTF_8), after.getBytes(StandardCharsets.UTF_8))) {
+            out.add(format(h));
+        }
+        return out;
+    }
+
+    private static String format(LineDiff.Hunk h) {
+        return "-" + h.oldStart + "," + h.oldCount + " +" + h.newStart + "," + h.newCount;
+    }
+}
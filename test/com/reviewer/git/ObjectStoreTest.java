@@ -0,0 +1,116 @@
+package com.reviewer.git;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static com.reviewer.git.GitFixture.git;
+import static com.reviewer.git.GitFixture.gitBytes;
+import static com.reviewer.git.GitFixture.write;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ObjectStoreTest {
+
+    private static final String[] TYPES = { null, "commit", "tree", "blob", "tag" };
+
+    @TempDir
+    Path repo;
+
+    @Test
+    void appliesCopyAndInsertInstructions() throws IOException {
+        byte[] base = "The quick brown fox".getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        delta.write(base.length);
+        delta.write(10);
+        delta.write(new byte[] { (byte) 0x91, 4, 6 });    // copy 6 bytes from offset 4
+        delta.write(new byte[] { (byte) 0x91, 16, 3 });   // copy 3 bytes from offset 16
+        delta.write(new byte[] { 1, '!' });               // insert 1 byte
+        assertEquals("quick fox!", new String(PackFile.applyDelta(base, delta.toByteArray()), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void rejectsADeltaForAnotherBase() {
+        byte[] delta = { 5, 1, 1, 'x' };
+        assertThrows(IOException.class, () -> PackFile.applyDelta(new byte[4], delta));
+    }
+
+    @Test
+    void rejectsACopyPastTheBase() {
+        byte[] delta = { 4, 8, (byte) 0x90, 8 };
+        assertThrows(IOException.class, () -> PackFile.applyDelta(new byte[4], delta));
+    }
+
+    @Test
+    void readsLooseObjects() throws IOException {
+        GitFixture.assumeGit();
+        commitHistory(3);
+        assertEveryObjectMatchesCatFile();
+    }
+
+    /** Offset deltas are git's default; reference deltas are what packs without {@code ofs-delta} use. */
+    @ParameterizedTest
+    @ValueSource(strings = { "true", "false" })
+    void resolvesDeltaChains(String useOffsetDeltas) throws IOException {
+        GitFixture.assumeGit();
+        commitHistory(30);
+        git(repo, "config", "repack.useDeltaBaseOffset", useOffsetDeltas);
+        git(repo, "repack", "-a", "-d", "-f", "-q", "--depth=50", "--window=50");
+        String packs = git(repo, "count-objects", "-v");
+        assertTrue(packs.contains("count: 0"), "every object should be packed:\n" + packs);
+        assertTrue(git(repo, "verify-pack", "-v", packIndex()).contains("chain length = 10"),
+                "the pack should contain long delta chains");
+        assertEveryObjectMatchesCatFile();
+    }
+
+    /**
+     * {@code commits} versions of a file, each flipping the sign of one more field. Versions of
+     * the same size are packed as deltas of one another, in long chains.
+     */
+    private void commitHistory(int commits) {
+        GitFixture.init(repo);
+        for (int c = 0; c < commits; c++) {
+            StringBuilder content = new StringBuilder("class Big {\n");
+            for (int i = 0; i < 200; i++) {
+                content.append("    int field").append(i).append(" = ").append(i < c ? '-' : '+').append(i).append(";\n");
+            }
+            write(repo.resolve("src/Big.java"), content + "}\n");
+            write(repo.resolve("src/Step.java"), "class Step { int n = " + c + "; }\n");
+            git(repo, "add", "-A");
+            git(repo, "commit", "-q", "-m", "step " + c);
+        }
+    }
+
+    /** The single pack 'repack -a -d' leaves. */
+    private String packIndex() throws IOException {
+        try (Stream<Path> files = Files.list(repo.resolve(".git/objects/pack"))) {
+            return files.filter(f -> f.toString().endsWith(".idx")).findFirst().orElseThrow().toString();
+        }
+    }
+
+    private void assertEveryObjectMatchesCatFile() throws IOException {
+        try (ObjectStore store = new ObjectStore(repo.resolve(".git/objects"))) {
+            int checked = 0;
+            for (String line : git(repo, "rev-list", "--objects", "--all").split("\n")) {
+                if (line.isEmpty()) continue;
+                String id = line.substring(0, 40);
+                String type = git(repo, "cat-file", "-t", id).trim();
+                ObjectStore.RawObject object = store.read(id);
+                assertEquals(type, TYPES[object.type], id);
+                assertArrayEquals(gitBytes(repo, "cat-file", type, id), object.data, id);
+                checked++;
+            }
+            assertTrue(checked > 0);
+        }
+    }
+}